@@ -0,0 +1,131 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.encoder.Base64Encoder;
+
+/**
+ * Benchmarks for {@link Base64Encoder}, comparing {@link Base64Encoder#decode}
+ * with {@link Base64Encoder#decodeFast} and with the JDK {@link Base64} as a
+ * baseline.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Base64EncoderBenchmark {
+
+	@Param({ "64", "4096", "65536" })
+	public int size;
+
+	private byte[] data;
+
+	private String encoded;
+
+	private byte[] encodedBytes;
+
+	private char[] encodedChars;
+
+	@Setup
+	public void setup() {
+		this.data = new byte[this.size];
+		new Random(42).nextBytes(this.data);
+
+		this.encoded = Base64Encoder.encodeToString(this.data, false);
+		this.encodedBytes = this.encoded.getBytes(StandardCharsets.US_ASCII);
+		this.encodedChars = this.encoded.toCharArray();
+	}
+
+	@Benchmark
+	public String encodeToString() {
+		return Base64Encoder.encodeToString(this.data, false);
+	}
+
+	@Benchmark
+	public byte[] encodeToByte() {
+		return Base64Encoder.encodeToByte(this.data, false);
+	}
+
+	@Benchmark
+	public byte[] decodeString() {
+		return Base64Encoder.decode(this.encoded);
+	}
+
+	@Benchmark
+	public byte[] decodeFastString() {
+		return Base64Encoder.decodeFast(this.encoded);
+	}
+
+	@Benchmark
+	public byte[] decodeBytes() {
+		return Base64Encoder.decode(this.encodedBytes);
+	}
+
+	@Benchmark
+	public byte[] decodeFastBytes() {
+		return Base64Encoder.decodeFast(this.encodedBytes);
+	}
+
+	@Benchmark
+	public byte[] decodeChars() {
+		return Base64Encoder.decode(this.encodedChars);
+	}
+
+	@Benchmark
+	public byte[] decodeFastChars() {
+		return Base64Encoder.decodeFast(this.encodedChars);
+	}
+
+	@Benchmark
+	public String jdkEncode() {
+		return Base64.getEncoder().encodeToString(this.data);
+	}
+
+	@Benchmark
+	public byte[] jdkDecode() {
+		return Base64.getDecoder().decode(this.encodedBytes);
+	}
+
+}
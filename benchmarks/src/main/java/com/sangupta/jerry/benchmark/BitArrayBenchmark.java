@@ -0,0 +1,213 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.sangupta.jerry.bitarray.BitArray;
+import com.sangupta.jerry.bitarray.ConcurrentBitArray;
+import com.sangupta.jerry.bitarray.FastBitArray;
+import com.sangupta.jerry.bitarray.FileBackedBitArray;
+import com.sangupta.jerry.bitarray.JavaBitSetArray;
+import com.sangupta.jerry.bitarray.MMapFileBackedBitArray;
+import com.sangupta.jerry.bitarray.RoaringBitArray;
+import com.sangupta.jerry.bitarray.SparseBitArray;
+
+/**
+ * Benchmarks for the single-bit and bulk operations of the different
+ * {@link BitArray} implementations.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BitArrayBenchmark {
+
+	/**
+	 * Number of bits in each array
+	 */
+	private static final int NUM_BITS = 1 << 20;
+
+	/**
+	 * Number of random indexes to cycle through
+	 */
+	private static final int NUM_INDEXES = 1 << 16;
+
+	@Param({ "fast", "javabitset", "sparse", "concurrent", "roaring", "mmap", "file", "file-paged" })
+	public String type;
+
+	/**
+	 * Fraction of bits set in the arrays before each iteration
+	 */
+	@Param({ "0.01", "0.5" })
+	public double density;
+
+	private BitArray array;
+
+	private BitArray other;
+
+	private File[] files;
+
+	private int[] indexes;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.files = new File[] { File.createTempFile("jerry-bench-", ".bits"), File.createTempFile("jerry-bench-", ".bits") };
+		this.array = this.create(this.files[0]);
+		this.other = this.create(this.files[1]);
+
+		Random random = new Random(42);
+		this.indexes = new int[NUM_INDEXES];
+		for(int index = 0; index < NUM_INDEXES; index++) {
+			this.indexes[index] = random.nextInt(NUM_BITS);
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void fill() {
+		Random random = new Random(7);
+		int count = (int) (NUM_BITS * this.density);
+
+		this.array.clear();
+		this.other.clear();
+		for(int index = 0; index < count; index++) {
+			this.array.setBit(random.nextInt(NUM_BITS));
+			this.other.setBit(random.nextInt(NUM_BITS));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		this.array.close();
+		this.other.close();
+
+		for(File file : this.files) {
+			file.delete();
+		}
+	}
+
+	private BitArray create(File file) throws IOException {
+		switch(this.type) {
+			case "fast":
+				return new FastBitArray(NUM_BITS);
+
+			case "javabitset":
+				return new JavaBitSetArray(NUM_BITS);
+
+			case "sparse":
+				return new SparseBitArray(NUM_BITS / 4096, 4096);
+
+			case "concurrent":
+				return new ConcurrentBitArray(NUM_BITS);
+
+			case "roaring":
+				return new RoaringBitArray(NUM_BITS);
+
+			case "mmap":
+				return new MMapFileBackedBitArray(file, NUM_BITS);
+
+			case "file":
+				return new FileBackedBitArray(file, NUM_BITS);
+
+			case "file-paged":
+				return new FileBackedBitArray(file, NUM_BITS, 4096, 64, 0);
+
+			default:
+				throw new IllegalArgumentException("Unknown bit-array type: " + this.type);
+		}
+	}
+
+	private int nextIndex() {
+		this.next = (this.next + 1) & (NUM_INDEXES - 1);
+		return this.indexes[this.next];
+	}
+
+	@Benchmark
+	public boolean getBit() {
+		return this.array.getBit(this.nextIndex());
+	}
+
+	@Benchmark
+	public boolean setBit() {
+		return this.array.setBit(this.nextIndex());
+	}
+
+	@Benchmark
+	public void clearBit() {
+		this.array.clearBit(this.nextIndex());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void or() {
+		this.array.or(this.other);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void and() {
+		this.array.and(this.other);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int cardinality() {
+		return this.array.cardinality(0, NUM_BITS);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void forEachSetBit(Blackhole blackhole) {
+		this.array.forEachSetBit(blackhole::consume);
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.util.CompressionUtils;
+
+/**
+ * Benchmarks for the in-memory compression methods of
+ * {@link CompressionUtils}.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionUtilsBenchmark {
+
+	private static final String[] WORDS = { "jerry", "core", "common", "java", "functionality", "bit", "array", "string", "the", "of", "and" };
+
+	@Param({ "1024", "65536", "1048576" })
+	public int size;
+
+	private byte[] data;
+
+	private byte[] compressed;
+
+	private byte[] gzipped;
+
+	@Setup
+	public void setup() throws IOException {
+		// compressible, text-like data
+		StringBuilder builder = new StringBuilder(this.size + 16);
+		Random random = new Random(42);
+		while(builder.length() < this.size) {
+			builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+		}
+
+		builder.setLength(this.size);
+		this.data = builder.toString().getBytes("UTF-8");
+
+		this.compressed = CompressionUtils.compress(this.data);
+		this.gzipped = CompressionUtils.gzipByteArray(this.data);
+	}
+
+	@Benchmark
+	public byte[] compress() {
+		return CompressionUtils.compress(this.data);
+	}
+
+	@Benchmark
+	public byte[] uncompress() {
+		return CompressionUtils.uncompress(this.compressed);
+	}
+
+	@Benchmark
+	public byte[] uncompressWithKnownSize() {
+		return CompressionUtils.uncompress(this.compressed, this.size);
+	}
+
+	@Benchmark
+	public byte[] gzip() throws IOException {
+		return CompressionUtils.gzipByteArray(this.data);
+	}
+
+	@Benchmark
+	public byte[] ungzip() throws IOException {
+		return CompressionUtils.ungzipByteArray(this.gzipped);
+	}
+
+}
@@ -0,0 +1,112 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.util.HashUtils;
+
+/**
+ * Benchmarks for the digest methods of {@link HashUtils}.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashUtilsBenchmark {
+
+	@Param({ "64", "4096", "65536" })
+	public int size;
+
+	private byte[] data;
+
+	private String text;
+
+	@Setup
+	public void setup() {
+		this.data = new byte[this.size];
+		new Random(42).nextBytes(this.data);
+
+		StringBuilder builder = new StringBuilder(this.size);
+		Random random = new Random(42);
+		for(int index = 0; index < this.size; index++) {
+			builder.append((char) ('a' + random.nextInt(26)));
+		}
+
+		this.text = builder.toString();
+	}
+
+	@Benchmark
+	public byte[] md5() {
+		return HashUtils.getMD5(this.data);
+	}
+
+	@Benchmark
+	public String md5Hex() {
+		return HashUtils.getMD5Hex(this.data);
+	}
+
+	@Benchmark
+	public byte[] sha1() {
+		return HashUtils.getSHA1(this.data);
+	}
+
+	@Benchmark
+	public byte[] sha256() {
+		return HashUtils.getSHA256(this.data);
+	}
+
+	@Benchmark
+	public String sha256HexOfString() {
+		return HashUtils.getSHA256Hex(this.text);
+	}
+
+	@Benchmark
+	public byte[] sha512() {
+		return HashUtils.getSHA512(this.data);
+	}
+
+	@Benchmark
+	public String hmac() {
+		return HashUtils.getHMAC(this.text, "benchmark-key");
+	}
+
+}
@@ -0,0 +1,89 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.lang.LongCounter;
+
+/**
+ * Benchmarks for {@link LongCounter} updated from many threads, by name and
+ * through a {@link LongCounter.Handle}, with and without striping.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LongCounterBenchmark {
+
+	/**
+	 * Whether the counter is striped
+	 */
+	@Param({ "false", "true" })
+	public boolean striped;
+
+	private LongCounter counter;
+
+	private LongCounter.Handle handle;
+
+	@Setup
+	public void setup() {
+		this.counter = new LongCounter(this.striped);
+		this.handle = this.counter.handle("requests./api/v1/endpoint");
+	}
+
+	@Benchmark
+	public long incrementByName() {
+		return this.counter.increment("requests./api/v1/endpoint");
+	}
+
+	@Benchmark
+	public void addByName() {
+		this.counter.add("requests./api/v1/endpoint", 1);
+	}
+
+	@Benchmark
+	public void addByHandle() {
+		this.handle.add(1);
+	}
+
+}
@@ -0,0 +1,98 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.util.StringUtils;
+
+/**
+ * Benchmarks for {@link StringUtils#split(String, String)}, with
+ * {@link String#split(String)} as a baseline.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+	/**
+	 * Number of tokens in the string to split
+	 */
+	@Param({ "8", "256", "8192" })
+	public int tokens;
+
+	private String csv;
+
+	private String mixed;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		StringBuilder csv = new StringBuilder();
+		StringBuilder mixed = new StringBuilder();
+
+		for(int index = 0; index < this.tokens; index++) {
+			String token = Integer.toString(random.nextInt(1_000_000), 36);
+			csv.append(token).append(',');
+			mixed.append(token).append(index % 3 == 0 ? ';' : (index % 3 == 1 ? ',' : ' '));
+		}
+
+		this.csv = csv.toString();
+		this.mixed = mixed.toString();
+	}
+
+	@Benchmark
+	public String[] splitSingleSeparator() {
+		return StringUtils.split(this.csv, ",");
+	}
+
+	@Benchmark
+	public String[] splitMultipleSeparators() {
+		return StringUtils.split(this.mixed, ",; ");
+	}
+
+	@Benchmark
+	public String[] jdkSplit() {
+		return this.csv.split(",");
+	}
+
+}
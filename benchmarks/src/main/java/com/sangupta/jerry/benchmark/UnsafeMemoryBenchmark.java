@@ -0,0 +1,127 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sangupta.jerry.unsafe.UnsafeMemory;
+
+/**
+ * Benchmarks for serializing primitives using {@link UnsafeMemory}, with a
+ * heap {@link ByteBuffer} as a baseline.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnsafeMemoryBenchmark {
+
+	/**
+	 * Number of long values written and read per operation
+	 */
+	@Param({ "16", "1024" })
+	public int count;
+
+	private long[] values;
+
+	private byte[] bytes;
+
+	private UnsafeMemory memory;
+
+	private ByteBuffer buffer;
+
+	@Setup
+	public void setup() {
+		this.values = new long[this.count];
+		Random random = new Random(42);
+		for(int index = 0; index < this.count; index++) {
+			this.values[index] = random.nextLong();
+		}
+
+		// room for the array written one long at a time and as an array
+		this.bytes = new byte[this.count * 8 * 2 + 64];
+		this.memory = new UnsafeMemory(this.bytes);
+		this.buffer = ByteBuffer.wrap(this.bytes);
+	}
+
+	@Benchmark
+	public long putAndGetLongs() {
+		this.memory.reset();
+		for(long value : this.values) {
+			this.memory.putLong(value);
+		}
+
+		this.memory.reset();
+		long sum = 0;
+		for(int index = 0; index < this.count; index++) {
+			sum += this.memory.getLong();
+		}
+
+		return sum;
+	}
+
+	@Benchmark
+	public long[] putAndGetLongArray() {
+		this.memory.reset();
+		this.memory.putLongArray(this.values);
+
+		this.memory.reset();
+		return this.memory.getLongArray();
+	}
+
+	@Benchmark
+	public long byteBufferPutAndGetLongs() {
+		this.buffer.clear();
+		for(long value : this.values) {
+			this.buffer.putLong(value);
+		}
+
+		this.buffer.flip();
+		long sum = 0;
+		for(int index = 0; index < this.count; index++) {
+			sum += this.buffer.getLong();
+		}
+
+		return sum;
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.batch;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Base class for a {@link BatchCheckpoint} that persists completions using
+ * group commit. Completions are recorded in memory, and the first worker to
+ * complete a job item after the sync interval has elapsed persists all of
+ * them at once. Other workers do not wait for the sync to finish.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+@ThreadSafe
+public abstract class AbstractBatchCheckpoint<T> implements BatchCheckpoint<T> {
+
+	/**
+	 * My logger instance
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractBatchCheckpoint.class);
+
+	/**
+	 * The minimum time in nanoseconds between two syncs triggered by
+	 * completions
+	 */
+	private final long syncIntervalNanos;
+
+	/**
+	 * Lock held while syncing
+	 */
+	private final ReentrantLock syncLock = new ReentrantLock();
+
+	/**
+	 * Whether completions have been recorded since the last sync
+	 */
+	private volatile boolean dirty = false;
+
+	/**
+	 * The time in nanos of the last sync
+	 */
+	private volatile long lastSyncNanos = System.nanoTime();
+
+	/**
+	 * Create a checkpoint that syncs at most once per given interval.
+	 *
+	 * @param syncIntervalMillis
+	 *            the interval in milliseconds, or zero to sync on every
+	 *            completion
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the interval is negative
+	 */
+	protected AbstractBatchCheckpoint(long syncIntervalMillis) {
+		if(syncIntervalMillis < 0) {
+			throw new IllegalArgumentException("Sync interval cannot be negative");
+		}
+
+		this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+	}
+
+	@Override
+	public final void markCompleted(T job) {
+		this.complete(job);
+		this.dirty = true;
+
+		if(System.nanoTime() - this.lastSyncNanos < this.syncIntervalNanos) {
+			return;
+		}
+
+		// someone else is syncing - they may or may not pick us up, the next
+		// completion or sync will
+		if(!this.syncLock.tryLock()) {
+			return;
+		}
+
+		try {
+			this.syncLocked();
+		} catch(IOException e) {
+			LOGGER.error("Unable to sync batch checkpoint", e);
+		} finally {
+			this.syncLock.unlock();
+		}
+	}
+
+	@Override
+	public final void sync() throws IOException {
+		this.syncLock.lock();
+		try {
+			this.syncLocked();
+		} finally {
+			this.syncLock.unlock();
+		}
+	}
+
+	private void syncLocked() throws IOException {
+		this.lastSyncNanos = System.nanoTime();
+		if(!this.dirty) {
+			return;
+		}
+
+		// completions recorded while we persist mark us dirty again
+		this.dirty = false;
+		try {
+			this.persist();
+		} catch(IOException | RuntimeException e) {
+			this.dirty = true;
+			throw e;
+		}
+	}
+
+	/**
+	 * Sync and release the resources held.
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 */
+	@Override
+	public void close() throws IOException {
+		this.sync();
+	}
+
+	/**
+	 * Record the completion of the given job item in memory.
+	 *
+	 * @param job
+	 *            the job item
+	 */
+	protected abstract void complete(T job);
+
+	/**
+	 * Persist all completions recorded in memory so far. Never invoked
+	 * concurrently with itself.
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 */
+	protected abstract void persist() throws IOException;
+
+}
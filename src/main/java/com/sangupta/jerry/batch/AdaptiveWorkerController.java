@@ -0,0 +1,262 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Grows or shrinks the number of workers of a {@link BatchJob} at runtime,
+ * using an additive-increase/multiplicative-decrease (AIMD) policy.
+ *
+ * At every interval the controller samples the items executed, failed and
+ * the time spent executing them across all workers. If the error rate or the
+ * average latency crosses its limit the pool is shrunk by a quarter. Else it
+ * grows by one worker, unless the previous increase did not improve
+ * throughput - in which case the size is held for one interval before being
+ * probed again. The pool always stays within the configured bounds.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+class AdaptiveWorkerController {
+
+	/**
+	 * My logger instance
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveWorkerController.class);
+
+	/**
+	 * The factor by which the pool is shrunk on errors or high latency
+	 */
+	static final double DECREASE_FACTOR = 0.75d;
+
+	/**
+	 * The minimum relative throughput gain for an increase to be considered
+	 * worthwhile
+	 */
+	static final double MIN_THROUGHPUT_GAIN = 1.05d;
+
+	/**
+	 * The actions the controller can take
+	 */
+	enum Action {
+
+		INCREASE,
+
+		DECREASE,
+
+		HOLD;
+
+	}
+
+	/**
+	 * The job whose workers are controlled
+	 */
+	private final BatchJob<?> job;
+
+	/**
+	 * The minimum number of workers
+	 */
+	private final int minWorkers;
+
+	/**
+	 * The maximum number of workers
+	 */
+	private final int maxWorkers;
+
+	/**
+	 * Average latency above which the pool is shrunk, zero to disable
+	 */
+	private final long targetLatencyNanos;
+
+	/**
+	 * Error rate above which the pool is shrunk
+	 */
+	private final double maxErrorRate;
+
+	/**
+	 * The thread that runs the controller
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Totals at the time of the last sample
+	 */
+	private long lastExecuted, lastFailed, lastNanos;
+
+	/**
+	 * Throughput observed in the last interval
+	 */
+	private double lastThroughput = 0;
+
+	/**
+	 * The action taken in the last interval
+	 */
+	private Action lastAction = Action.HOLD;
+
+	AdaptiveWorkerController(BatchJob<?> job, int minWorkers, int maxWorkers, long targetLatencyMillis, double maxErrorRate) {
+		if(minWorkers <= 0) {
+			throw new IllegalArgumentException("Minimum number of workers cannot be less than or equal to zero");
+		}
+
+		if(maxWorkers < minWorkers) {
+			throw new IllegalArgumentException("Maximum number of workers cannot be less than minimum");
+		}
+
+		this.job = job;
+		this.minWorkers = minWorkers;
+		this.maxWorkers = maxWorkers;
+		this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+		this.maxErrorRate = maxErrorRate;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Job-Controller-" + job.getJobName());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Start adjusting the pool at the given interval.
+	 *
+	 * @param intervalMillis
+	 *            the interval in milliseconds
+	 */
+	void start(long intervalMillis) {
+		if(intervalMillis <= 0) {
+			throw new IllegalArgumentException("Interval cannot be less than or equal to zero");
+		}
+
+		this.scheduler.scheduleWithFixedDelay(this::adjust, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop adjusting the pool.
+	 *
+	 */
+	void stop() {
+		this.scheduler.shutdownNow();
+	}
+
+	/**
+	 * Sample the workers and resize the pool.
+	 *
+	 */
+	void adjust() {
+		try {
+			// once workers run out of items the job is winding down
+			List<? extends BatchWorker<?>> workers = this.job.getWorkers();
+			for(BatchWorker<?> worker : workers) {
+				if(worker.isExhausted()) {
+					LOGGER.debug("Workers have run out of job items, stopping adaptive sizing for job: {}", this.job.getJobName());
+					this.stop();
+					return;
+				}
+			}
+
+			BatchMetrics counters = this.job.getMetrics();
+			long executed = counters.executed.sum();
+			long failed = counters.failed.sum();
+			long nanos = counters.executionNanos.sum();
+
+			int current = workers.size();
+			int next = this.nextSize(current, executed - this.lastExecuted, failed - this.lastFailed, nanos - this.lastNanos);
+
+			this.lastExecuted = executed;
+			this.lastFailed = failed;
+			this.lastNanos = nanos;
+
+			if(next != current) {
+				LOGGER.info("Resizing workers of job {} from {} to {}", this.job.getJobName(), current, next);
+				this.job.resizeWorkers(next);
+			}
+		} catch(RuntimeException e) {
+			// never let the scheduler die
+			LOGGER.error("Unable to adjust workers for job: " + this.job.getJobName(), e);
+		}
+	}
+
+	/**
+	 * Compute the next pool size from the activity in the last interval.
+	 *
+	 * @param current
+	 *            the current number of workers
+	 *
+	 * @param executed
+	 *            the items executed successfully in the interval
+	 *
+	 * @param failed
+	 *            the items that failed in the interval
+	 *
+	 * @param nanos
+	 *            the time spent executing items in the interval
+	 *
+	 * @return the next number of workers
+	 */
+	int nextSize(int current, long executed, long failed, long nanos) {
+		long total = executed + failed;
+
+		Action action;
+		double throughput = executed;
+		if(total == 0) {
+			// nothing was processed - no signal to act on
+			action = Action.HOLD;
+		} else if(((double) failed / total) > this.maxErrorRate || (this.targetLatencyNanos > 0 && nanos / total > this.targetLatencyNanos)) {
+			action = Action.DECREASE;
+		} else if(this.lastAction == Action.INCREASE && throughput < this.lastThroughput * MIN_THROUGHPUT_GAIN) {
+			// adding the last worker did not help
+			action = Action.HOLD;
+		} else {
+			action = Action.INCREASE;
+		}
+
+		this.lastAction = action;
+		if(total > 0) {
+			this.lastThroughput = throughput;
+		}
+
+		int next;
+		switch(action) {
+			case INCREASE:
+				next = current + 1;
+				break;
+
+			case DECREASE:
+				next = (int) Math.floor(current * DECREASE_FACTOR);
+				break;
+
+			default:
+				next = current;
+				break;
+		}
+
+		return Math.max(this.minWorkers, Math.min(this.maxWorkers, next));
+	}
+
+}
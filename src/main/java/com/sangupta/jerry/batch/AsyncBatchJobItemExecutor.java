@@ -0,0 +1,94 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link BatchJobItemExecutor} that executes job items asynchronously. The
+ * worker does not wait for the returned future, and moves on to the next job
+ * item right away. A few workers can thus keep many non-blocking calls, such
+ * as remote I/O, in flight. The number of futures in flight across the job is
+ * capped by {@link BatchJob#getMaxInFlightItems()}. Workers of a
+ * partitioned job wait for each future before starting the next job item of
+ * their lane, to keep the order of job items with the same key.
+ *
+ * A job item succeeds or fails when its future does. Failures are retried
+ * and handed to {@link #onJobItemFailed(Object, int, Throwable)} the same as
+ * for synchronous executors.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the item that represents a job-order
+ */
+public interface AsyncBatchJobItemExecutor<T> extends BatchJobItemExecutor<T> {
+
+	/**
+	 * Start processing the provided job item. The item is guaranteed to be
+	 * not <code>null</code>. The method should return quickly, and must not
+	 * return a <code>null</code> future.
+	 *
+	 * @param job
+	 *            the job item to process
+	 *
+	 * @return the future completed once the job item has been processed
+	 */
+	public CompletableFuture<Void> executeJobItemAsync(T job);
+
+	/**
+	 * Start processing the provided batch of job items. The default
+	 * implementation starts each item using
+	 * {@link #executeJobItemAsync(Object)}, and completes once all of them
+	 * have.
+	 *
+	 * @param jobs
+	 *            the job items to process
+	 *
+	 * @return the future completed once all job items have been processed
+	 */
+	public default CompletableFuture<Void> executeJobItemsAsync(List<T> jobs) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>(jobs.size());
+		for(T job : jobs) {
+			futures.add(this.executeJobItemAsync(job));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Process the provided job item, waiting for
+	 * {@link #executeJobItemAsync(Object)} to complete.
+	 *
+	 * @param job
+	 *            the job item to process
+	 */
+	@Override
+	public default void executeJobItem(T job) {
+		this.executeJobItemAsync(job).join();
+	}
+
+}
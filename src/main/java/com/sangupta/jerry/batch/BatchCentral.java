@@ -21,8 +21,10 @@
 
 package com.sangupta.jerry.batch;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The main class where all jobs are registered and can be seen from.
@@ -38,7 +40,7 @@ public class BatchCentral {
 	/**
 	 * All known jobs
 	 */
-	private final static Set<BatchJob<?>> ALL_BATCH_JOBS = new HashSet<>();
+	private final static Set<BatchJob<?>> ALL_BATCH_JOBS = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Add the given batch job to the central.
@@ -70,4 +72,42 @@ public class BatchCentral {
 		BatchCentral.ALL_BATCH_JOBS.remove(job);
 	}
 	
+	/**
+	 * Return all jobs currently registered with the central. Use
+	 * {@link BatchJob#getMetrics()} and {@link BatchJob#getWorkers()} to
+	 * monitor each job.
+	 * 
+	 * @return an unmodifiable copy of the set of jobs
+	 * 
+	 * @since 4.0.0
+	 */
+	public static Set<BatchJob<?>> getJobs() {
+		return Collections.unmodifiableSet(new HashSet<>(BatchCentral.ALL_BATCH_JOBS));
+	}
+	
+	/**
+	 * Return the registered job with the given name.
+	 * 
+	 * @param jobName
+	 *            the name of the job
+	 * 
+	 * @return the job, or <code>null</code> if no job with the name is
+	 *         registered
+	 * 
+	 * @since 4.0.0
+	 */
+	public static BatchJob<?> getJob(String jobName) {
+		if(jobName == null) {
+			return null;
+		}
+		
+		for(BatchJob<?> job : BatchCentral.ALL_BATCH_JOBS) {
+			if(jobName.equals(job.getJobName())) {
+				return job;
+			}
+		}
+		
+		return null;
+	}
+	
 }
@@ -0,0 +1,71 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Records which job items of a {@link BatchJob} have been completed, so that
+ * a job restarted after a crash can skip them without re-processing them or
+ * looking each one up remotely. Completions may be buffered in memory and
+ * persisted together by {@link #sync()}.
+ *
+ * Implementations must be safe for use by multiple workers at once.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+public interface BatchCheckpoint<T> extends Closeable {
+
+	/**
+	 * Check if the given job item has been completed.
+	 *
+	 * @param job
+	 *            the job item
+	 *
+	 * @return <code>true</code> if completed, <code>false</code> otherwise
+	 */
+	public boolean isCompleted(T job);
+
+	/**
+	 * Record that the given job item has been completed. The completion may
+	 * not survive a crash until {@link #sync()} has been called.
+	 *
+	 * @param job
+	 *            the job item
+	 */
+	public void markCompleted(T job);
+
+	/**
+	 * Persist all completions recorded so far.
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 */
+	public void sync() throws IOException;
+
+}
@@ -21,19 +21,23 @@
 
 package com.sangupta.jerry.batch;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.ImmutableCollection;
 import com.google.common.util.concurrent.Service;
-import com.google.common.util.concurrent.ServiceManager;
 import com.sangupta.jerry.util.AssertUtils;
+import com.sangupta.jerry.util.JDKUtils;
 
 /**
  * This is the main class that builds, instantiates and controls one particular
@@ -50,16 +54,113 @@ public abstract class BatchJob<T> {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(BatchJob.class);
 	
+	/**
+	 * The maximum number of job items in flight for an
+	 * {@link AsyncBatchJobItemExecutor}, when not set
+	 */
+	public static final int DEFAULT_MAX_ASYNC_IN_FLIGHT_ITEMS = 256;
+	
+	/**
+	 * Interval at which the item source is polled while lingering for a batch
+	 * to fill up
+	 */
+	private static final long LINGER_POLL_INTERVAL_MILLIS = 10;
+	
 	/**
 	 * The job name
 	 */
 	protected final String jobName;
 	
 	/**
-	 * The internal {@link ServiceManager} that manages execution of all threads
-	 * 
+	 * The workers of this job, workers removed when resizing are not part of
+	 * this list
+	 */
+	private final List<BatchWorker<T>> workers = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Workers removed when resizing, that may still be completing their
+	 * current job item
+	 */
+	private final List<BatchWorker<T>> retiredWorkers = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * The readers of this job, if any
+	 */
+	private final List<Service> readers = new CopyOnWriteArrayList<>();
+	
+	/**
+	 * Metrics of all items read and executed by workers of this job
+	 */
+	private final BatchMetrics metrics = new BatchMetrics();
+	
+	/**
+	 * Index for naming the next worker
+	 */
+	private final AtomicInteger workerIndex = new AtomicInteger();
+	
+	/**
+	 * Whether the job has been started
+	 */
+	private volatile boolean started = false;
+	
+	/**
+	 * Whether the job has been asked to stop
+	 */
+	private volatile boolean stopping = false;
+	
+	/**
+	 * The controller adjusting the number of workers, if any
+	 */
+	private volatile AdaptiveWorkerController controller;
+	
+	/**
+	 * The factory used to create worker threads, <code>null</code> for
+	 * platform threads
+	 */
+	private ThreadFactory threadFactory;
+	
+	/**
+	 * The number of items each worker reads in one go
+	 */
+	private int batchSize;
+	
+	/**
+	 * The source of job items for workers
+	 */
+	private Callable<T> itemReader;
+	
+	/**
+	 * The source of job item batches for workers
+	 */
+	private Callable<List<T>> batchReader;
+	
+	/**
+	 * The pipeline between readers and workers, <code>null</code> when
+	 * workers read job items directly
+	 */
+	private volatile BatchPipeline<T> pipeline;
+	
+	/**
+	 * The rate and in-flight limits shared by all workers, <code>null</code>
+	 * when not limited
+	 */
+	private volatile BatchThrottle throttle;
+	
+	/**
+	 * The scheduler for retrying failed job items, <code>null</code> when
+	 * retries are not enabled
+	 */
+	private volatile BatchRetryScheduler<T> retries;
+	
+	/**
+	 * The record of completed job items, <code>null</code> if none
 	 */
-	private ServiceManager serviceManager;
+	private volatile BatchCheckpoint<T> checkpoint;
+	
+	/**
+	 * Whether job items are partitioned across workers by key
+	 */
+	private boolean partitioned;
 	
 	/**
 	 * Return the job items over which we should work. Can return
@@ -69,6 +170,221 @@ public abstract class BatchJob<T> {
 	 */
 	protected abstract T getJobItem();
 	
+	/**
+	 * Return a batch of at most the given number of job items to work over.
+	 * Called instead of {@link #getJobItem()} when {@link #getBatchSize()} is
+	 * more than one. Can return <code>null</code> or an empty list to signal
+	 * there are no current job items.
+	 * 
+	 * The default implementation calls {@link #getJobItem()} repeatedly. When
+	 * it returns <code>null</code> after at least one item has been read, the
+	 * job waits up to {@link #getBatchLingerMillis()} for the batch to fill.
+	 * Override this to read the batch from the source in a single call.
+	 * 
+	 * @param maxItems
+	 *            the maximum number of items to return
+	 * 
+	 * @return the job items
+	 * 
+	 * @since 4.0.0
+	 */
+	protected List<T> getJobItems(int maxItems) {
+		List<T> items = new ArrayList<>(maxItems);
+		long lingerUntil = -1;
+		
+		while(items.size() < maxItems) {
+			T item = this.getJobItem();
+			if(item != null) {
+				items.add(item);
+				continue;
+			}
+			
+			// nothing to wait for if the batch is empty, or no linger is needed
+			long linger = this.getBatchLingerMillis();
+			if(items.isEmpty() || linger <= 0) {
+				break;
+			}
+			
+			long now = System.currentTimeMillis();
+			if(lingerUntil < 0) {
+				lingerUntil = now + linger;
+			}
+			
+			if(now >= lingerUntil) {
+				break;
+			}
+			
+			try {
+				Thread.sleep(Math.min(lingerUntil - now, LINGER_POLL_INTERVAL_MILLIS));
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		
+		return items;
+	}
+	
+	/**
+	 * The maximum number of job items each worker reads and processes in one
+	 * go. When more than one, workers use {@link #getJobItems(int)} and
+	 * {@link BatchJobItemExecutor#executeJobItems(List)}. Defaults to one.
+	 * 
+	 * @return the batch size
+	 * 
+	 * @since 4.0.0
+	 */
+	protected int getBatchSize() {
+		return 1;
+	}
+	
+	/**
+	 * The maximum time in milliseconds to wait for a partially read batch to
+	 * fill up, when the source runs out of items. Defaults to zero, that is,
+	 * partial batches are processed right away.
+	 * 
+	 * @return the time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	protected long getBatchLingerMillis() {
+		return 0;
+	}
+	
+	/**
+	 * The number of dedicated reader threads. When more than zero, readers
+	 * fetch job items and put them on a bounded queue, which the workers
+	 * drain. This keeps slow reads from stalling workers, and allows readers
+	 * and workers to be sized independently. Defaults to zero, that is,
+	 * each worker reads its own job items. Partitioned jobs always use at
+	 * least one reader thread.
+	 * 
+	 * @return the number of reader threads
+	 * 
+	 * @since 4.0.0
+	 */
+	protected int getNumReaderThreads() {
+		return 0;
+	}
+	
+	/**
+	 * The maximum number of job items waiting in the queue between readers
+	 * and workers. Readers block when the queue is full. Only used when
+	 * {@link #getNumReaderThreads()} is more than zero.
+	 * 
+	 * @return the queue capacity
+	 * 
+	 * @since 4.0.0
+	 */
+	protected int getQueueCapacity() {
+		return 1024;
+	}
+	
+	/**
+	 * The maximum number of job items executed per second, across all workers
+	 * of this job. Workers wait for their turn before executing a job item,
+	 * so the limit holds however many workers there are. Defaults to zero,
+	 * that is, the rate is not limited.
+	 * 
+	 * @return the number of items per second
+	 * 
+	 * @since 4.0.0
+	 */
+	protected double getMaxItemsPerSecond() {
+		return 0;
+	}
+	
+	/**
+	 * The maximum number of job items that may be executed without waiting,
+	 * after a period of inactivity, when the rate is limited by
+	 * {@link #getMaxItemsPerSecond()}. Defaults to zero, that is, one
+	 * second's worth of items.
+	 * 
+	 * @return the burst size
+	 * 
+	 * @since 4.0.0
+	 */
+	protected int getMaxBurstItems() {
+		return 0;
+	}
+	
+	/**
+	 * The maximum number of job items being executed at the same time, across
+	 * all workers of this job. In batch mode a batch larger than this limit
+	 * takes up all of it. For an {@link AsyncBatchJobItemExecutor} a job item
+	 * is in flight until its future completes. Defaults to zero, that is,
+	 * only limited by the number of workers - or to
+	 * {@link #DEFAULT_MAX_ASYNC_IN_FLIGHT_ITEMS} for asynchronous executors.
+	 * 
+	 * @return the number of items
+	 * 
+	 * @since 4.0.0
+	 */
+	protected int getMaxInFlightItems() {
+		return 0;
+	}
+	
+	/**
+	 * Whether job items are partitioned across workers by the key returned
+	 * by {@link #getPartitionKey(Object)}. In partitioned mode each worker has
+	 * its own lane, fed by the reader threads. Job items with the same key go
+	 * to the same lane, and are thus executed one after the other, in the
+	 * order they were read, while different keys run in parallel. With a
+	 * single reader thread that is the order of the source.
+	 * 
+	 * The number of workers of a partitioned job is fixed when it starts.
+	 * Failed job items are retried by the worker that owns their lane, after
+	 * items of the lane that were read meanwhile. An
+	 * {@link AsyncBatchJobItemExecutor} has one future in flight per lane, as
+	 * the worker waits for it before starting the next job item. Defaults to
+	 * <code>false</code>.
+	 * 
+	 * @return <code>true</code> to partition job items, <code>false</code>
+	 *         otherwise
+	 * 
+	 * @since 4.0.0
+	 */
+	protected boolean isPartitioned() {
+		return false;
+	}
+	
+	/**
+	 * Return the key of the given job item, such as a user, tenant or host,
+	 * used to pick its lane when {@link #isPartitioned()}. Job items with a
+	 * <code>null</code> key all go to the first lane. Defaults to the job item
+	 * itself.
+	 * 
+	 * @param job
+	 *            the job item
+	 * 
+	 * @return the partition key
+	 * 
+	 * @since 4.0.0
+	 */
+	protected Object getPartitionKey(T job) {
+		return job;
+	}
+	
+	/**
+	 * The checkpoint to skip completed job items with, and record newly
+	 * completed ones in. This allows the job to resume after a crash without
+	 * processing the same items again. Items that fail and are handed to
+	 * {@link BatchJobItemExecutor#onJobItemFailed(Object, int, Throwable)} are
+	 * recorded as completed too. The checkpoint is synced when the job
+	 * completes or is shut down, but is not closed. Defaults to
+	 * <code>null</code>, that is, no checkpoint.
+	 * 
+	 * @return the checkpoint, or <code>null</code>
+	 * 
+	 * @see WatermarkCheckpoint
+	 * @see BitArrayCheckpoint
+	 * 
+	 * @since 4.0.0
+	 */
+	protected BatchCheckpoint<T> getCheckpoint() {
+		return null;
+	}
+	
 	/**
 	 * Time in milliseconds to wait during shutdown, before each service worker
 	 * thread will be killed to stop all services
@@ -144,10 +460,145 @@ public abstract class BatchJob<T> {
 	 *             if the number of threads is less than or equal to zero
 	 */
 	public boolean startJobAsync(int numThreads) {
+		return this.startJobAsync(numThreads, false);
+	}
+	
+	/**
+	 * Start this batch job asynchronously, optionally running each worker on
+	 * a virtual thread. Virtual threads make it practical to run thousands of
+	 * workers when job items block on remote I/O. If the running JVM does not
+	 * support virtual threads, platform threads are used instead. Pausing,
+	 * termination and shutdown behave the same in both modes.
+	 * 
+	 * @param numThreads
+	 *            the number of workers to use for processing the job
+	 * 
+	 * @param virtualThreads
+	 *            whether to run workers on virtual threads
+	 * 
+	 * @return <code>true</code> if batch job was started, <code>false</code>
+	 *         otherwise
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the number of threads is less than or equal to zero
+	 */
+	public boolean startJobAsync(int numThreads, boolean virtualThreads) {
 		if(numThreads <= 0) {
 			throw new IllegalArgumentException("Number of threads cannot be less than or equal to zero");
 		}
 		
+		return this.start(numThreads, virtualThreads);
+	}
+	
+	/**
+	 * Start this batch job asynchronously, and keep adjusting the number of
+	 * workers between the given bounds while it runs. Every
+	 * {@link #getAdaptiveIntervalMillis()} the throughput, error rate and
+	 * average latency of the last interval are sampled. On errors above
+	 * {@link #getMaxErrorRate()} or latency above
+	 * {@link #getTargetLatencyMillis()} the pool shrinks by a quarter,
+	 * otherwise it grows by one worker as long as that keeps improving
+	 * throughput (AIMD). The job starts with the minimum number of workers.
+	 * 
+	 * @param minThreads
+	 *            the minimum number of workers
+	 * 
+	 * @param maxThreads
+	 *            the maximum number of workers
+	 * 
+	 * @param virtualThreads
+	 *            whether to run workers on virtual threads
+	 * 
+	 * @return <code>true</code> if batch job was started, <code>false</code>
+	 *         otherwise
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the minimum is less than or equal to zero, or the maximum
+	 *             is less than the minimum
+	 * 
+	 * @throws IllegalStateException
+	 *             if the job is partitioned
+	 * 
+	 * @since 4.0.0
+	 */
+	public boolean startAdaptiveJobAsync(int minThreads, int maxThreads, boolean virtualThreads) {
+		if(this.isPartitioned()) {
+			throw new IllegalStateException("Workers of a partitioned job cannot be resized");
+		}
+		
+		AdaptiveWorkerController controller = new AdaptiveWorkerController(this, minThreads, maxThreads, this.getTargetLatencyMillis(), this.getMaxErrorRate());
+		
+		boolean started = this.start(minThreads, virtualThreads);
+		if(started) {
+			this.controller = controller;
+			controller.start(this.getAdaptiveIntervalMillis());
+		}
+		
+		return started;
+	}
+	
+	/**
+	 * The interval in milliseconds at which the number of workers is
+	 * adjusted by {@link #startAdaptiveJobAsync(int, int, boolean)}. Defaults
+	 * to five seconds.
+	 * 
+	 * @return the time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	protected long getAdaptiveIntervalMillis() {
+		return 5000;
+	}
+	
+	/**
+	 * The average time in milliseconds to execute a job item above which the
+	 * number of workers is reduced by
+	 * {@link #startAdaptiveJobAsync(int, int, boolean)}. Defaults to zero, that
+	 * is, latency is not considered.
+	 * 
+	 * @return the time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	protected long getTargetLatencyMillis() {
+		return 0;
+	}
+	
+	/**
+	 * The fraction of failed job items above which the number of workers is
+	 * reduced by {@link #startAdaptiveJobAsync(int, int, boolean)}. Defaults
+	 * to 5%.
+	 * 
+	 * @return the error rate between zero and one
+	 * 
+	 * @since 4.0.0
+	 */
+	protected double getMaxErrorRate() {
+		return 0.05d;
+	}
+	
+	/**
+	 * Create and start all readers and workers.
+	 * 
+	 * @param numThreads
+	 *            the number of workers
+	 * 
+	 * @param virtualThreads
+	 *            whether to run workers on virtual threads
+	 * 
+	 * @return <code>true</code> if batch job was started, <code>false</code>
+	 *         otherwise
+	 */
+	private synchronized boolean start(int numThreads, boolean virtualThreads) {
+		if(this.started) {
+			throw new IllegalStateException("Job has already been started");
+		}
+		
+		final int batchSize = this.getBatchSize();
+		if(batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size cannot be less than or equal to zero");
+		}
+		
 		// running pre-initialization for job
 		boolean moveAhead = beforeWorkersInitialize();
 		if(!moveAhead) {
@@ -158,10 +609,25 @@ public abstract class BatchJob<T> {
 		// start job
 		LOGGER.info("Creating {} number of job worker threads for job: {}", numThreads, this.jobName);
 		
-		// create a new guava service manager to manage threads
-		List<Service> services = new ArrayList<>();
+		if(virtualThreads) {
+			this.threadFactory = JDKUtils.newVirtualThreadFactory("Job-Worker-" + this.jobName + "-");
+			if(this.threadFactory == null) {
+				LOGGER.warn("Virtual threads are not supported by this JVM, using platform threads for job: {}", this.jobName);
+			}
+		}
+		
+		this.batchSize = batchSize;
+		this.partitioned = this.isPartitioned();
+		this.throttle = this.createThrottle();
+		this.checkpoint = this.getCheckpoint();
+		
+		// in partitioned mode each worker keeps its own retries, so that a
+		// retry is not executed alongside later items of the same key
+		if(!this.partitioned && this.getJobPieceExecutor().getMaxRetries() > 0) {
+			this.retries = new BatchRetryScheduler<>("Job-Retry-" + this.jobName);
+		}
 		
-		final Callable<T> itemReader = new Callable<T>() {
+		this.itemReader = new Callable<T>() {
 			
 			@Override
 			public T call() throws Exception {
@@ -170,19 +636,58 @@ public abstract class BatchJob<T> {
 			
 		};
 		
-		for(int index = 0; index < numThreads; index++) {
-			// create a new worker
-			BatchWorker<T> worker = new BatchWorker<T>("Job-Worker-" + this.jobName + "-" + index, this.jobName, itemReader, this.getJobPieceExecutor());
+		this.batchReader = new Callable<List<T>>() {
 			
-			// add to list of workers
-			services.add(worker);
+			@Override
+			public List<T> call() throws Exception {
+				if(batchSize == 1) {
+					T item = BatchJob.this.getJobItem();
+					return item == null ? null : Collections.singletonList(item);
+				}
+				
+				return BatchJob.this.getJobItems(batchSize);
+			}
+			
+		};
+		
+		// readers feed a queue, or a lane per worker, that the workers drain
+		int numReaders = this.getNumReaderThreads();
+		if(this.partitioned) {
+			numReaders = Math.max(1, numReaders);
 		}
 		
-		// create manager
-		this.serviceManager = new ServiceManager(services);
-
-		// and start the server
-		this.serviceManager.startAsync();
+		if(numReaders > 0) {
+			LOGGER.info("Creating {} number of job reader threads for job: {}", numReaders, this.jobName);
+			
+			BatchPipeline<T> pipeline;
+			if(this.partitioned) {
+				pipeline = new BatchPipeline<>(this.getQueueCapacity(), numThreads, this::getPartitionKey, this.getJobPieceExecutor(), this.metrics);
+			} else {
+				pipeline = new BatchPipeline<>(this.getQueueCapacity(), this.getJobPieceExecutor(), this.metrics);
+			}
+			
+			for(int index = 0; index < numReaders; index++) {
+				BatchPipeline<T>.Reader reader = pipeline.newReader("Job-Reader-" + this.jobName + "-" + index, this.batchReader, this.threadFactory);
+				this.readers.add(reader);
+			}
+			
+			this.itemReader = pipeline.itemSource();
+			this.batchReader = pipeline.batchSource(batchSize);
+			this.pipeline = pipeline;
+		}
+		
+		this.started = true;
+		for(Service reader : this.readers) {
+			reader.startAsync();
+		}
+		
+		for(int index = 0; index < numThreads; index++) {
+			if(this.partitioned) {
+				this.addWorker(this.pipeline.itemSource(index), this.pipeline.batchSource(index, batchSize));
+			} else {
+				this.addWorker();
+			}
+		}
 		
 		LOGGER.info("All worker threads have now started.Running after workers initialize...");
 		
@@ -193,12 +698,222 @@ public abstract class BatchJob<T> {
 		return true;
 	}
 	
+	/**
+	 * Create the rate and in-flight limits as configured.
+	 * 
+	 * @return the limits, or <code>null</code> if none are configured
+	 */
+	private BatchThrottle createThrottle() {
+		final double itemsPerSecond = this.getMaxItemsPerSecond();
+		if(itemsPerSecond < 0) {
+			throw new IllegalArgumentException("Max items per second cannot be negative");
+		}
+		
+		final int burst = this.getMaxBurstItems();
+		if(burst < 0) {
+			throw new IllegalArgumentException("Max burst items cannot be negative");
+		}
+		
+		int maxInFlight = this.getMaxInFlightItems();
+		if(maxInFlight == 0 && this.getJobPieceExecutor() instanceof AsyncBatchJobItemExecutor) {
+			maxInFlight = DEFAULT_MAX_ASYNC_IN_FLIGHT_ITEMS;
+		}
+		
+		if(itemsPerSecond == 0 && maxInFlight == 0) {
+			return null;
+		}
+		
+		TokenBucketRateLimiter rateLimiter = null;
+		if(itemsPerSecond > 0) {
+			if(burst > 0) {
+				rateLimiter = new TokenBucketRateLimiter(itemsPerSecond, burst);
+			} else {
+				rateLimiter = new TokenBucketRateLimiter(itemsPerSecond);
+			}
+		}
+		
+		return new BatchThrottle(rateLimiter, maxInFlight);
+	}
+	
+	/**
+	 * Create and start a new worker.
+	 * 
+	 */
+	private void addWorker() {
+		this.addWorker(this.itemReader, this.batchReader);
+	}
+	
+	/**
+	 * Create and start a new worker that reads from the given sources.
+	 * 
+	 * @param itemReader
+	 *            the source of job items, used when the batch size is one
+	 * 
+	 * @param batchReader
+	 *            the source of job item batches
+	 */
+	private void addWorker(Callable<T> itemReader, Callable<List<T>> batchReader) {
+		// create a new worker
+		final String threadName = "Job-Worker-" + this.jobName + "-" + this.workerIndex.getAndIncrement();
+		BatchWorker<T> worker;
+		if(this.batchSize == 1) {
+			worker = new BatchWorker<T>(threadName, this.jobName, itemReader, this.getJobPieceExecutor(), this.threadFactory);
+		} else {
+			worker = BatchWorker.ofBatches(threadName, this.jobName, batchReader, this.getJobPieceExecutor(), this.threadFactory);
+		}
+		
+		worker.attachMetrics(this.metrics);
+		if(this.throttle != null) {
+			worker.attachThrottle(this.throttle);
+		}
+		
+		if(this.retries != null) {
+			worker.attachRetries(this.retries);
+		}
+		
+		if(this.checkpoint != null) {
+			worker.attachCheckpoint(this.checkpoint);
+		}
+		
+		if(this.partitioned) {
+			worker.preserveOrder();
+		}
+		
+		// add to list of workers
+		this.workers.add(worker);
+		worker.startAsync();
+	}
+	
+	/**
+	 * Change the number of workers of the running job. New workers are
+	 * started right away. Removed workers complete the job item they are
+	 * processing, if any, before stopping.
+	 * 
+	 * @param numThreads
+	 *            the new number of workers
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the number of threads is less than or equal to zero
+	 * 
+	 * @throws IllegalStateException
+	 *             if the job has not been started, is stopping, or is
+	 *             partitioned
+	 * 
+	 * @since 4.0.0
+	 */
+	public synchronized void resizeWorkers(int numThreads) {
+		if(numThreads <= 0) {
+			throw new IllegalArgumentException("Number of threads cannot be less than or equal to zero");
+		}
+		
+		if(!this.started || this.stopping) {
+			throw new IllegalStateException("Job is not running");
+		}
+		
+		if(this.partitioned) {
+			throw new IllegalStateException("Workers of a partitioned job cannot be resized");
+		}
+		
+		// forget workers that have completed
+		this.workers.removeIf(BatchJob::isDone);
+		this.retiredWorkers.removeIf(BatchJob::isDone);
+		
+		while(this.workers.size() < numThreads) {
+			this.addWorker();
+		}
+		
+		while(this.workers.size() > numThreads) {
+			BatchWorker<T> worker = this.workers.remove(this.workers.size() - 1);
+			this.retiredWorkers.add(worker);
+			
+			worker.triggerShutdown();
+			worker.stopAsync();
+		}
+	}
+	
+	/**
+	 * Return the number of workers of this job that have not been stopped.
+	 * 
+	 * @return the number of workers
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumWorkers() {
+		int count = 0;
+		for(BatchWorker<T> worker : this.workers) {
+			if(!isDone(worker)) {
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Return the workers of this job that have not been removed when
+	 * resizing. Use {@link BatchWorker#getMetrics()} and
+	 * {@link BatchWorker#getLastActivityTime()} to monitor each worker.
+	 * 
+	 * @return a copy of the list of workers
+	 * 
+	 * @since 4.0.0
+	 */
+	public List<BatchWorker<T>> getWorkers() {
+		return new ArrayList<>(this.workers);
+	}
+	
+	/**
+	 * Return the metrics of all job items read and executed by this job,
+	 * including by workers that have since been stopped.
+	 * 
+	 * @return the metrics
+	 * 
+	 * @since 4.0.0
+	 */
+	public BatchMetrics getMetrics() {
+		return this.metrics;
+	}
+	
+	/**
+	 * Return the number of workers that are currently paused.
+	 * 
+	 * @return the number of paused workers
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumPausedWorkers() {
+		int count = 0;
+		for(BatchWorker<T> worker : this.workers) {
+			if(worker.isWorkerPaused()) {
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
 	/**
 	 * Signal all worker threads to stop.
 	 * 
 	 */
 	public void stopAsync() {
-		this.serviceManager.stopAsync();
+		this.stopping = true;
+		
+		// refuse retries before stopping the workers, so that items failing
+		// from here on are handed over rather than dropped
+		this.stopRetries();
+		
+		if(this.controller != null) {
+			this.controller.stop();
+		}
+		
+		if(this.pipeline != null) {
+			this.pipeline.stop();
+		}
+		
+		for(Service service : this.getServices()) {
+			service.stopAsync();
+		}
 	}
 	
 	/**
@@ -210,48 +925,229 @@ public abstract class BatchJob<T> {
 		// remove this instance from central
 		BatchCentral.removeJob(this);
 		
-		// check for service manager
-		if(this.serviceManager == null) {
+		// check if we were ever started
+		if(!this.started) {
 			return;
 		}
 		
 		LOGGER.debug("Stopping all services...");
-		this.serviceManager.stopAsync();
+		this.stopAsync();
 		
 		LOGGER.debug("Changing state of each worker manually...");
-		ImmutableCollection<Service> services = this.serviceManager.servicesByState().values();
+		List<Service> services = this.getServices();
 		for(Service service : services) {
-			if(service == null) {
-				continue;
+			// trigger shutdown on all workers and readers
+			if(service instanceof BatchWorker) {
+				((BatchWorker<?>) service).triggerShutdown();
+			} else if(service instanceof BatchPipeline.Reader) {
+				((BatchPipeline<?>.Reader) service).triggerShutdown();
 			}
-			
-			@SuppressWarnings("unchecked")
-			BatchWorker<T> worker = (BatchWorker<T>) service;
-			
-			// trigger shutdown on all workers
-			worker.triggerShutdown();
 		}
 		
 		// wait for stipulated time to shutdown
-		try {
-			LOGGER.debug("Waiting for all thread to die out...");
-			this.serviceManager.awaitStopped(this.getShutdownWaitTimeMillis(), TimeUnit.MILLISECONDS);
-		} catch (TimeoutException e) {
-			LOGGER.error("Unable to wait for stopping all threads", e);
+		LOGGER.debug("Waiting for all thread to die out...");
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.getShutdownWaitTimeMillis());
+		for(Service service : services) {
+			try {
+				service.awaitTerminated(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				LOGGER.error("Unable to wait for stopping all threads", e);
+				break;
+			} catch (IllegalStateException e) {
+				// service failed - it has stopped anyways
+			}
 		}
+		
+		// save progress made by the workers that stopped
+		this.syncCheckpoint();
 	}
 	
 	/**
 	 * Wait for all service threads to complete - either terminate naturally
-	 * or fail.
+	 * or fail. A worker using an {@link AsyncBatchJobItemExecutor} completes
+	 * only once all futures it started have.
 	 * 
 	 */
 	public void waitForCompletion() {
-		if(this.serviceManager == null) {
+		if(!this.started) {
 			return;
 		}
 		
-		this.serviceManager.awaitStopped();
+		// workers may be added while we wait
+		boolean done;
+		do {
+			done = true;
+			for(Service service : this.getServices()) {
+				if(isDone(service)) {
+					continue;
+				}
+				
+				done = false;
+				try {
+					service.awaitTerminated();
+				} catch(IllegalStateException e) {
+					// service failed - it has stopped anyways
+				}
+			}
+		} while(!done);
+		
+		if(this.controller != null) {
+			this.controller.stop();
+		}
+		
+		this.stopRetries();
+		this.syncCheckpoint();
+	}
+	
+	/**
+	 * Sync the checkpoint, if any.
+	 * 
+	 */
+	private void syncCheckpoint() {
+		if(this.checkpoint == null) {
+			return;
+		}
+		
+		try {
+			this.checkpoint.sync();
+		} catch (IOException e) {
+			LOGGER.error("Unable to sync checkpoint for job: " + this.jobName, e);
+		}
+	}
+	
+	/**
+	 * Stop the retry scheduler, if any, dropping retries that are not yet
+	 * due.
+	 * 
+	 */
+	private void stopRetries() {
+		if(this.retries == null) {
+			return;
+		}
+		
+		int dropped = this.retries.stop();
+		if(dropped > 0) {
+			LOGGER.warn("Dropping {} pending retries for job: {}", dropped, this.jobName);
+		}
+	}
+	
+	/**
+	 * Return all readers and workers of this job.
+	 * 
+	 * @return the services
+	 */
+	private List<Service> getServices() {
+		List<Service> services = new ArrayList<>(this.readers);
+		services.addAll(this.workers);
+		services.addAll(this.retiredWorkers);
+		return services;
+	}
+	
+	/**
+	 * Check if the given service has terminated or failed.
+	 * 
+	 * @param service
+	 *            the service to check
+	 * 
+	 * @return <code>true</code> if it has stopped, <code>false</code>
+	 *         otherwise
+	 */
+	private static boolean isDone(Service service) {
+		Service.State state = service.state();
+		return state == Service.State.TERMINATED || state == Service.State.FAILED;
+	}
+	
+	/**
+	 * Return the number of job items read by the reader threads, and waiting
+	 * to be processed by the workers.
+	 * 
+	 * @return the number of queued items, always zero when the job does not
+	 *         use reader threads
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getQueueDepth() {
+		BatchPipeline<T> pipeline = this.pipeline;
+		if(pipeline == null) {
+			return 0;
+		}
+		
+		return pipeline.getQueueDepth();
+	}
+	
+	/**
+	 * Return the limiter for the number of job items executed per second,
+	 * which may be used to change the rate while the job runs.
+	 * 
+	 * @return the rate limiter, or <code>null</code> if the job is not
+	 *         started or {@link #getMaxItemsPerSecond()} is not set
+	 * 
+	 * @since 4.0.0
+	 */
+	public TokenBucketRateLimiter getRateLimiter() {
+		BatchThrottle throttle = this.throttle;
+		if(throttle == null) {
+			return null;
+		}
+		
+		return throttle.rateLimiter;
+	}
+	
+	/**
+	 * Return the number of job items being executed, when limited by
+	 * {@link #getMaxInFlightItems()}.
+	 * 
+	 * @return the number of items, or <code>-1</code> if in-flight items are
+	 *         not limited
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumInFlightItems() {
+		BatchThrottle throttle = this.throttle;
+		if(throttle == null) {
+			return -1;
+		}
+		
+		return throttle.getInFlight();
+	}
+	
+	/**
+	 * Return the number of job items, or batches, started using an
+	 * {@link AsyncBatchJobItemExecutor} that have not yet completed.
+	 * 
+	 * @return the number of futures in flight
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumPendingFutures() {
+		int count = 0;
+		for(BatchWorker<T> worker : this.workers) {
+			count += worker.getNumPendingFutures();
+		}
+		
+		for(BatchWorker<T> worker : this.retiredWorkers) {
+			count += worker.getNumPendingFutures();
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Return the number of failed job items, or batches of job items, waiting
+	 * to be retried.
+	 * 
+	 * @return the number of pending retries, always zero when
+	 *         {@link BatchJobItemExecutor#getMaxRetries()} is not set
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumPendingRetries() {
+		BatchRetryScheduler<T> retries = this.retries;
+		if(retries == null) {
+			return 0;
+		}
+		
+		return retries.getPending();
 	}
 	
 	/**
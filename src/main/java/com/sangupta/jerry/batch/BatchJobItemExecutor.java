@@ -21,6 +21,9 @@
 
 package com.sangupta.jerry.batch;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The executor that actually performs something useful on the job item that has
  * been provided to the job queue.
@@ -43,6 +46,24 @@ public interface BatchJobItemExecutor<T> {
 	 */
 	public void executeJobItem(T job);
 	
+	/**
+	 * Process the provided batch of job items. The list is guaranteed to be
+	 * not <code>null</code> or empty, and contain no <code>null</code> items.
+	 * The default implementation processes each item in turn using
+	 * {@link #executeJobItem(Object)}. Override this to amortize work, such as
+	 * bulk writes, across the batch.
+	 * 
+	 * @param jobs
+	 *            the job items to process
+	 * 
+	 * @since 4.0.0
+	 */
+	public default void executeJobItems(List<T> jobs) {
+		for(T job : jobs) {
+			this.executeJobItem(job);
+		}
+	}
+	
 	/**
 	 * Specify the time in milliseconds to wait when an exception is thrown
 	 * reading an item from the job queue.
@@ -50,6 +71,106 @@ public interface BatchJobItemExecutor<T> {
 	 * @return time in milliseconds
 	 */
 	public long getWaitTimeOnJobReadErrorInMillis();
+	
+	/**
+	 * Specify the maximum time in milliseconds to wait when reading items
+	 * from the job queue keeps failing. The wait starts at
+	 * {@link #getWaitTimeOnJobReadErrorInMillis()} and doubles with each
+	 * consecutive error up to this time. Each wait is randomized between half
+	 * and all of it, so that workers do not hit a recovering queue together.
+	 * Defaults to {@link #getWaitTimeOnJobReadErrorInMillis()}, that is, the
+	 * wait does not grow.
+	 * 
+	 * @return time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	public default long getMaxWaitTimeOnJobReadErrorInMillis() {
+		return this.getWaitTimeOnJobReadErrorInMillis();
+	}
+	
+	/**
+	 * Specify the number of times a job item is retried when its execution
+	 * throws an exception. Retries are scheduled on a timer, and the worker
+	 * moves on to other job items meanwhile. Defaults to zero, that is,
+	 * failed job items are not retried.
+	 * 
+	 * @return the number of retries
+	 * 
+	 * @since 4.0.0
+	 */
+	public default int getMaxRetries() {
+		return 0;
+	}
+	
+	/**
+	 * Specify the time in milliseconds to wait before the first retry of a
+	 * failed job item. The wait doubles with each retry up to
+	 * {@link #getMaxRetryDelayInMillis()}, and is randomized between half and
+	 * all of it. Defaults to one second.
+	 * 
+	 * @return time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	public default long getRetryDelayInMillis() {
+		return 1000;
+	}
+	
+	/**
+	 * Specify the maximum time in milliseconds to wait before retrying a
+	 * failed job item. Defaults to one minute.
+	 * 
+	 * @return time in milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	public default long getMaxRetryDelayInMillis() {
+		return 60000;
+	}
+	
+	/**
+	 * Invoked when a job item has failed and will not be retried - either all
+	 * retries have been used up, or the worker is stopping. Override this to
+	 * move the job item to a dead-letter queue. The default implementation
+	 * does nothing.
+	 * 
+	 * @param job
+	 *            the job item that failed
+	 * 
+	 * @param attempts
+	 *            the number of times the job item was attempted
+	 * 
+	 * @param error
+	 *            the error thrown by the last attempt
+	 * 
+	 * @since 4.0.0
+	 */
+	public default void onJobItemFailed(T job, int attempts, Throwable error) {
+		// do nothing
+	}
+	
+	/**
+	 * Invoked when a batch of job items has failed and will not be retried.
+	 * The default implementation invokes
+	 * {@link #onJobItemFailed(Object, int, Throwable)} for each item.
+	 * 
+	 * @param jobs
+	 *            the job items that failed
+	 * 
+	 * @param attempts
+	 *            the number of times the job items were attempted
+	 * 
+	 * @param error
+	 *            the error thrown by the last attempt
+	 * 
+	 * @since 4.0.0
+	 */
+	public default void onJobItemsFailed(List<T> jobs, int attempts, Throwable error) {
+		for(T job : jobs) {
+			this.onJobItemFailed(job, attempts, error);
+		}
+	}
 
 	/**
 	 * Specify the time in milliseconds to wait when the job queue returns a
@@ -92,6 +213,30 @@ public interface BatchJobItemExecutor<T> {
 	 */
 	public boolean jobAlreadyProcessed(T job);
 	
+	/**
+	 * Remove the job-items that have already been processed from the given
+	 * batch. The default implementation checks each item in turn using
+	 * {@link #jobAlreadyProcessed(Object)}. Override this to check the entire
+	 * batch using a single lookup.
+	 * 
+	 * @param jobs
+	 *            the job items to be tested
+	 * 
+	 * @return the job items that still need to be processed
+	 * 
+	 * @since 4.0.0
+	 */
+	public default List<T> filterAlreadyProcessed(List<T> jobs) {
+		List<T> pending = new ArrayList<>(jobs.size());
+		for(T job : jobs) {
+			if(!this.jobAlreadyProcessed(job)) {
+				pending.add(job);
+			}
+		}
+		
+		return pending;
+	}
+	
 	/**
 	 * This method defines if the execution of the worker should be terminated
 	 * when they encounter a <code>null</code> job item. When this method
@@ -0,0 +1,336 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Metrics of the job items read and executed by a {@link BatchWorker}, or by
+ * all workers of a {@link BatchJob}. Metrics of a worker also update the
+ * metrics of its job, so that job totals include workers that have since
+ * been stopped.
+ *
+ * All counters are cumulative. Rates over an interval can be derived by
+ * sampling them periodically.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+public class BatchMetrics {
+
+	/**
+	 * Number of job items executed successfully
+	 */
+	final LongAdder executed = new LongAdder();
+
+	/**
+	 * Number of job items whose execution failed
+	 */
+	final LongAdder failed = new LongAdder();
+
+	/**
+	 * Total time in nanoseconds spent executing job items
+	 */
+	final LongAdder executionNanos = new LongAdder();
+
+	/**
+	 * Number of errors reading job items
+	 */
+	private final LongAdder readErrors = new LongAdder();
+
+	/**
+	 * Number of reads that returned no job item
+	 */
+	private final LongAdder nullReads = new LongAdder();
+
+	/**
+	 * Number of job items skipped as already processed
+	 */
+	private final LongAdder alreadyProcessed = new LongAdder();
+
+	/**
+	 * Number of failed job items scheduled for a retry
+	 */
+	private final LongAdder retried = new LongAdder();
+
+	/**
+	 * Number of failed job items given up on
+	 */
+	private final LongAdder deadLettered = new LongAdder();
+
+	/**
+	 * Total time in nanoseconds spent paused
+	 */
+	private final LongAdder pausedNanos = new LongAdder();
+
+	/**
+	 * Total time in nanoseconds spent waiting on the rate and in-flight limits
+	 */
+	private final LongAdder throttledNanos = new LongAdder();
+
+	/**
+	 * Latencies of each call to execute job items
+	 */
+	private final LatencyHistogram executionLatency = new LatencyHistogram();
+
+	/**
+	 * The metrics of the job, if any
+	 */
+	private final BatchMetrics parent;
+
+	/**
+	 * The time when these metrics were created
+	 */
+	private final long createdNanos = System.nanoTime();
+
+	BatchMetrics() {
+		this(null);
+	}
+
+	BatchMetrics(BatchMetrics parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * Record the execution of one or more job items.
+	 *
+	 * @param items
+	 *            the number of items executed
+	 *
+	 * @param success
+	 *            whether the execution succeeded
+	 *
+	 * @param nanos
+	 *            the time taken to execute the items
+	 */
+	void recordExecution(int items, boolean success, long nanos) {
+		if(success) {
+			this.executed.add(items);
+		} else {
+			this.failed.add(items);
+		}
+
+		this.executionNanos.add(nanos);
+		this.executionLatency.record(nanos);
+
+		if(this.parent != null) {
+			this.parent.recordExecution(items, success, nanos);
+		}
+	}
+
+	void recordReadError() {
+		this.readErrors.increment();
+
+		if(this.parent != null) {
+			this.parent.recordReadError();
+		}
+	}
+
+	void recordNullRead() {
+		this.nullReads.increment();
+
+		if(this.parent != null) {
+			this.parent.recordNullRead();
+		}
+	}
+
+	void recordAlreadyProcessed(int items) {
+		this.alreadyProcessed.add(items);
+
+		if(this.parent != null) {
+			this.parent.recordAlreadyProcessed(items);
+		}
+	}
+
+	void recordRetry(int items) {
+		this.retried.add(items);
+
+		if(this.parent != null) {
+			this.parent.recordRetry(items);
+		}
+	}
+
+	void recordDeadLetter(int items) {
+		this.deadLettered.add(items);
+
+		if(this.parent != null) {
+			this.parent.recordDeadLetter(items);
+		}
+	}
+
+	void recordPaused(long nanos) {
+		this.pausedNanos.add(nanos);
+
+		if(this.parent != null) {
+			this.parent.recordPaused(nanos);
+		}
+	}
+
+	void recordThrottled(long nanos) {
+		this.throttledNanos.add(nanos);
+
+		if(this.parent != null) {
+			this.parent.recordThrottled(nanos);
+		}
+	}
+
+	/**
+	 * Return the number of job items executed successfully.
+	 *
+	 * @return the count
+	 */
+	public long getExecutedItems() {
+		return this.executed.sum();
+	}
+
+	/**
+	 * Return the number of job items whose execution threw an exception.
+	 *
+	 * @return the count
+	 */
+	public long getFailedItems() {
+		return this.failed.sum();
+	}
+
+	/**
+	 * Return the number of errors reading job items.
+	 *
+	 * @return the count
+	 */
+	public long getReadErrors() {
+		return this.readErrors.sum();
+	}
+
+	/**
+	 * Return the number of reads that returned no job item.
+	 *
+	 * @return the count
+	 */
+	public long getNullReads() {
+		return this.nullReads.sum();
+	}
+
+	/**
+	 * Return the number of job items skipped as already processed.
+	 *
+	 * @return the count
+	 */
+	public long getAlreadyProcessedItems() {
+		return this.alreadyProcessed.sum();
+	}
+
+	/**
+	 * Return the total time spent executing job items.
+	 *
+	 * @param unit
+	 *            the unit to return the time in
+	 *
+	 * @return the time
+	 */
+	public long getExecutionTime(TimeUnit unit) {
+		return unit.convert(this.executionNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Return the number of failed job items that were scheduled for a retry.
+	 * An item retried twice is counted twice.
+	 *
+	 * @return the count
+	 */
+	public long getRetriedItems() {
+		return this.retried.sum();
+	}
+
+	/**
+	 * Return the number of failed job items that were given up on, and handed
+	 * to {@link BatchJobItemExecutor#onJobItemFailed(Object, int, Throwable)}.
+	 *
+	 * @return the count
+	 */
+	public long getDeadLetteredItems() {
+		return this.deadLettered.sum();
+	}
+
+	/**
+	 * Return the total time spent paused.
+	 *
+	 * @param unit
+	 *            the unit to return the time in
+	 *
+	 * @return the time
+	 */
+	public long getPausedTime(TimeUnit unit) {
+		return unit.convert(this.pausedNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Return the total time spent waiting for the rate and in-flight limits
+	 * of the job.
+	 *
+	 * @param unit
+	 *            the unit to return the time in
+	 *
+	 * @return the time
+	 */
+	public long getThrottledTime(TimeUnit unit) {
+		return unit.convert(this.throttledNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Return the histogram of the time taken by each call to execute job
+	 * items. In batch mode each call executes an entire batch.
+	 *
+	 * @return the histogram
+	 */
+	public LatencyHistogram getExecutionLatency() {
+		return this.executionLatency;
+	}
+
+	/**
+	 * Return the average number of job items processed, successfully or not,
+	 * per second since these metrics were created.
+	 *
+	 * @return the items per second
+	 */
+	public double getItemsPerSecond() {
+		long elapsed = System.nanoTime() - this.createdNanos;
+		if(elapsed <= 0) {
+			return 0;
+		}
+
+		return (this.executed.sum() + this.failed.sum()) * 1e9d / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchMetrics [executed=" + this.getExecutedItems() + ", failed=" + this.getFailedItems() + ", readErrors=" + this.getReadErrors()
+				+ ", nullReads=" + this.getNullReads() + ", alreadyProcessed=" + this.getAlreadyProcessedItems() + ", itemsPerSecond="
+				+ this.getItemsPerSecond() + ", p99Millis=" + this.executionLatency.getPercentile(99, TimeUnit.MILLISECONDS) + "]";
+	}
+
+}
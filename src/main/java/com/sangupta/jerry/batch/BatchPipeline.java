@@ -0,0 +1,514 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.AbstractExecutionThreadService;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A bounded queue that decouples reading of job items from their execution.
+ * A fixed number of {@link Reader} threads read items from the job and put
+ * them on the queue, blocking when it is full. {@link BatchWorker}s take items
+ * off the queue using {@link #itemSource()} or {@link #batchSource(int)}.
+ *
+ * In partitioned mode the pipeline has one queue, or lane, per worker. Each
+ * item is put on the lane chosen by the hash of its partition key, so that
+ * all items with the same key are executed by the same worker, one after
+ * the other, in the order they were read.
+ *
+ * When the executor terminates on <code>null</code> items, the sources only
+ * return <code>null</code> once all readers have finished and the queue has
+ * been drained, so that workers do not stop while items are still in flight.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+@ThreadSafe
+class BatchPipeline<T> {
+
+	/**
+	 * My logger instance
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchPipeline.class);
+
+	/**
+	 * Time to wait for the queue before checking again if the pipeline has
+	 * been stopped
+	 */
+	private static final long QUEUE_POLL_INTERVAL_MILLIS = 100;
+
+	/**
+	 * The queues of items read but not yet executed, one per lane
+	 */
+	private final List<BlockingQueue<T>> lanes;
+
+	/**
+	 * Function returning the partition key of an item, <code>null</code> if
+	 * there is a single lane
+	 */
+	private final Function<T, ?> partitioner;
+
+	/**
+	 * The executor that decides how to handle <code>null</code> items and
+	 * read errors
+	 */
+	private final BatchJobItemExecutor<T> executor;
+
+	/**
+	 * The metrics to record read errors and empty reads in
+	 */
+	private final BatchMetrics metrics;
+	
+	/**
+	 * The number of readers that are still reading
+	 */
+	private final AtomicInteger activeReaders = new AtomicInteger();
+
+	/**
+	 * Set when the pipeline has been asked to stop
+	 */
+	private volatile boolean stopped = false;
+
+	/**
+	 * Create a new pipeline.
+	 *
+	 * @param capacity
+	 *            the maximum number of items in the queue
+	 *
+	 * @param executor
+	 *            the executor of the job
+	 *
+	 * @param metrics
+	 *            the metrics of the job
+	 */
+	BatchPipeline(int capacity, BatchJobItemExecutor<T> executor, BatchMetrics metrics) {
+		this(capacity, 1, null, executor, metrics);
+	}
+
+	/**
+	 * Create a new partitioned pipeline.
+	 *
+	 * @param capacity
+	 *            the maximum number of items in all lanes together
+	 *
+	 * @param numLanes
+	 *            the number of lanes
+	 *
+	 * @param partitioner
+	 *            function returning the partition key of an item, or
+	 *            <code>null</code> if there is a single lane
+	 *
+	 * @param executor
+	 *            the executor of the job
+	 *
+	 * @param metrics
+	 *            the metrics of the job
+	 */
+	BatchPipeline(int capacity, int numLanes, Function<T, ?> partitioner, BatchJobItemExecutor<T> executor, BatchMetrics metrics) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Queue capacity cannot be less than or equal to zero");
+		}
+
+		if(numLanes <= 0) {
+			throw new IllegalArgumentException("Number of lanes cannot be less than or equal to zero");
+		}
+
+		if(numLanes > 1 && partitioner == null) {
+			throw new IllegalArgumentException("Partitioner cannot be null with more than one lane");
+		}
+
+		if(executor == null) {
+			throw new IllegalArgumentException("Job piece executor cannot be null");
+		}
+
+		final int laneCapacity = Math.max(1, capacity / numLanes);
+		List<BlockingQueue<T>> lanes = new ArrayList<>(numLanes);
+		for(int index = 0; index < numLanes; index++) {
+			lanes.add(new ArrayBlockingQueue<>(laneCapacity));
+		}
+
+		this.lanes = Collections.unmodifiableList(lanes);
+		this.partitioner = partitioner;
+		this.executor = executor;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Create a new reader that feeds this pipeline.
+	 *
+	 * @param threadName
+	 *            the name of the reader thread
+	 *
+	 * @param source
+	 *            the source to read items from
+	 *
+	 * @param threadFactory
+	 *            the factory to create the reader thread with, or
+	 *            <code>null</code> to use a platform thread
+	 *
+	 * @return the reader
+	 */
+	Reader newReader(String threadName, Callable<List<T>> source, ThreadFactory threadFactory) {
+		this.activeReaders.incrementAndGet();
+		return new Reader(threadName, source, threadFactory);
+	}
+
+	/**
+	 * Return the number of items currently waiting in the queue.
+	 *
+	 * @return the queue depth
+	 */
+	int getQueueDepth() {
+		int depth = 0;
+		for(BlockingQueue<T> lane : this.lanes) {
+			depth += lane.size();
+		}
+
+		return depth;
+	}
+
+	/**
+	 * Return the number of lanes.
+	 *
+	 * @return the number of lanes
+	 */
+	int getNumLanes() {
+		return this.lanes.size();
+	}
+
+	/**
+	 * Return the lane the given item is put on.
+	 *
+	 * @param item
+	 *            the item
+	 *
+	 * @return the index of the lane
+	 */
+	int laneOf(T item) {
+		final int numLanes = this.lanes.size();
+		if(numLanes == 1) {
+			return 0;
+		}
+
+		Object key = this.partitioner.apply(item);
+		if(key == null) {
+			return 0;
+		}
+
+		// spread the higher bits, as hash codes often differ in those only
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return Math.floorMod(hash, numLanes);
+	}
+
+	/**
+	 * Return the number of readers still reading items.
+	 *
+	 * @return the number of active readers
+	 */
+	int getActiveReaders() {
+		return this.activeReaders.get();
+	}
+
+	/**
+	 * Signal the pipeline to stop, releasing workers waiting on the queue.
+	 *
+	 */
+	void stop() {
+		this.stopped = true;
+	}
+
+	/**
+	 * Return a source that takes a single item off the queue.
+	 *
+	 * @return the item source
+	 */
+	Callable<T> itemSource() {
+		return this.itemSource(0);
+	}
+
+	/**
+	 * Return a source that takes a single item off the given lane.
+	 *
+	 * @param lane
+	 *            the index of the lane
+	 *
+	 * @return the item source
+	 */
+	Callable<T> itemSource(int lane) {
+		final BlockingQueue<T> queue = this.lanes.get(lane);
+		return new Callable<T>() {
+
+			@Override
+			public T call() throws Exception {
+				return BatchPipeline.this.take(queue);
+			}
+
+		};
+	}
+
+	/**
+	 * Return a source that takes up to the given number of items off the
+	 * queue. It waits for the first item only.
+	 *
+	 * @param maxItems
+	 *            the maximum number of items to return in one batch
+	 *
+	 * @return the batch source
+	 */
+	Callable<List<T>> batchSource(final int maxItems) {
+		return this.batchSource(0, maxItems);
+	}
+
+	/**
+	 * Return a source that takes up to the given number of items off the
+	 * given lane. It waits for the first item only.
+	 *
+	 * @param lane
+	 *            the index of the lane
+	 *
+	 * @param maxItems
+	 *            the maximum number of items to return in one batch
+	 *
+	 * @return the batch source
+	 */
+	Callable<List<T>> batchSource(int lane, final int maxItems) {
+		final BlockingQueue<T> queue = this.lanes.get(lane);
+		return new Callable<List<T>>() {
+
+			@Override
+			public List<T> call() throws Exception {
+				T first = BatchPipeline.this.take(queue);
+				if(first == null) {
+					return null;
+				}
+
+				List<T> items = new ArrayList<>(maxItems);
+				items.add(first);
+				queue.drainTo(items, maxItems - 1);
+				return items;
+			}
+
+		};
+	}
+
+	/**
+	 * Take the next item off the given queue.
+	 *
+	 * @param queue
+	 *            the queue of the lane to take from
+	 *
+	 * @return the item, or <code>null</code> if none is available
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	private T take(BlockingQueue<T> queue) throws InterruptedException {
+		while(true) {
+			T item = queue.poll(QUEUE_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			if(item != null) {
+				return item;
+			}
+
+			// all readers are done - whatever is left is all there is
+			if(this.activeReaders.get() == 0) {
+				return queue.poll();
+			}
+
+			// a null would stop the worker while readers are still reading
+			if(this.stopped || !this.executor.terminateExecutionOnNullJobItem()) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * A thread that reads items from the job and puts them on the queue.
+	 *
+	 */
+	class Reader extends AbstractExecutionThreadService {
+
+		/**
+		 * The name of the reader thread
+		 */
+		private final String threadName;
+
+		/**
+		 * The source to read items from
+		 */
+		private final Callable<List<T>> source;
+
+		/**
+		 * The factory used to create the reader thread
+		 */
+		private final ThreadFactory threadFactory;
+
+		/**
+		 * Set when the reader has been requested to stop
+		 */
+		private volatile boolean stopNow = false;
+
+		Reader(String threadName, Callable<List<T>> source, ThreadFactory threadFactory) {
+			this.threadName = threadName;
+			this.source = source;
+			this.threadFactory = threadFactory;
+		}
+
+		@Override
+		protected Executor executor() {
+			if(this.threadFactory == null) {
+				return super.executor();
+			}
+
+			return new Executor() {
+
+				@Override
+				public void execute(Runnable command) {
+					Thread thread = Reader.this.threadFactory.newThread(command);
+					thread.setName(Reader.this.threadName);
+					thread.start();
+				}
+
+			};
+		}
+
+		@Override
+		protected void run() throws Exception {
+			Thread.currentThread().setName(this.threadName);
+
+			try {
+				this.read();
+			} finally {
+				BatchPipeline.this.activeReaders.decrementAndGet();
+			}
+		}
+
+		private void read() {
+			final BatchJobItemExecutor<T> executor = BatchPipeline.this.executor;
+
+			while(this.isRunning() && !this.stopNow) {
+				List<T> items;
+				try {
+					items = this.source.call();
+				} catch(Exception e) {
+					LOGGER.error("Unable to read job", e);
+					BatchPipeline.this.metrics.recordReadError();
+
+					if(!this.sleep(executor.getWaitTimeOnJobReadErrorInMillis())) {
+						return;
+					}
+
+					continue;
+				}
+
+				if(items == null || items.isEmpty()) {
+					BatchPipeline.this.metrics.recordNullRead();
+
+					if(executor.terminateExecutionOnNullJobItem()) {
+						LOGGER.debug("Flagged to stop on null job... ending reader.");
+						return;
+					}
+
+					if(!this.sleep(executor.getWaitTimeOnNullJobInMillis())) {
+						return;
+					}
+
+					continue;
+				}
+
+				for(T item : items) {
+					if(item != null && !this.put(item)) {
+						return;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Put the item on its lane, waiting for space if needed. A full lane
+		 * holds up this reader, and thus the other lanes it feeds.
+		 *
+		 * @param item
+		 *            the item to put
+		 *
+		 * @return <code>true</code> if the item was queued, <code>false</code>
+		 *         if the reader was stopped while waiting
+		 */
+		private boolean put(T item) {
+			final BlockingQueue<T> queue = BatchPipeline.this.lanes.get(BatchPipeline.this.laneOf(item));
+			try {
+				while(!queue.offer(item, QUEUE_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+					if(this.stopNow || BatchPipeline.this.stopped) {
+						return false;
+					}
+				}
+
+				return true;
+			} catch(InterruptedException e) {
+				return false;
+			}
+		}
+
+		private boolean sleep(long millis) {
+			if(millis <= 0) {
+				return true;
+			}
+
+			try {
+				Thread.sleep(millis);
+				return true;
+			} catch(InterruptedException e) {
+				return false;
+			}
+		}
+
+		@Override
+		protected void triggerShutdown() {
+			super.triggerShutdown();
+
+			this.stopNow = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,227 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Holds failed job items until their retry is due, and then hands them out to
+ * the workers. Retries wait on a timer thread, so that workers keep
+ * processing other job items meanwhile.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+@ThreadSafe
+class BatchRetryScheduler<T> {
+
+	/**
+	 * Job items that are due for a retry
+	 */
+	private final BlockingQueue<Retry<T>> ready = new LinkedBlockingQueue<>();
+
+	/**
+	 * Number of retries waiting on the timer, or ready and not yet taken
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * The timer thread
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	BatchRetryScheduler(final String threadName) {
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Retry the given job items after the given delay.
+	 *
+	 * @param jobs
+	 *            the job items that failed
+	 *
+	 * @param attempts
+	 *            the number of times the job items have been attempted
+	 *
+	 * @param delayMillis
+	 *            the delay in milliseconds
+	 *
+	 * @return <code>true</code> if the retry was scheduled, <code>false</code>
+	 *         if this scheduler has been stopped
+	 */
+	boolean schedule(List<T> jobs, int attempts, long delayMillis) {
+		final Retry<T> retry = new Retry<>(jobs, attempts);
+
+		this.pending.incrementAndGet();
+		try {
+			this.scheduler.schedule(() -> this.ready.add(retry), delayMillis, TimeUnit.MILLISECONDS);
+			return true;
+		} catch(RejectedExecutionException e) {
+			this.pending.decrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * Take job items that are due for a retry, if any.
+	 *
+	 * @return the retry, or <code>null</code> if none are due
+	 */
+	Retry<T> poll() {
+		return this.taken(this.ready.poll());
+	}
+
+	/**
+	 * Take job items that are due for a retry, waiting up to the given time
+	 * for one to become due.
+	 *
+	 * @param timeout
+	 *            the time to wait
+	 *
+	 * @param unit
+	 *            the unit of the timeout
+	 *
+	 * @return the retry, or <code>null</code> if none became due
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	Retry<T> poll(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.taken(this.ready.poll(timeout, unit));
+	}
+
+	private Retry<T> taken(Retry<T> retry) {
+		if(retry != null) {
+			this.pending.decrementAndGet();
+		}
+
+		return retry;
+	}
+
+	/**
+	 * Returns if there are retries that have not yet been taken.
+	 *
+	 * @return <code>true</code> if retries are pending, <code>false</code>
+	 *         otherwise
+	 */
+	boolean hasPending() {
+		return this.pending.get() > 0;
+	}
+
+	/**
+	 * Return the number of retries that have not yet been taken.
+	 *
+	 * @return the number of retries
+	 */
+	int getPending() {
+		return this.pending.get();
+	}
+
+	/**
+	 * Stop the timer. Retries not yet taken are dropped.
+	 *
+	 * @return the number of retries dropped
+	 */
+	int stop() {
+		this.scheduler.shutdownNow();
+		return this.pending.getAndSet(0);
+	}
+
+	/**
+	 * Compute the delay before the given attempt using exponential backoff.
+	 * The delay doubles with each attempt up to the maximum, and is then
+	 * randomized between half and all of it, so that workers that failed
+	 * together do not retry together.
+	 *
+	 * @param attempt
+	 *            the number of failed attempts so far, starting at one
+	 *
+	 * @param baseMillis
+	 *            the delay after the first failed attempt
+	 *
+	 * @param maxMillis
+	 *            the maximum delay
+	 *
+	 * @return the delay in milliseconds
+	 */
+	static long backoffMillis(int attempt, long baseMillis, long maxMillis) {
+		if(baseMillis <= 0) {
+			return 0;
+		}
+
+		final long ceiling = Math.max(baseMillis, maxMillis);
+		final int shift = Math.min(Math.max(attempt - 1, 0), 62);
+
+		long delay = ceiling;
+		if(baseMillis <= (ceiling >> shift)) {
+			delay = baseMillis << shift;
+		}
+
+		long half = delay >> 1;
+		return delay - half + ThreadLocalRandom.current().nextLong(half + 1);
+	}
+
+	/**
+	 * Job items due for a retry.
+	 *
+	 * @param <T>
+	 *            the {@link Class} type of the job item
+	 */
+	static final class Retry<T> {
+
+		/**
+		 * The job items to retry
+		 */
+		final List<T> jobs;
+
+		/**
+		 * The number of times the job items have been attempted
+		 */
+		final int attempts;
+
+		Retry(List<T> jobs, int attempts) {
+			this.jobs = jobs;
+			this.attempts = attempts;
+		}
+
+	}
+
+}
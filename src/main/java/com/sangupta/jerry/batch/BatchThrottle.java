@@ -0,0 +1,128 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.Semaphore;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Limits the rate, and the number of concurrent executions, of job items
+ * across all workers of a {@link BatchJob}.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+class BatchThrottle {
+
+	/**
+	 * The limiter for the number of items per second, <code>null</code> if
+	 * not limited
+	 */
+	final TokenBucketRateLimiter rateLimiter;
+
+	/**
+	 * The permits for items being executed, <code>null</code> if not limited
+	 */
+	private final Semaphore inFlight;
+
+	/**
+	 * The maximum number of items being executed at once
+	 */
+	private final int maxInFlight;
+
+	BatchThrottle(TokenBucketRateLimiter rateLimiter, int maxInFlight) {
+		if(maxInFlight < 0) {
+			throw new IllegalArgumentException("Max in-flight items cannot be negative");
+		}
+
+		this.rateLimiter = rateLimiter;
+		this.maxInFlight = maxInFlight;
+		this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight, true) : null;
+	}
+
+	/**
+	 * Wait until the given number of job items may be executed. A batch
+	 * larger than the in-flight limit takes up all of it.
+	 *
+	 * @param items
+	 *            the number of job items
+	 *
+	 * @param metrics
+	 *            the metrics to record the time spent waiting in
+	 *
+	 * @return the number of in-flight permits to pass to
+	 *         {@link #release(int)} once the items are executed
+	 */
+	int acquire(int items, BatchMetrics metrics) {
+		final long start = System.nanoTime();
+
+		int permits = 0;
+		if(this.inFlight != null) {
+			permits = Math.min(items, this.maxInFlight);
+			this.inFlight.acquireUninterruptibly(permits);
+		}
+
+		if(this.rateLimiter != null) {
+			try {
+				this.rateLimiter.acquire(items);
+			} catch (InterruptedException e) {
+				// the items have been read already - execute them and let
+				// the worker act on the interrupt
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		metrics.recordThrottled(System.nanoTime() - start);
+		return permits;
+	}
+
+	/**
+	 * Release in-flight permits acquired by {@link #acquire(int, BatchMetrics)}.
+	 *
+	 * @param permits
+	 *            the number of permits
+	 */
+	void release(int permits) {
+		if(permits > 0) {
+			this.inFlight.release(permits);
+		}
+	}
+
+	/**
+	 * Return the number of job items being executed, when the in-flight items
+	 * are limited.
+	 *
+	 * @return the number of items, or <code>-1</code> if not limited
+	 */
+	int getInFlight() {
+		if(this.inFlight == null) {
+			return -1;
+		}
+
+		return this.maxInFlight - this.inFlight.availablePermits();
+	}
+
+}
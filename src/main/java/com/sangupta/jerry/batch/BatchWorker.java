@@ -21,7 +21,18 @@
 
 package com.sangupta.jerry.batch;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +58,12 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 	 * My logger instance
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(BatchJob.class);
+	
+	/**
+	 * Time in milliseconds to wait for a pending retry to become due, when
+	 * there are no more job items to read
+	 */
+	private static final long RETRY_POLL_INTERVAL_MILLIS = 50;
 
 	/**
 	 * The thread name assigned to this worker
@@ -75,11 +92,75 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 	 */
 	private final Callable<T> itemReader;
 	
+	/**
+	 * The reader to be used to fetch a batch of job items, if set the
+	 * {@link #itemReader} is not used
+	 */
+	private final Callable<List<T>> batchReader;
+	
 	/**
 	 * The executor to use to process the item read from the batch
 	 */
 	private final BatchJobItemExecutor<T> executor;
 	
+	/**
+	 * The factory used to create the thread this worker runs on, if
+	 * <code>null</code> a platform thread is created
+	 */
+	private final ThreadFactory threadFactory;
+	
+	/**
+	 * Metrics of the items read and executed by this worker
+	 */
+	private BatchMetrics metrics = new BatchMetrics();
+	
+	/**
+	 * The rate and in-flight limits shared with other workers of the job, if
+	 * any
+	 */
+	private BatchThrottle throttle;
+	
+	/**
+	 * The scheduler for retrying failed job items, shared with other workers
+	 * of the job if any
+	 */
+	private BatchRetryScheduler<T> retries;
+	
+	/**
+	 * Whether the retry scheduler belongs to this worker alone, rather than
+	 * to the job
+	 */
+	private boolean ownRetries = false;
+	
+	/**
+	 * Whether job items must complete in the order they are read, so that
+	 * asynchronous job items are not overlapped
+	 */
+	private boolean ordered = false;
+	
+	/**
+	 * The record of completed job items, shared with other workers of the
+	 * job if any
+	 */
+	private BatchCheckpoint<T> checkpoint;
+	
+	/**
+	 * Number of futures returned by an {@link AsyncBatchJobItemExecutor} that
+	 * have not yet completed
+	 */
+	private final AtomicInteger pendingFutures = new AtomicInteger();
+	
+	/**
+	 * The time in milliseconds when this worker last completed a step -
+	 * reading, executing or sleeping
+	 */
+	private volatile long lastActivityTime = System.currentTimeMillis();
+	
+	/**
+	 * Set when the worker stopped because it read a <code>null</code> item
+	 */
+	private volatile boolean exhausted = false;
+	
 	/**
 	 * Create a unique worker with the thread name.
 	 * 
@@ -100,6 +181,79 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 	 *             itemReader or executor are <code>null</code>
 	 */
 	public BatchWorker(String threadName, String jobName, Callable<T> itemReader, BatchJobItemExecutor<T> executor) {
+		this(threadName, jobName, itemReader, executor, null);
+	}
+	
+	/**
+	 * Create a unique worker with the thread name, that runs on a thread
+	 * created by the given {@link ThreadFactory}. This allows workers to run
+	 * on virtual threads.
+	 * 
+	 * @param threadName
+	 *            the name of the thread to use
+	 * 
+	 * @param jobName
+	 *            the name of the job that this worker is part of
+	 * 
+	 * @param itemReader
+	 *            the item reader that reads an item to work on
+	 * 
+	 * @param executor
+	 *            the executor to use for working on the job item
+	 * 
+	 * @param threadFactory
+	 *            the factory to create the worker thread with, or
+	 *            <code>null</code> to use a platform thread
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if threadName or jobName are <code>null/empty</code>, or if
+	 *             itemReader or executor are <code>null</code>
+	 */
+	public BatchWorker(String threadName, String jobName, Callable<T> itemReader, BatchJobItemExecutor<T> executor, ThreadFactory threadFactory) {
+		this(threadName, jobName, itemReader, null, executor, threadFactory);
+	}
+	
+	/**
+	 * Create a worker that reads and processes job items in batches. Each
+	 * batch is filtered using
+	 * {@link BatchJobItemExecutor#filterAlreadyProcessed(List)} and processed
+	 * using {@link BatchJobItemExecutor#executeJobItems(List)}. A
+	 * <code>null</code> or empty batch is treated the same as a
+	 * <code>null</code> job item.
+	 * 
+	 * @param threadName
+	 *            the name of the thread to use
+	 * 
+	 * @param jobName
+	 *            the name of the job that this worker is part of
+	 * 
+	 * @param batchReader
+	 *            the reader that reads a batch of items to work on
+	 * 
+	 * @param executor
+	 *            the executor to use for working on the job items
+	 * 
+	 * @param threadFactory
+	 *            the factory to create the worker thread with, or
+	 *            <code>null</code> to use a platform thread
+	 * 
+	 * @return the worker
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if threadName or jobName are <code>null/empty</code>, or if
+	 *             batchReader or executor are <code>null</code>
+	 * 
+	 * @since 4.0.0
+	 */
+	public static <T> BatchWorker<T> ofBatches(String threadName, String jobName, Callable<List<T>> batchReader, BatchJobItemExecutor<T> executor, ThreadFactory threadFactory) {
+		if(batchReader == null) {
+			throw new IllegalArgumentException("Batch reader cannot be null");
+		}
+		
+		return new BatchWorker<T>(threadName, jobName, null, batchReader, executor, threadFactory);
+	}
+	
+	private BatchWorker(String threadName, String jobName, Callable<T> itemReader, Callable<List<T>> batchReader, BatchJobItemExecutor<T> executor, ThreadFactory threadFactory) {
 		if(AssertUtils.isEmpty(threadName)) {
 			throw new IllegalArgumentException("Thread name cannot be null/empty");
 		}
@@ -108,14 +262,40 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 			throw new IllegalArgumentException("Job piece executor cannot be null");
 		}
 
-		if(itemReader == null) {
+		if(itemReader == null && batchReader == null) {
 			throw new IllegalArgumentException("Itemreader cannot be null");
 		}
 		
 		this.threadName = threadName;
 		this.jobName = jobName;
 		this.itemReader = itemReader;
+		this.batchReader = batchReader;
 		this.executor = executor;
+		this.threadFactory = threadFactory;
+	}
+	
+	/**
+	 * Use the configured {@link ThreadFactory}, if any, to create the thread
+	 * that this worker runs on.
+	 * 
+	 * @see com.google.common.util.concurrent.AbstractExecutionThreadService#executor()
+	 */
+	@Override
+	protected Executor executor() {
+		if(this.threadFactory == null) {
+			return super.executor();
+		}
+		
+		return new Executor() {
+			
+			@Override
+			public void execute(Runnable command) {
+				Thread thread = BatchWorker.this.threadFactory.newThread(command);
+				thread.setName(BatchWorker.this.threadName);
+				thread.start();
+			}
+			
+		};
 	}
 
 	@Override
@@ -123,6 +303,32 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 		// setup the thread name to the right context
 		Thread.currentThread().setName(this.threadName);
 		
+		// a worker on its own keeps its own retries
+		if(this.retries == null && this.executor.getMaxRetries() > 0) {
+			this.retries = new BatchRetryScheduler<>(this.threadName + "-Retry");
+			this.ownRetries = true;
+		}
+		
+		try {
+			this.runLoop();
+			
+			// futures may still fail and need a retry - keep the retries
+			// around until they complete
+			this.awaitFutures();
+		} finally {
+			if(this.ownRetries) {
+				int dropped = this.retries.stop();
+				if(dropped > 0) {
+					LOGGER.warn("Dropping {} pending retries as worker is stopping", dropped);
+				}
+			}
+		}
+	}
+	
+	private void runLoop() {
+		// number of consecutive errors reading job items
+		int readErrors = 0;
+		
 		// start running
 		while(this.isRunning()) {
 			// check if we need to stop right away
@@ -130,23 +336,38 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 				return;
 			}
 			
+			this.lastActivityTime = System.currentTimeMillis();
+			
 			// check if we need to pause via redis config
 			pauseIfNeeded();
+			
+			// failed jobs that are due take precedence over new ones
+			if(this.retries != null) {
+				BatchRetryScheduler.Retry<T> retry = this.retries.poll();
+				if(retry != null) {
+					this.executeJobs(retry.jobs, retry.attempts);
+					continue;
+				}
+			}
 
 			// read one message from queue
 			LOGGER.debug("Fetching job item for batch-job: {}", this.jobName);
 			
-			// read the job from where-ever we are supposed to read from
-			T job;
+			// read the jobs from where-ever we are supposed to read from
+			List<T> jobs;
 			try {
-				job = this.itemReader.call();
+				jobs = this.readJobs();
+				readErrors = 0;
 			} catch(Exception e) {
 				LOGGER.error("Unable to read job", e);
+				this.metrics.recordReadError();
+				readErrors++;
 				
-				if(this.executor.getWaitTimeOnJobReadErrorInMillis() > 0) {
+				long waitTime = BatchRetryScheduler.backoffMillis(readErrors, this.executor.getWaitTimeOnJobReadErrorInMillis(), this.executor.getMaxWaitTimeOnJobReadErrorInMillis());
+				if(waitTime > 0) {
 					try {
-						LOGGER.debug("Sleeping for stipulated time on job read error...");
-						Thread.sleep(this.executor.getWaitTimeOnJobReadErrorInMillis());
+						LOGGER.debug("Sleeping for {} millis on job read error...", waitTime);
+						Thread.sleep(waitTime);
 					} catch (InterruptedException e1) {
 						// make an exit immediately
 						return;
@@ -156,11 +377,26 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 				continue;
 			}
 			
-			if(job == null) {
+			if(jobs == null || jobs.isEmpty()) {
 				LOGGER.debug("Job is read as null");
+				this.metrics.recordNullRead();
 				
 				if(this.executor.terminateExecutionOnNullJobItem()) {
+					// wait for the retries and futures, if any, before ending
+					// as they may yet fail and need a retry
+					if(this.pendingFutures.get() > 0 || (this.retries != null && this.retries.hasPending())) {
+						try {
+							this.awaitPendingWork();
+						} catch (InterruptedException e) {
+							// make an exit immediately
+							return;
+						}
+						
+						continue;
+					}
+					
 					LOGGER.debug("Flagged to stop worker on null job... ending worker.");
+					this.exhausted = true;
 					return;
 				}
 				
@@ -177,26 +413,389 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 				continue;
 			}
 			
-			// we found a job
-			LOGGER.debug("Job to process read as: {}", job);
-			
-			// check if job has already been processed
-			if(this.executor.jobAlreadyProcessed(job)) {
-				LOGGER.debug("Job has already been processed, skipping now: {}", job);
-				
+			if(this.batchReader == null) {
+				this.processJob(jobs.get(0));
 				continue;
 			}
 			
-			// run the job
+			this.processJobs(jobs);
+		}
+	}
+	
+	/**
+	 * Read the next job item, or batch of job items.
+	 * 
+	 * @return the job items read, <code>null</code> or empty if none
+	 * 
+	 * @throws Exception
+	 *             if the reader fails
+	 */
+	private List<T> readJobs() throws Exception {
+		if(this.batchReader != null) {
+			return this.batchReader.call();
+		}
+		
+		T job = this.itemReader.call();
+		if(job == null) {
+			return null;
+		}
+		
+		return Collections.singletonList(job);
+	}
+	
+	/**
+	 * Process a single job item read from the item reader.
+	 * 
+	 * @param job
+	 *            the job item
+	 */
+	private void processJob(T job) {
+		// we found a job
+		LOGGER.debug("Job to process read as: {}", job);
+		
+		// check if job has already been processed
+		if(this.checkpoint != null && this.checkpoint.isCompleted(job)) {
+			LOGGER.debug("Job has already been completed, skipping now: {}", job);
+			this.metrics.recordAlreadyProcessed(1);
+			
+			return;
+		}
+		
+		if(this.executor.jobAlreadyProcessed(job)) {
+			LOGGER.debug("Job has already been processed, skipping now: {}", job);
+			this.metrics.recordAlreadyProcessed(1);
+			
+			// the checkpoint must move past skipped items too
+			this.markCompleted(Collections.singletonList(job));
+			return;
+		}
+		
+		this.executeJobs(Collections.singletonList(job), 0);
+	}
+	
+	/**
+	 * Process a batch of job items read from the batch reader.
+	 * 
+	 * @param jobs
+	 *            the job items
+	 */
+	private void processJobs(List<T> jobs) {
+		LOGGER.debug("Batch of {} jobs read to process", jobs.size());
+		
+		// remove jobs that have already been processed
+		List<T> pending = jobs;
+		if(this.checkpoint != null) {
+			pending = new ArrayList<>(jobs.size());
+			for(T job : jobs) {
+				if(!this.checkpoint.isCompleted(job)) {
+					pending.add(job);
+				}
+			}
+		}
+		
+		if(!pending.isEmpty()) {
+			List<T> unfiltered = pending;
+			pending = this.executor.filterAlreadyProcessed(unfiltered);
+			
+			// the checkpoint must move past skipped items too
+			this.markSkipped(unfiltered, pending);
+		}
+		
+		int skipped = jobs.size() - (pending == null ? 0 : pending.size());
+		if(skipped > 0) {
+			this.metrics.recordAlreadyProcessed(skipped);
+		}
+		
+		if(pending == null || pending.isEmpty()) {
+			LOGGER.debug("All jobs in batch have already been processed, skipping now");
+			return;
+		}
+		
+		this.executeJobs(pending, 0);
+	}
+	
+	/**
+	 * Execute the given job items, and schedule them for a retry if they
+	 * fail.
+	 * 
+	 * @param jobs
+	 *            the job items
+	 * 
+	 * @param attempts
+	 *            the number of times the job items have already been
+	 *            attempted
+	 */
+	private void executeJobs(List<T> jobs, int attempts) {
+		// wait for our turn
+		final int permits = this.acquirePermits(jobs.size());
+		
+		if(this.executor instanceof AsyncBatchJobItemExecutor) {
+			this.executeJobsAsync(jobs, attempts, permits);
+			return;
+		}
+		
+		// run the jobs
+		final long start = System.nanoTime();
+		Exception error = null;
+		try {
+			if(this.batchReader == null) {
+				LOGGER.debug("Firing the job executor for job: {}", jobs.get(0));
+				this.executor.executeJobItem(jobs.get(0));
+			} else {
+				LOGGER.debug("Firing the job executor for batch of {} jobs", jobs.size());
+				this.executor.executeJobItems(jobs);
+			}
+		} catch(Exception e) {
+			error = e;
+		}
+		
+		this.completeJobs(jobs, attempts, permits, start, error);
+	}
+	
+	/**
+	 * Start executing the given job items using the asynchronous executor,
+	 * without waiting for them to complete.
+	 * 
+	 * @param jobs
+	 *            the job items
+	 * 
+	 * @param attempts
+	 *            the number of times the job items have already been
+	 *            attempted
+	 * 
+	 * @param permits
+	 *            the in-flight permits to release once the job items complete
+	 */
+	private void executeJobsAsync(final List<T> jobs, final int attempts, final int permits) {
+		final AsyncBatchJobItemExecutor<T> executor = (AsyncBatchJobItemExecutor<T>) this.executor;
+		
+		final long start = System.nanoTime();
+		CompletableFuture<Void> future;
+		try {
+			if(this.batchReader == null) {
+				LOGGER.debug("Firing the async job executor for job: {}", jobs.get(0));
+				future = executor.executeJobItemAsync(jobs.get(0));
+			} else {
+				LOGGER.debug("Firing the async job executor for batch of {} jobs", jobs.size());
+				future = executor.executeJobItemsAsync(jobs);
+			}
+			
+			if(future == null) {
+				throw new IllegalStateException("Async job executor returned a null future");
+			}
+		} catch(Exception e) {
+			future = CompletableFuture.failedFuture(e);
+		}
+		
+		this.pendingFutures.incrementAndGet();
+		future.whenComplete((result, error) -> {
 			try {
-				LOGGER.debug("Firing the job executor for job: {}", job);
-				this.executor.executeJobItem(job);
-			} catch(Exception e) {
-				LOGGER.error("Unable to execute job: " + job, e);
+				if(error instanceof CompletionException && error.getCause() != null) {
+					error = error.getCause();
+				}
+				
+				this.completeJobs(jobs, attempts, permits, start, error);
+			} finally {
+				if(this.pendingFutures.decrementAndGet() == 0) {
+					synchronized (this.pendingFutures) {
+						this.pendingFutures.notifyAll();
+					}
+				}
+			}
+		});
+		
+		// the next job item may share a key with this one
+		if(this.ordered) {
+			this.awaitFutures();
+		}
+	}
+	
+	/**
+	 * Record the outcome of executing the given job items, and schedule them
+	 * for a retry if they failed.
+	 * 
+	 * @param jobs
+	 *            the job items
+	 * 
+	 * @param attempts
+	 *            the number of times the job items had been attempted before
+	 * 
+	 * @param permits
+	 *            the in-flight permits to release
+	 * 
+	 * @param start
+	 *            the time in nanos when execution started
+	 * 
+	 * @param error
+	 *            the error thrown, <code>null</code> if successful
+	 */
+	private void completeJobs(List<T> jobs, int attempts, int permits, long start, Throwable error) {
+		this.metrics.recordExecution(jobs.size(), error == null, System.nanoTime() - start);
+		this.releasePermits(permits);
+		
+		if(error != null) {
+			LOGGER.error("Unable to execute jobs: " + jobs, error);
+			this.onFailure(jobs, attempts + 1, error);
+			return;
+		}
+		
+		this.markCompleted(jobs);
+	}
+	
+	/**
+	 * Wait for a retry to become due, or for a future in flight to complete.
+	 * 
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	private void awaitPendingWork() throws InterruptedException {
+		if(this.retries != null) {
+			BatchRetryScheduler.Retry<T> retry = this.retries.poll(RETRY_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			if(retry != null) {
+				this.executeJobs(retry.jobs, retry.attempts);
+			}
+			
+			return;
+		}
+		
+		synchronized (this.pendingFutures) {
+			if(this.pendingFutures.get() > 0) {
+				this.pendingFutures.wait(RETRY_POLL_INTERVAL_MILLIS);
+			}
+		}
+	}
+	
+	/**
+	 * Wait for all futures in flight to complete.
+	 * 
+	 */
+	private void awaitFutures() {
+		synchronized (this.pendingFutures) {
+			while(this.pendingFutures.get() > 0) {
+				try {
+					this.pendingFutures.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Record the given job items as completed in the checkpoint, if any.
+	 * 
+	 * @param jobs
+	 *            the job items
+	 */
+	private void markCompleted(List<T> jobs) {
+		if(this.checkpoint == null) {
+			return;
+		}
+		
+		for(T job : jobs) {
+			this.checkpoint.markCompleted(job);
+		}
+	}
+	
+	/**
+	 * Record the job items that were removed by
+	 * {@link BatchJobItemExecutor#filterAlreadyProcessed(List)} as completed
+	 * in the checkpoint, if any.
+	 * 
+	 * @param jobs
+	 *            the job items before filtering
+	 * 
+	 * @param pending
+	 *            the job items that still need to be processed, may be
+	 *            <code>null</code>
+	 */
+	private void markSkipped(List<T> jobs, List<T> pending) {
+		if(this.checkpoint == null) {
+			return;
+		}
+		
+		if(pending == null || pending.isEmpty()) {
+			this.markCompleted(jobs);
+			return;
+		}
+		
+		if(pending.size() == jobs.size()) {
+			return;
+		}
+		
+		Set<T> remaining = Collections.newSetFromMap(new IdentityHashMap<>(pending.size()));
+		remaining.addAll(pending);
+		for(T job : jobs) {
+			if(!remaining.contains(job)) {
+				this.checkpoint.markCompleted(job);
 			}
 		}
 	}
 	
+	/**
+	 * Schedule the failed job items for a retry, or hand them over to
+	 * {@link BatchJobItemExecutor#onJobItemsFailed(List, int, Throwable)} if
+	 * no retries are left.
+	 * 
+	 * @param jobs
+	 *            the job items that failed
+	 * 
+	 * @param attempts
+	 *            the number of times the job items have been attempted
+	 * 
+	 * @param error
+	 *            the error thrown
+	 */
+	private void onFailure(List<T> jobs, int attempts, Throwable error) {
+		// a worker retired from a running job still hands its failures to the
+		// job's retries - the job stops its scheduler when it stops itself
+		boolean stopping = this.ownRetries && this.stopNow;
+		if(this.retries != null && !stopping && attempts <= this.executor.getMaxRetries()) {
+			long delay = BatchRetryScheduler.backoffMillis(attempts, this.executor.getRetryDelayInMillis(), this.executor.getMaxRetryDelayInMillis());
+			if(this.retries.schedule(jobs, attempts, delay)) {
+				LOGGER.debug("Retrying {} jobs in {} millis", jobs.size(), delay);
+				this.metrics.recordRetry(jobs.size());
+				return;
+			}
+		}
+		
+		this.metrics.recordDeadLetter(jobs.size());
+		try {
+			this.executor.onJobItemsFailed(jobs, attempts, error);
+		} catch(Exception e) {
+			LOGGER.error("Unable to hand over failed jobs: " + jobs, e);
+		}
+		
+		// handed over - do not pick them up again on restart
+		this.markCompleted(jobs);
+	}
+	
+	/**
+	 * Wait for the rate and in-flight limits of the job, if any, to allow
+	 * executing the given number of job items.
+	 * 
+	 * @param items
+	 *            the number of job items
+	 * 
+	 * @return the in-flight permits acquired
+	 */
+	private int acquirePermits(int items) {
+		if(this.throttle == null) {
+			return 0;
+		}
+		
+		int permits = this.throttle.acquire(items, this.metrics);
+		this.lastActivityTime = System.currentTimeMillis();
+		return permits;
+	}
+	
+	private void releasePermits(int permits) {
+		if(this.throttle != null) {
+			this.throttle.release(permits);
+		}
+	}
+	
 	/**
 	 * Pause the worker if need be.
 	 * 
@@ -220,11 +819,15 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 			LOGGER.info("Pausing this worker as dictated by JobPieceExecutor");
 
 			// sleep for one minute
+			final long start = System.nanoTime();
 			try {
 				Thread.sleep(this.executor.pauseCheckInterval());
 			} catch (InterruptedException e) {
 				// thread needs to shutdown
 				return;
+			} finally {
+				this.metrics.recordPaused(System.nanoTime() - start);
+				this.lastActivityTime = System.currentTimeMillis();
 			}
 		} while(true);
 	}
@@ -253,6 +856,110 @@ public class BatchWorker<T> extends AbstractExecutionThreadService  {
 		return this.threadName;
 	}
 
+	/**
+	 * Make the metrics of this worker also update the given metrics of its
+	 * job. Must be called before the worker is started.
+	 * 
+	 * @param jobMetrics
+	 *            the metrics of the job
+	 */
+	void attachMetrics(BatchMetrics jobMetrics) {
+		this.metrics = new BatchMetrics(jobMetrics);
+	}
+	
+	/**
+	 * Make this worker obey the given rate and in-flight limits, shared with
+	 * other workers of its job. Must be called before the worker is started.
+	 * 
+	 * @param throttle
+	 *            the limits of the job
+	 */
+	void attachThrottle(BatchThrottle throttle) {
+		this.throttle = throttle;
+	}
+	
+	/**
+	 * Make this worker schedule retries of failed job items using the given
+	 * scheduler, shared with other workers of its job. Must be called before
+	 * the worker is started.
+	 * 
+	 * @param retries
+	 *            the retry scheduler of the job
+	 */
+	void attachRetries(BatchRetryScheduler<T> retries) {
+		this.retries = retries;
+	}
+	
+	/**
+	 * Make this worker skip job items completed as per the given checkpoint,
+	 * and record the ones it completes, or gives up on, in it. Must be called
+	 * before the worker is started.
+	 * 
+	 * @param checkpoint
+	 *            the checkpoint of the job
+	 */
+	void attachCheckpoint(BatchCheckpoint<T> checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+	
+	/**
+	 * Make this worker complete each job item, or batch, before starting the
+	 * next one, even if the executor is asynchronous. Must be called before
+	 * the worker is started.
+	 * 
+	 */
+	void preserveOrder() {
+		this.ordered = true;
+	}
+	
+	/**
+	 * Return the metrics of the items read and executed by this worker.
+	 * 
+	 * @return the metrics
+	 * 
+	 * @since 4.0.0
+	 */
+	public BatchMetrics getMetrics() {
+		return this.metrics;
+	}
+	
+	/**
+	 * Return the time when this worker last made progress - read a job item,
+	 * completed executing one, or woke up from a pause or wait. A worker that
+	 * is running but has not made progress for long is likely stalled on a
+	 * job item.
+	 * 
+	 * @return the time in epoch milliseconds
+	 * 
+	 * @since 4.0.0
+	 */
+	public long getLastActivityTime() {
+		return this.lastActivityTime;
+	}
+	
+	/**
+	 * Returns if the worker stopped because it read a <code>null</code> job
+	 * item, and was flagged to terminate on one.
+	 * 
+	 * @return <code>true</code> if the worker ran out of job items,
+	 *         <code>false</code> otherwise
+	 */
+	boolean isExhausted() {
+		return this.exhausted;
+	}
+	
+	/**
+	 * Return the number of job items, or batches, started by this worker using
+	 * an {@link AsyncBatchJobItemExecutor} that have not yet completed.
+	 * 
+	 * @return the number of futures in flight
+	 * 
+	 * @since 4.0.0
+	 */
+	public int getNumPendingFutures() {
+		return this.pendingFutures.get();
+	}
+	
 	/**
 	 * Returns if the current worker is under the pause state or not.
 	 * 
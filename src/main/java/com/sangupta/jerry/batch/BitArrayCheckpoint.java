@@ -0,0 +1,137 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.batch;
+
+import java.io.IOException;
+import java.util.function.ToIntFunction;
+
+import com.sangupta.jerry.bitarray.BitArray;
+import com.sangupta.jerry.bitarray.DurableBitArray;
+import com.sangupta.jerry.bitarray.FileBackedBitArray;
+import com.sangupta.jerry.bitarray.LargeMMapFileBackedBitArray;
+import com.sangupta.jerry.bitarray.MMapFileBackedBitArray;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link BatchCheckpoint} for integer-keyed job items, that records each
+ * completed item as a bit in a {@link BitArray}. Unlike a watermark, items
+ * completed out of order are remembered as well. Back it with a
+ * {@link DurableBitArray}, such as a {@link MMapFileBackedBitArray},
+ * {@link LargeMMapFileBackedBitArray} or {@link FileBackedBitArray}, to
+ * persist completions across restarts - syncing forces the array to disk.
+ *
+ * Access to the bit array is serialized, so it need not be thread-safe.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+@ThreadSafe
+public class BitArrayCheckpoint<T> extends AbstractBatchCheckpoint<T> {
+
+	/**
+	 * The completed-set
+	 */
+	private final BitArray bitArray;
+
+	/**
+	 * Function returning the key of a job item
+	 */
+	private final ToIntFunction<T> keyFunction;
+
+	/**
+	 * Create a checkpoint over the given bit array.
+	 *
+	 * @param bitArray
+	 *            the bit array to record completions in
+	 *
+	 * @param keyFunction
+	 *            function returning the key of a job item, which must be
+	 *            less than the size of the bit array
+	 *
+	 * @param syncIntervalMillis
+	 *            the minimum interval in milliseconds between syncs, or zero
+	 *            to sync on every completion
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the bit array or function are <code>null</code>
+	 */
+	public BitArrayCheckpoint(BitArray bitArray, ToIntFunction<T> keyFunction, long syncIntervalMillis) {
+		super(syncIntervalMillis);
+
+		if(bitArray == null) {
+			throw new IllegalArgumentException("Bit array cannot be null");
+		}
+
+		if(keyFunction == null) {
+			throw new IllegalArgumentException("Key function cannot be null");
+		}
+
+		this.bitArray = bitArray;
+		this.keyFunction = keyFunction;
+	}
+
+	@Override
+	public boolean isCompleted(T job) {
+		int key = this.keyFunction.applyAsInt(job);
+		synchronized (this.bitArray) {
+			return this.bitArray.getBit(key);
+		}
+	}
+
+	@Override
+	protected void complete(T job) {
+		int key = this.keyFunction.applyAsInt(job);
+		synchronized (this.bitArray) {
+			this.bitArray.setBit(key);
+		}
+	}
+
+	@Override
+	protected void persist() throws IOException {
+		synchronized (this.bitArray) {
+			if(this.bitArray instanceof DurableBitArray) {
+				((DurableBitArray) this.bitArray).sync();
+			}
+		}
+	}
+
+	/**
+	 * Sync and close the underlying bit array.
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 */
+	@Override
+	public void close() throws IOException {
+		super.close();
+
+		synchronized (this.bitArray) {
+			this.bitArray.close();
+		}
+	}
+
+}
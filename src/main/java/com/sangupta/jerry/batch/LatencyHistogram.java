@@ -0,0 +1,164 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A lock-free histogram of latencies, with one bucket per power of two
+ * nanoseconds. Bucket <code>n</code> counts latencies in the range
+ * <code>[2^(n-1), 2^n)</code> nanoseconds, so that percentiles are accurate
+ * to within a factor of two at a fixed cost of 64 counters.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+public class LatencyHistogram {
+
+	/**
+	 * Number of buckets
+	 */
+	public static final int NUM_BUCKETS = Long.SIZE;
+
+	/**
+	 * The counts in each bucket
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+
+	/**
+	 * Record a latency.
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds, negative values count as zero
+	 */
+	public void record(long nanos) {
+		this.buckets.incrementAndGet(bucketOf(nanos));
+	}
+
+	/**
+	 * Return the bucket for the given latency.
+	 *
+	 * @param nanos
+	 *            the latency in nanoseconds
+	 *
+	 * @return the index of the bucket
+	 */
+	static int bucketOf(long nanos) {
+		if(nanos <= 0) {
+			return 0;
+		}
+
+		return Math.min(NUM_BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos));
+	}
+
+	/**
+	 * Return the number of latencies recorded in the given bucket.
+	 *
+	 * @param bucket
+	 *            the index of the bucket
+	 *
+	 * @return the count
+	 */
+	public long getCount(int bucket) {
+		return this.buckets.get(bucket);
+	}
+
+	/**
+	 * Return the upper bound in nanoseconds of the latencies counted in the
+	 * given bucket.
+	 *
+	 * @param bucket
+	 *            the index of the bucket
+	 *
+	 * @return the exclusive upper bound in nanoseconds
+	 */
+	public static long getUpperBoundNanos(int bucket) {
+		if(bucket >= NUM_BUCKETS - 1) {
+			return Long.MAX_VALUE;
+		}
+
+		return 1l << bucket;
+	}
+
+	/**
+	 * Return the total number of latencies recorded.
+	 *
+	 * @return the count
+	 */
+	public long getTotalCount() {
+		long total = 0;
+		for(int index = 0; index < NUM_BUCKETS; index++) {
+			total += this.buckets.get(index);
+		}
+
+		return total;
+	}
+
+	/**
+	 * Return the latency below which the given percentage of recorded
+	 * latencies fall. The value is the upper bound of the bucket, so it may
+	 * over-estimate by up to a factor of two.
+	 *
+	 * @param percentile
+	 *            the percentile, between 0 and 100
+	 *
+	 * @param unit
+	 *            the unit to return the latency in
+	 *
+	 * @return the latency, or zero if nothing has been recorded
+	 */
+	public long getPercentile(double percentile, TimeUnit unit) {
+		if(percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+
+		// take a copy so that the total and the walk agree
+		long[] counts = new long[NUM_BUCKETS];
+		long total = 0;
+		for(int index = 0; index < NUM_BUCKETS; index++) {
+			counts[index] = this.buckets.get(index);
+			total += counts[index];
+		}
+
+		if(total == 0) {
+			return 0;
+		}
+
+		long rank = (long) Math.ceil(total * percentile / 100d);
+		long seen = 0;
+		for(int index = 0; index < NUM_BUCKETS; index++) {
+			seen += counts[index];
+			if(seen >= rank && counts[index] > 0) {
+				return unit.convert(getUpperBoundNanos(index), TimeUnit.NANOSECONDS);
+			}
+		}
+
+		return unit.convert(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+}
@@ -0,0 +1,206 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.TimeUnit;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A token-bucket rate limiter. Tokens are added at a fixed rate up to the
+ * burst size, and each permit consumes one token. When there are not
+ * enough tokens the caller waits until they would have been added. Callers
+ * are served in order of arrival, so a large request delays the ones behind
+ * it instead of starving.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+public class TokenBucketRateLimiter {
+
+	/**
+	 * Number of permits added per nanosecond
+	 */
+	private volatile double permitsPerNano;
+
+	/**
+	 * The maximum number of tokens that can be saved up
+	 */
+	private final double burst;
+
+	/**
+	 * The tokens available, negative when permits have been handed out
+	 * ahead of time
+	 */
+	private double tokens;
+
+	/**
+	 * The time in nanos at which tokens were last added
+	 */
+	private long lastRefillNanos;
+
+	/**
+	 * Create a rate limiter with the given rate, that allows a burst of one
+	 * second's worth of permits.
+	 *
+	 * @param permitsPerSecond
+	 *            the number of permits per second
+	 */
+	public TokenBucketRateLimiter(double permitsPerSecond) {
+		this(permitsPerSecond, Math.max(1, (int) Math.ceil(permitsPerSecond)));
+	}
+
+	/**
+	 * Create a rate limiter with the given rate and burst size. The bucket
+	 * starts full.
+	 *
+	 * @param permitsPerSecond
+	 *            the number of permits per second
+	 *
+	 * @param burst
+	 *            the maximum number of permits that can be acquired without
+	 *            waiting after a period of inactivity
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the rate or the burst are not positive
+	 */
+	public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+		if(burst <= 0) {
+			throw new IllegalArgumentException("Burst cannot be less than or equal to zero");
+		}
+
+		this.burst = burst;
+		this.tokens = burst;
+		this.lastRefillNanos = System.nanoTime();
+		this.setRate(permitsPerSecond);
+	}
+
+	/**
+	 * Change the rate of this limiter.
+	 *
+	 * @param permitsPerSecond
+	 *            the number of permits per second
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the rate is not positive
+	 */
+	public synchronized void setRate(double permitsPerSecond) {
+		if(!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+			throw new IllegalArgumentException("Permits per second must be positive");
+		}
+
+		// account tokens at the old rate before switching
+		this.refill(System.nanoTime());
+		this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+	}
+
+	/**
+	 * Return the rate of this limiter.
+	 *
+	 * @return the number of permits per second
+	 */
+	public double getRate() {
+		return this.permitsPerNano * TimeUnit.SECONDS.toNanos(1);
+	}
+
+	/**
+	 * Acquire the given number of permits, waiting as long as needed.
+	 *
+	 * @param permits
+	 *            the number of permits
+	 *
+	 * @return the time in nanoseconds spent waiting
+	 *
+	 * @throws InterruptedException
+	 *             if interrupted while waiting - the permits are consumed
+	 *             nevertheless
+	 */
+	public long acquire(int permits) throws InterruptedException {
+		long waitNanos = this.reserve(permits);
+		if(waitNanos > 0) {
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+
+		return waitNanos;
+	}
+
+	/**
+	 * Acquire the given number of permits only if they are available right
+	 * away.
+	 *
+	 * @param permits
+	 *            the number of permits
+	 *
+	 * @return <code>true</code> if the permits were acquired,
+	 *         <code>false</code> otherwise
+	 */
+	public synchronized boolean tryAcquire(int permits) {
+		checkPermits(permits);
+
+		this.refill(System.nanoTime());
+		if(this.tokens < permits) {
+			return false;
+		}
+
+		this.tokens -= permits;
+		return true;
+	}
+
+	/**
+	 * Consume the given number of permits and return the time the caller
+	 * must wait before using them.
+	 *
+	 * @param permits
+	 *            the number of permits
+	 *
+	 * @return the time to wait in nanoseconds
+	 */
+	synchronized long reserve(int permits) {
+		checkPermits(permits);
+
+		this.refill(System.nanoTime());
+		this.tokens -= permits;
+		if(this.tokens >= 0) {
+			return 0;
+		}
+
+		return (long) Math.ceil(-this.tokens / this.permitsPerNano);
+	}
+
+	private void refill(long now) {
+		long elapsed = now - this.lastRefillNanos;
+		if(elapsed > 0) {
+			this.tokens = Math.min(this.burst, this.tokens + elapsed * this.permitsPerNano);
+			this.lastRefillNanos = now;
+		}
+	}
+
+	private static void checkPermits(int permits) {
+		if(permits <= 0) {
+			throw new IllegalArgumentException("Permits cannot be less than or equal to zero");
+		}
+	}
+
+}
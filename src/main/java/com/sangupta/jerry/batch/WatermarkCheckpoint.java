@@ -0,0 +1,175 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
+
+import com.sangupta.jerry.unsafe.MappedUnsafeMemory;
+import com.sangupta.jerry.unsafe.UnsafeMemory;
+import com.sangupta.jerry.unsafe.UnsafeMemoryUtils;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A {@link BatchCheckpoint} for job items read in order of a contiguous
+ * numeric offset, such as a sequence number or a position in a log. Only the
+ * watermark - the highest offset up to which all job items have completed -
+ * is persisted, so the checkpoint stays a few bytes however many items the
+ * job processes. The reader of the job should resume from
+ * {@link #getWatermark()} plus one.
+ *
+ * Offsets must be contiguous: the watermark only advances over an offset
+ * once that offset itself is completed, so a source with gaps in its
+ * offsets, such as row ids after deletes, must map them to a contiguous
+ * sequence in the offset function. Job items skipped by the executor as
+ * already processed are recorded as completed by the job, and thus do not
+ * hold the watermark back.
+ *
+ * Items completed ahead of the watermark are tracked in memory only, and
+ * are thus processed again after a crash.
+ *
+ * The watermark is written as a snapshot using
+ * {@link UnsafeMemoryUtils#writeSnapshot(UnsafeMemory, File)}, so that a
+ * crash while writing leaves the previous watermark intact.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ *
+ * @param <T>
+ *            the {@link Class} type of the job item
+ */
+@ThreadSafe
+public class WatermarkCheckpoint<T> extends AbstractBatchCheckpoint<T> {
+
+	/**
+	 * The file the watermark is persisted to
+	 */
+	private final File file;
+
+	/**
+	 * Function returning the offset of a job item
+	 */
+	private final ToLongFunction<T> offsetFunction;
+
+	/**
+	 * The highest offset up to which all job items have completed
+	 */
+	private long watermark;
+
+	/**
+	 * Offsets completed beyond the watermark
+	 */
+	private final TreeSet<Long> completedAhead = new TreeSet<>();
+
+	/**
+	 * Create a checkpoint persisted to the given file. If the file exists,
+	 * the watermark is read from it, otherwise it starts at the given one.
+	 *
+	 * @param file
+	 *            the file to persist the watermark to
+	 *
+	 * @param initialWatermark
+	 *            the watermark when the file does not exist, usually one less
+	 *            than the first offset
+	 *
+	 * @param offsetFunction
+	 *            function returning the offset of a job item
+	 *
+	 * @param syncIntervalMillis
+	 *            the minimum interval in milliseconds between syncs, or zero
+	 *            to sync on every completion
+	 *
+	 * @throws IOException
+	 *             if the file exists but cannot be read
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the file or function are <code>null</code>
+	 */
+	public WatermarkCheckpoint(File file, long initialWatermark, ToLongFunction<T> offsetFunction, long syncIntervalMillis) throws IOException {
+		super(syncIntervalMillis);
+
+		if(file == null) {
+			throw new IllegalArgumentException("Checkpoint file cannot be null");
+		}
+
+		if(offsetFunction == null) {
+			throw new IllegalArgumentException("Offset function cannot be null");
+		}
+
+		this.file = file;
+		this.offsetFunction = offsetFunction;
+		this.watermark = initialWatermark;
+
+		if(file.exists()) {
+			try(MappedUnsafeMemory memory = UnsafeMemoryUtils.readSnapshot(file, true)) {
+				this.watermark = memory.getLong();
+			}
+		}
+	}
+
+	/**
+	 * Return the highest offset up to which all job items have completed.
+	 *
+	 * @return the watermark
+	 */
+	public synchronized long getWatermark() {
+		return this.watermark;
+	}
+
+	@Override
+	public synchronized boolean isCompleted(T job) {
+		long offset = this.offsetFunction.applyAsLong(job);
+		return offset <= this.watermark || this.completedAhead.contains(offset);
+	}
+
+	@Override
+	protected synchronized void complete(T job) {
+		long offset = this.offsetFunction.applyAsLong(job);
+		if(offset <= this.watermark) {
+			return;
+		}
+
+		if(offset != this.watermark + 1) {
+			this.completedAhead.add(offset);
+			return;
+		}
+
+		// advance over the items completed ahead
+		this.watermark = offset;
+		while(!this.completedAhead.isEmpty() && this.completedAhead.first() == this.watermark + 1) {
+			this.watermark = this.completedAhead.pollFirst();
+		}
+	}
+
+	@Override
+	protected void persist() throws IOException {
+		UnsafeMemory memory = new UnsafeMemory(new byte[Long.BYTES]);
+		memory.putLong(this.getWatermark());
+
+		UnsafeMemoryUtils.writeSnapshot(memory, this.file);
+	}
+
+}
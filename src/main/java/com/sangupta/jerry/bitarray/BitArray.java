@@ -22,11 +22,21 @@
 package com.sangupta.jerry.bitarray;
 
 import java.io.Closeable;
+import java.util.function.IntConsumer;
 
 /**
  * A contract for all implementations of bit-arrays. This provides
  * specific methods that will be needed for working with bloom filters.
  *
+ * The bulk and range methods come with default implementations that work a
+ * bit at a time using the single-bit methods. Implementations are expected to
+ * override them with versions that work on whole words where possible.
+ *
+ * Every implementation can be read as a stream of 64-bit words using
+ * {@link #numWords()} and {@link #readWord(int)}, independent of how it
+ * stores the bits. This allows any two implementations to be combined a word
+ * at a time without copying either into an intermediate array.
+ *
  * @author sangupta
  * @since 1.7
  */
@@ -142,4 +152,219 @@ public interface BitArray extends Closeable {
      *         is set
      */
 	public int getNextSetBit(int fromIndex);
+
+	/**
+	 * Set all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to set
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to set
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the start index is negative, or the end index is less
+	 *             than the start index or beyond the array
+	 */
+	public default void setRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(this, fromIndex, toIndex);
+
+		for(int index = fromIndex; index < toIndex; index++) {
+			this.setBit(index);
+		}
+	}
+
+	/**
+	 * Clear all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to clear
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to clear
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the start index is negative, or the end index is less
+	 *             than the start index or beyond the array
+	 */
+	public default void clearRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(this, fromIndex, toIndex);
+
+		for(int index = fromIndex; index < toIndex; index++) {
+			this.clearBit(index);
+		}
+	}
+
+	/**
+	 * Flip all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to flip
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to flip
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the start index is negative, or the end index is less
+	 *             than the start index or beyond the array
+	 */
+	public default void flipRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(this, fromIndex, toIndex);
+
+		for(int index = fromIndex; index < toIndex; index++) {
+			if(this.getBit(index)) {
+				this.clearBit(index);
+			} else {
+				this.setBit(index);
+			}
+		}
+	}
+
+	/**
+	 * Count the number of bits that are set from the given start index
+	 * (inclusive) to the given end index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to count
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to count
+	 *
+	 * @return the number of bits set in the range
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the start index is negative, or the end index is less
+	 *             than the start index or beyond the array
+	 */
+	public default int cardinality(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(this, fromIndex, toIndex);
+
+		int count = 0;
+		for(int index = fromIndex; index < toIndex; index++) {
+			if(this.getBit(index)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Clear all bits in this array that are set in the second
+	 * {@link BitArray}.
+	 *
+	 * @param bitArray
+	 *            the bitArray to AND NOT with
+	 */
+	public default void andNot(BitArray bitArray) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("BitArray to AND NOT with cannot be null");
+		}
+
+		bitArray.forEachSetBit(this::clearBit);
+	}
+
+	/**
+	 * Do a Boolean XOR with the second {@link BitArray}.
+	 *
+	 * @param bitArray
+	 *            the bitArray to XOR with
+	 */
+	public default void xor(BitArray bitArray) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("BitArray to XOR with cannot be null");
+		}
+
+		bitArray.forEachSetBit(index -> this.flipRange(index, index + 1));
+	}
+
+	/**
+	 * Invoke the given consumer with the index of every bit that is set, in
+	 * ascending order.
+	 *
+	 * @param consumer
+	 *            the consumer to invoke
+	 */
+	public default void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		int index = this.getNextSetBit(0);
+		while(index >= 0) {
+			consumer.accept(index);
+			index = this.getNextSetBit(index + 1);
+		}
+	}
+
+	/**
+	 * Get the next bit that is not set on or after the given start index.
+	 *
+	 * @param fromIndex
+	 *            the index to start searching for.
+	 *
+	 * @return the index of the next bit that is clear, or <code>-1</code> if
+	 *         all bits till the end of the array are set
+	 */
+	public default int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		int size = this.bitSize();
+		for(int index = fromIndex; index < size; index++) {
+			if(!this.getBit(index)) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * The number of 64-bit words needed to read all bits of this array using
+	 * {@link #readWord(int)}.
+	 *
+	 * @return the number of words
+	 */
+	public default int numWords() {
+		return (int) ((this.bitSize() + 63L) >>> 6);
+	}
+
+	/**
+	 * Read the 64 bits starting at bit <code>word * 64</code> as one word. Bit
+	 * <code>n</code> of the returned value is bit <code>(word * 64) + n</code>
+	 * of this array. Bits beyond the end of the array are read as zero.
+	 *
+	 * @param word
+	 *            the index of the word, from <code>0</code> to
+	 *            {@link #numWords()} (exclusive)
+	 *
+	 * @return the value of the word
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the word index is out of range
+	 */
+	public default long readWord(int word) {
+		if(word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		int start = word << 6;
+		int end = (int) Math.min(start + 64L, this.bitSize());
+
+		// probe only the bits of this word, as scanning for the next set bit
+		// may run far beyond it in a sparse array
+		long value = 0;
+		for(int index = start; index < end; index++) {
+			if(this.getBit(index)) {
+				value |= 1L << index;
+			}
+		}
+
+		return value;
+	}
 }
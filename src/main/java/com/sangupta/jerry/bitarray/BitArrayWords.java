@@ -0,0 +1,454 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Word-level helpers shared by the {@link BitArray} implementations that keep
+ * their bits in <code>long[]</code> words, where bit <code>n</code> lives in
+ * word <code>n / 64</code> at position <code>n % 64</code>.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+abstract class BitArrayWords {
+
+	protected BitArrayWords() throws InstantiationException {
+		throw new InstantiationException("Instances of this class are forbidden");
+	}
+
+	/**
+	 * Operation that sets the bits in a range
+	 */
+	static final int SET = 0;
+
+	/**
+	 * Operation that clears the bits in a range
+	 */
+	static final int CLEAR = 1;
+
+	/**
+	 * Operation that flips the bits in a range
+	 */
+	static final int FLIP = 2;
+
+	/**
+	 * Operation that combines two arrays using OR
+	 */
+	static final int OR = 3;
+
+	/**
+	 * Operation that combines two arrays using AND
+	 */
+	static final int AND = 4;
+
+	/**
+	 * Operation that combines two arrays using AND NOT
+	 */
+	static final int AND_NOT = 5;
+
+	/**
+	 * Operation that combines two arrays using XOR
+	 */
+	static final int XOR = 6;
+
+	/**
+	 * Check that the given range is valid, that is the start index is not
+	 * negative and the end index is not less than the start index.
+	 * Implementations check the end index against their own length.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is invalid
+	 */
+	static void checkRange(int fromIndex, int toIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("From index is out of range: " + fromIndex);
+		}
+
+		if(toIndex < fromIndex) {
+			throw new IndexOutOfBoundsException("To index cannot be less than from index: " + toIndex + " < " + fromIndex);
+		}
+	}
+
+	/**
+	 * Check that the given range is valid and lies within the given array,
+	 * before a default range method of {@link BitArray} touches any bit. The
+	 * end index is checked by reading the last bit of the range, as
+	 * {@link BitArray} does not expose its length.
+	 *
+	 * @param array
+	 *            the array the range is for
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is invalid, or ends beyond the array
+	 */
+	static void checkRange(BitArray array, int fromIndex, int toIndex) {
+		checkRange(fromIndex, toIndex);
+
+		if(toIndex > fromIndex) {
+			array.getBit(toIndex - 1);
+		}
+	}
+
+	/**
+	 * Get the mask for the first word of a range, that is all bits at and
+	 * after the position of the start index.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @return the mask
+	 */
+	static long firstWordMask(long fromIndex) {
+		return -1L << fromIndex;
+	}
+
+	/**
+	 * Get the mask for the last word of a range, that is all bits before the
+	 * position of the end index. An end index on a word boundary selects the
+	 * complete word.
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @return the mask
+	 */
+	static long lastWordMask(long toIndex) {
+		return -1L >>> -toIndex;
+	}
+
+	/**
+	 * Apply the operation to the masked bits of the given value.
+	 *
+	 * @param value
+	 *            the current value of the word
+	 *
+	 * @param mask
+	 *            the bits to operate on
+	 *
+	 * @param operation
+	 *            one of {@link #SET}, {@link #CLEAR} or {@link #FLIP}
+	 *
+	 * @return the updated value of the word
+	 */
+	static long apply(long value, long mask, int operation) {
+		switch(operation) {
+			case SET:
+				return value | mask;
+
+			case CLEAR:
+				return value & ~mask;
+
+			case FLIP:
+				return value ^ mask;
+
+			default:
+				throw new IllegalArgumentException("Unknown operation: " + operation);
+		}
+	}
+
+	/**
+	 * Combine two words using the given operation.
+	 *
+	 * @param value
+	 *            the word of the array being updated
+	 *
+	 * @param other
+	 *            the word of the array being combined with
+	 *
+	 * @param operation
+	 *            one of {@link #OR}, {@link #AND}, {@link #AND_NOT} or
+	 *            {@link #XOR}
+	 *
+	 * @return the combined value
+	 */
+	static long combine(long value, long other, int operation) {
+		switch(operation) {
+			case OR:
+				return value | other;
+
+			case AND:
+				return value & other;
+
+			case AND_NOT:
+				return value & ~other;
+
+			case XOR:
+				return value ^ other;
+
+			default:
+				throw new IllegalArgumentException("Unknown operation: " + operation);
+		}
+	}
+
+	/**
+	 * Check that the array to be combined with has no bit set at or beyond the
+	 * given number of bits. Such bits cannot be represented in the array being
+	 * updated, and silently dropping them would give a wrong result for
+	 * {@link #OR} and {@link #XOR}.
+	 *
+	 * @param other
+	 *            the array being combined with
+	 *
+	 * @param bits
+	 *            the number of bits in the array being updated
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a bit is set beyond the given number of bits
+	 */
+	static void checkNoBitsBeyond(BitArray other, long bits) {
+		int words = other.numWords();
+		long first = bits >>> 6;
+		for(long word = first; word < words; word++) {
+			long value = other.readWord((int) word);
+			if(word == first) {
+				value &= firstWordMask(bits);
+			}
+
+			if(value != 0) {
+				throw new IllegalArgumentException("Array to be combined with has bits set beyond the length of this array");
+			}
+		}
+	}
+
+	/**
+	 * Combine the words of the given array into the words of an array that is
+	 * held in memory, reading the other array one word at a time. Only the
+	 * words both arrays have in common are combined; for {@link #AND} all
+	 * remaining words are cleared.
+	 *
+	 * @param words
+	 *            the words to update
+	 *
+	 * @param other
+	 *            the array to combine with
+	 *
+	 * @param operation
+	 *            one of {@link #OR}, {@link #AND}, {@link #AND_NOT} or
+	 *            {@link #XOR}
+	 */
+	static void combine(long[] words, BitArray other, int operation) {
+		if(operation == OR || operation == XOR) {
+			checkNoBitsBeyond(other, (long) words.length << 6);
+		}
+
+		int common = Math.min(words.length, other.numWords());
+		for(int word = 0; word < common; word++) {
+			words[word] = combine(words[word], other.readWord(word), operation);
+		}
+
+		if(operation == AND) {
+			Arrays.fill(words, common, words.length, 0L);
+		}
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range of the words.
+	 *
+	 * @param words
+	 *            the words to update
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            one of {@link #SET}, {@link #CLEAR} or {@link #FLIP}
+	 *
+	 * @return the change in the number of bits that are set
+	 */
+	static int applyRange(long[] words, int fromIndex, int toIndex, int operation) {
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+
+		int delta = 0;
+		for(int word = startWord; word <= endWord; word++) {
+			long mask = -1L;
+			if(word == startWord) {
+				mask &= firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				mask &= lastWordMask(toIndex);
+			}
+
+			long previous = words[word];
+			long updated = apply(previous, mask, operation);
+			words[word] = updated;
+
+			delta += Long.bitCount(updated) - Long.bitCount(previous);
+		}
+
+		return delta;
+	}
+
+	/**
+	 * Count the number of bits set in the given range of the words.
+	 *
+	 * @param words
+	 *            the words to look in
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @return the number of bits set
+	 */
+	static int cardinality(long[] words, int fromIndex, int toIndex) {
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+
+		int count = 0;
+		for(int word = startWord; word <= endWord; word++) {
+			long value = words[word];
+			if(word == startWord) {
+				value &= firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				value &= lastWordMask(toIndex);
+			}
+
+			count += Long.bitCount(value);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Find the next set bit in the words on or after the given index.
+	 *
+	 * @param words
+	 *            the words to look in
+	 *
+	 * @param fromIndex
+	 *            the index to start from
+	 *
+	 * @return the index of the next set bit, or <code>-1</code> if there is none
+	 */
+	static int nextSetBit(long[] words, int fromIndex) {
+		int word = fromIndex >>> 6;
+		if(word >= words.length) {
+			return -1;
+		}
+
+		long value = words[word] & firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(value);
+			}
+
+			if(++word == words.length) {
+				return -1;
+			}
+
+			value = words[word];
+		}
+	}
+
+	/**
+	 * Find the next clear bit in the words on or after the given index and
+	 * before the given limit.
+	 *
+	 * @param words
+	 *            the words to look in
+	 *
+	 * @param fromIndex
+	 *            the index to start from
+	 *
+	 * @param limit
+	 *            the index at which to stop looking, exclusive
+	 *
+	 * @return the index of the next clear bit, or <code>-1</code> if there is
+	 *         none before the limit
+	 */
+	static int nextClearBit(long[] words, int fromIndex, int limit) {
+		if(fromIndex >= limit) {
+			return -1;
+		}
+
+		int word = fromIndex >>> 6;
+		long value = ~words[word] & firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(value);
+				return index < limit ? index : -1;
+			}
+
+			if(++word == words.length) {
+				return -1;
+			}
+
+			value = ~words[word];
+		}
+	}
+
+	/**
+	 * Invoke the consumer for every bit set in the words.
+	 *
+	 * @param words
+	 *            the words to look in
+	 *
+	 * @param offset
+	 *            the value to add to each index before invoking the consumer
+	 *
+	 * @param consumer
+	 *            the consumer to invoke
+	 */
+	static void forEachSetBit(long[] words, int offset, IntConsumer consumer) {
+		for(int word = 0; word < words.length; word++) {
+			long value = words[word];
+			while(value != 0) {
+				consumer.accept(offset + (word << 6) + Long.numberOfTrailingZeros(value));
+				value &= value - 1;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,514 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import com.sangupta.jerry.util.ByteArrayUtils;
+import com.sangupta.jerry.util.NumberUtils;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A lock-free, thread-safe {@link BitArray} implementation. Each bit is
+ * updated using an atomic read-modify-write of the 64-bit word that holds it,
+ * so that concurrent calls to {@link #setBitIfUnset(int)} for the same bit
+ * return <code>true</code> for exactly one caller. The number of set bits is
+ * tracked using a striped counter to avoid contention between threads.
+ *
+ * Operations that span the whole array or a range of it, like
+ * {@link #clear()}, {@link #or(BitArray)}, {@link #and(BitArray)} or
+ * {@link #setRange(int, int)}, are atomic per word but not for the array or
+ * range as a whole.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@ThreadSafe
+public class ConcurrentBitArray implements BitArray {
+
+	/**
+	 * Handle for atomic access to the elements of the data-set
+	 */
+	private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * The data-set
+	 */
+	final long[] data;
+
+	/**
+	 * The current bit count
+	 */
+	private final LongAdder bitCount = new LongAdder();
+
+	/**
+	 * Construct an instance of the {@link ConcurrentBitArray} that can hold
+	 * the given number of bits
+	 *
+	 * @param bits the number of bits this instance can hold
+	 */
+	public ConcurrentBitArray(long bits) {
+		if(bits <= 0) {
+			throw new IllegalArgumentException("Number of bits cannot be less than or equal to zero");
+		}
+
+		this.data = new long[NumberUtils.checkedCast(NumberUtils.divide(bits, Long.SIZE, RoundingMode.CEILING))];
+	}
+
+	/**
+	 * Check that the index is within the range of this array.
+	 *
+	 * @param index
+	 *            the index to check
+	 */
+	private void checkIndex(int index) {
+		if(index < 0 || (index >> 6) >= this.data.length) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + index);
+		}
+	}
+
+	/**
+	 * Read the word at the given index with volatile semantics.
+	 *
+	 * @param word
+	 *            the index of the word
+	 *
+	 * @return the current value of the word
+	 */
+	private long getWord(int word) {
+		return (long) WORDS.getVolatile(this.data, word);
+	}
+
+	/**
+	 * Number of set bits (1s)
+	 *
+	 * @return the number of set bits
+	 */
+	public int bitCount() {
+		return NumberUtils.checkedCast(this.bitCount.sum());
+	}
+
+	@Override
+	public boolean getBit(int index) {
+		this.checkIndex(index);
+		return (this.getWord(index >> 6) & (1L << index)) != 0;
+	}
+
+	@Override
+	public boolean setBit(int index) {
+		this.checkIndex(index);
+
+		long mask = 1L << index;
+		long previous = (long) WORDS.getAndBitwiseOr(this.data, index >> 6, mask);
+		if((previous & mask) != 0) {
+			return false;
+		}
+
+		this.bitCount.increment();
+		return true;
+	}
+
+	@Override
+	public boolean setBitIfUnset(int index) {
+		return this.setBit(index);
+	}
+
+	@Override
+	public void clearBit(int index) {
+		this.checkIndex(index);
+
+		long mask = 1L << index;
+		long previous = (long) WORDS.getAndBitwiseAnd(this.data, index >> 6, ~mask);
+		if((previous & mask) != 0) {
+			this.bitCount.decrement();
+		}
+	}
+
+	@Override
+	public void clear() {
+		for(int index = 0; index < this.data.length; index++) {
+			long previous = (long) WORDS.getAndSet(this.data, index, 0L);
+			if(previous != 0) {
+				this.bitCount.add(-Long.bitCount(previous));
+			}
+		}
+	}
+
+	@Override
+	public void or(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Combine the given {@link BitArray} with this one, one atomic word
+	 * update at a time. Arrays that keep their bits in a <code>long[]</code>
+	 * are read directly, all others are read using
+	 * {@link BitArray#readWord(int)}.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("Array to be combined with cannot be null");
+		}
+
+		if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, (long) this.data.length << 6);
+		}
+
+		long[] other = this.wordsOf(bitArray);
+		int common = Math.min(this.data.length, other != null ? other.length : bitArray.numWords());
+
+		for(int index = 0; index < this.data.length; index++) {
+			long value = 0;
+			if(index < common) {
+				value = other != null ? (long) WORDS.getVolatile(other, index) : bitArray.readWord(index);
+			}
+
+			long previous;
+			switch(operation) {
+				case BitArrayWords.OR:
+					if(value == 0) {
+						continue;
+					}
+
+					previous = (long) WORDS.getAndBitwiseOr(this.data, index, value);
+					break;
+
+				case BitArrayWords.AND:
+					previous = (long) WORDS.getAndBitwiseAnd(this.data, index, value);
+					break;
+
+				case BitArrayWords.AND_NOT:
+					if(value == 0) {
+						continue;
+					}
+
+					previous = (long) WORDS.getAndBitwiseAnd(this.data, index, ~value);
+					break;
+
+				default:
+					if(value == 0) {
+						continue;
+					}
+
+					previous = (long) WORDS.getAndBitwiseXor(this.data, index, value);
+					break;
+			}
+
+			this.updateBitCount(previous, BitArrayWords.combine(previous, value, operation));
+		}
+	}
+
+	/**
+	 * Get the words of the given array if it keeps its bits in the same
+	 * layout as this one.
+	 *
+	 * @param bitArray
+	 *            the array to get the words of
+	 *
+	 * @return the words, or <code>null</code> if the array uses a different
+	 *         layout
+	 */
+	private long[] wordsOf(BitArray bitArray) {
+		if(bitArray instanceof ConcurrentBitArray) {
+			return ((ConcurrentBitArray) bitArray).data;
+		}
+
+		if(bitArray instanceof FastBitArray) {
+			return ((FastBitArray) bitArray).data;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Update the bit count after a word changed from one value to another.
+	 *
+	 * @param previous
+	 *            the previous value of the word
+	 *
+	 * @param updated
+	 *            the updated value of the word
+	 */
+	private void updateBitCount(long previous, long updated) {
+		int delta = Long.bitCount(updated) - Long.bitCount(previous);
+		if(delta != 0) {
+			this.bitCount.add(delta);
+		}
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range, one atomic word
+	 * update at a time.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 */
+	private void applyRange(int fromIndex, int toIndex, int operation) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+		for(int word = startWord; word <= endWord; word++) {
+			long mask = -1L;
+			if(word == startWord) {
+				mask &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				mask &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			long previous;
+			switch(operation) {
+				case BitArrayWords.SET:
+					previous = (long) WORDS.getAndBitwiseOr(this.data, word, mask);
+					break;
+
+				case BitArrayWords.CLEAR:
+					previous = (long) WORDS.getAndBitwiseAnd(this.data, word, ~mask);
+					break;
+
+				default:
+					previous = (long) WORDS.getAndBitwiseXor(this.data, word, mask);
+					break;
+			}
+
+			this.updateBitCount(previous, BitArrayWords.apply(previous, mask, operation));
+		}
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.bitSize()) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+
+		int count = 0;
+		for(int word = startWord; word <= endWord; word++) {
+			long value = this.getWord(word);
+			if(word == startWord) {
+				value &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				value &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			count += Long.bitCount(value);
+		}
+
+		return count;
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		for(int word = 0; word < this.data.length; word++) {
+			long value = this.getWord(word);
+			while(value != 0) {
+				consumer.accept((word << 6) + Long.numberOfTrailingZeros(value));
+				value &= value - 1;
+			}
+		}
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		int word = fromIndex >> 6;
+		if(word >= this.data.length) {
+			return -1;
+		}
+
+		long value = ~this.getWord(word) & BitArrayWords.firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(value);
+			}
+
+			if(++word == this.data.length) {
+				return -1;
+			}
+
+			value = ~this.getWord(word);
+		}
+	}
+
+	@Override
+	public int numWords() {
+		return this.data.length;
+	}
+
+	@Override
+	public long readWord(int word) {
+		return this.getWord(word);
+	}
+
+	@Override
+	public int bitSize() {
+		return this.data.length * Long.SIZE;
+	}
+
+	@Override
+	public int numBytes() {
+		return this.bitSize() >>> 3;
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[this.numBytes()];
+
+		// now for each long - put the bytes in the right order
+		for(int index = 0; index < this.data.length; index++) {
+			ByteArrayUtils.writeLong(bytes, this.getWord(index), index << 3);
+		}
+
+		return bytes;
+	}
+
+	@Override
+	public int getHighestBitSet() {
+		for(int index = this.data.length - 1; index >= 0; index--) {
+			long value = this.getWord(index);
+			if(value != 0) {
+				return (index * Long.SIZE) + (Long.SIZE - 1 - Long.numberOfLeadingZeros(value));
+			}
+		}
+
+		// not found
+		return -1;
+	}
+
+	@Override
+	public int getLowestBitSet() {
+		return this.getNextSetBit(0);
+	}
+
+	@Override
+	public int getNextSetBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		int index = fromIndex >> 6;
+		if(index >= this.data.length) {
+			return -1;
+		}
+
+		long value = this.getWord(index) & (-1L << fromIndex);
+		while(true) {
+			if(value != 0) {
+				return (index * Long.SIZE) + Long.numberOfTrailingZeros(value);
+			}
+
+			if(++index == this.data.length) {
+				return -1;
+			}
+
+			value = this.getWord(index);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		// nothing to do - we are in-memory
+	}
+
+}
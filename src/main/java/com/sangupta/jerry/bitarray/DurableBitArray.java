@@ -0,0 +1,45 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.IOException;
+
+/**
+ * A {@link BitArray} that is backed by a file, and can force its changes to
+ * the physical disk so that they survive a system crash.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+public interface DurableBitArray extends BitArray {
+
+	/**
+	 * Force all changes made to this array to the physical disk.
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	public void sync() throws IOException;
+
+}
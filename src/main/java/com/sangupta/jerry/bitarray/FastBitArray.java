@@ -24,6 +24,7 @@ package com.sangupta.jerry.bitarray;
 import java.io.IOException;
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import com.sangupta.jerry.util.BitUtils;
 import com.sangupta.jerry.util.ByteArrayUtils;
@@ -180,6 +181,7 @@ public class FastBitArray implements BitArray {
 	@Override
 	public void clear() {
 		Arrays.fill(this.data, 0);
+		this.bitCount = 0;
 	}
 
 	@Override
@@ -189,6 +191,7 @@ public class FastBitArray implements BitArray {
 		}
 
 		data[index >> 6] &= ~(1L << index);
+		bitCount--;
 	}
 
 	@Override
@@ -202,24 +205,19 @@ public class FastBitArray implements BitArray {
 			throw new IllegalArgumentException("Array to be combined with cannot be null");
 		}
 
-		if(this.numBytes() != array.numBytes()) {
-			throw new IllegalArgumentException("Array to be combined with must be of equal length");
-		}
-
-		if(array instanceof FastBitArray) {
+		if(this.isSameLength(array)) {
 			FastBitArray fastArray = (FastBitArray) array;
 			for (int i = 0; i < data.length; i++) {
 				data[i] |= fastArray.data[i];
 			}
 
+			this.updateBitCount();
 			return;
 		}
 
-		// work on the byte-array
-		byte[] bytes = array.toByteArray();
-		for(int index = 0; index < this.data.length; index++) {
-			this.data[index] |= ByteArrayUtils.readLong(bytes, index << 3);
-		}
+		// stream the words of the other array
+		BitArrayWords.combine(this.data, array, BitArrayWords.OR);
+		this.updateBitCount();
 	}
 
 	@Override
@@ -228,24 +226,157 @@ public class FastBitArray implements BitArray {
 			throw new IllegalArgumentException("Array to be combined with cannot be null");
 		}
 
-		if(this.numBytes() != array.numBytes()) {
-			throw new IllegalArgumentException("Array to be combined with must be of equal length");
-		}
-
-		if(array instanceof FastBitArray) {
+		if(this.isSameLength(array)) {
 			FastBitArray fastArray = (FastBitArray) array;
 			for (int i = 0; i < data.length; i++) {
 				data[i] &= fastArray.data[i];
 			}
 
+			this.updateBitCount();
 			return;
 		}
 
-		// work on the byte-array
-		byte[] bytes = array.toByteArray();
-		for(int index = 0; index < this.data.length; index++) {
-			this.data[index] &= ByteArrayUtils.readLong(bytes, index << 3);
+		// stream the words of the other array
+		BitArrayWords.combine(this.data, array, BitArrayWords.AND);
+		this.updateBitCount();
+	}
+
+	@Override
+	public void andNot(BitArray array) {
+		if(array == null) {
+			throw new IllegalArgumentException("Array to be combined with cannot be null");
+		}
+
+		if(!this.isSameLength(array)) {
+			// stream the words of the other array
+			BitArrayWords.combine(this.data, array, BitArrayWords.AND_NOT);
+			this.updateBitCount();
+			return;
 		}
+
+		FastBitArray fastArray = (FastBitArray) array;
+		for (int i = 0; i < data.length; i++) {
+			data[i] &= ~fastArray.data[i];
+		}
+
+		this.updateBitCount();
+	}
+
+	@Override
+	public void xor(BitArray array) {
+		if(array == null) {
+			throw new IllegalArgumentException("Array to be combined with cannot be null");
+		}
+
+		if(!this.isSameLength(array)) {
+			// stream the words of the other array
+			BitArrayWords.combine(this.data, array, BitArrayWords.XOR);
+			this.updateBitCount();
+			return;
+		}
+
+		FastBitArray fastArray = (FastBitArray) array;
+		for (int i = 0; i < data.length; i++) {
+			data[i] ^= fastArray.data[i];
+		}
+
+		this.updateBitCount();
+	}
+
+	/**
+	 * Check whether the given array is a {@link FastBitArray} of the same
+	 * length, whose words can be combined with ours directly. All other arrays
+	 * are combined over the words both have in common.
+	 *
+	 * @param array
+	 *            the array to check
+	 *
+	 * @return <code>true</code> if the array is a {@link FastBitArray} of
+	 *         the same length
+	 */
+	private boolean isSameLength(BitArray array) {
+		return array instanceof FastBitArray && ((FastBitArray) array).data.length == this.data.length;
+	}
+
+	@Override
+	public int numWords() {
+		return this.data.length;
+	}
+
+	@Override
+	public long readWord(int word) {
+		return this.data[word];
+	}
+
+	/**
+	 * Recompute the number of set bits after a bulk operation.
+	 */
+	private void updateBitCount() {
+		int bitCount = 0;
+		for (long value : data) {
+			bitCount += Long.bitCount(value);
+		}
+
+		this.bitCount = bitCount;
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.bitSize()) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitCount += BitArrayWords.applyRange(this.data, fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitCount += BitArrayWords.applyRange(this.data, fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitCount += BitArrayWords.applyRange(this.data, fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		return BitArrayWords.cardinality(this.data, fromIndex, toIndex);
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		BitArrayWords.forEachSetBit(this.data, 0, consumer);
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		return BitArrayWords.nextClearBit(this.data, fromIndex, this.bitSize());
 	}
 
 	@Override
@@ -300,31 +431,10 @@ public class FastBitArray implements BitArray {
 
 	@Override
 	public int getNextSetBit(int fromIndex) {
-	    // check the current long-value
-	    int current = fromIndex / Long.SIZE;
-	    int bit = BitUtils.getHighestSetBitIndex(this.data[current]);
-	    int index = (current * Long.SIZE) + bit;
-
-	    if(index < current) {
-	        // the value lies in long values ahead in array
-	        for(int loop = current + 1; loop < this.data.length; loop++) {
-	            long value = this.data[loop];
-	            if(value != 0) {
-	                return BitUtils.getLowestSetBitIndex(value);
-	            }
-	        }
-
-	        // no more data
-	        return -1;
-	    }
-
-	    // the bit must be higher within this long value
-	    for(int loop = fromIndex + 1; loop < fromIndex + Long.SIZE; loop++) {
-	        if(this.getBit(loop)) {
-	            return loop;
-	        }
-	    }
-
-	    return -1;
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		return BitArrayWords.nextSetBit(this.data, fromIndex);
 	}
 }
@@ -24,7 +24,13 @@ package com.sangupta.jerry.bitarray;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.IntConsumer;
 
 import com.sangupta.jerry.util.BitUtils;
 
@@ -37,11 +43,18 @@ import net.jcip.annotations.NotThreadSafe;
  * to construct yet need a good overall performance. This class is
  * not thread-safe.
  *
+ * The array works in one of two modes. In the default synchronous mode every
+ * change is written through to the disk immediately. In the page-cached mode
+ * (see {@link #FileBackedBitArray(File, int, int, int, int)}) the file is read
+ * in pages that are kept in memory, changes are tracked per page and written
+ * back when too many pages are dirty, when a page is evicted, or when
+ * {@link #flush()}, {@link #sync()} or {@link #close()} is called.
+ *
  * @author sangupta
  * @since 1.7
  */
 @NotThreadSafe
-public class FileBackedBitArray implements BitArray {
+public class FileBackedBitArray implements DurableBitArray {
 
 	/**
 	 * Underlying file that represents the state of the
@@ -61,6 +74,49 @@ public class FileBackedBitArray implements BitArray {
 	 */
 	protected final int numBytes;
 
+	/**
+	 * The size of the block used when processing the entire file in one go
+	 */
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	/**
+	 * The size of one page in bytes, <code>0</code> when running in
+	 * synchronous mode
+	 */
+	protected final int pageSize;
+
+	/**
+	 * Number of bits to shift a byte position to obtain its page index
+	 */
+	private final int pageShift;
+
+	/**
+	 * The maximum number of pages that are kept in memory
+	 */
+	private final int maxCachedPages;
+
+	/**
+	 * The number of dirty pages after which they are written back to disk,
+	 * <code>0</code> if pages are written back only on eviction or flush
+	 */
+	private final int maxDirtyPages;
+
+	/**
+	 * Pages currently in memory, in least-recently-used order
+	 */
+	private final LinkedHashMap<Integer, Page> pages;
+
+	/**
+	 * The number of pages that are currently dirty
+	 */
+	private int dirtyPages = 0;
+
+	/**
+	 * The page that was accessed last, to skip the map lookup for
+	 * consecutive access to the same page
+	 */
+	private Page lastPage;
+
 	/**
 	 * Construct a {@link BitArray} that is backed by the given file. Ensure
 	 * that the file is a local file and not on a network share for performance
@@ -82,6 +138,46 @@ public class FileBackedBitArray implements BitArray {
 	 *             equal to zero
 	 */
 	public FileBackedBitArray(File backingFile, int maxElements) throws IOException {
+		this(backingFile, maxElements, 0, 0, 0);
+	}
+
+	/**
+	 * Construct a page-cached {@link BitArray} that is backed by the given
+	 * file. Changes are not written to disk as they are made, but are written
+	 * back in pages. Call {@link #flush()} or {@link #sync()} to make sure that
+	 * all changes have reached the disk.
+	 *
+	 * @param backingFile
+	 *            the file that needs to store the bit-array
+	 *
+	 * @param maxElements
+	 *            the number of maximum elements that this {@link BitArray}
+	 *            implementation will store
+	 *
+	 * @param pageSize
+	 *            the size of one page in bytes, must be a power of two. A value
+	 *            of <code>0</code> switches to synchronous mode where each
+	 *            change is written to disk immediately
+	 *
+	 * @param maxCachedPages
+	 *            the maximum number of pages to keep in memory. Least recently
+	 *            used pages are evicted, and written back if dirty, when this
+	 *            limit is reached
+	 *
+	 * @param maxDirtyPages
+	 *            the number of dirty pages after which all dirty pages are
+	 *            written back to disk. A value of <code>0</code> writes back
+	 *            pages only on eviction, flush or close
+	 *
+	 * @throws IOException
+	 *             if something fails while reading the file initially
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the {@link #backingFile} is <code>null</code>, is not a
+	 *             file, the number of {@link #maxElements} are less than equal
+	 *             to zero, or the page configuration is invalid
+	 */
+	public FileBackedBitArray(File backingFile, int maxElements, int pageSize, int maxCachedPages, int maxDirtyPages) throws IOException {
 		if(backingFile == null) {
 			throw new IllegalArgumentException("Backing file cannot be empty/null");
 		}
@@ -94,15 +190,37 @@ public class FileBackedBitArray implements BitArray {
 			throw new IllegalArgumentException("Max elements in array cannot be less than or equal to zero");
 		}
 
-		// we open in "rwd" mode, to save one i/o operation
-		// than in "rws" mode
-		this.backingFile = new RandomAccessFile(backingFile, "rwd");
+		if(pageSize < 0 || Integer.bitCount(pageSize) > 1) {
+			throw new IllegalArgumentException("Page size must be zero or a power of two");
+		}
+
+		if(pageSize > 0 && maxCachedPages <= 0) {
+			throw new IllegalArgumentException("Max cached pages cannot be less than or equal to zero");
+		}
+
+		if(maxDirtyPages < 0) {
+			throw new IllegalArgumentException("Max dirty pages cannot be negative");
+		}
+
+		if(pageSize > 0) {
+			// changes are written back explicitly, so no need to sync each write
+			this.backingFile = new RandomAccessFile(backingFile, "rw");
+		} else {
+			// we open in "rwd" mode, to save one i/o operation
+			// than in "rws" mode
+			this.backingFile = new RandomAccessFile(backingFile, "rwd");
+		}
 
 		this.numBytes = (maxElements >> 3) + 1;
 		extendFile(this.numBytes);
 
 		// initialize the rest
 		this.maxElements = maxElements;
+		this.pageSize = pageSize;
+		this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+		this.maxCachedPages = maxCachedPages;
+		this.maxDirtyPages = maxDirtyPages;
+		this.pages = pageSize > 0 ? new LinkedHashMap<Integer, Page>(16, 0.75f, true) : null;
 	}
 
 	/**
@@ -118,8 +236,7 @@ public class FileBackedBitArray implements BitArray {
 		int bit = 1 << (index & 0x7);
 
 		try {
-			this.backingFile.seek(pos);
-			byte bite = this.backingFile.readByte();
+			byte bite = this.readByte(pos);
 			return (bite & bit) != 0;
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read bitset from disk");
@@ -138,12 +255,13 @@ public class FileBackedBitArray implements BitArray {
 		int pos = index >> 3; // div 8
 		int bit = 1 << (index & 0x7);
 		try {
-			this.backingFile.seek(pos);
-			byte bite = this.backingFile.readByte();
-			bite = (byte) (bite | bit);
+			byte bite = this.readByte(pos);
+			if((bite & bit) != 0) {
+				// already set - save the write
+				return false;
+			}
 
-			this.backingFile.seek(pos);
-			this.backingFile.writeByte(bite);
+			this.writeByte(pos, (byte) (bite | bit));
 			return true;
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read bitset from disk");
@@ -155,12 +273,20 @@ public class FileBackedBitArray implements BitArray {
 	 */
 	@Override
 	public void clear() {
-		byte[] bytes = new byte[this.numBytes];
-		Arrays.fill(bytes, (byte) 0);
+		if(this.pages != null) {
+			// everything is going to be zero - no need to write back
+			this.pages.clear();
+			this.lastPage = null;
+			this.dirtyPages = 0;
+		}
+
+		byte[] bytes = new byte[Math.min(BLOCK_SIZE, this.numBytes)];
 
 		try {
 			this.backingFile.seek(0);
-			this.backingFile.write(bytes);
+			for(int offset = 0; offset < this.numBytes; offset += bytes.length) {
+				this.backingFile.write(bytes, 0, Math.min(bytes.length, this.numBytes - offset));
+			}
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read bitset from disk");
 		}
@@ -177,16 +303,15 @@ public class FileBackedBitArray implements BitArray {
 
 		int pos = index >> 3; // div 8
 		int bit = 1 << (index & 0x7);
-		bit = ~bit;
 
 		try {
-			this.backingFile.seek(pos);
-			byte bite = this.backingFile.readByte();
-			bite = (byte) (bite & bit);
-
+			byte bite = this.readByte(pos);
+			if((bite & bit) == 0) {
+				// already clear - save the write
+				return;
+			}
 
-			this.backingFile.seek(pos);
-			this.backingFile.writeByte(bite);
+			this.writeByte(pos, (byte) (bite & ~bit));
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read bitset from disk");
 		}
@@ -209,55 +334,327 @@ public class FileBackedBitArray implements BitArray {
 	 */
 	@Override
 	public void or(BitArray bitArray) {
-		if(bitArray == null) {
-			throw new IllegalArgumentException("BitArray to be combined with cannot be null");
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	/**
+	 * @see BitArray#and(BitArray)
+	 */
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.maxElements + 1) {
+			throw new IndexOutOfBoundsException("To index is greater than max elements permitted");
+		}
+	}
+
+	/**
+	 * Return the mask of the bits within the byte at the given position that
+	 * lie in the given range.
+	 *
+	 * @param pos
+	 *            the position of the byte
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @return the mask
+	 */
+	private static int rangeMask(int pos, int fromIndex, int toIndex) {
+		int mask = 0xFF;
+		if(pos == (fromIndex >>> 3)) {
+			mask &= 0xFF << (fromIndex & 0x7);
 		}
 
-		if(this.numBytes != bitArray.numBytes()) {
-			throw new IllegalArgumentException("BitArray to be combined with must be of equal length");
+		if(pos == ((toIndex - 1) >>> 3)) {
+			mask &= 0xFF >>> (7 - ((toIndex - 1) & 0x7));
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range, a chunk at a time.
+	 * Pages in the cache are updated in memory, all other chunks are read and
+	 * written in large blocks.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 */
+	private void applyRange(int fromIndex, int toIndex, int operation) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return;
 		}
 
+		int firstByte = fromIndex >>> 3;
+		int lastByte = (toIndex - 1) >>> 3;
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[Math.min(chunkSize, this.numBytes)];
+
 		try {
-			this.backingFile.seek(0);
-			byte[] bytes = bitArray.toByteArray();
-			for(int index = 0; index < bytes.length; index++) {
-				byte bite = this.backingFile.readByte();
-				bite |= bytes[index];
-				this.backingFile.seek(this.backingFile.getFilePointer() - 1);
-				this.backingFile.write(bite);
+			for(int chunk = firstByte / chunkSize; chunk <= lastByte / chunkSize; chunk++) {
+				int offset = chunk * chunkSize;
+				int from = Math.max(firstByte, offset) - offset;
+				int to = Math.min(lastByte, offset + chunkSize - 1) - offset + 1;
+				byte[] bytes = this.readChunk(chunk, buffer, from, to);
+
+				for(int index = from; index < to; index++) {
+					int mask = rangeMask(offset + index, fromIndex, toIndex);
+					bytes[index] = (byte) BitArrayWords.apply(bytes[index], mask, operation);
+				}
+
+				this.writeChunk(chunk, bytes, from, to);
 			}
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read/write bit-array from disk", e);
 		}
 	}
 
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int firstByte = fromIndex >>> 3;
+		int lastByte = (toIndex - 1) >>> 3;
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[chunkSize];
+
+		int count = 0;
+		try {
+			for(int chunk = firstByte / chunkSize; chunk <= lastByte / chunkSize; chunk++) {
+				int offset = chunk * chunkSize;
+				byte[] bytes = this.readChunk(chunk, buffer);
+
+				int from = Math.max(firstByte, offset) - offset;
+				int to = Math.min(lastByte, offset + chunkSize - 1) - offset;
+				for(int index = from; index <= to; index++) {
+					count += Integer.bitCount(bytes[index] & rangeMask(offset + index, fromIndex, toIndex));
+				}
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
+		}
+
+		return count;
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[chunkSize];
+
+		try {
+			for(int chunk = 0; chunk < this.numChunks(); chunk++) {
+				int offset = chunk * chunkSize;
+				byte[] bytes = this.readChunk(chunk, buffer);
+				int length = Math.min(chunkSize, this.numBytes - offset);
+
+				for(int index = 0; index < length; index++) {
+					int value = bytes[index] & 0xFF;
+					while(value != 0) {
+						consumer.accept(((offset + index) << 3) + Integer.numberOfTrailingZeros(value));
+						value &= value - 1;
+					}
+				}
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
+		}
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		try {
+			for(int pos = fromIndex >>> 3; pos < this.numBytes; pos++) {
+				int value = ~this.readByte(pos) & 0xFF;
+				if(pos == (fromIndex >>> 3)) {
+					value &= 0xFF << (fromIndex & 0x7);
+				}
+
+				if(value != 0) {
+					int index = (pos << 3) + Integer.numberOfTrailingZeros(value);
+					return index <= this.maxElements ? index : -1;
+				}
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
+		}
+
+		return -1;
+	}
+
 	/**
-	 * @see BitArray#and(BitArray)
+	 * Combine the given {@link BitArray} with the file a chunk at a time,
+	 * rather than a byte at a time. Pages in the cache are updated in memory,
+	 * all other chunks are read and written in large blocks. Another
+	 * {@link FileBackedBitArray} is read directly from its file, all other
+	 * arrays are read one word at a time using {@link BitArray#readWord(int)}
+	 * so that they are never copied in full.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
 	 */
-	@Override
-	public void and(BitArray bitArray) {
+	private void combine(BitArray bitArray, int operation) {
 		if(bitArray == null) {
 			throw new IllegalArgumentException("BitArray to be combined with cannot be null");
 		}
 
-		if(this.numBytes != bitArray.numBytes()) {
-			throw new IllegalArgumentException("BitArray to be combined with must be of equal length");
+		if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, this.maxElements + 1L);
 		}
 
+		FileBackedBitArray file = bitArray instanceof FileBackedBitArray ? (FileBackedBitArray) bitArray : null;
+		long otherBytes = file != null ? file.numBytes : (long) bitArray.numWords() << 3;
+
 		try {
-			this.backingFile.seek(0);
-			byte[] bytes = bitArray.toByteArray();
-			for(int index = 0; index < bytes.length; index++) {
-				byte bite = this.backingFile.readByte();
-				bite &= bytes[index];
-				this.backingFile.seek(this.backingFile.getFilePointer() - 1);
-				this.backingFile.write(bite);
+			// make sure the other file is up to date
+			if(file != null) {
+				file.flush();
+			}
+
+			int chunkSize = this.chunkSize();
+			byte[] buffer = new byte[Math.min(chunkSize, this.numBytes)];
+			byte[] otherBlock = new byte[buffer.length];
+
+			for(int chunk = 0; chunk < this.numChunks(); chunk++) {
+				int offset = chunk * chunkSize;
+				int count = Math.min(chunkSize, this.numBytes - offset);
+				int otherCount = (int) Math.max(0, Math.min(count, otherBytes - offset));
+				if(otherCount == 0 && operation != BitArrayWords.AND) {
+					// nothing left to combine with
+					break;
+				}
+
+				if(file != null) {
+					file.backingFile.seek(offset);
+					file.backingFile.readFully(otherBlock, 0, otherCount);
+				} else {
+					long word = 0;
+					for(int pos = 0; pos < otherCount; pos++) {
+						int at = offset + pos;
+						if(pos == 0 || (at & 0x7) == 0) {
+							word = bitArray.readWord(at >>> 3);
+						}
+
+						otherBlock[pos] = (byte) (word >>> ((at & 0x7) << 3));
+					}
+				}
+
+				Arrays.fill(otherBlock, otherCount, count, (byte) 0);
+
+				byte[] bytes = this.readChunk(chunk, buffer, 0, count);
+				for(int index = 0; index < count; index++) {
+					bytes[index] = (byte) BitArrayWords.combine(bytes[index], otherBlock[index], operation);
+				}
+
+				this.writeChunk(chunk, bytes, 0, count);
 			}
 		} catch(IOException e) {
 			throw new RuntimeException("Unable to read/write bit-array from disk", e);
 		}
 	}
 
+	@Override
+	public int numWords() {
+		return (this.numBytes + 7) >>> 3;
+	}
+
+	@Override
+	public long readWord(int word) {
+		if(word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		int pos = word << 3;
+		int count = Math.min(8, this.numBytes - pos);
+
+		try {
+			long value = 0;
+			if(this.pages == null) {
+				byte[] bytes = new byte[count];
+				this.backingFile.seek(pos);
+				this.backingFile.readFully(bytes);
+
+				for(int index = 0; index < count; index++) {
+					value |= (bytes[index] & 0xFFL) << (index << 3);
+				}
+
+				return value;
+			}
+
+			for(int index = 0; index < count; index++) {
+				value |= (this.readByte(pos + index) & 0xFFL) << (index << 3);
+			}
+
+			return value;
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
+		}
+	}
+
 	/**
 	 * @see BitArray#bitSize()
 	 */
@@ -289,9 +686,303 @@ public class FileBackedBitArray implements BitArray {
 		this.backingFile.write(bytes);
 	}
 
+	/**
+	 * Read the byte at the given position either from the page cache, or
+	 * directly from the disk when running in synchronous mode.
+	 *
+	 * @param pos
+	 *            the position of the byte in the file
+	 *
+	 * @return the byte read
+	 *
+	 * @throws IOException
+	 *             if reading from disk fails
+	 */
+	protected byte readByte(int pos) throws IOException {
+		if(this.pages == null) {
+			this.backingFile.seek(pos);
+			return this.backingFile.readByte();
+		}
+
+		Page page = this.getPage(pos >>> this.pageShift);
+		return page.bytes[pos & (this.pageSize - 1)];
+	}
+
+	/**
+	 * Write the byte at the given position either to the page cache, or
+	 * directly to the disk when running in synchronous mode.
+	 *
+	 * @param pos
+	 *            the position of the byte in the file
+	 *
+	 * @param value
+	 *            the byte to write
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	protected void writeByte(int pos, byte value) throws IOException {
+		if(this.pages == null) {
+			this.backingFile.seek(pos);
+			this.backingFile.writeByte(value);
+			return;
+		}
+
+		Page page = this.getPage(pos >>> this.pageShift);
+		page.bytes[pos & (this.pageSize - 1)] = value;
+		this.markDirty(page);
+	}
+
+	/**
+	 * Mark the given page as modified, writing back all dirty pages once
+	 * their number reaches the limit.
+	 *
+	 * @param page
+	 *            the page that was modified
+	 *
+	 * @throws IOException
+	 *             if writing back pages fails
+	 */
+	private void markDirty(Page page) throws IOException {
+		if(page.dirty) {
+			return;
+		}
+
+		page.dirty = true;
+		this.dirtyPages++;
+
+		if(this.maxDirtyPages > 0 && this.dirtyPages >= this.maxDirtyPages) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Return the page with the given index, reading it from disk if it is not
+	 * already in memory. Reading a page may evict the least recently used one.
+	 *
+	 * @param pageIndex
+	 *            the index of the page
+	 *
+	 * @return the page
+	 *
+	 * @throws IOException
+	 *             if reading or writing back a page fails
+	 */
+	private Page getPage(int pageIndex) throws IOException {
+		Page page = this.lastPage;
+		if(page != null && page.index == pageIndex) {
+			return page;
+		}
+
+		page = this.pages.get(pageIndex);
+		if(page == null) {
+			if(this.pages.size() >= this.maxCachedPages) {
+				Iterator<Page> iterator = this.pages.values().iterator();
+				Page eldest = iterator.next();
+				iterator.remove();
+
+				if(eldest.dirty) {
+					this.writePage(eldest);
+				}
+			}
+
+			int offset = pageIndex << this.pageShift;
+			page = new Page(pageIndex, new byte[Math.min(this.pageSize, this.numBytes - offset)]);
+			this.backingFile.seek(offset);
+			this.backingFile.readFully(page.bytes);
+
+			this.pages.put(pageIndex, page);
+		}
+
+		this.lastPage = page;
+		return page;
+	}
+
+	/**
+	 * Return the size of the chunks in which the whole file is scanned, which
+	 * is a page in page-cached mode and a block otherwise.
+	 *
+	 * @return the chunk size in bytes
+	 */
+	private int chunkSize() {
+		return this.pages == null ? BLOCK_SIZE : this.pageSize;
+	}
+
+	/**
+	 * Return the number of chunks in the file.
+	 *
+	 * @return the number of chunks
+	 */
+	private int numChunks() {
+		int chunkSize = this.chunkSize();
+		return (this.numBytes + chunkSize - 1) / chunkSize;
+	}
+
+	/**
+	 * Return the bytes of the given chunk for scanning. A page that is cached
+	 * is returned as is, so that it need not be flushed. Any other chunk is
+	 * read from disk into the given buffer, without adding it to the cache,
+	 * as pages not in the cache are always up to date on disk.
+	 *
+	 * @param chunk
+	 *            the index of the chunk
+	 *
+	 * @param buffer
+	 *            the buffer to read into, at least one chunk in size
+	 *
+	 * @return the bytes of the chunk, starting at index <code>0</code>
+	 *
+	 * @throws IOException
+	 *             if reading from disk fails
+	 */
+	private byte[] readChunk(int chunk, byte[] buffer) throws IOException {
+		int offset = chunk * this.chunkSize();
+		return this.readChunk(chunk, buffer, 0, Math.min(buffer.length, this.numBytes - offset));
+	}
+
+	/**
+	 * Return the bytes of the given chunk, of which only the given range needs
+	 * to be read. A page that is cached is returned as is, any other chunk is
+	 * read from disk into the same range of the given buffer.
+	 *
+	 * @param chunk
+	 *            the index of the chunk
+	 *
+	 * @param buffer
+	 *            the buffer to read into, large enough to hold the range
+	 *
+	 * @param from
+	 *            the first byte within the chunk to read, inclusive
+	 *
+	 * @param to
+	 *            the last byte within the chunk to read, exclusive
+	 *
+	 * @return the bytes of the chunk, starting at index <code>0</code>
+	 *
+	 * @throws IOException
+	 *             if reading from disk fails
+	 */
+	private byte[] readChunk(int chunk, byte[] buffer, int from, int to) throws IOException {
+		if(this.pages != null) {
+			Page page = this.pages.get(chunk);
+			if(page != null) {
+				return page.bytes;
+			}
+		}
+
+		this.backingFile.seek(chunk * this.chunkSize() + from);
+		this.backingFile.readFully(buffer, from, to - from);
+		return buffer;
+	}
+
+	/**
+	 * Store the given range of a chunk read using
+	 * {@link #readChunk(int, byte[], int, int)} after it was modified. A page
+	 * that is cached is marked dirty, any other chunk is written to disk.
+	 *
+	 * @param chunk
+	 *            the index of the chunk
+	 *
+	 * @param bytes
+	 *            the bytes of the chunk as returned when reading it
+	 *
+	 * @param from
+	 *            the first byte within the chunk to write, inclusive
+	 *
+	 * @param to
+	 *            the last byte within the chunk to write, exclusive
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	private void writeChunk(int chunk, byte[] bytes, int from, int to) throws IOException {
+		if(this.pages != null) {
+			Page page = this.pages.get(chunk);
+			if(page != null && page.bytes == bytes) {
+				this.markDirty(page);
+				return;
+			}
+		}
+
+		this.backingFile.seek(chunk * this.chunkSize() + from);
+		this.backingFile.write(bytes, from, to - from);
+	}
+
+	/**
+	 * Write the given page back to disk and mark it clean.
+	 *
+	 * @param page
+	 *            the page to write
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	private void writePage(Page page) throws IOException {
+		this.backingFile.seek(page.index << this.pageShift);
+		this.backingFile.write(page.bytes);
+
+		page.dirty = false;
+		this.dirtyPages--;
+	}
+
+	/**
+	 * Write all dirty pages back to the file. The pages are written in file
+	 * order to keep the disk access sequential. This does not guarantee that
+	 * the changes have reached the physical disk, use {@link #sync()} for that.
+	 * In synchronous mode this is a no-op.
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	public void flush() throws IOException {
+		if(this.pages == null || this.dirtyPages == 0) {
+			return;
+		}
+
+		List<Page> dirty = new ArrayList<>(this.dirtyPages);
+		for(Page page : this.pages.values()) {
+			if(page.dirty) {
+				dirty.add(page);
+			}
+		}
+
+		dirty.sort(Comparator.comparingInt(page -> page.index));
+		for(Page page : dirty) {
+			this.writePage(page);
+		}
+	}
+
+	/**
+	 * Write all dirty pages back to the file and force the file contents to
+	 * the physical disk.
+	 *
+	 * @throws IOException
+	 *             if writing to disk fails
+	 */
+	@Override
+	public void sync() throws IOException {
+		this.flush();
+		this.backingFile.getChannel().force(false);
+	}
+
+	/**
+	 * Return the number of pages that have been modified in memory and are yet
+	 * to be written back to disk.
+	 *
+	 * @return the number of dirty pages, always <code>0</code> in synchronous
+	 *         mode
+	 */
+	public int getDirtyPages() {
+		return this.dirtyPages;
+	}
+
 	@Override
 	public void close() throws IOException {
-		this.backingFile.close();
+		try {
+			this.flush();
+		} finally {
+			this.backingFile.close();
+		}
 	}
 
 	@Override
@@ -304,6 +995,7 @@ public class FileBackedBitArray implements BitArray {
 		byte[] bytes = new byte[this.numBytes];
 
 		try {
+			this.flush();
 			this.backingFile.seek(0);
 			this.backingFile.readFully(bytes);
 			return bytes;
@@ -314,17 +1006,24 @@ public class FileBackedBitArray implements BitArray {
 
 	@Override
 	public int getHighestBitSet() {
-		byte[] bytes = this.toByteArray();
-		for(int index = bytes.length - 1; index >= 0; index--) {
-			byte bite = bytes[index];
-			if(bite != 0) {
-				// this is the highest set bit
-				if(index > 0) {
-					return (index * 8) + BitUtils.getHighestSetBitIndex(bite);
-				}
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[chunkSize];
+
+		try {
+			for(int chunk = this.numChunks() - 1; chunk >= 0; chunk--) {
+				int offset = chunk * chunkSize;
+				byte[] bytes = this.readChunk(chunk, buffer);
 
-				return BitUtils.getHighestSetBitIndex(bite);
+				for(int index = Math.min(chunkSize, this.numBytes - offset) - 1; index >= 0; index--) {
+					byte bite = bytes[index];
+					if(bite != 0) {
+						// this is the highest set bit
+						return ((offset + index) * 8) + BitUtils.getHighestSetBitIndex(bite);
+					}
+				}
 			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
 		}
 
 		// not found
@@ -333,17 +1032,25 @@ public class FileBackedBitArray implements BitArray {
 
 	@Override
 	public int getLowestBitSet() {
-		byte[] bytes = this.toByteArray();
-		for(int index = 0; index < bytes.length; index++) {
-			byte bite = bytes[index];
-			if(bite != 0) {
-				// this is the highest set bit
-				if(index > 0) {
-					return (index * 8) + BitUtils.getLowestSetBitIndex(bite);
-				}
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[chunkSize];
+
+		try {
+			for(int chunk = 0; chunk < this.numChunks(); chunk++) {
+				int offset = chunk * chunkSize;
+				byte[] bytes = this.readChunk(chunk, buffer);
+				int length = Math.min(chunkSize, this.numBytes - offset);
 
-				return BitUtils.getLowestSetBitIndex(bite);
+				for(int index = 0; index < length; index++) {
+					byte bite = bytes[index];
+					if(bite != 0) {
+						// this is the lowest set bit
+						return ((offset + index) * 8) + BitUtils.getLowestSetBitIndex(bite);
+					}
+				}
 			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
 		}
 
 		// not found
@@ -352,13 +1059,71 @@ public class FileBackedBitArray implements BitArray {
 
 	@Override
 	public int getNextSetBit(int fromIndex) {
-	    // TODO: optimize this method
-	    for(int index = fromIndex; index < this.maxElements; index++) {
-	        if(this.getBit(index)) {
-	            return index;
-	        }
-	    }
-
-	    return -1;
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		if(fromIndex >= this.maxElements) {
+			return -1;
+		}
+
+		int firstByte = fromIndex >>> 3;
+		int chunkSize = this.chunkSize();
+		byte[] buffer = new byte[Math.min(chunkSize, this.numBytes)];
+
+		try {
+			for(int chunk = firstByte / chunkSize; chunk < this.numChunks(); chunk++) {
+				int offset = chunk * chunkSize;
+
+				// read the first chunk from the start index onwards only
+				int from = Math.max(firstByte, offset) - offset;
+				int to = Math.min(chunkSize, this.numBytes - offset);
+
+				byte[] bytes = this.readChunk(chunk, buffer, from, to);
+				for(int index = from; index < to; index++) {
+					int value = bytes[index] & 0xFF;
+					if(offset + index == firstByte) {
+						value &= 0xFF << (fromIndex & 0x7);
+					}
+
+					if(value != 0) {
+						int bit = ((offset + index) << 3) + Integer.numberOfTrailingZeros(value);
+						return bit < this.maxElements ? bit : -1;
+					}
+				}
+			}
+		} catch(IOException e) {
+			throw new RuntimeException("Unable to read bit-array from disk", e);
+		}
+
+		return -1;
+	}
+
+	/**
+	 * One page of the file that is held in memory.
+	 *
+	 */
+	private static final class Page {
+
+		/**
+		 * The index of this page in the file
+		 */
+		final int index;
+
+		/**
+		 * The bytes of this page
+		 */
+		final byte[] bytes;
+
+		/**
+		 * Whether the page has been modified since it was last written
+		 */
+		boolean dirty;
+
+		Page(int index, byte[] bytes) {
+			this.index = index;
+			this.bytes = bytes;
+		}
+
 	}
 }
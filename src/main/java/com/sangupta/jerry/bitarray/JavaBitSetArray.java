@@ -23,6 +23,7 @@ package com.sangupta.jerry.bitarray;
 
 import java.io.IOException;
 import java.util.BitSet;
+import java.util.function.IntConsumer;
 
 import com.sangupta.jerry.util.BitUtils;
 
@@ -118,26 +119,221 @@ public class JavaBitSetArray implements BitArray {
 			throw new IllegalArgumentException("BitArray to OR with cannot be null");
 		}
 
-		if(this.size != bitArray.bitSize()) {
-			throw new IllegalArgumentException("BitArray to OR with is of different length");
+		if(bitArray instanceof JavaBitSetArray) {
+			this.bitSet.or(this.checkNoBitsBeyond(bitArray).bitSet);
+			return;
 		}
 
-		BitSet bs = BitSet.valueOf(bitArray.toByteArray());
-		this.bitSet.or(bs);
+		this.combine(bitArray, BitArrayWords.OR);
 	}
 
 	@Override
 	public void and(BitArray bitArray) {
 		if(bitArray == null) {
-			throw new IllegalArgumentException("BitArray to OR with cannot be null");
+			throw new IllegalArgumentException("BitArray to AND with cannot be null");
+		}
+
+		if(bitArray instanceof JavaBitSetArray) {
+			this.bitSet.and(((JavaBitSetArray) bitArray).bitSet);
+			return;
+		}
+
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("BitArray to AND NOT with cannot be null");
+		}
+
+		if(bitArray instanceof JavaBitSetArray) {
+			this.bitSet.andNot(((JavaBitSetArray) bitArray).bitSet);
+			return;
+		}
+
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("BitArray to XOR with cannot be null");
+		}
+
+		if(bitArray instanceof JavaBitSetArray) {
+			this.bitSet.xor(this.checkNoBitsBeyond(bitArray).bitSet);
+			return;
+		}
+
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Check that the given array has no bit set beyond the length of this
+	 * one, so that it can be combined with this one even if it is longer.
+	 *
+	 * @param bitArray
+	 *            the array to check
+	 *
+	 * @return the array cast to a {@link JavaBitSetArray}
+	 */
+	private JavaBitSetArray checkNoBitsBeyond(BitArray bitArray) {
+		JavaBitSetArray second = (JavaBitSetArray) bitArray;
+		if(second.bitSet.length() > this.maxIndex + 1) {
+			throw new IllegalArgumentException("Array to be combined with has bits set beyond the length of this array");
+		}
+
+		return second;
+	}
+
+	/**
+	 * Combine the given {@link BitArray} with this one, reading it one word at
+	 * a time using {@link BitArray#readWord(int)}. The bits are updated in
+	 * place in the underlying {@link BitSet}, without copying it.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
+		if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, this.maxIndex + 1L);
+		}
+
+		int common = Math.min(this.numWords(), bitArray.numWords());
+		for(int word = 0; word < common; word++) {
+			long other = bitArray.readWord(word);
+			int start = word << 6;
+
+			if(operation == BitArrayWords.AND) {
+				if(other == -1L) {
+					continue;
+				}
+
+				// clear our set bits of the word that are not set in the other
+				int end = (int) Math.min(start + 64L, this.maxIndex + 1L);
+				for(int index = this.bitSet.nextSetBit(start); index >= 0 && index < end; index = this.bitSet.nextSetBit(index + 1)) {
+					if((other & (1L << index)) == 0) {
+						this.bitSet.clear(index);
+					}
+				}
+
+				continue;
+			}
+
+			// set, clear or flip the set bits of the other word
+			while(other != 0) {
+				int index = start + Long.numberOfTrailingZeros(other);
+				if(operation == BitArrayWords.OR) {
+					this.bitSet.set(index);
+				} else if(operation == BitArrayWords.AND_NOT) {
+					this.bitSet.clear(index);
+				} else {
+					this.bitSet.flip(index);
+				}
+
+				other &= other - 1;
+			}
 		}
 
-		if(this.size != bitArray.bitSize()) {
-			throw new IllegalArgumentException("BitArray to OR with is of different length");
+		// nothing is set beyond the other array
+		if(operation == BitArrayWords.AND) {
+			int from = common << 6;
+			int length = this.bitSet.length();
+			if(from < length) {
+				this.bitSet.clear(from, length);
+			}
+		}
+	}
+
+	@Override
+	public int numWords() {
+		return (int) ((this.maxIndex + 64L) >>> 6);
+	}
+
+	@Override
+	public long readWord(int word) {
+		if(word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		int start = word << 6;
+		int end = (int) Math.min(start + 64L, Math.min(this.maxIndex + 1L, this.bitSet.length()));
+		if(end <= start) {
+			return 0;
+		}
+
+		long[] words = this.bitSet.get(start, end).toLongArray();
+		return words.length == 0 ? 0 : words[0];
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.maxIndex + 1) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitSet.set(fromIndex, toIndex);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitSet.clear(fromIndex, toIndex);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		this.bitSet.flip(fromIndex, toIndex);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+
+		int end = Math.min(toIndex, this.bitSet.length());
+		if(end <= fromIndex) {
+			return 0;
+		}
+
+		return this.bitSet.get(fromIndex, end).cardinality();
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		this.bitSet.stream().forEach(consumer);
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
 		}
 
-		BitSet bs = BitSet.valueOf(bitArray.toByteArray());
-		this.bitSet.and(bs);
+		int index = this.bitSet.nextClearBit(fromIndex);
+		return index <= this.maxIndex ? index : -1;
 	}
 
 	@Override
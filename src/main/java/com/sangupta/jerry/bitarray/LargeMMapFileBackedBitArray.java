@@ -0,0 +1,913 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import com.sangupta.jerry.unsafe.UnsafeMemory;
+import com.sangupta.jerry.util.NumberUtils;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * An implementation of {@link BitArray} that uses a memory-mapped file which
+ * can hold more than {@link Integer#MAX_VALUE} bits. The file is mapped as a
+ * series of fixed-size regions, and all access is done one 64-bit word at a
+ * time. Bits are laid out in the same order as in
+ * {@link MMapFileBackedBitArray}, that is bit <code>n</code> is stored in byte
+ * <code>n / 8</code> of the file.
+ *
+ * Methods of the {@link BitArray} contract work on <code>int</code> indexes,
+ * the additional <code>long</code> overloads allow addressing all bits of the
+ * array. The array can be grown while in use using
+ * {@link #ensureCapacity(long)}.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@NotThreadSafe
+public class LargeMMapFileBackedBitArray implements DurableBitArray {
+
+	/**
+	 * The default size of one mapped region - 128 MB
+	 */
+	public static final int DEFAULT_REGION_SIZE = 1 << 27;
+
+	/**
+	 * Underlying file that represents the state of the
+	 * {@link BitArray}.
+	 *
+	 */
+	protected final RandomAccessFile backingFile;
+
+	/**
+	 * The channel used to map the regions of the file
+	 */
+	protected final FileChannel channel;
+
+	/**
+	 * The size of each mapped region in bytes
+	 */
+	protected final int regionSize;
+
+	/**
+	 * Number of bits to shift a byte position to obtain its region index
+	 */
+	private final int regionShift;
+
+	/**
+	 * The maximum number of elements this file will store
+	 */
+	protected long maxElements;
+
+	/**
+	 * The number of bytes being used for this bit-array, always a multiple of
+	 * eight
+	 */
+	protected long numBytes;
+
+	/**
+	 * The memory-mapped regions of the file
+	 */
+	protected MappedByteBuffer[] regions;
+
+	/**
+	 * Construct a {@link BitArray} that is backed by the given file, using the
+	 * {@link #DEFAULT_REGION_SIZE}.
+	 *
+	 * @param backingFile
+	 *            the file that needs to store the bit-array
+	 *
+	 * @param maxElements
+	 *            the number of maximum elements that this {@link BitArray}
+	 *            implementation will store
+	 *
+	 * @throws IOException
+	 *             if something fails while mapping the file
+	 */
+	public LargeMMapFileBackedBitArray(File backingFile, long maxElements) throws IOException {
+		this(backingFile, maxElements, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Construct a {@link BitArray} that is backed by the given file. Ensure
+	 * that the file is a local file and not on a network share for performance
+	 * reasons.
+	 *
+	 * @param backingFile
+	 *            the file that needs to store the bit-array
+	 *
+	 * @param maxElements
+	 *            the number of maximum elements that this {@link BitArray}
+	 *            implementation will store
+	 *
+	 * @param regionSize
+	 *            the size of each mapped region in bytes, must be a power of
+	 *            two between <code>8</code> and <code>2^30</code>
+	 *
+	 * @throws IOException
+	 *             if something fails while mapping the file
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the {@link #backingFile} is <code>null</code>, is not a
+	 *             file, the number of {@link #maxElements} are less than equal
+	 *             to zero, or the region size is invalid
+	 */
+	public LargeMMapFileBackedBitArray(File backingFile, long maxElements, int regionSize) throws IOException {
+		if(backingFile == null) {
+			throw new IllegalArgumentException("Backing file cannot be empty/null");
+		}
+
+		if(backingFile.exists() && !backingFile.isFile()) {
+			throw new IllegalArgumentException("Backing file does not represent a valid file");
+		}
+
+		if(maxElements <= 0) {
+			throw new IllegalArgumentException("Max elements in array cannot be less than or equal to zero");
+		}
+
+		if(regionSize < Long.BYTES || regionSize > (1 << 30) || Integer.bitCount(regionSize) != 1) {
+			throw new IllegalArgumentException("Region size must be a power of two between 8 and 2^30");
+		}
+
+		this.backingFile = new RandomAccessFile(backingFile, "rw");
+		this.channel = this.backingFile.getChannel();
+		this.regionSize = regionSize;
+		this.regionShift = Integer.numberOfTrailingZeros(regionSize);
+		this.regions = new MappedByteBuffer[0];
+
+		this.ensureCapacity(maxElements);
+	}
+
+	/**
+	 * Grow the array so that it can hold at least the given number of
+	 * elements. Existing bits are preserved, and the newly added bits are all
+	 * unset. The array never shrinks.
+	 *
+	 * @param newMaxElements
+	 *            the number of maximum elements that this {@link BitArray}
+	 *            should be able to store
+	 *
+	 * @throws IOException
+	 *             if the file cannot be extended or mapped
+	 */
+	public void ensureCapacity(long newMaxElements) throws IOException {
+		if(newMaxElements <= this.maxElements) {
+			return;
+		}
+
+		long newNumBytes = NumberUtils.divide(newMaxElements, Long.SIZE, RoundingMode.CEILING) << 3;
+		if(this.backingFile.length() < newNumBytes) {
+			this.backingFile.setLength(newNumBytes);
+		}
+
+		int numRegions = NumberUtils.checkedCast(NumberUtils.divide(newNumBytes, this.regionSize, RoundingMode.CEILING));
+		MappedByteBuffer[] updated = Arrays.copyOf(this.regions, numRegions);
+
+		// the last region may have been partially mapped - remap it
+		int firstToMap = this.regions.length;
+		MappedByteBuffer partial = null;
+		if(firstToMap > 0 && this.regions[firstToMap - 1].capacity() < this.regionSize) {
+			firstToMap--;
+			partial = this.regions[firstToMap];
+		}
+
+		// map all new regions before touching the current ones, so that a
+		// failure leaves this array usable
+		try {
+			for(int region = firstToMap; region < numRegions; region++) {
+				long start = ((long) region) << this.regionShift;
+				long size = Math.min(this.regionSize, newNumBytes - start);
+
+				MappedByteBuffer buffer = this.channel.map(MapMode.READ_WRITE, start, size);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				updated[region] = buffer;
+			}
+		} catch(IOException | RuntimeException | Error e) {
+			for(int region = firstToMap; region < numRegions; region++) {
+				if(updated[region] != null && updated[region] != partial) {
+					unmap(updated[region]);
+				}
+			}
+
+			throw e;
+		}
+
+		this.regions = updated;
+		if(partial != null) {
+			unmap(partial);
+		}
+
+		this.numBytes = newNumBytes;
+		this.maxElements = newMaxElements;
+	}
+
+	/**
+	 * Read the word with the given index.
+	 *
+	 * @param word
+	 *            the index of the 64-bit word
+	 *
+	 * @return the word value
+	 */
+	protected long readWordAt(long word) {
+		long pos = word << 3;
+		return this.regions[(int) (pos >>> this.regionShift)].getLong((int) (pos & (this.regionSize - 1)));
+	}
+
+	/**
+	 * Write the word with the given index.
+	 *
+	 * @param word
+	 *            the index of the 64-bit word
+	 *
+	 * @param value
+	 *            the word value to write
+	 */
+	protected void writeWordAt(long word, long value) {
+		long pos = word << 3;
+		this.regions[(int) (pos >>> this.regionShift)].putLong((int) (pos & (this.regionSize - 1)), value);
+	}
+
+	/**
+	 * Check that the index is within the range of this array.
+	 *
+	 * @param index
+	 *            the index to check
+	 */
+	private void checkIndex(long index) {
+		if(index < 0 || index >= this.maxElements) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + index);
+		}
+	}
+
+	/**
+	 * Get the bit at index
+	 *
+	 * @param index
+	 *            the index of the bit in the array
+	 *
+	 * @return <code>true</code> if the bit is set, <code>false</code> otherwise
+	 */
+	public boolean getBit(long index) {
+		this.checkIndex(index);
+		return (this.readWordAt(index >>> 6) & (1L << index)) != 0;
+	}
+
+	/**
+	 * Set the bit at index
+	 *
+	 * @param index
+	 *            the index of the bit in the array
+	 *
+	 * @return <code>true</code> if the bit was updated, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean setBit(long index) {
+		this.checkIndex(index);
+
+		long word = index >>> 6;
+		long value = this.readWordAt(word);
+		long updated = value | (1L << index);
+		if(value == updated) {
+			return false;
+		}
+
+		this.writeWordAt(word, updated);
+		return true;
+	}
+
+	/**
+	 * Clear a given bit at the index.
+	 *
+	 * @param index
+	 *            the index of the bit in the array
+	 */
+	public void clearBit(long index) {
+		this.checkIndex(index);
+
+		long word = index >>> 6;
+		long value = this.readWordAt(word);
+		long updated = value & ~(1L << index);
+		if(value != updated) {
+			this.writeWordAt(word, updated);
+		}
+	}
+
+	/**
+	 * Set the bit at index if the bit is unset.
+	 *
+	 * @param index
+	 *            the index of the bit in the array
+	 *
+	 * @return <code>true</code> if the bit was updated, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean setBitIfUnset(long index) {
+		return this.setBit(index);
+	}
+
+	/**
+	 * @see BitArray#getBit(int)
+	 */
+	@Override
+	public boolean getBit(int index) {
+		return this.getBit((long) index);
+	}
+
+	/**
+	 * @see BitArray#setBit(int)
+	 */
+	@Override
+	public boolean setBit(int index) {
+		return this.setBit((long) index);
+	}
+
+	/**
+	 * @see BitArray#clearBit(int)
+	 */
+	@Override
+	public void clearBit(int index) {
+		this.clearBit((long) index);
+	}
+
+	/**
+	 * @see BitArray#setBitIfUnset(int)
+	 */
+	@Override
+	public boolean setBitIfUnset(int index) {
+		return this.setBit((long) index);
+	}
+
+	/**
+	 * @see BitArray#clear()
+	 */
+	@Override
+	public void clear() {
+		byte[] zeros = new byte[Math.min(64 * 1024, this.regionSize)];
+		for(MappedByteBuffer region : this.regions) {
+			ByteBuffer view = region.duplicate();
+			view.clear();
+			while(view.hasRemaining()) {
+				view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+			}
+		}
+	}
+
+	/**
+	 * @see BitArray#or(BitArray)
+	 */
+	@Override
+	public void or(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	/**
+	 * @see BitArray#and(BitArray)
+	 */
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Combine the given {@link BitArray} with this one, a word at a time.
+	 * Another {@link LargeMMapFileBackedBitArray} is read directly from its
+	 * mapped regions, all other arrays are read using
+	 * {@link BitArray#readWord(int)}.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("BitArray to be combined with cannot be null");
+		}
+
+		LargeMMapFileBackedBitArray large = null;
+		long otherWords;
+		if(bitArray instanceof LargeMMapFileBackedBitArray) {
+			large = (LargeMMapFileBackedBitArray) bitArray;
+			otherWords = large.numBytes >>> 3;
+
+			if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+				long first = this.maxElements >>> 6;
+				for(long word = first; word < otherWords; word++) {
+					long value = large.readWordAt(word);
+					if(word == first) {
+						value &= BitArrayWords.firstWordMask(this.maxElements);
+					}
+
+					if(value != 0) {
+						throw new IllegalArgumentException("Array to be combined with has bits set beyond the length of this array");
+					}
+				}
+			}
+		} else {
+			if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+				BitArrayWords.checkNoBitsBeyond(bitArray, this.maxElements);
+			}
+
+			otherWords = bitArray.numWords();
+		}
+
+		long numWords = this.numBytes >>> 3;
+		for(long word = 0; word < numWords; word++) {
+			long other = 0;
+			if(word < otherWords) {
+				other = large != null ? large.readWordAt(word) : bitArray.readWord((int) word);
+			}
+
+			if(other == 0 && operation != BitArrayWords.AND) {
+				if(word >= otherWords) {
+					break;
+				}
+
+				continue;
+			}
+
+			long value = this.readWordAt(word);
+			long updated = BitArrayWords.combine(value, other, operation);
+			if(value != updated) {
+				this.writeWordAt(word, updated);
+			}
+		}
+	}
+
+	/**
+	 * @see BitArray#numWords()
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of words does not fit an <code>int</code>
+	 */
+	@Override
+	public int numWords() {
+		return NumberUtils.checkedCast(this.numBytes >>> 3);
+	}
+
+	@Override
+	public long readWord(int word) {
+		if(word < 0 || word >= (this.numBytes >>> 3)) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		return this.readWordAt(word);
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(long fromIndex, long toIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("From index is out of range: " + fromIndex);
+		}
+
+		if(toIndex < fromIndex) {
+			throw new IndexOutOfBoundsException("To index cannot be less than from index: " + toIndex + " < " + fromIndex);
+		}
+
+		if(toIndex > this.maxElements) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range a word at a time.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 */
+	private void applyRange(long fromIndex, long toIndex, int operation) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return;
+		}
+
+		long startWord = fromIndex >>> 6;
+		long endWord = (toIndex - 1) >>> 6;
+		for(long word = startWord; word <= endWord; word++) {
+			long mask = -1L;
+			if(word == startWord) {
+				mask &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				mask &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			this.writeWordAt(word, BitArrayWords.apply(this.readWordAt(word), mask, operation));
+		}
+	}
+
+	/**
+	 * Set all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to set
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to set
+	 */
+	public void setRange(long fromIndex, long toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	/**
+	 * Clear all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to clear
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to clear
+	 */
+	public void clearRange(long fromIndex, long toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	/**
+	 * Flip all bits from the given start index (inclusive) to the given end
+	 * index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to flip
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to flip
+	 */
+	public void flipRange(long fromIndex, long toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	/**
+	 * Count the number of bits that are set from the given start index
+	 * (inclusive) to the given end index (exclusive).
+	 *
+	 * @param fromIndex
+	 *            the index of the first bit to count
+	 *
+	 * @param toIndex
+	 *            the index after the last bit to count
+	 *
+	 * @return the number of bits set in the range
+	 */
+	public long cardinality(long fromIndex, long toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		long startWord = fromIndex >>> 6;
+		long endWord = (toIndex - 1) >>> 6;
+
+		long count = 0;
+		for(long word = startWord; word <= endWord; word++) {
+			long value = this.readWordAt(word);
+			if(word == startWord) {
+				value &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				value &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			count += Long.bitCount(value);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Invoke the given consumer with the index of every bit that is set, in
+	 * ascending order.
+	 *
+	 * @param consumer
+	 *            the consumer to invoke
+	 */
+	public void forEachSetBitLong(LongConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		long numWords = this.numBytes >>> 3;
+		for(long word = 0; word < numWords; word++) {
+			long value = this.readWordAt(word);
+			while(value != 0) {
+				consumer.accept((word << 6) + Long.numberOfTrailingZeros(value));
+				value &= value - 1;
+			}
+		}
+	}
+
+	/**
+	 * Get the next bit that is not set on or after the given start index.
+	 *
+	 * @param fromIndex
+	 *            the index to start searching for.
+	 *
+	 * @return the index of the next bit that is clear, or <code>-1</code> if
+	 *         all bits till the end of the array are set
+	 */
+	public long nextClearBit(long fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		if(fromIndex >= this.maxElements) {
+			return -1;
+		}
+
+		long numWords = this.numBytes >>> 3;
+		long word = fromIndex >>> 6;
+		long value = ~this.readWordAt(word) & BitArrayWords.firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				long index = (word << 6) + Long.numberOfTrailingZeros(value);
+				return index < this.maxElements ? index : -1;
+			}
+
+			if(++word == numWords) {
+				return -1;
+			}
+
+			value = ~this.readWordAt(word);
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.setRange((long) fromIndex, (long) toIndex);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.clearRange((long) fromIndex, (long) toIndex);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.flipRange((long) fromIndex, (long) toIndex);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		return (int) this.cardinality((long) fromIndex, (long) toIndex);
+	}
+
+	/**
+	 * @see BitArray#forEachSetBit(IntConsumer)
+	 *
+	 * @throws IllegalArgumentException
+	 *             if a set bit does not fit an <code>int</code>
+	 */
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		this.forEachSetBitLong(index -> consumer.accept(NumberUtils.checkedCast(index)));
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		return NumberUtils.checkedCast(this.nextClearBit((long) fromIndex));
+	}
+
+	/**
+	 * The space used by this {@link BitArray} in number of bits.
+	 *
+	 * @return the number of bits being used
+	 */
+	public long bitSizeAsLong() {
+		return this.numBytes << 3;
+	}
+
+	/**
+	 * The space used by this {@link BitArray} in number of bytes.
+	 *
+	 * @return the number of bytes being used
+	 */
+	public long numBytesAsLong() {
+		return this.numBytes;
+	}
+
+	/**
+	 * @see BitArray#bitSize()
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of bits does not fit an <code>int</code>
+	 */
+	@Override
+	public int bitSize() {
+		return NumberUtils.checkedCast(this.bitSizeAsLong());
+	}
+
+	/**
+	 * @see BitArray#numBytes()
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of bytes does not fit an <code>int</code>
+	 */
+	@Override
+	public int numBytes() {
+		return NumberUtils.checkedCast(this.numBytes);
+	}
+
+	/**
+	 * @see BitArray#toByteArray()
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of bytes does not fit an <code>int</code>
+	 */
+	@Override
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[this.numBytes()];
+
+		int offset = 0;
+		for(MappedByteBuffer region : this.regions) {
+			ByteBuffer view = region.duplicate();
+			view.clear();
+
+			int length = view.remaining();
+			view.get(bytes, offset, length);
+			offset += length;
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Return the index of the highest bit that is currently set in this
+	 * {@link BitArray}.
+	 *
+	 * @return the index that is set, or <code>-1</code> if none is set
+	 */
+	public long getHighestBitSetAsLong() {
+		for(long word = (this.numBytes >>> 3) - 1; word >= 0; word--) {
+			long value = this.readWordAt(word);
+			if(value != 0) {
+				return (word << 6) + (Long.SIZE - 1 - Long.numberOfLeadingZeros(value));
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Return the index of the lowest bit that is currently set in this
+	 * {@link BitArray}.
+	 *
+	 * @return the index that is set, or <code>-1</code> if none is set
+	 */
+	public long getLowestBitSetAsLong() {
+		return this.getNextSetBit(0L);
+	}
+
+	/**
+	 * Get the next bit that is set on or after the given start index.
+	 *
+	 * @param fromIndex
+	 *            the index to start searching for.
+	 *
+	 * @return the index of the bit that is set-next or <code>-1</code> if none
+	 *         is set
+	 */
+	public long getNextSetBit(long fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		long numWords = this.numBytes >>> 3;
+		long word = fromIndex >>> 6;
+		if(word >= numWords) {
+			return -1;
+		}
+
+		long value = this.readWordAt(word) & (-1L << fromIndex);
+		while(true) {
+			if(value != 0) {
+				return (word << 6) + Long.numberOfTrailingZeros(value);
+			}
+
+			if(++word == numWords) {
+				return -1;
+			}
+
+			value = this.readWordAt(word);
+		}
+	}
+
+	@Override
+	public int getHighestBitSet() {
+		return NumberUtils.checkedCast(this.getHighestBitSetAsLong());
+	}
+
+	@Override
+	public int getLowestBitSet() {
+		return NumberUtils.checkedCast(this.getLowestBitSetAsLong());
+	}
+
+	@Override
+	public int getNextSetBit(int fromIndex) {
+		return NumberUtils.checkedCast(this.getNextSetBit((long) fromIndex));
+	}
+
+	/**
+	 * Force all changes made to the mapped regions to the physical disk.
+	 *
+	 */
+	@Override
+	public void sync() {
+		for(MappedByteBuffer region : this.regions) {
+			region.force();
+		}
+	}
+
+	/**
+	 * Unmap all regions and close the file. Changes that have not been forced
+	 * using {@link #sync()} are written to the disk by the operating system.
+	 * The array must not be used after it has been closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		for(MappedByteBuffer region : this.regions) {
+			unmap(region);
+		}
+
+		this.regions = new MappedByteBuffer[0];
+		this.backingFile.close();
+	}
+
+	/**
+	 * Unmap the given memory-mapped buffer without waiting for it to be
+	 * garbage-collected.
+	 *
+	 * @param buffer
+	 *            the buffer to unmap
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			UnsafeMemory.getUnsafe().invokeCleaner(buffer);
+		} catch(Exception e) {
+			// the buffer will be unmapped when garbage-collected
+		}
+	}
+}
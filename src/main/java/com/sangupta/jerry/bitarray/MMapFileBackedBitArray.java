@@ -29,6 +29,7 @@ import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel.MapMode;
 import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 import com.sangupta.jerry.util.BitUtils;
 
@@ -44,7 +45,7 @@ import net.jcip.annotations.NotThreadSafe;
  * @since 1.7
  */
 @NotThreadSafe
-public class MMapFileBackedBitArray implements BitArray {
+public class MMapFileBackedBitArray implements DurableBitArray {
 
 	/**
 	 * Underlying file that represents the state of the
@@ -191,40 +192,262 @@ public class MMapFileBackedBitArray implements BitArray {
 	 */
 	@Override
 	public void or(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	/**
+	 * @see BitArray#and(BitArray)
+	 */
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Combine the given array with this one a word at a time, reading the
+	 * other array using {@link BitArray#readWord(int)} so that it is never
+	 * copied in full.
+	 *
+	 * @param bitArray
+	 *            the array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
 		if(bitArray == null) {
-			throw new IllegalArgumentException("BitArray to OR with cannot be null");
+			throw new IllegalArgumentException("BitArray to combine with cannot be null");
 		}
 
-		if(this.numBytes != bitArray.numBytes()) {
-			throw new IllegalArgumentException("BitArray to OR with is of different length");
+		if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, this.maxElements + 1L);
 		}
 
-		byte[] bytes = bitArray.toByteArray();
-		for(int index = 0; index < this.numBytes; index++) {
-			byte bite = this.buffer.get(index);
-			bite = (byte) (bite | bytes[index]);
-			this.buffer.put(index, bite);
+		int words = this.numWords();
+		int common = Math.min(words, bitArray.numWords());
+		for(int word = 0; word < words; word++) {
+			long other = word < common ? bitArray.readWord(word) : 0;
+			if(other == 0 && operation != BitArrayWords.AND) {
+				continue;
+			}
+
+			long value = this.getWord(word);
+			long updated = BitArrayWords.combine(value, other, operation);
+			if(value != updated) {
+				this.putWord(word, updated);
+			}
 		}
 	}
 
+	@Override
+	public long readWord(int word) {
+		if(word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		return this.getWord(word);
+	}
+
 	/**
-	 * @see BitArray#and(BitArray)
+	 * Number of 64-bit words needed to cover all bytes of this array.
+	 *
+	 * @return the number of words
 	 */
 	@Override
-	public void and(BitArray bitArray) {
-		if(bitArray == null) {
-			throw new IllegalArgumentException("BitArray to OR with cannot be null");
+	public int numWords() {
+		return (this.numBytes + 7) >>> 3;
+	}
+
+	/**
+	 * Read the word at the given index. Bit <code>n</code> of the word is bit
+	 * <code>(word * 64) + n</code> of this array. The last word may be partial,
+	 * in which case the missing bytes are read as zero.
+	 *
+	 * @param word
+	 *            the index of the word
+	 *
+	 * @return the value of the word
+	 */
+	private long getWord(int word) {
+		int pos = word << 3;
+		if(pos + 8 <= this.numBytes) {
+			return Long.reverseBytes(this.buffer.getLong(pos));
 		}
 
-		if(this.numBytes != bitArray.numBytes()) {
-			throw new IllegalArgumentException("BitArray to OR with is of different length");
+		long value = 0;
+		for(int index = 0; pos + index < this.numBytes; index++) {
+			value |= (this.buffer.get(pos + index) & 0xFFL) << (index << 3);
 		}
 
-		byte[] bytes = bitArray.toByteArray();
-		for(int index = 0; index < this.numBytes; index++) {
-			byte bite = this.buffer.get(index);
-			bite = (byte) (bite & bytes[index]);
-			this.buffer.put(index, bite);
+		return value;
+	}
+
+	/**
+	 * Write the word at the given index. Only the bytes of the last word
+	 * that lie within this array are written.
+	 *
+	 * @param word
+	 *            the index of the word
+	 *
+	 * @param value
+	 *            the value to write
+	 */
+	private void putWord(int word, long value) {
+		int pos = word << 3;
+		if(pos + 8 <= this.numBytes) {
+			this.buffer.putLong(pos, Long.reverseBytes(value));
+			return;
+		}
+
+		for(int index = 0; pos + index < this.numBytes; index++) {
+			this.buffer.put(pos + index, (byte) (value >>> (index << 3)));
+		}
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range a word at a time.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 */
+	private void applyRange(int fromIndex, int toIndex, int operation) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+		for(int word = startWord; word <= endWord; word++) {
+			long mask = -1L;
+			if(word == startWord) {
+				mask &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				mask &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			this.putWord(word, BitArrayWords.apply(this.getWord(word), mask, operation));
+		}
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.maxElements + 1) {
+			throw new IndexOutOfBoundsException("To index is greater than max elements permitted");
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int startWord = fromIndex >>> 6;
+		int endWord = (toIndex - 1) >>> 6;
+
+		int count = 0;
+		for(int word = startWord; word <= endWord; word++) {
+			long value = this.getWord(word);
+			if(word == startWord) {
+				value &= BitArrayWords.firstWordMask(fromIndex);
+			}
+
+			if(word == endWord) {
+				value &= BitArrayWords.lastWordMask(toIndex);
+			}
+
+			count += Long.bitCount(value);
+		}
+
+		return count;
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		int words = this.numWords();
+		for(int word = 0; word < words; word++) {
+			long value = this.getWord(word);
+			while(value != 0) {
+				consumer.accept((word << 6) + Long.numberOfTrailingZeros(value));
+				value &= value - 1;
+			}
+		}
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		if(fromIndex > this.maxElements) {
+			return -1;
+		}
+
+		int words = this.numWords();
+		int word = fromIndex >>> 6;
+
+		long value = ~this.getWord(word) & BitArrayWords.firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(value);
+				return index <= this.maxElements ? index : -1;
+			}
+
+			if(++word == words) {
+				return -1;
+			}
+
+			value = ~this.getWord(word);
 		}
 	}
 
@@ -259,6 +482,18 @@ public class MMapFileBackedBitArray implements BitArray {
 		this.backingFile.write(bytes);
 	}
 
+	/**
+	 * Force all changes to the memory-mapped file to disk. Changes are
+	 * visible to other readers of the file right away, but may be lost on a
+	 * system crash until this method is called.
+	 *
+	 * @since 4.0.0
+	 */
+	@Override
+	public void sync() {
+		this.buffer.force();
+	}
+
 	@Override
 	public void close() throws IOException {
 		this.closeDirectBuffer(this.buffer);
@@ -348,15 +583,30 @@ public class MMapFileBackedBitArray implements BitArray {
 		return -1;
 	}
 
-    @Override
-    public int getNextSetBit(int fromIndex) {
-        // TODO: optimize this method
-        for(int index = fromIndex; index < this.maxElements; index++) {
-            if(this.getBit(index)) {
-                return index;
-            }
-        }
+	@Override
+	public int getNextSetBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		int words = this.numWords();
+		int word = fromIndex >>> 6;
+		if(word >= words) {
+			return -1;
+		}
+
+		long value = this.getWord(word) & BitArrayWords.firstWordMask(fromIndex);
+		while(true) {
+			if(value != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(value);
+				return index < this.maxElements ? index : -1;
+			}
+
+			if(++word == words) {
+				return -1;
+			}
 
-        return -1;
-    }
+			value = this.getWord(word);
+		}
+	}
 }
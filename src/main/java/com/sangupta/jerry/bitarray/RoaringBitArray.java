@@ -0,0 +1,1537 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A compressed {@link BitArray} implementation based on the ideas of Roaring
+ * bitmaps. The index space is split in chunks of 65536 bits, and only chunks
+ * that have at least one bit set are stored. Each chunk is held in the most
+ * compact of three containers:
+ *
+ * <ul>
+ * <li>a sorted array of 16-bit values when the chunk has at most 4096 bits
+ * set</li>
+ * <li>a plain 8 KB bitmap when the chunk is dense</li>
+ * <li>a list of runs of consecutive set bits, when converted using
+ * {@link #runOptimize()}</li>
+ * </ul>
+ *
+ * Boolean operations between two {@link RoaringBitArray} instances work one
+ * container at a time, and skip chunks that are empty in either array where
+ * possible.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@NotThreadSafe
+public class RoaringBitArray implements BitArray {
+
+	/**
+	 * Number of bits held in a single container
+	 */
+	private static final int CONTAINER_BITS = 1 << 16;
+
+	/**
+	 * Maximum index (exclusive) that we can accommodate in this array
+	 */
+	private final int maxElements;
+
+	/**
+	 * The high 16-bits of the chunk held by the container at the same
+	 * position, kept sorted
+	 */
+	private char[] keys;
+
+	/**
+	 * The containers, one per key
+	 */
+	private Container[] containers;
+
+	/**
+	 * The number of containers in use
+	 */
+	private int size;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxElements
+	 *            the number of maximum elements that this {@link BitArray}
+	 *            implementation will store
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the number of elements is less than or equal to zero
+	 */
+	public RoaringBitArray(int maxElements) {
+		if(maxElements <= 0) {
+			throw new IllegalArgumentException("Max elements in array cannot be less than or equal to zero");
+		}
+
+		this.maxElements = maxElements;
+		this.keys = new char[4];
+		this.containers = new Container[4];
+		this.size = 0;
+	}
+
+	/**
+	 * Check that the index is within the range of this array.
+	 *
+	 * @param index
+	 *            the index to check
+	 */
+	private void checkIndex(int index) {
+		if(index < 0 || index >= this.maxElements) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + index);
+		}
+	}
+
+	/**
+	 * Find the position of the container for the given key.
+	 *
+	 * @param key
+	 *            the high 16-bits of the index
+	 *
+	 * @return the position of the container if found, or
+	 *         <code>-(insertion point) - 1</code> otherwise
+	 */
+	private int findContainer(char key) {
+		// fast path for appending in order
+		if(this.size > 0 && this.keys[this.size - 1] == key) {
+			return this.size - 1;
+		}
+
+		return Arrays.binarySearch(this.keys, 0, this.size, key);
+	}
+
+	/**
+	 * Insert a new container at the given position.
+	 *
+	 * @param position
+	 *            the position at which to insert
+	 *
+	 * @param key
+	 *            the key of the container
+	 *
+	 * @param container
+	 *            the container to insert
+	 */
+	private void insertContainer(int position, char key, Container container) {
+		if(this.size == this.keys.length) {
+			int newLength = this.keys.length * 2;
+			this.keys = Arrays.copyOf(this.keys, newLength);
+			this.containers = Arrays.copyOf(this.containers, newLength);
+		}
+
+		System.arraycopy(this.keys, position, this.keys, position + 1, this.size - position);
+		System.arraycopy(this.containers, position, this.containers, position + 1, this.size - position);
+
+		this.keys[position] = key;
+		this.containers[position] = container;
+		this.size++;
+	}
+
+	/**
+	 * Remove the container at the given position.
+	 *
+	 * @param position
+	 *            the position of the container to remove
+	 */
+	private void removeContainer(int position) {
+		System.arraycopy(this.keys, position + 1, this.keys, position, this.size - position - 1);
+		System.arraycopy(this.containers, position + 1, this.containers, position, this.size - position - 1);
+
+		this.size--;
+		this.containers[this.size] = null;
+	}
+
+	@Override
+	public boolean getBit(int index) {
+		this.checkIndex(index);
+
+		int position = this.findContainer((char) (index >>> 16));
+		if(position < 0) {
+			return false;
+		}
+
+		return this.containers[position].contains((char) index);
+	}
+
+	@Override
+	public boolean setBit(int index) {
+		this.checkIndex(index);
+
+		char key = (char) (index >>> 16);
+		char low = (char) index;
+
+		int position = this.findContainer(key);
+		if(position < 0) {
+			this.insertContainer(-position - 1, key, new ArrayContainer().add(low));
+			return true;
+		}
+
+		Container container = this.containers[position];
+		if(container.contains(low)) {
+			return false;
+		}
+
+		this.containers[position] = container.add(low);
+		return true;
+	}
+
+	@Override
+	public boolean setBitIfUnset(int index) {
+		return this.setBit(index);
+	}
+
+	@Override
+	public void clearBit(int index) {
+		this.checkIndex(index);
+
+		int position = this.findContainer((char) (index >>> 16));
+		if(position < 0) {
+			return;
+		}
+
+		Container container = this.containers[position].remove((char) index);
+		if(container.cardinality() == 0) {
+			this.removeContainer(position);
+			return;
+		}
+
+		this.containers[position] = container;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.containers, 0, this.size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Return the number of bits that are set in this array.
+	 *
+	 * @return the number of set bits
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for(int index = 0; index < this.size; index++) {
+			cardinality += this.containers[index].cardinality();
+		}
+
+		return cardinality;
+	}
+
+	/**
+	 * Convert containers to run-length encoding where that is more compact.
+	 * This is useful once an array has been populated and is mostly going to
+	 * be read. Containers are converted back automatically when modified.
+	 *
+	 */
+	public void runOptimize() {
+		for(int index = 0; index < this.size; index++) {
+			this.containers[index] = this.containers[index].runOptimize();
+		}
+	}
+
+	/**
+	 * Return the approximate number of bytes used to hold the set bits of
+	 * this array.
+	 *
+	 * @return the approximate size in bytes
+	 */
+	public long getSizeInBytes() {
+		long bytes = this.size * 2L;
+		for(int index = 0; index < this.size; index++) {
+			bytes += this.containers[index].sizeInBytes();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Return an iterator over the indexes of all set bits in ascending order.
+	 *
+	 * @return the iterator
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new PrimitiveIterator.OfInt() {
+
+			private int next = RoaringBitArray.this.getLowestBitSet();
+
+			@Override
+			public boolean hasNext() {
+				return this.next >= 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if(this.next < 0) {
+					throw new NoSuchElementException();
+				}
+
+				int current = this.next;
+				this.next = RoaringBitArray.this.getNextSetBit(current + 1);
+				return current;
+			}
+
+		};
+	}
+
+	@Override
+	public void or(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Check that the given range lies within this array.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 */
+	private void checkRange(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+
+		if(toIndex > this.maxElements) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range, one container at a
+	 * time. Chunks that are cleared completely have their container removed.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void applyRange(int fromIndex, int toIndex, int operation) {
+		this.checkRange(fromIndex, toIndex);
+
+		while(fromIndex < toIndex) {
+			char key = (char) (fromIndex >>> 16);
+			int chunkStart = key << 16;
+			int localFrom = fromIndex - chunkStart;
+			int localTo = (int) Math.min((long) toIndex - chunkStart, CONTAINER_BITS);
+
+			int position = this.findContainer(key);
+			if(operation == BitArrayWords.CLEAR && position >= 0 && localFrom == 0 && localTo == CONTAINER_BITS) {
+				this.removeContainer(position);
+			} else if(operation != BitArrayWords.CLEAR || position >= 0) {
+				BitmapContainer bitmap = position >= 0 ? this.containers[position].toBitmap() : new BitmapContainer();
+				BitArrayWords.applyRange(bitmap.words, localFrom, localTo, operation);
+
+				Container result = bitmap.recount().repair();
+				if(operation == BitArrayWords.SET) {
+					result = result.runOptimize();
+				}
+
+				if(result.cardinality() == 0) {
+					if(position >= 0) {
+						this.removeContainer(position);
+					}
+				} else if(position >= 0) {
+					this.containers[position] = result;
+				} else {
+					this.insertContainer(-position - 1, key, result);
+				}
+			}
+
+			fromIndex = chunkStart + localTo;
+			if(fromIndex < chunkStart) {
+				// overflowed past the last chunk
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Set all bits in the given range. Containers that end up with long runs
+	 * of set bits are converted to run-length encoding.
+	 *
+	 */
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		this.checkRange(fromIndex, toIndex);
+		if(fromIndex == toIndex) {
+			return 0;
+		}
+
+		int lastKey = (toIndex - 1) >>> 16;
+		int position = this.findContainer((char) (fromIndex >>> 16));
+		if(position < 0) {
+			position = -position - 1;
+		}
+
+		int count = 0;
+		for(; position < this.size && this.keys[position] <= lastKey; position++) {
+			int chunkStart = this.keys[position] << 16;
+			int localFrom = Math.max(fromIndex - chunkStart, 0);
+			int localTo = (int) Math.min((long) toIndex - chunkStart, CONTAINER_BITS);
+
+			Container container = this.containers[position];
+			if(localFrom == 0 && localTo == CONTAINER_BITS) {
+				count += container.cardinality();
+			} else {
+				count += container.cardinalityInRange(localFrom, localTo);
+			}
+		}
+
+		return count;
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		for(int index = 0; index < this.size; index++) {
+			this.containers[index].forEach(this.keys[index] << 16, consumer);
+		}
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		long index = fromIndex;
+		while(index < this.maxElements) {
+			char key = (char) (index >>> 16);
+			int position = this.findContainer(key);
+			if(position < 0) {
+				return (int) index;
+			}
+
+			int next = this.containers[position].nextClearBit((int) (index & 0xFFFF));
+			if(next < CONTAINER_BITS) {
+				index = ((long) key << 16) | next;
+				return index < this.maxElements ? (int) index : -1;
+			}
+
+			index = (key + 1L) << 16;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Combine the given {@link BitArray} with this one using the given
+	 * operation.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
+		if(bitArray == null) {
+			throw new IllegalArgumentException("Array to be combined with cannot be null");
+		}
+
+		if(bitArray instanceof RoaringBitArray) {
+			RoaringBitArray other = (RoaringBitArray) bitArray;
+			if((operation == BitArrayWords.OR || operation == BitArrayWords.XOR) && other.getHighestBitSet() >= this.maxElements) {
+				throw new IllegalArgumentException("Array to be combined with has bits set beyond the length of this array");
+			}
+
+			this.combine(other, operation);
+			return;
+		}
+
+		if(operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, this.maxElements);
+		}
+
+		// generic path - stream the other array one chunk of words at a time
+		int wordsPerChunk = CONTAINER_BITS / Long.SIZE;
+		int otherWords = bitArray.numWords();
+		int lastKey = (this.maxElements - 1) >>> 16;
+		long[] words = new long[wordsPerChunk];
+
+		for(int key = 0; key <= lastKey; key++) {
+			int firstWord = key * wordsPerChunk;
+			int count = Math.max(0, Math.min(wordsPerChunk, otherWords - firstWord));
+
+			boolean empty = true;
+			for(int index = 0; index < count; index++) {
+				words[index] = bitArray.readWord(firstWord + index);
+				empty &= words[index] == 0;
+			}
+
+			Arrays.fill(words, count, wordsPerChunk, 0L);
+
+			int position = this.findContainer((char) key);
+			if(empty) {
+				if(operation == BitArrayWords.AND && position >= 0) {
+					this.removeContainer(position);
+				}
+
+				continue;
+			}
+
+			if(position < 0 && (operation == BitArrayWords.AND || operation == BitArrayWords.AND_NOT)) {
+				continue;
+			}
+
+			BitmapContainer bitmap = position >= 0 ? this.containers[position].toBitmap() : new BitmapContainer();
+			for(int index = 0; index < wordsPerChunk; index++) {
+				bitmap.words[index] = BitArrayWords.combine(bitmap.words[index], words[index], operation);
+			}
+
+			Container result = bitmap.recount().repair();
+			if(result.cardinality() == 0) {
+				if(position >= 0) {
+					this.removeContainer(position);
+				}
+			} else if(position >= 0) {
+				this.containers[position] = result;
+			} else {
+				this.insertContainer(-position - 1, (char) key, result);
+			}
+		}
+	}
+
+	/**
+	 * Combine the given {@link RoaringBitArray} with this one, one container
+	 * at a time.
+	 *
+	 * @param other
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(RoaringBitArray other, int operation) {
+		int capacity = operation == BitArrayWords.AND ? Math.min(this.size, other.size) : this.size + other.size;
+		char[] newKeys = new char[Math.max(4, capacity)];
+		Container[] newContainers = new Container[newKeys.length];
+		int newSize = 0;
+
+		int mine = 0;
+		int theirs = 0;
+		while(mine < this.size || theirs < other.size) {
+			int myKey = mine < this.size ? this.keys[mine] : Integer.MAX_VALUE;
+			int theirKey = theirs < other.size ? other.keys[theirs] : Integer.MAX_VALUE;
+
+			Container result;
+			char key;
+			if(myKey < theirKey) {
+				key = (char) myKey;
+				result = operation == BitArrayWords.AND ? null : this.containers[mine];
+				mine++;
+			} else if(myKey > theirKey) {
+				key = (char) theirKey;
+				result = operation == BitArrayWords.OR || operation == BitArrayWords.XOR ? other.containers[theirs].copy() : null;
+				theirs++;
+			} else {
+				key = (char) myKey;
+				result = apply(this.containers[mine], other.containers[theirs], operation);
+				mine++;
+				theirs++;
+			}
+
+			if(result != null && result.cardinality() > 0) {
+				newKeys[newSize] = key;
+				newContainers[newSize] = result;
+				newSize++;
+			}
+		}
+
+		this.keys = newKeys;
+		this.containers = newContainers;
+		this.size = newSize;
+	}
+
+	/**
+	 * Apply the operation to the two containers and return the result. The
+	 * input containers are never modified.
+	 *
+	 * @param first
+	 *            the first container
+	 *
+	 * @param second
+	 *            the second container
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 *
+	 * @return the resulting container
+	 */
+	private static Container apply(Container first, Container second, int operation) {
+		switch(operation) {
+			case BitArrayWords.OR:
+				if(first instanceof ArrayContainer && second instanceof ArrayContainer) {
+					return ((ArrayContainer) first).merge((ArrayContainer) second, false);
+				}
+
+				return first.toBitmap().orWith(second).repair();
+
+			case BitArrayWords.AND:
+				if(first instanceof ArrayContainer) {
+					return ((ArrayContainer) first).filter(second, true);
+				}
+
+				if(second instanceof ArrayContainer) {
+					return ((ArrayContainer) second).filter(first, true);
+				}
+
+				return first.toBitmap().andWith(second.toBitmap()).repair();
+
+			case BitArrayWords.AND_NOT:
+				if(first instanceof ArrayContainer) {
+					return ((ArrayContainer) first).filter(second, false);
+				}
+
+				return first.toBitmap().andNotWith(second).repair();
+
+			case BitArrayWords.XOR:
+				if(first instanceof ArrayContainer && second instanceof ArrayContainer) {
+					return ((ArrayContainer) first).merge((ArrayContainer) second, true);
+				}
+
+				return first.toBitmap().xorWith(second).repair();
+
+			default:
+				throw new IllegalArgumentException("Unknown operation: " + operation);
+		}
+	}
+
+	@Override
+	public long readWord(int word) {
+		if(word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
+		}
+
+		int position = this.findContainer((char) (word >>> 10));
+		if(position < 0) {
+			return 0;
+		}
+
+		return this.containers[position].word(word & 0x3FF);
+	}
+
+	@Override
+	public int bitSize() {
+		return this.maxElements;
+	}
+
+	/**
+	 * The number of bytes needed to hold this array in its uncompressed form,
+	 * as returned by {@link #toByteArray()}. Use {@link #getSizeInBytes()} for
+	 * the actual memory being used.
+	 */
+	@Override
+	public int numBytes() {
+		return (int) ((this.maxElements + 7L) >>> 3);
+	}
+
+	/**
+	 * Return the uncompressed form of this array, where bit <code>n</code> is
+	 * stored in byte <code>n / 8</code>.
+	 */
+	@Override
+	public byte[] toByteArray() {
+		final byte[] bytes = new byte[this.numBytes()];
+		for(int index = 0; index < this.size; index++) {
+			this.containers[index].forEach(this.keys[index] << 16, bit -> bytes[bit >>> 3] |= (byte) (1 << (bit & 7)));
+		}
+
+		return bytes;
+	}
+
+	@Override
+	public int getHighestBitSet() {
+		if(this.size == 0) {
+			return -1;
+		}
+
+		return (this.keys[this.size - 1] << 16) | this.containers[this.size - 1].last();
+	}
+
+	@Override
+	public int getLowestBitSet() {
+		if(this.size == 0) {
+			return -1;
+		}
+
+		return (this.keys[0] << 16) | this.containers[0].first();
+	}
+
+	@Override
+	public int getNextSetBit(int fromIndex) {
+		if(fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		if(fromIndex >= this.maxElements) {
+			return -1;
+		}
+
+		char key = (char) (fromIndex >>> 16);
+		int position = this.findContainer(key);
+		if(position >= 0) {
+			int next = this.containers[position].nextSetBit(fromIndex & 0xFFFF);
+			if(next >= 0) {
+				return (key << 16) | next;
+			}
+
+			position++;
+		} else {
+			position = -position - 1;
+		}
+
+		if(position < this.size) {
+			return (this.keys[position] << 16) | this.containers[position].first();
+		}
+
+		return -1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		// nothing to do - we are in-memory
+	}
+
+	/**
+	 * Contract for a container that holds the low 16-bits of all set indexes
+	 * of one chunk. Mutating methods return the container that should be
+	 * used from then on, which may be a different type of container.
+	 *
+	 */
+	static abstract class Container {
+
+		abstract boolean contains(char value);
+
+		abstract Container add(char value);
+
+		abstract Container remove(char value);
+
+		abstract int cardinality();
+
+		abstract int first();
+
+		abstract int last();
+
+		/**
+		 * @return the next set value on or after the given one, or
+		 *         <code>-1</code> if none
+		 */
+		abstract int nextSetBit(int from);
+
+		/**
+		 * @return the next unset value on or after the given one, which may
+		 *         be {@link RoaringBitArray#CONTAINER_BITS}
+		 */
+		abstract int nextClearBit(int from);
+
+		abstract void forEach(int high, IntConsumer consumer);
+
+		/**
+		 * @return the 64 values starting at <code>index * 64</code> as a word
+		 */
+		long word(int index) {
+			int start = index << 6;
+			long value = 0;
+
+			int next = this.nextSetBit(start);
+			while(next >= 0 && next < start + Long.SIZE) {
+				int end = Math.min(this.nextClearBit(next), start + Long.SIZE);
+				value |= BitArrayWords.firstWordMask(next) & BitArrayWords.lastWordMask(end);
+
+				if(end >= start + Long.SIZE) {
+					break;
+				}
+
+				next = this.nextSetBit(end);
+			}
+
+			return value;
+		}
+
+		/**
+		 * @return the number of set values on or after the first and before
+		 *         the second value
+		 */
+		int cardinalityInRange(int from, int to) {
+			int count = 0;
+			int value = this.nextSetBit(from);
+			while(value >= 0 && value < to) {
+				int end = Math.min(this.nextClearBit(value), to);
+				count += end - value;
+
+				if(end >= to) {
+					break;
+				}
+
+				value = this.nextSetBit(end);
+			}
+
+			return count;
+		}
+
+		abstract BitmapContainer toBitmap();
+
+		abstract Container copy();
+
+		abstract long sizeInBytes();
+
+		/**
+		 * @return the number of runs of consecutive set values
+		 */
+		int numberOfRuns() {
+			int runs = 0;
+			int value = this.nextSetBit(0);
+			while(value >= 0) {
+				runs++;
+
+				int end = this.nextClearBit(value);
+				if(end >= CONTAINER_BITS) {
+					break;
+				}
+
+				value = this.nextSetBit(end);
+			}
+
+			return runs;
+		}
+
+		/**
+		 * @return a run container if that is more compact than this one,
+		 *         <code>this</code> otherwise
+		 */
+		Container runOptimize() {
+			int runs = this.numberOfRuns();
+			if(RunContainer.sizeInBytes(runs) >= this.sizeInBytes()) {
+				return this;
+			}
+
+			return new RunContainer(this, runs);
+		}
+
+	}
+
+	/**
+	 * Container that holds a sorted array of values, used for sparse chunks.
+	 *
+	 */
+	static final class ArrayContainer extends Container {
+
+		/**
+		 * Maximum number of values held before switching to a bitmap
+		 */
+		static final int MAX_SIZE = 4096;
+
+		char[] content;
+
+		int cardinality;
+
+		ArrayContainer() {
+			this(new char[4], 0);
+		}
+
+		ArrayContainer(char[] content, int cardinality) {
+			this.content = content;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(this.content, 0, this.cardinality, value) >= 0;
+		}
+
+		@Override
+		Container add(char value) {
+			int position = Arrays.binarySearch(this.content, 0, this.cardinality, value);
+			if(position >= 0) {
+				return this;
+			}
+
+			if(this.cardinality >= MAX_SIZE) {
+				return this.toBitmap().add(value);
+			}
+
+			position = -position - 1;
+			if(this.cardinality == this.content.length) {
+				this.content = Arrays.copyOf(this.content, Math.min(MAX_SIZE, this.content.length * 2));
+			}
+
+			System.arraycopy(this.content, position, this.content, position + 1, this.cardinality - position);
+			this.content[position] = value;
+			this.cardinality++;
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			int position = Arrays.binarySearch(this.content, 0, this.cardinality, value);
+			if(position < 0) {
+				return this;
+			}
+
+			System.arraycopy(this.content, position + 1, this.content, position, this.cardinality - position - 1);
+			this.cardinality--;
+			return this;
+		}
+
+		@Override
+		int cardinality() {
+			return this.cardinality;
+		}
+
+		@Override
+		int first() {
+			return this.content[0];
+		}
+
+		@Override
+		int last() {
+			return this.content[this.cardinality - 1];
+		}
+
+		@Override
+		int nextSetBit(int from) {
+			int position = Arrays.binarySearch(this.content, 0, this.cardinality, (char) from);
+			if(position >= 0) {
+				return from;
+			}
+
+			position = -position - 1;
+			return position < this.cardinality ? this.content[position] : -1;
+		}
+
+		@Override
+		int nextClearBit(int from) {
+			int position = Arrays.binarySearch(this.content, 0, this.cardinality, (char) from);
+			if(position < 0) {
+				return from;
+			}
+
+			while(position + 1 < this.cardinality && this.content[position + 1] == this.content[position] + 1) {
+				position++;
+			}
+
+			return this.content[position] + 1;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for(int index = 0; index < this.cardinality; index++) {
+				consumer.accept(high | this.content[index]);
+			}
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+			for(int index = 0; index < this.cardinality; index++) {
+				char value = this.content[index];
+				bitmap.words[value >>> 6] |= 1L << value;
+			}
+
+			bitmap.cardinality = this.cardinality;
+			return bitmap;
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(this.content, Math.max(4, this.cardinality)), this.cardinality);
+		}
+
+		@Override
+		long sizeInBytes() {
+			return 2L * this.cardinality;
+		}
+
+		/**
+		 * Merge with the other array container as a union, or as a symmetric
+		 * difference.
+		 *
+		 * @param other
+		 *            the container to merge with
+		 *
+		 * @param xor
+		 *            <code>true</code> for a symmetric difference,
+		 *            <code>false</code> for a union
+		 *
+		 * @return the merged container
+		 */
+		Container merge(ArrayContainer other, boolean xor) {
+			char[] merged = new char[this.cardinality + other.cardinality];
+			int count = 0;
+			int mine = 0;
+			int theirs = 0;
+
+			while(mine < this.cardinality && theirs < other.cardinality) {
+				char myValue = this.content[mine];
+				char theirValue = other.content[theirs];
+				if(myValue < theirValue) {
+					merged[count++] = myValue;
+					mine++;
+				} else if(myValue > theirValue) {
+					merged[count++] = theirValue;
+					theirs++;
+				} else {
+					if(!xor) {
+						merged[count++] = myValue;
+					}
+
+					mine++;
+					theirs++;
+				}
+			}
+
+			while(mine < this.cardinality) {
+				merged[count++] = this.content[mine++];
+			}
+
+			while(theirs < other.cardinality) {
+				merged[count++] = other.content[theirs++];
+			}
+
+			ArrayContainer result = new ArrayContainer(merged, count);
+			if(count > MAX_SIZE) {
+				return result.toBitmap();
+			}
+
+			return result;
+		}
+
+		/**
+		 * Keep only values that are, or are not, contained in the other
+		 * container.
+		 *
+		 * @param other
+		 *            the container to check against
+		 *
+		 * @param keepContained
+		 *            <code>true</code> to keep values contained in the other
+		 *            container, <code>false</code> to keep values that are not
+		 *
+		 * @return the filtered container
+		 */
+		Container filter(Container other, boolean keepContained) {
+			char[] filtered = new char[Math.max(4, this.cardinality)];
+			int count = 0;
+			for(int index = 0; index < this.cardinality; index++) {
+				char value = this.content[index];
+				if(other.contains(value) == keepContained) {
+					filtered[count++] = value;
+				}
+			}
+
+			return new ArrayContainer(filtered, count);
+		}
+
+	}
+
+	/**
+	 * Container that holds a plain bitmap of 65536 bits, used for dense
+	 * chunks.
+	 *
+	 */
+	static final class BitmapContainer extends Container {
+
+		final long[] words = new long[CONTAINER_BITS / Long.SIZE];
+
+		int cardinality;
+
+		@Override
+		boolean contains(char value) {
+			return (this.words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Container add(char value) {
+			long word = this.words[value >>> 6];
+			long updated = word | (1L << value);
+			if(word != updated) {
+				this.words[value >>> 6] = updated;
+				this.cardinality++;
+			}
+
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			long word = this.words[value >>> 6];
+			long updated = word & ~(1L << value);
+			if(word != updated) {
+				this.words[value >>> 6] = updated;
+				this.cardinality--;
+			}
+
+			return this.repair();
+		}
+
+		@Override
+		int cardinality() {
+			return this.cardinality;
+		}
+
+		@Override
+		int first() {
+			return this.nextSetBit(0);
+		}
+
+		@Override
+		int last() {
+			for(int index = this.words.length - 1; index >= 0; index--) {
+				long word = this.words[index];
+				if(word != 0) {
+					return (index << 6) + (Long.SIZE - 1 - Long.numberOfLeadingZeros(word));
+				}
+			}
+
+			return -1;
+		}
+
+		@Override
+		int nextSetBit(int from) {
+			int index = from >>> 6;
+			long word = this.words[index] & (-1L << from);
+			while(true) {
+				if(word != 0) {
+					return (index << 6) + Long.numberOfTrailingZeros(word);
+				}
+
+				if(++index == this.words.length) {
+					return -1;
+				}
+
+				word = this.words[index];
+			}
+		}
+
+		@Override
+		int nextClearBit(int from) {
+			int index = from >>> 6;
+			long word = ~this.words[index] & (-1L << from);
+			while(true) {
+				if(word != 0) {
+					return (index << 6) + Long.numberOfTrailingZeros(word);
+				}
+
+				if(++index == this.words.length) {
+					return CONTAINER_BITS;
+				}
+
+				word = ~this.words[index];
+			}
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for(int index = 0; index < this.words.length; index++) {
+				long word = this.words[index];
+				while(word != 0) {
+					consumer.accept(high | (index << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		int cardinalityInRange(int from, int to) {
+			return BitArrayWords.cardinality(this.words, from, to);
+		}
+
+		@Override
+		long word(int index) {
+			return this.words[index];
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			return (BitmapContainer) this.copy();
+		}
+
+		@Override
+		Container copy() {
+			BitmapContainer copy = new BitmapContainer();
+			System.arraycopy(this.words, 0, copy.words, 0, this.words.length);
+			copy.cardinality = this.cardinality;
+			return copy;
+		}
+
+		@Override
+		long sizeInBytes() {
+			return this.words.length * 8L;
+		}
+
+		@Override
+		int numberOfRuns() {
+			int runs = 0;
+			long previous = 0;
+			for(long word : this.words) {
+				// a run starts where a bit is set and the one before is not
+				runs += Long.bitCount(word & ~((word << 1) | (previous >>> 63)));
+				previous = word;
+			}
+
+			return runs;
+		}
+
+		/**
+		 * Recompute the cardinality after a bulk operation.
+		 *
+		 * @return this container
+		 */
+		BitmapContainer recount() {
+			int count = 0;
+			for(long word : this.words) {
+				count += Long.bitCount(word);
+			}
+
+			this.cardinality = count;
+			return this;
+		}
+
+		/**
+		 * @return an array container if this bitmap is sparse enough,
+		 *         <code>this</code> otherwise
+		 */
+		Container repair() {
+			if(this.cardinality > ArrayContainer.MAX_SIZE) {
+				return this;
+			}
+
+			char[] content = new char[Math.max(4, this.cardinality)];
+			int count = 0;
+			for(int index = 0; index < this.words.length; index++) {
+				long word = this.words[index];
+				while(word != 0) {
+					content[count++] = (char) ((index << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+
+			return new ArrayContainer(content, count);
+		}
+
+		BitmapContainer orWith(Container other) {
+			if(other instanceof BitmapContainer) {
+				long[] otherWords = ((BitmapContainer) other).words;
+				for(int index = 0; index < this.words.length; index++) {
+					this.words[index] |= otherWords[index];
+				}
+
+				return this.recount();
+			}
+
+			other.forEach(0, value -> this.add((char) value));
+			return this;
+		}
+
+		BitmapContainer andWith(BitmapContainer other) {
+			for(int index = 0; index < this.words.length; index++) {
+				this.words[index] &= other.words[index];
+			}
+
+			return this.recount();
+		}
+
+		BitmapContainer andNotWith(Container other) {
+			if(other instanceof BitmapContainer) {
+				long[] otherWords = ((BitmapContainer) other).words;
+				for(int index = 0; index < this.words.length; index++) {
+					this.words[index] &= ~otherWords[index];
+				}
+
+				return this.recount();
+			}
+
+			other.forEach(0, value -> this.words[value >>> 6] &= ~(1L << value));
+			return this.recount();
+		}
+
+		BitmapContainer xorWith(Container other) {
+			if(other instanceof BitmapContainer) {
+				long[] otherWords = ((BitmapContainer) other).words;
+				for(int index = 0; index < this.words.length; index++) {
+					this.words[index] ^= otherWords[index];
+				}
+
+				return this.recount();
+			}
+
+			other.forEach(0, value -> this.words[value >>> 6] ^= 1L << value);
+			return this.recount();
+		}
+
+	}
+
+	/**
+	 * Container that holds runs of consecutive values as pairs of start and
+	 * length, used for chunks with long stretches of set bits. Any change to
+	 * a run container converts it back to an array or a bitmap container.
+	 *
+	 */
+	static final class RunContainer extends Container {
+
+		/**
+		 * Start of each run
+		 */
+		final char[] starts;
+
+		/**
+		 * Length of each run, minus one
+		 */
+		final char[] lengths;
+
+		final int cardinality;
+
+		RunContainer(Container source, int runs) {
+			this.starts = new char[runs];
+			this.lengths = new char[runs];
+
+			int count = 0;
+			int cardinality = 0;
+			int value = source.nextSetBit(0);
+			while(value >= 0) {
+				int end = source.nextClearBit(value);
+				this.starts[count] = (char) value;
+				this.lengths[count] = (char) (end - value - 1);
+				cardinality += end - value;
+				count++;
+
+				if(end >= CONTAINER_BITS) {
+					break;
+				}
+
+				value = source.nextSetBit(end);
+			}
+
+			this.cardinality = cardinality;
+		}
+
+		static long sizeInBytes(int runs) {
+			return 2L + 4L * runs;
+		}
+
+		/**
+		 * Find the run that starts at or before the given value.
+		 *
+		 * @return the index of the run, or <code>-1</code> if all runs start
+		 *         after the value
+		 */
+		private int findRun(int value) {
+			int position = Arrays.binarySearch(this.starts, (char) value);
+			if(position >= 0) {
+				return position;
+			}
+
+			return -position - 2;
+		}
+
+		/**
+		 * @return the array or bitmap container holding the same values
+		 */
+		private Container toNatural() {
+			if(this.cardinality > ArrayContainer.MAX_SIZE) {
+				return this.toBitmap();
+			}
+
+			char[] content = new char[Math.max(4, this.cardinality)];
+			int count = 0;
+			for(int run = 0; run < this.starts.length; run++) {
+				int start = this.starts[run];
+				int end = start + this.lengths[run];
+				for(int value = start; value <= end; value++) {
+					content[count++] = (char) value;
+				}
+			}
+
+			return new ArrayContainer(content, count);
+		}
+
+		@Override
+		boolean contains(char value) {
+			int run = this.findRun(value);
+			return run >= 0 && value <= this.starts[run] + this.lengths[run];
+		}
+
+		@Override
+		Container add(char value) {
+			if(this.contains(value)) {
+				return this;
+			}
+
+			return this.toNatural().add(value);
+		}
+
+		@Override
+		Container remove(char value) {
+			if(!this.contains(value)) {
+				return this;
+			}
+
+			return this.toNatural().remove(value);
+		}
+
+		@Override
+		int cardinality() {
+			return this.cardinality;
+		}
+
+		@Override
+		int first() {
+			return this.starts[0];
+		}
+
+		@Override
+		int last() {
+			int run = this.starts.length - 1;
+			return this.starts[run] + this.lengths[run];
+		}
+
+		@Override
+		int nextSetBit(int from) {
+			int run = this.findRun(from);
+			if(run >= 0 && from <= this.starts[run] + this.lengths[run]) {
+				return from;
+			}
+
+			run++;
+			return run < this.starts.length ? this.starts[run] : -1;
+		}
+
+		@Override
+		int nextClearBit(int from) {
+			int run = this.findRun(from);
+			if(run >= 0 && from <= this.starts[run] + this.lengths[run]) {
+				return this.starts[run] + this.lengths[run] + 1;
+			}
+
+			return from;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for(int run = 0; run < this.starts.length; run++) {
+				int start = this.starts[run];
+				int end = start + this.lengths[run];
+				for(int value = start; value <= end; value++) {
+					consumer.accept(high | value);
+				}
+			}
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+			for(int run = 0; run < this.starts.length; run++) {
+				int start = this.starts[run];
+				int end = start + this.lengths[run] + 1;
+
+				int startWord = start >>> 6;
+				int endWord = (end - 1) >>> 6;
+				long firstMask = -1L << start;
+				long lastMask = -1L >>> -end;
+				if(startWord == endWord) {
+					bitmap.words[startWord] |= firstMask & lastMask;
+					continue;
+				}
+
+				bitmap.words[startWord] |= firstMask;
+				for(int word = startWord + 1; word < endWord; word++) {
+					bitmap.words[word] = -1L;
+				}
+				bitmap.words[endWord] |= lastMask;
+			}
+
+			bitmap.cardinality = this.cardinality;
+			return bitmap;
+		}
+
+		@Override
+		Container copy() {
+			// run containers are never modified in place
+			return this;
+		}
+
+		@Override
+		long sizeInBytes() {
+			return sizeInBytes(this.starts.length);
+		}
+
+		@Override
+		int numberOfRuns() {
+			return this.starts.length;
+		}
+
+		@Override
+		Container runOptimize() {
+			return this;
+		}
+
+	}
+}
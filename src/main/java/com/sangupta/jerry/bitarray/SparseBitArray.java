@@ -22,6 +22,7 @@
 package com.sangupta.jerry.bitarray;
 
 import java.io.IOException;
+import java.util.function.IntConsumer;
 
 import com.sangupta.jerry.util.BitUtils;
 import com.sangupta.jerry.util.ByteArrayUtils;
@@ -218,86 +219,349 @@ public class SparseBitArray implements BitArray {
 
 	@Override
 	public void or(BitArray bitArray) {
-		if (array == null) {
+		this.combine(bitArray, BitArrayWords.OR);
+	}
+
+	@Override
+	public void and(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND);
+	}
+
+	@Override
+	public void andNot(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.AND_NOT);
+	}
+
+	@Override
+	public void xor(BitArray bitArray) {
+		this.combine(bitArray, BitArrayWords.XOR);
+	}
+
+	/**
+	 * Combine the given {@link BitArray} with this one. Another
+	 * {@link SparseBitArray} is combined bucket by bucket, all other arrays
+	 * are read one word at a time using {@link BitArray#readWord(int)}.
+	 *
+	 * @param bitArray
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combine(BitArray bitArray, int operation) {
+		if (bitArray == null) {
 			throw new IllegalArgumentException("Array to be combined with cannot be null");
 		}
 
-		if (bitArray instanceof SparseBitArray) {
-			SparseBitArray second = (SparseBitArray) bitArray;
+		if (bitArray instanceof SparseBitArray && this.hasSameShape((SparseBitArray) bitArray)) {
+			this.combineBuckets((SparseBitArray) bitArray, operation);
+			return;
+		}
 
-			if (this.numBuckets != second.numBuckets) {
-				throw new IllegalArgumentException("Array to be combined with must be of equal length");
+		if (operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
+			BitArrayWords.checkNoBitsBeyond(bitArray, this.maxIndex);
+		}
+
+		int words = this.numWords();
+		int common = Math.min(words, bitArray.numWords());
+		for (int word = 0; word < words; word++) {
+			long other = word < common ? bitArray.readWord(word) : 0;
+			if (other == 0 && operation != BitArrayWords.AND) {
+				continue;
 			}
 
-			if (this.elementsNeededPerBucket != second.elementsNeededPerBucket) {
-				throw new IllegalArgumentException("Array to be combined with must be of equal length");
+			long value = this.readWord(word);
+			long updated = BitArrayWords.combine(value, other, operation);
+			if (value != updated) {
+				this.writeWord(word, updated);
 			}
+		}
+	}
 
-			for (int bucket = 0; bucket < this.numBuckets; bucket++) {
-				long[] subArray1 = this.array[bucket];
-				long[] subArray2 = second.array[bucket];
+	/**
+	 * Combine the given {@link SparseBitArray} with this one, bucket by
+	 * bucket.
+	 *
+	 * @param second
+	 *            the bit-array to combine with
+	 *
+	 * @param operation
+	 *            the operation from {@link BitArrayWords}
+	 */
+	private void combineBuckets(SparseBitArray second, int operation) {
+		for (int bucket = 0; bucket < this.numBuckets; bucket++) {
+			long[] subArray1 = this.array[bucket];
+			long[] subArray2 = second.array[bucket];
 
-				if (subArray2 == null) {
-					// nothing to do
-					continue;
+			if (subArray2 == null) {
+				if (operation == BitArrayWords.AND) {
+					this.array[bucket] = null;
 				}
 
-				if (subArray1 == null) {
+				continue;
+			}
+
+			if (subArray1 == null) {
+				if (operation == BitArrayWords.OR || operation == BitArrayWords.XOR) {
 					this.array[bucket] = subArray2.clone();
-					continue;
 				}
 
-				for (int element = 0; element < this.elementsNeededPerBucket; element++) {
-					subArray1[element] = subArray1[element] | subArray2[element];
-				}
+				continue;
 			}
 
-			return;
+			for (int element = 0; element < this.elementsNeededPerBucket; element++) {
+				subArray1[element] = BitArrayWords.combine(subArray1[element], subArray2[element], operation);
+			}
 		}
+	}
 
-		// TODO: do for other arrays
+	/**
+	 * @return <code>true</code> if the buckets hold a whole number of words,
+	 *         so that a word of this array maps to exactly one element of a
+	 *         bucket
+	 */
+	private boolean isWordAligned() {
+		return this.bitsPerBucket % BITS_PER_ELEMENT == 0;
 	}
 
 	@Override
-	public void and(BitArray bitArray) {
-		if (array == null) {
-			throw new IllegalArgumentException("Array to be combined with cannot be null");
+	public long readWord(int word) {
+		if (word < 0 || word >= this.numWords()) {
+			throw new IndexOutOfBoundsException("Word is out of range: " + word);
 		}
 
-		if (bitArray instanceof SparseBitArray) {
-			SparseBitArray second = (SparseBitArray) bitArray;
+		if (!this.isWordAligned()) {
+			// the word spans elements, and possibly buckets - read each part
+			int start = word << 6;
+			int end = (int) Math.min(start + 64L, this.maxIndex);
+
+			long value = 0;
+			for (int index = start; index < end; ) {
+				int bucket = index / this.bitsPerBucket;
+				int subIndex = index % this.bitsPerBucket;
+				int count = Math.min(BITS_PER_ELEMENT - (subIndex % BITS_PER_ELEMENT), Math.min(this.bitsPerBucket - subIndex, end - index));
+
+				long[] subArray = this.array[bucket];
+				if (subArray != null) {
+					long bits = (subArray[subIndex / BITS_PER_ELEMENT] >>> subIndex) & lowBits(count);
+					value |= bits << (index - start);
+				}
 
-			if (this.numBuckets != second.numBuckets) {
-				throw new IllegalArgumentException("Array to be combined with must be of equal length");
+				index += count;
 			}
 
-			if (this.elementsNeededPerBucket != second.elementsNeededPerBucket) {
-				throw new IllegalArgumentException("Array to be combined with must be of equal length");
-			}
+			return value;
+		}
 
-			for (int bucket = 0; bucket < this.numBuckets; bucket++) {
-				long[] subArray1 = this.array[bucket];
-				long[] subArray2 = second.array[bucket];
+		long[] subArray = this.array[word / this.elementsNeededPerBucket];
+		if (subArray == null) {
+			return 0;
+		}
 
-				if (subArray2 == null) {
-					// nothing to do
-					continue;
-				}
+		return subArray[word % this.elementsNeededPerBucket];
+	}
 
-				if (subArray1 == null) {
-					this.array[bucket] = subArray2.clone();
-					continue;
-				}
+	/**
+	 * Return a mask of the given number of low bits.
+	 *
+	 * @param count
+	 *            the number of bits, from <code>1</code> to <code>64</code>
+	 *
+	 * @return the mask
+	 */
+	private static long lowBits(int count) {
+		return count == Long.SIZE ? -1L : (1L << count) - 1;
+	}
 
-				for (int element = 0; element < this.elementsNeededPerBucket; element++) {
-					subArray1[element] = subArray1[element] & subArray2[element];
+	/**
+	 * Write the 64 bits starting at bit <code>word * 64</code>.
+	 *
+	 * @param word
+	 *            the index of the word
+	 *
+	 * @param value
+	 *            the value to write
+	 */
+	private void writeWord(int word, long value) {
+		if (!this.isWordAligned()) {
+			// the word spans elements, and possibly buckets - write each part
+			int start = word << 6;
+			int end = Math.min(start + BITS_PER_ELEMENT, this.maxIndex);
+			for (int index = start; index < end; ) {
+				int bucket = index / this.bitsPerBucket;
+				int subIndex = index % this.bitsPerBucket;
+				int count = Math.min(BITS_PER_ELEMENT - (subIndex % BITS_PER_ELEMENT), Math.min(this.bitsPerBucket - subIndex, end - index));
+
+				long mask = lowBits(count);
+				long bits = (value >>> (index - start)) & mask;
+				if (this.array[bucket] == null) {
+					if (bits == 0) {
+						index += count;
+						continue;
+					}
+
+					this.array[bucket] = new long[this.elementsNeededPerBucket];
 				}
+
+				int element = subIndex / BITS_PER_ELEMENT;
+				long[] subArray = this.array[bucket];
+				subArray[element] = (subArray[element] & ~(mask << subIndex)) | (bits << subIndex);
+
+				index += count;
 			}
 
 			return;
 		}
 
-		// TODO: do for other arrays
+		int bucket = word / this.elementsNeededPerBucket;
+		if (this.array[bucket] == null) {
+			if (value == 0) {
+				return;
+			}
+
+			this.array[bucket] = new long[this.elementsNeededPerBucket];
+		}
+
+		this.array[bucket][word % this.elementsNeededPerBucket] = value;
+	}
+
+	/**
+	 * Check whether the given array has the same buckets as this one, so that
+	 * the two can be combined bucket by bucket.
+	 *
+	 * @param second
+	 *            the array to check
+	 *
+	 * @return <code>true</code> if the buckets are the same
+	 */
+	private boolean hasSameShape(SparseBitArray second) {
+		return this.numBuckets == second.numBuckets && this.bitsPerBucket == second.bitsPerBucket;
+	}
+
+	/**
+	 * Apply the operation to all bits in the given range, one bucket at a
+	 * time. Buckets are only allocated when bits need to be set in them, and
+	 * are released when they are cleared completely.
+	 *
+	 * @param fromIndex
+	 *            the start index, inclusive
+	 *
+	 * @param toIndex
+	 *            the end index, exclusive
+	 *
+	 * @param operation
+	 *            the operation to apply
+	 */
+	private void applyRange(int fromIndex, int toIndex, int operation) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+		if (toIndex > this.maxIndex) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+
+		while (fromIndex < toIndex) {
+			int bucket = fromIndex / this.bitsPerBucket;
+			int bucketStart = bucket * this.bitsPerBucket;
+			int localFrom = fromIndex - bucketStart;
+			int localTo = Math.min(toIndex - bucketStart, this.bitsPerBucket);
+
+			long[] subArray = this.array[bucket];
+			if (operation == BitArrayWords.CLEAR) {
+				if (subArray != null) {
+					if (localFrom == 0 && localTo == this.bitsPerBucket) {
+						this.array[bucket] = null;
+					} else {
+						BitArrayWords.applyRange(subArray, localFrom, localTo, operation);
+					}
+				}
+			} else {
+				if (subArray == null) {
+					subArray = new long[this.elementsNeededPerBucket];
+					this.array[bucket] = subArray;
+				}
+
+				BitArrayWords.applyRange(subArray, localFrom, localTo, operation);
+			}
+
+			fromIndex = bucketStart + localTo;
+		}
+	}
+
+	@Override
+	public void setRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.SET);
+	}
+
+	@Override
+	public void clearRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.CLEAR);
+	}
+
+	@Override
+	public void flipRange(int fromIndex, int toIndex) {
+		this.applyRange(fromIndex, toIndex, BitArrayWords.FLIP);
+	}
+
+	@Override
+	public int cardinality(int fromIndex, int toIndex) {
+		BitArrayWords.checkRange(fromIndex, toIndex);
+		if (toIndex > this.maxIndex) {
+			throw new IndexOutOfBoundsException("To index is out of range: " + toIndex);
+		}
+
+		int count = 0;
+		while (fromIndex < toIndex) {
+			int bucket = fromIndex / this.bitsPerBucket;
+			int bucketStart = bucket * this.bitsPerBucket;
+			int localTo = Math.min(toIndex - bucketStart, this.bitsPerBucket);
+
+			long[] subArray = this.array[bucket];
+			if (subArray != null) {
+				count += BitArrayWords.cardinality(subArray, fromIndex - bucketStart, localTo);
+			}
+
+			fromIndex = bucketStart + localTo;
+		}
+
+		return count;
+	}
+
+	@Override
+	public void forEachSetBit(IntConsumer consumer) {
+		if (consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		for (int bucket = 0; bucket < this.numBuckets; bucket++) {
+			long[] subArray = this.array[bucket];
+			if (subArray != null) {
+				BitArrayWords.forEachSetBit(subArray, bucket * this.bitsPerBucket, consumer);
+			}
+		}
+	}
+
+	@Override
+	public int nextClearBit(int fromIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		while (fromIndex < this.maxIndex) {
+			int bucket = fromIndex / this.bitsPerBucket;
+			int bucketStart = bucket * this.bitsPerBucket;
+			long[] subArray = this.array[bucket];
+			if (subArray == null) {
+				return fromIndex;
+			}
+
+			int index = BitArrayWords.nextClearBit(subArray, fromIndex - bucketStart, this.bitsPerBucket);
+			if (index >= 0) {
+				return bucketStart + index;
+			}
+
+			fromIndex = bucketStart + this.bitsPerBucket;
+		}
+
+		return -1;
 	}
 
 	@Override
@@ -381,7 +645,26 @@ public class SparseBitArray implements BitArray {
 
 	@Override
 	public int getNextSetBit(int fromIndex) {
-		return 0;
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("Index is out of range: " + fromIndex);
+		}
+
+		while (fromIndex < this.maxIndex) {
+			int bucket = fromIndex / this.bitsPerBucket;
+			int bucketStart = bucket * this.bitsPerBucket;
+
+			long[] subArray = this.array[bucket];
+			if (subArray != null) {
+				int index = BitArrayWords.nextSetBit(subArray, fromIndex - bucketStart);
+				if (index >= 0) {
+					return bucketStart + index;
+				}
+			}
+
+			fromIndex = bucketStart + this.bitsPerBucket;
+		}
+
+		return -1;
 	}
 
 }
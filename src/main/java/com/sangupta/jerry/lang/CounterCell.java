@@ -0,0 +1,186 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.lang;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * The value of a single named counter in {@link IntCounter} and
+ * {@link LongCounter}.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+abstract class CounterCell {
+
+	/**
+	 * Create a new cell.
+	 *
+	 * @param striped
+	 *            whether to spread updates over multiple cells
+	 *
+	 * @param initialValue
+	 *            the initial value
+	 *
+	 * @return the cell
+	 */
+	static CounterCell newCell(boolean striped, long initialValue) {
+		if(striped) {
+			return new StripedCell(initialValue);
+		}
+
+		return new AtomicCell(initialValue);
+	}
+
+	/**
+	 * Return the current value.
+	 *
+	 * @return the value
+	 */
+	abstract long get();
+
+	/**
+	 * Add the given delta to the value.
+	 *
+	 * @param delta
+	 *            the delta to add
+	 */
+	abstract void add(long delta);
+
+	/**
+	 * Add the given delta to the value, and return the updated value.
+	 *
+	 * @param delta
+	 *            the delta to add
+	 *
+	 * @return the value after the update
+	 */
+	abstract long addAndGet(long delta);
+
+	/**
+	 * Set the value.
+	 *
+	 * @param value
+	 *            the value
+	 */
+	abstract void set(long value);
+
+	/**
+	 * Reset the value to zero, and return the value before the reset. Each
+	 * update is reflected either in the returned value or after the reset,
+	 * never lost.
+	 *
+	 * @return the value before the reset
+	 */
+	abstract long getAndReset();
+
+	/**
+	 * A cell that updates a single atomic value, so that each update returns
+	 * exactly the value it produced.
+	 */
+	static final class AtomicCell extends CounterCell {
+
+		private final AtomicLong value;
+
+		AtomicCell(long initialValue) {
+			this.value = new AtomicLong(initialValue);
+		}
+
+		@Override
+		long get() {
+			return this.value.get();
+		}
+
+		@Override
+		void add(long delta) {
+			this.value.addAndGet(delta);
+		}
+
+		@Override
+		long addAndGet(long delta) {
+			return this.value.addAndGet(delta);
+		}
+
+		@Override
+		void set(long value) {
+			this.value.set(value);
+		}
+
+		@Override
+		long getAndReset() {
+			return this.value.getAndSet(0);
+		}
+
+	}
+
+	/**
+	 * A cell that spreads updates from different threads over multiple
+	 * values, so that threads do not contend on the same cache line. Updates
+	 * are never lost, but the value returned by an update may include
+	 * concurrent updates by other threads.
+	 */
+	static final class StripedCell extends CounterCell {
+
+		private final LongAdder value = new LongAdder();
+
+		StripedCell(long initialValue) {
+			this.value.add(initialValue);
+		}
+
+		@Override
+		long get() {
+			return this.value.sum();
+		}
+
+		@Override
+		void add(long delta) {
+			this.value.add(delta);
+		}
+
+		@Override
+		long addAndGet(long delta) {
+			this.value.add(delta);
+			return this.value.sum();
+		}
+
+		@Override
+		void set(long value) {
+			// not atomic with respect to concurrent updates
+			this.value.reset();
+			this.value.add(value);
+		}
+
+		@Override
+		long getAndReset() {
+			// each stripe is swapped atomically, so concurrent updates land
+			// either in this sum or in the next one
+			return this.value.sumThenReset();
+		}
+
+	}
+
+}
@@ -27,13 +27,26 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.ObjIntConsumer;
 
 import com.sangupta.jerry.util.AssertUtils;
 
 import net.jcip.annotations.ThreadSafe;
 
 /**
- * An efficient way to count multiple named entities.
+ * An efficient way to count multiple named entities. Each counter is updated
+ * atomically, so that no updates are lost, and each update returns exactly the
+ * value it produced.
+ *
+ * Counters updated from many threads at once can instead be striped, using
+ * {@link #IntCounter(boolean)}. Updates from different threads then go to
+ * different cells, so that they neither contend nor bounce the same cache
+ * line between cores, and totals stay exact. The value returned by an
+ * update of a striped counter may include concurrent updates by other
+ * threads, and a {@link #set(String, int)} concurrent with updates may lose
+ * them. Reading a striped counter sums its cells, so use
+ * {@link #add(String, int)} rather than {@link #increment(String)} when the
+ * updated value is not needed.
  *
  * @author sangupta
  * @since 1.1
@@ -45,7 +58,76 @@ public class IntCounter {
 	 * Holds all counters for us.
 	 *
 	 */
-	private final ConcurrentMap<String, int[]> counterMap = new ConcurrentHashMap<String, int[]>();
+	private final ConcurrentMap<String, CounterCell> counterMap = new ConcurrentHashMap<String, CounterCell>();
+
+	/**
+	 * Whether counters spread updates over multiple cells
+	 */
+	private final boolean striped;
+
+	/**
+	 * Create a new instance where each counter is a single atomic value.
+	 *
+	 */
+	public IntCounter() {
+		this(false);
+	}
+
+	/**
+	 * Create a new instance.
+	 *
+	 * @param striped
+	 *            <code>true</code> to spread updates to each counter over
+	 *            multiple cells, for counters updated from many threads at
+	 *            once
+	 *
+	 * @since 4.0.0
+	 */
+	public IntCounter(boolean striped) {
+		this.striped = striped;
+	}
+
+	/**
+	 * Returns if the counters of this instance are striped.
+	 *
+	 * @return <code>true</code> if striped, <code>false</code> otherwise
+	 *
+	 * @since 4.0.0
+	 */
+	public boolean isStriped() {
+		return this.striped;
+	}
+
+	/**
+	 * Return the cell of the given counter, creating it with the given value
+	 * if it does not exist.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @param initialValue
+	 *            the value of a new counter
+	 *
+	 * @return the cell
+	 */
+	private CounterCell cell(final String name, final long initialValue) {
+		if(AssertUtils.isEmpty(name)) {
+			throw new IllegalArgumentException("Counter name cannot be null");
+		}
+
+		CounterCell cell = this.counterMap.get(name);
+		if(cell != null) {
+			return cell;
+		}
+
+		cell = CounterCell.newCell(this.striped, initialValue);
+		CounterCell olderCell = this.counterMap.putIfAbsent(name, cell);
+		if(olderCell != null) {
+			return olderCell;
+		}
+
+		return cell;
+	}
 
 	/**
      * Clear all the keys from this counter. The counter will be empty after
@@ -80,8 +162,8 @@ public class IntCounter {
 	    	return map;
 	    }
 
-	    for(String key : counterMap.keySet()) {
-	        map.put(key, this.get(key));
+	    for(Map.Entry<String, CounterCell> entry : this.counterMap.entrySet()) {
+	        map.put(entry.getKey(), (int) entry.getValue().get());
 	    }
 
 	    return map;
@@ -102,30 +184,85 @@ public class IntCounter {
 	}
 
 	/**
-	 * Get or create a new counter. The default value of the new counter will be
-	 * <code>0</code>
+	 * Visit the current value of each counter, without allocating a
+	 * snapshot or boxing the values. Counters updated, added or removed
+	 * during the visit may or may not be reflected.
+	 *
+	 * @param consumer
+	 *            the consumer to invoke with the name and value of each
+	 *            counter
+	 *
+	 * @since 4.0.0
+	 */
+	public void forEach(ObjIntConsumer<String> consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		this.counterMap.forEach((name, cell) -> consumer.accept(name, (int) cell.get()));
+	}
+
+	/**
+	 * Reset each counter to zero, and visit the value it had before the
+	 * reset, skipping counters that were already zero. Each update is
+	 * reflected in exactly one drain, so an exporter draining periodically
+	 * sees every delta exactly once. Counters are reset, not removed.
+	 *
+	 * @param consumer
+	 *            the consumer to invoke with the name and drained value of
+	 *            each counter
+	 *
+	 * @since 4.0.0
+	 */
+	public void drain(ObjIntConsumer<String> consumer) {
+		if(consumer == null) {
+			throw new IllegalArgumentException("Consumer cannot be null");
+		}
+
+		this.counterMap.forEach((name, cell) -> {
+			int value = (int) cell.getAndReset();
+			if(value != 0) {
+				consumer.accept(name, value);
+			}
+		});
+	}
+
+	/**
+	 * Reset the counter for the given name to zero, and return the value it
+	 * had before the reset.
 	 *
 	 * @param name
 	 *            the name of the counter
 	 *
-	 * @return the current value of the counter
+	 * @return the value before the reset, <code>0</code> if the counter does
+	 *         not exist
+	 *
+	 * @since 4.0.0
 	 */
-	public int get(String name) {
+	public int drain(String name) {
 		if(AssertUtils.isEmpty(name)) {
 			throw new IllegalArgumentException("Counter name cannot be null");
 		}
 
-		int[] values = counterMap.get(name);
-		if(values == null) {
-			int[] olderValues = counterMap.putIfAbsent(name, new int[] { 0 });
-			if(olderValues != null) {
-				return olderValues[0];
-			}
-
+		CounterCell cell = this.counterMap.get(name);
+		if(cell == null) {
 			return 0;
 		}
 
-		return values[0];
+		return (int) cell.getAndReset();
+	}
+
+	/**
+	 * Get or create a new counter. The default value of the new counter will be
+	 * <code>0</code>
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @return the current value of the counter
+	 */
+	public int get(String name) {
+		return (int) this.cell(name, 0).get();
 	}
 
 	/**
@@ -141,21 +278,7 @@ public class IntCounter {
 	 * @return the current value of the counter
 	 */
 	public int get(final String name, final int initialValue) {
-		if(AssertUtils.isEmpty(name)) {
-			throw new IllegalArgumentException("Counter name cannot be null");
-		}
-
-		int[] values = counterMap.get(name);
-		if(values == null) {
-			int[] olderValues = counterMap.putIfAbsent(name, new int[] { initialValue });
-			if(olderValues != null) {
-				return olderValues[0];
-			}
-
-			return initialValue;
-		}
-
-		return values[0];
+		return (int) this.cell(name, initialValue).get();
 	}
 
 	/**
@@ -171,12 +294,12 @@ public class IntCounter {
 			throw new IllegalArgumentException("Counter name cannot be null");
 		}
 
-		int[] values = counterMap.remove(name);
-		if(values == null) {
+		CounterCell cell = this.counterMap.remove(name);
+		if(cell == null) {
 			return 0;
 		}
 
-		return values[0];
+		return (int) cell.get();
 	}
 
 	/**
@@ -189,23 +312,7 @@ public class IntCounter {
 	 * @return the current value of the counter
 	 */
 	public int increment(String name) {
-		if(AssertUtils.isEmpty(name)) {
-			throw new IllegalArgumentException("Counter name cannot be null");
-		}
-
-		int[] values = counterMap.get(name);
-		if(values == null) {
-			int[] olderValues = counterMap.putIfAbsent(name, new int[] { 1 });
-			if(olderValues != null) {
-				olderValues[0]++;
-				return olderValues[0];
-			}
-
-			return 1;
-		}
-
-		values[0]++;
-		return values[0];
+		return (int) this.cell(name, 0).addAndGet(1);
 	}
 
 	/**
@@ -218,23 +325,25 @@ public class IntCounter {
 	 * @return the current value of the counter
 	 */
 	public int decrement(String name) {
-		if(AssertUtils.isEmpty(name)) {
-			throw new IllegalArgumentException("Counter name cannot be null");
-		}
-
-		int[] values = counterMap.get(name);
-		if(values == null) {
-			int[] olderValues = counterMap.putIfAbsent(name, new int[] { -1 });
-			if(olderValues != null) {
-				olderValues[0]--;
-				return olderValues[0];
-			}
-
-			return -1;
-		}
+		return (int) this.cell(name, 0).addAndGet(-1);
+	}
 
-		values[0]--;
-		return values[0];
+	/**
+	 * Add the given delta to the counter for the given name, without reading
+	 * the updated value. If the counter does not exists, a new counter with a
+	 * default value of <code>0</code> is created. This is the cheapest update
+	 * for striped counters.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @param delta
+	 *            the value to add, may be negative
+	 *
+	 * @since 4.0.0
+	 */
+	public void add(String name, int delta) {
+		this.cell(name, 0).add(delta);
 	}
 
 	/**
@@ -248,22 +357,124 @@ public class IntCounter {
 	 *
 	 */
 	public void set(String name, int value) {
-		if(AssertUtils.isEmpty(name)) {
-			throw new IllegalArgumentException("Counter name cannot be null");
+		this.cell(name, value).set(value);
+	}
+
+	/**
+	 * Resolve the counter for the given name once, and return a handle that
+	 * updates it directly. Updates through the handle skip validating and
+	 * hashing the name, and looking up the counter, and thus only cost the
+	 * update itself. If the counter does not exists, a new counter with a
+	 * default value of <code>0</code> is created.
+	 *
+	 * A handle stays bound to the counter it was resolved for. Once that
+	 * counter is removed, or this instance cleared, updates through the
+	 * handle are no longer reflected here and a new handle must be resolved.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @return the handle
+	 *
+	 * @since 4.0.0
+	 */
+	public Handle handle(String name) {
+		return new Handle(name, this.cell(name, 0));
+	}
+
+	/**
+	 * A handle to a single counter of a {@link IntCounter}, obtained using
+	 * {@link IntCounter#handle(String)}.
+	 *
+	 * @author sangupta
+	 *
+	 * @since 4.0.0
+	 */
+	@ThreadSafe
+	public static final class Handle {
+
+		/**
+		 * The name of the counter
+		 */
+		private final String name;
+
+		/**
+		 * The value of the counter
+		 */
+		private final CounterCell cell;
+
+		private Handle(String name, CounterCell cell) {
+			this.name = name;
+			this.cell = cell;
+		}
+
+		/**
+		 * Return the name of the counter.
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the current value of the counter.
+		 *
+		 * @return the current value
+		 */
+		public int get() {
+			return (int) this.cell.get();
+		}
+
+		/**
+		 * Increment the counter.
+		 *
+		 * @return the current value of the counter
+		 */
+		public int increment() {
+			return (int) this.cell.addAndGet(1);
+		}
+
+		/**
+		 * Decrement the counter.
+		 *
+		 * @return the current value of the counter
+		 */
+		public int decrement() {
+			return (int) this.cell.addAndGet(-1);
+		}
+
+		/**
+		 * Add the given delta to the counter, without reading the updated
+		 * value.
+		 *
+		 * @param delta
+		 *            the value to add, may be negative
+		 */
+		public void add(int delta) {
+			this.cell.add(delta);
 		}
 
-		int[] values = counterMap.get(name);
-		if(values != null) {
-			values[0] = value;
-			return;
+		/**
+		 * Set the counter to the desired value.
+		 *
+		 * @param value
+		 *            the value to which the counter needs to be set
+		 */
+		public void set(int value) {
+			this.cell.set(value);
 		}
 
-		int[] olderValues = counterMap.putIfAbsent(name, new int[] { value });
-		if(olderValues == null) {
-			return;
+		/**
+		 * Reset the counter to zero, and return the value it had before the
+		 * reset.
+		 *
+		 * @return the value before the reset
+		 */
+		public int drain() {
+			return (int) this.cell.getAndReset();
 		}
 
-		olderValues[0] = value;
 	}
 
 }
@@ -0,0 +1,415 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.sangupta.jerry.lang;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import com.sangupta.jerry.util.AssertUtils;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Counts multiple named entities over a rolling window of time, such as the
+ * requests to each endpoint over the last minute. Each counter is a ring of
+ * time buckets, and counts older than the window drop out as time moves on.
+ *
+ * The window is set by the duration and number of buckets: 60 buckets of
+ * one second give per-second and per-minute rates that react within a
+ * second, while 60 buckets of one minute give per-hour rates. Reading a
+ * count or rate allocates nothing, and can thus be done on every request,
+ * for example to shed load.
+ *
+ * Each bucket packs its time and count in a single <code>long</code>,
+ * updated using compare-and-set, so that no updates are lost. A bucket
+ * counts up to 2<sup>32</sup> - 1, beyond which it saturates.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@ThreadSafe
+public class RollingLongCounter {
+
+	/**
+	 * Mask for the count, and the time tag, packed in a bucket
+	 */
+	private static final long MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Holds all counters for us.
+	 *
+	 */
+	private final ConcurrentMap<String, AtomicLongArray> counterMap = new ConcurrentHashMap<String, AtomicLongArray>();
+
+	/**
+	 * The duration of each bucket in nanoseconds
+	 */
+	private final long bucketNanos;
+
+	/**
+	 * The number of buckets in the window
+	 */
+	private final int numBuckets;
+
+	/**
+	 * The clock returning the time in nanoseconds
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * The time in nanoseconds when this instance was created
+	 */
+	private final long origin;
+
+	/**
+	 * Create a new instance using the system clock.
+	 *
+	 * @param bucketDuration
+	 *            the duration of each bucket
+	 *
+	 * @param unit
+	 *            the unit of the duration
+	 *
+	 * @param numBuckets
+	 *            the number of buckets in the window
+	 */
+	public RollingLongCounter(long bucketDuration, TimeUnit unit, int numBuckets) {
+		this(bucketDuration, unit, numBuckets, System::nanoTime);
+	}
+
+	/**
+	 * Create a new instance using the given clock.
+	 *
+	 * @param bucketDuration
+	 *            the duration of each bucket
+	 *
+	 * @param unit
+	 *            the unit of the duration
+	 *
+	 * @param numBuckets
+	 *            the number of buckets in the window
+	 *
+	 * @param nanoClock
+	 *            the clock returning the time in nanoseconds, such as
+	 *            {@link System#nanoTime()}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the duration or number of buckets are not positive, or
+	 *             the unit or clock are <code>null</code>
+	 */
+	public RollingLongCounter(long bucketDuration, TimeUnit unit, int numBuckets, LongSupplier nanoClock) {
+		if(bucketDuration <= 0) {
+			throw new IllegalArgumentException("Bucket duration cannot be less than or equal to zero");
+		}
+
+		if(unit == null) {
+			throw new IllegalArgumentException("Time unit cannot be null");
+		}
+
+		if(numBuckets <= 0) {
+			throw new IllegalArgumentException("Number of buckets cannot be less than or equal to zero");
+		}
+
+		if(nanoClock == null) {
+			throw new IllegalArgumentException("Clock cannot be null");
+		}
+
+		this.bucketNanos = unit.toNanos(bucketDuration);
+		this.numBuckets = numBuckets;
+		this.clock = nanoClock;
+		this.origin = nanoClock.getAsLong();
+	}
+
+	/**
+	 * Clear all the keys from this counter. The counter will be empty after
+	 * this call returns.
+	 *
+	 */
+	public void clear() {
+		this.counterMap.clear();
+	}
+
+	/**
+	 * Return the number of counters stored in this instance.
+	 *
+	 * @return the number of counters stored
+	 */
+	public int numCounters() {
+		return this.counterMap.size();
+	}
+
+	/**
+	 * Return the names of the counters present in this
+	 * {@link RollingLongCounter}.
+	 *
+	 * @return the names of the counters if available, an empty {@link HashSet}
+	 *         otherwise
+	 */
+	public Set<String> counterNames() {
+		if(this.counterMap.isEmpty()) {
+			return new HashSet<>();
+		}
+
+		return this.counterMap.keySet();
+	}
+
+	/**
+	 * Increment the counter for the given name.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 */
+	public void increment(String name) {
+		this.add(name, 1);
+	}
+
+	/**
+	 * Add the given delta to the counter for the given name.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @param delta
+	 *            the value to add
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the name is <code>null/empty</code>, or the delta is
+	 *             negative
+	 */
+	public void add(String name, long delta) {
+		if(AssertUtils.isEmpty(name)) {
+			throw new IllegalArgumentException("Counter name cannot be null");
+		}
+
+		if(delta < 0) {
+			throw new IllegalArgumentException("Delta cannot be negative");
+		}
+
+		AtomicLongArray buckets = this.counterMap.get(name);
+		if(buckets == null) {
+			buckets = new AtomicLongArray(this.numBuckets);
+			AtomicLongArray olderBuckets = this.counterMap.putIfAbsent(name, buckets);
+			if(olderBuckets != null) {
+				buckets = olderBuckets;
+			}
+		}
+
+		final long epoch = this.epoch();
+		final int index = (int) (epoch % this.numBuckets);
+		final long tag = (epoch & MASK) << 32;
+
+		while(true) {
+			long current = buckets.get(index);
+
+			// a bucket left over from an earlier round starts afresh
+			long count = 0;
+			if((current & ~MASK) == tag) {
+				count = current & MASK;
+			}
+
+			// saturate before adding, as a large delta would overflow
+			long updated = tag | (delta >= MASK - count ? MASK : count + delta);
+			if(buckets.compareAndSet(index, current, updated)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Remove a counter.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @return the count of the counter over the window
+	 */
+	public long remove(String name) {
+		if(AssertUtils.isEmpty(name)) {
+			throw new IllegalArgumentException("Counter name cannot be null");
+		}
+
+		AtomicLongArray buckets = this.counterMap.remove(name);
+		if(buckets == null) {
+			return 0;
+		}
+
+		return this.sum(buckets, this.epoch(), this.numBuckets);
+	}
+
+	/**
+	 * Return the count of the given counter over the entire window.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @return the count, <code>0</code> if the counter does not exist
+	 */
+	public long getCount(String name) {
+		return this.getCount(name, this.numBuckets);
+	}
+
+	/**
+	 * Return the count of the given counter over the last given duration,
+	 * rounded up to whole buckets, including the current one. Durations
+	 * longer than the window return the count over the window.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @param duration
+	 *            the duration
+	 *
+	 * @param unit
+	 *            the unit of the duration
+	 *
+	 * @return the count, <code>0</code> if the counter does not exist
+	 */
+	public long getCount(String name, long duration, TimeUnit unit) {
+		long buckets = (unit.toNanos(duration) + this.bucketNanos - 1) / this.bucketNanos;
+		return this.getCount(name, (int) Math.max(1, Math.min(this.numBuckets, buckets)));
+	}
+
+	private long getCount(String name, int buckets) {
+		AtomicLongArray counts = this.counterMap.get(name);
+		if(counts == null) {
+			return 0;
+		}
+
+		return this.sum(counts, this.epoch(), buckets);
+	}
+
+	/**
+	 * Return the average rate of the given counter over the window. The
+	 * current bucket counts only for the time that has elapsed in it, so the
+	 * rate does not dip each time a new bucket starts.
+	 *
+	 * @param name
+	 *            the name of the counter
+	 *
+	 * @param unit
+	 *            the unit of time to return the rate per, such as
+	 *            {@link TimeUnit#SECONDS}
+	 *
+	 * @return the count per unit of time
+	 */
+	public double getRate(String name, TimeUnit unit) {
+		AtomicLongArray counts = this.counterMap.get(name);
+		if(counts == null) {
+			return 0;
+		}
+
+		final long elapsed = this.clock.getAsLong() - this.origin;
+		final long window = Math.min(elapsed, (this.numBuckets - 1) * this.bucketNanos + (elapsed % this.bucketNanos));
+		if(window <= 0) {
+			return 0;
+		}
+
+		return this.sum(counts, elapsed / this.bucketNanos, this.numBuckets) * (double) unit.toNanos(1) / window;
+	}
+
+	/**
+	 * Return the counters with the highest counts over the window, highest
+	 * first.
+	 *
+	 * @param n
+	 *            the maximum number of counters to return
+	 *
+	 * @return the names and counts of the counters
+	 */
+	public List<Map.Entry<String, Long>> topN(int n) {
+		if(n <= 0) {
+			throw new IllegalArgumentException("Number of counters cannot be less than or equal to zero");
+		}
+
+		final Comparator<Map.Entry<String, Long>> byCount = Map.Entry.comparingByValue();
+		final PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(n + 1, byCount);
+
+		final long epoch = this.epoch();
+		for(Map.Entry<String, AtomicLongArray> entry : this.counterMap.entrySet()) {
+			long count = this.sum(entry.getValue(), epoch, this.numBuckets);
+			if(count == 0) {
+				continue;
+			}
+
+			if(top.size() == n && top.peek().getValue() >= count) {
+				continue;
+			}
+
+			top.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+			if(top.size() > n) {
+				top.poll();
+			}
+		}
+
+		List<Map.Entry<String, Long>> list = new ArrayList<>(top);
+		list.sort(Collections.reverseOrder(byCount));
+		return list;
+	}
+
+	/**
+	 * Sum the given number of buckets, ending at the given epoch.
+	 *
+	 * @param counts
+	 *            the buckets
+	 *
+	 * @param epoch
+	 *            the current epoch
+	 *
+	 * @param buckets
+	 *            the number of buckets to sum
+	 *
+	 * @return the sum
+	 */
+	private long sum(AtomicLongArray counts, long epoch, int buckets) {
+		long total = 0;
+		for(long bucketEpoch = epoch; bucketEpoch > epoch - buckets && bucketEpoch >= 0; bucketEpoch--) {
+			long value = counts.get((int) (bucketEpoch % this.numBuckets));
+			if((value >>> 32) == (bucketEpoch & MASK)) {
+				total += value & MASK;
+			}
+		}
+
+		return total;
+	}
+
+	/**
+	 * Return the index of the current bucket since this instance was created.
+	 *
+	 * @return the epoch
+	 */
+	private long epoch() {
+		return (this.clock.getAsLong() - this.origin) / this.bucketNanos;
+	}
+
+}
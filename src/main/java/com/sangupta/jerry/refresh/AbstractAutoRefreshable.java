@@ -0,0 +1,209 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.refresh;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Decides when the value of an {@link AutoRefreshable}, or one of its
+ * primitive variants, is refreshed, and by which thread.
+ *
+ * By default every caller that finds the value expired refreshes it. In
+ * single-flight mode only one caller refreshes an expired value, while
+ * concurrent callers keep reading the stale one, so that expiry does not
+ * cause a stampede on the backing store. Only the very first load, when no
+ * value exists yet, makes callers wait for it.
+ *
+ * With refresh-ahead, the value is reloaded on an {@link Executor} once it
+ * is within the given time of expiry, and callers never run the refresh
+ * themselves after the first load.
+ *
+ * @author sangupta
+ *
+ * @since 4.0.0
+ */
+@ThreadSafe
+abstract class AbstractAutoRefreshable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AbstractAutoRefreshable.class);
+
+	/**
+	 * The time for which the value must be cached
+	 */
+	protected final long cacheMillis;
+
+	/**
+	 * The time when the value was last refreshed
+	 */
+	protected volatile long lastRefreshed = 0;
+
+	/**
+	 * Whether only one caller refreshes an expired value
+	 */
+	private final boolean singleFlight;
+
+	/**
+	 * The time before expiry at which the value is refreshed
+	 */
+	private final long refreshAheadMillis;
+
+	/**
+	 * The executor to refresh ahead on, <code>null</code> to refresh in the
+	 * calling thread
+	 */
+	private final Executor executor;
+
+	/**
+	 * Whether a refresh is in progress in single-flight mode
+	 */
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+
+	/**
+	 * Lock held during the first load in single-flight mode
+	 */
+	private final Object loadLock = new Object();
+
+	/**
+	 * The task that refreshes on the executor
+	 */
+	private final Runnable asyncReload = this::asyncReload;
+
+	AbstractAutoRefreshable(long cacheMillis, boolean singleFlight) {
+		this(cacheMillis, singleFlight, 0, null);
+	}
+
+	AbstractAutoRefreshable(long cacheMillis, long refreshAheadMillis, Executor executor) {
+		this(cacheMillis, true, refreshAheadMillis, executor);
+
+		if(executor == null) {
+			throw new IllegalArgumentException("Executor cannot be null");
+		}
+	}
+
+	private AbstractAutoRefreshable(long cacheMillis, boolean singleFlight, long refreshAheadMillis, Executor executor) {
+		if(cacheMillis <= 0) {
+			throw new IllegalArgumentException("Cache time in millis should be greater than zero");
+		}
+
+		if(refreshAheadMillis < 0 || refreshAheadMillis >= cacheMillis) {
+			throw new IllegalArgumentException("Refresh ahead time in millis should be between zero and cache time");
+		}
+
+		this.cacheMillis = cacheMillis;
+		this.singleFlight = singleFlight;
+		this.refreshAheadMillis = refreshAheadMillis;
+		this.executor = executor;
+	}
+
+	/**
+	 * Store a freshly refreshed value.
+	 */
+	abstract void load();
+
+	/**
+	 * Refresh the value if it has expired, or is about to when refreshing
+	 * ahead. Called before each read of the value.
+	 */
+	final void ensureFresh() {
+		if(!this.singleFlight) {
+			if(this.isDue(this.cacheMillis)) {
+				this.reload();
+			}
+
+			return;
+		}
+
+		if(this.lastRefreshed == 0) {
+			synchronized (this.loadLock) {
+				if(this.lastRefreshed == 0) {
+					this.reload();
+				}
+			}
+
+			return;
+		}
+
+		final long dueMillis = this.cacheMillis - this.refreshAheadMillis;
+		if(!this.isDue(dueMillis) || !this.refreshing.compareAndSet(false, true)) {
+			return;
+		}
+
+		// another caller may have refreshed since we checked
+		if(!this.isDue(dueMillis)) {
+			this.refreshing.set(false);
+			return;
+		}
+
+		if(this.executor != null) {
+			try {
+				this.executor.execute(this.asyncReload);
+				return;
+			} catch(RejectedExecutionException e) {
+				// refresh in this thread instead
+			}
+		}
+
+		try {
+			this.reload();
+		} finally {
+			this.refreshing.set(false);
+		}
+	}
+
+	/**
+	 * Return whether a refresh is in progress in single-flight mode.
+	 *
+	 * @return <code>true</code> if a refresh is in progress
+	 */
+	public boolean isRefreshing() {
+		return this.refreshing.get();
+	}
+
+	private boolean isDue(long afterMillis) {
+		return System.currentTimeMillis() - this.lastRefreshed > afterMillis;
+	}
+
+	private void reload() {
+		this.load();
+		this.lastRefreshed = System.currentTimeMillis();
+	}
+
+	private void asyncReload() {
+		try {
+			this.reload();
+		} catch(RuntimeException e) {
+			// the stale value is kept, and the next read tries again
+			LOGGER.warn("Unable to refresh value", e);
+		} finally {
+			this.refreshing.set(false);
+		}
+	}
+
+}
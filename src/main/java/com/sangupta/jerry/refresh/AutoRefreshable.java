@@ -21,6 +21,8 @@
 
 package com.sangupta.jerry.refresh;
 
+import java.util.concurrent.Executor;
+
 import net.jcip.annotations.ThreadSafe;
 
 /**
@@ -47,6 +49,12 @@ import net.jcip.annotations.ThreadSafe;
  * value = config.get();
  * </pre>
  *
+ * By default every caller that finds the value expired calls the refresh
+ * method. Values read by many threads should use single-flight mode, in
+ * which one caller refreshes while the others keep reading the stale value,
+ * or refresh-ahead, in which the value is refreshed on an executor before it
+ * expires so that callers never wait after the first load.
+ *
  * @author sangupta
  *
  * @param <T> the type of value that is to be contained within
@@ -54,7 +62,7 @@ import net.jcip.annotations.ThreadSafe;
  * @since 2.3
  */
 @ThreadSafe
-public abstract class AutoRefreshable<T> {
+public abstract class AutoRefreshable<T> extends AbstractAutoRefreshable {
 
 	/**
 	 * The value being cached
@@ -62,27 +70,48 @@ public abstract class AutoRefreshable<T> {
 	protected volatile T value;
 
 	/**
-	 * The time for which the value must be cached
+	 * Constructor
+	 *
+	 * @param cacheMillis
+	 *            the milliseconds for which to cache the value
 	 */
-	protected final long cacheMillis;
+	public AutoRefreshable(long cacheMillis) {
+		super(cacheMillis, false);
+	}
 
 	/**
-	 * The time when the value was last refreshed
+	 * Constructor
+	 *
+	 * @param cacheMillis
+	 *            the milliseconds for which to cache the value
+	 *
+	 * @param singleFlight
+	 *            whether only one caller refreshes an expired value, while
+	 *            concurrent callers read the stale value
+	 *
+	 * @since 4.0.0
 	 */
-	protected volatile long lastRefreshed = 0;
+	public AutoRefreshable(long cacheMillis, boolean singleFlight) {
+		super(cacheMillis, singleFlight);
+	}
 
 	/**
-	 * Constructor
+	 * Constructor for a value that is refreshed in single-flight mode on the
+	 * given executor, before it expires.
 	 *
 	 * @param cacheMillis
 	 *            the milliseconds for which to cache the value
+	 *
+	 * @param refreshAheadMillis
+	 *            the milliseconds before expiry at which to refresh the value
+	 *
+	 * @param executor
+	 *            the executor to refresh the value on
+	 *
+	 * @since 4.0.0
 	 */
-	public AutoRefreshable(long cacheMillis) {
-		if(cacheMillis <= 0) {
-			throw new IllegalArgumentException("Cache time in millis should be greater than zero");
-		}
-
-		this.cacheMillis = cacheMillis;
+	public AutoRefreshable(long cacheMillis, long refreshAheadMillis, Executor executor) {
+		super(cacheMillis, refreshAheadMillis, executor);
 	}
 
 	/**
@@ -91,15 +120,15 @@ public abstract class AutoRefreshable<T> {
 	 * @return the value that is stored internally
 	 */
 	public T get() {
-		long delta = System.currentTimeMillis() - this.lastRefreshed;
-		if(delta > this.cacheMillis) {
-			this.value = refresh();
-			this.lastRefreshed = System.currentTimeMillis();
-		}
-
+		this.ensureFresh();
 		return this.value;
 	}
 
+	@Override
+	final void load() {
+		this.value = this.refresh();
+	}
+
 	/**
 	 * Refresh the value to a new value. The method is public so that the owners
 	 * can call this at will to refresh the value before expiration of cache
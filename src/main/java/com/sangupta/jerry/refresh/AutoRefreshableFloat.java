@@ -21,6 +21,10 @@
 
 package com.sangupta.jerry.refresh;
 
+import java.util.concurrent.Executor;
+
+import net.jcip.annotations.ThreadSafe;
+
 /**
  * An {@link AutoRefreshable} implementation for primitive <code>float</code>
  * values. This allows us to to not box the value every time and prevent
@@ -30,35 +34,57 @@ package com.sangupta.jerry.refresh;
  *
  * @since 2.3
  */
-public abstract class AutoRefreshableFloat {
+@ThreadSafe
+public abstract class AutoRefreshableFloat extends AbstractAutoRefreshable {
 
 	/**
 	 * The value being cached
 	 */
-	protected float value;
+	protected volatile float value;
 
 	/**
-	 * The time for which the value must be cached
+	 * Constructor
+	 *
+	 * @param cacheMillis
+	 *            the milliseconds for which to cache the value
 	 */
-	protected final long cacheMillis;
+	public AutoRefreshableFloat(long cacheMillis) {
+		super(cacheMillis, false);
+	}
 
 	/**
-	 * The time when the value was last refreshed
+	 * Constructor
+	 *
+	 * @param cacheMillis
+	 *            the milliseconds for which to cache the value
+	 *
+	 * @param singleFlight
+	 *            whether only one caller refreshes an expired value, while
+	 *            concurrent callers read the stale value
+	 *
+	 * @since 4.0.0
 	 */
-	protected volatile long lastRefreshed = 0;
+	public AutoRefreshableFloat(long cacheMillis, boolean singleFlight) {
+		super(cacheMillis, singleFlight);
+	}
 
 	/**
-	 * Constructor
+	 * Constructor for a value that is refreshed in single-flight mode on the
+	 * given executor, before it expires.
 	 *
 	 * @param cacheMillis
 	 *            the milliseconds for which to cache the value
+	 *
+	 * @param refreshAheadMillis
+	 *            the milliseconds before expiry at which to refresh the value
+	 *
+	 * @param executor
+	 *            the executor to refresh the value on
+	 *
+	 * @since 4.0.0
 	 */
-	public AutoRefreshableFloat(long cacheMillis) {
-		if(cacheMillis <= 0) {
-			throw new IllegalArgumentException("Cache time in millis should be greater than zero");
-		}
-
-		this.cacheMillis = cacheMillis;
+	public AutoRefreshableFloat(long cacheMillis, long refreshAheadMillis, Executor executor) {
+		super(cacheMillis, refreshAheadMillis, executor);
 	}
 
 	/**
@@ -67,15 +93,15 @@ public abstract class AutoRefreshableFloat {
 	 * @return the value that is stored internally
 	 */
 	public float get() {
-		long delta = System.currentTimeMillis() - this.lastRefreshed;
-		if(delta > this.cacheMillis) {
-			this.value = refresh();
-			this.lastRefreshed = System.currentTimeMillis();
-		}
-
+		this.ensureFresh();
 		return this.value;
 	}
 
+	@Override
+	final void load() {
+		this.value = this.refresh();
+	}
+
 	/**
 	 * Refresh the value to a new value. The method is public so that the owners
 	 * can call this at will to refresh the value before expiration of cache
@@ -0,0 +1,151 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.unsafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * An {@link UnsafeMemory} that works over off-heap memory allocated as a
+ * direct {@link ByteBuffer}. The memory grows automatically, doubling in
+ * size, when a write does not fit in the current capacity. This allows large
+ * objects to be serialized without sizing a giant heap array up front.
+ *
+ * The off-heap memory is released when the instance is closed. Any read or
+ * write after closing throws an exception.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@NotThreadSafe
+public class DirectUnsafeMemory extends UnsafeMemory implements Closeable {
+
+	/**
+	 * The default initial capacity - 64 KB
+	 */
+	public static final int DEFAULT_INITIAL_CAPACITY = 64 * 1024;
+
+	/**
+	 * The maximum capacity the memory can grow to
+	 */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * The direct buffer that holds the memory
+	 */
+	private ByteBuffer direct;
+
+	/**
+	 * Create a new instance with the default initial capacity.
+	 *
+	 */
+	public DirectUnsafeMemory() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Create a new instance with the given initial capacity.
+	 *
+	 * @param initialCapacity
+	 *            the number of bytes to allocate initially
+	 */
+	public DirectUnsafeMemory(int initialCapacity) {
+		this(ByteBuffer.allocateDirect(checkCapacity(initialCapacity)));
+	}
+
+	private DirectUnsafeMemory(ByteBuffer buffer) {
+		super(null, addressOf(buffer), buffer.capacity());
+		this.direct = buffer;
+	}
+
+	private static int checkCapacity(int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Initial capacity must be positive");
+		}
+
+		if(capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Initial capacity cannot be more than " + MAX_CAPACITY);
+		}
+
+		return capacity;
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		if(this.direct == null) {
+			throw new IllegalStateException("Memory has already been released");
+		}
+
+		ByteBuffer view = this.direct.duplicate();
+		view.limit(this.getPosition());
+		return view;
+	}
+
+	@Override
+	protected void ensureCapacity(long bytes) {
+		if(this.direct == null) {
+			throw new IllegalStateException("Memory has already been released");
+		}
+
+		long required = this.getPosition() + bytes;
+		int capacity = this.getCapacity();
+		if(required <= capacity) {
+			return;
+		}
+
+		if(required > MAX_CAPACITY) {
+			throw new IndexOutOfBoundsException("Trying to grow memory beyond maximum capacity of " + MAX_CAPACITY);
+		}
+
+		// grow by doubling so that writes are amortized constant time
+		int newCapacity = (int) Math.min(Math.max(required, (long) capacity << 1), MAX_CAPACITY);
+		ByteBuffer newBuffer = ByteBuffer.allocateDirect(newCapacity);
+		long newAddress = addressOf(newBuffer);
+		getUnsafe().copyMemory(null, addressOf(this.direct), null, newAddress, capacity);
+
+		getUnsafe().invokeCleaner(this.direct);
+		this.direct = newBuffer;
+		this.setMemory(null, newAddress, newCapacity);
+	}
+
+	/**
+	 * Release the off-heap memory held by this instance.
+	 *
+	 */
+	@Override
+	public void close() throws IOException {
+		if(this.direct == null) {
+			return;
+		}
+
+		// make sure no read or write can touch freed memory
+		this.setMemory(null, 0, 0);
+
+		getUnsafe().invokeCleaner(this.direct);
+		this.direct = null;
+	}
+
+}
@@ -0,0 +1,145 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.unsafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * An {@link UnsafeMemory} that works over a memory-mapped region of a file.
+ * No bytes are copied when the memory is created - the operating system pages
+ * the file in lazily as values are read. Read-only mappings reject all writes.
+ *
+ * The mapping is released when the instance is closed. Any read or write
+ * after closing throws an exception.
+ *
+ * Instances are usually obtained using
+ * {@link UnsafeMemoryUtils#readSnapshot(java.io.File, boolean)}.
+ *
+ * @author sangupta
+ * @since 4.0.0
+ */
+@NotThreadSafe
+public class MappedUnsafeMemory extends UnsafeMemory implements Closeable {
+
+	/**
+	 * The mapped buffer that holds the memory
+	 */
+	private MappedByteBuffer mapped;
+
+	/**
+	 * Create a new instance over the given mapped buffer. The memory spans
+	 * from the start of the buffer till its capacity.
+	 *
+	 * @param mapped
+	 *            the mapped buffer to work over
+	 */
+	public MappedUnsafeMemory(MappedByteBuffer mapped) {
+		super(null, addressOf(checkNotNull(mapped)), mapped.capacity());
+		this.mapped = mapped;
+	}
+
+	private static MappedByteBuffer checkNotNull(MappedByteBuffer mapped) {
+		if(mapped == null) {
+			throw new IllegalArgumentException("Mapped buffer cannot be null");
+		}
+
+		return mapped;
+	}
+
+	/**
+	 * Check if the mapping is read-only.
+	 *
+	 * @return <code>true</code> if no writes are allowed, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean isReadOnly() {
+		return this.mapped == null || this.mapped.isReadOnly();
+	}
+
+	/**
+	 * Load the entire mapped region in physical memory, instead of paging it
+	 * in lazily.
+	 *
+	 */
+	public void load() {
+		if(this.mapped == null) {
+			throw new IllegalStateException("Memory has already been released");
+		}
+
+		this.mapped.load();
+	}
+
+	@Override
+	protected void ensureCapacity(long bytes) {
+		if(this.mapped == null) {
+			throw new IllegalStateException("Memory has already been released");
+		}
+
+		// writing to a read-only mapping using Unsafe would crash the JVM
+		if(this.mapped.isReadOnly()) {
+			throw new ReadOnlyBufferException();
+		}
+
+		super.ensureCapacity(bytes);
+	}
+
+	@Override
+	public ByteBuffer asByteBuffer() {
+		if(this.mapped == null) {
+			throw new IllegalStateException("Memory has already been released");
+		}
+
+		ByteBuffer view = this.mapped.duplicate();
+		view.limit(this.getPosition());
+		return view;
+	}
+
+	/**
+	 * Release the mapping held by this instance. Changes to a writable
+	 * mapping are forced to the file first.
+	 *
+	 */
+	@Override
+	public void close() throws IOException {
+		if(this.mapped == null) {
+			return;
+		}
+
+		if(!this.mapped.isReadOnly()) {
+			this.mapped.force();
+		}
+
+		// make sure no read or write can touch unmapped memory
+		this.setMemory(null, 0, 0);
+
+		getUnsafe().invokeCleaner(this.mapped);
+		this.mapped = null;
+	}
+
+}
@@ -23,10 +23,19 @@ package com.sangupta.jerry.unsafe;
 
 import sun.misc.Unsafe;
 import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Provides capability to write to a byte buffer using Java {@link Unsafe}
- * class.
+ * class. Every read and write is bounds-checked against the capacity of the
+ * underlying memory, and an {@link IndexOutOfBoundsException} is thrown when
+ * the operation would cross it.
+ *
+ * The default implementation works over an on-heap <code>byte[]</code> array
+ * of fixed size. Use {@link DirectUnsafeMemory} for off-heap memory that grows
+ * as values are written.
  *
  * @author sangupta
  *
@@ -79,6 +88,76 @@ public class UnsafeMemory {
 	 */
 	private static final long doubleArrayOffset = UNSAFE.arrayBaseOffset(double[].class);
 
+	/**
+	 * Offset of the <code>value</code> field in {@link String}, or
+	 * <code>-1</code> if the field cannot be accessed
+	 */
+	private static final long STRING_VALUE_OFFSET;
+
+	/**
+	 * Offset of the <code>coder</code> field in {@link String}, or
+	 * <code>-1</code> if the field cannot be accessed
+	 */
+	private static final long STRING_CODER_OFFSET;
+
+	/**
+	 * Value of the <code>coder</code> field for a compact Latin-1 string
+	 */
+	private static final byte LATIN1 = 0;
+
+	/**
+	 * Find the internal fields of compact strings, that allow Latin-1 strings
+	 * to be bulk copied
+	 */
+	static {
+		long valueOffset = -1;
+		long coderOffset = -1;
+		try {
+			Field value = String.class.getDeclaredField("value");
+			Field coder = String.class.getDeclaredField("coder");
+			if(value.getType() == byte[].class && coder.getType() == byte.class) {
+				valueOffset = UNSAFE.objectFieldOffset(value);
+				coderOffset = UNSAFE.objectFieldOffset(coder);
+			}
+		} catch (Exception e) {
+			// not a compact-strings JVM - use the slow path
+			valueOffset = -1;
+			coderOffset = -1;
+		}
+
+		STRING_VALUE_OFFSET = valueOffset;
+		STRING_CODER_OFFSET = coderOffset;
+	}
+
+	/**
+	 * Offset of the <code>address</code> field in {@link Buffer}
+	 */
+	private static final long BUFFER_ADDRESS_OFFSET;
+
+	static {
+		try {
+			BUFFER_ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+		} catch (NoSuchFieldException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Return the absolute memory address of the given direct buffer.
+	 *
+	 * @param buffer
+	 *            the direct buffer
+	 *
+	 * @return the address of the first byte of the buffer
+	 */
+	static long addressOf(ByteBuffer buffer) {
+		if(!buffer.isDirect()) {
+			throw new IllegalArgumentException("Buffer is not a direct buffer");
+		}
+
+		return UNSAFE.getLong(buffer, BUFFER_ADDRESS_OFFSET);
+	}
+
 	/**
 	 * Size of a boolean value
 	 */
@@ -100,7 +179,7 @@ public class UnsafeMemory {
 	private static final int SIZE_OF_SHORT = 2;
 
 	/**
-	 * Size of a double
+	 * Size of a long
 	 */
 	private static final int SIZE_OF_LONG = 8;
 
@@ -110,12 +189,25 @@ public class UnsafeMemory {
 	private int pos = 0;
 
 	/**
-	 * The current length of the byte buffer
+	 * The object that holds the memory, <code>null</code> when the memory is
+	 * off-heap
 	 */
-	private final int bufferLength;
+	private Object base;
 
 	/**
-	 * The buffer of bytes over which we operate
+	 * The offset of the first byte of memory in the base object, or the
+	 * absolute address when the memory is off-heap
+	 */
+	private long address;
+
+	/**
+	 * The number of bytes available in the memory
+	 */
+	private int capacity;
+
+	/**
+	 * The buffer of bytes over which we operate, <code>null</code> when the
+	 * memory is not backed by a heap array
 	 */
 	private final byte[] buffer;
 
@@ -131,7 +223,75 @@ public class UnsafeMemory {
 		}
 
 		this.buffer = buffer;
-		this.bufferLength = buffer.length;
+		this.base = buffer;
+		this.address = byteArrayOffset;
+		this.capacity = buffer.length;
+	}
+
+	/**
+	 * Create a new instance of {@link UnsafeMemory} that works over the given
+	 * memory region. Sub-classes use this to work over memory that is not a
+	 * heap <code>byte[]</code> array.
+	 *
+	 * @param base
+	 *            the object that holds the memory, or <code>null</code> if the
+	 *            address is absolute
+	 *
+	 * @param address
+	 *            the offset of the memory in the base object, or the absolute
+	 *            address if base is <code>null</code>
+	 *
+	 * @param capacity
+	 *            the number of bytes available in the memory
+	 */
+	protected UnsafeMemory(final Object base, final long address, final int capacity) {
+		if(capacity < 0) {
+			throw new IllegalArgumentException("Capacity cannot be negative");
+		}
+
+		this.buffer = null;
+		this.base = base;
+		this.address = address;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Point this instance to a new memory region, keeping the current
+	 * position. Used by sub-classes when memory is re-allocated.
+	 *
+	 * @param base
+	 *            the object that holds the memory, or <code>null</code> if the
+	 *            address is absolute
+	 *
+	 * @param address
+	 *            the offset of the memory in the base object, or the absolute
+	 *            address if base is <code>null</code>
+	 *
+	 * @param capacity
+	 *            the number of bytes available in the memory
+	 */
+	protected void setMemory(final Object base, final long address, final int capacity) {
+		this.base = base;
+		this.address = address;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Make sure that the given number of bytes can be written at the current
+	 * position. The default implementation does not grow the memory and
+	 * throws an exception instead. Sub-classes may override this to allocate
+	 * more memory.
+	 *
+	 * @param bytes
+	 *            the number of bytes that are about to be written
+	 *
+	 * @throws IndexOutOfBoundsException
+	 *             if the bytes do not fit in the memory
+	 */
+	protected void ensureCapacity(final long bytes) {
+		if(this.pos + bytes > this.capacity) {
+			throw new IndexOutOfBoundsException("Trying to write to memory position out of buffer area");
+		}
 	}
 
 	/**
@@ -153,9 +313,51 @@ public class UnsafeMemory {
 		return this.pos;
 	}
 
+	/**
+	 * Return the number of bytes that can currently be held in the memory.
+	 *
+	 * @return the capacity of the memory
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Copy bytes out of the memory without moving the current position.
+	 *
+	 * @param offset
+	 *            the offset in memory to copy from
+	 *
+	 * @param destination
+	 *            the array to copy to
+	 *
+	 * @param destinationOffset
+	 *            the offset in the destination array
+	 *
+	 * @param length
+	 *            the number of bytes to copy
+	 */
+	public void copyTo(final int offset, final byte[] destination, final int destinationOffset, final int length) {
+		if(destination == null) {
+			throw new IllegalArgumentException("Destination cannot be null");
+		}
+
+		if(offset < 0 || length < 0 || (long) offset + length > this.capacity) {
+			throw new IndexOutOfBoundsException("Trying to read from memory position out of buffer area");
+		}
+
+		if(destinationOffset < 0 || (long) destinationOffset + length > destination.length) {
+			throw new IndexOutOfBoundsException("Destination array is too small");
+		}
+
+		UNSAFE.copyMemory(this.base, this.address + offset, destination, byteArrayOffset + destinationOffset, length);
+	}
+
 	/**
 	 * Write a string to the current location in the buffer. The length of the
-	 * string is written first as an {@link Integer}.
+	 * string is written first as an {@link Integer}, followed by one byte per
+	 * character. Only characters in the Latin-1 range are preserved, use
+	 * {@link #putStringUTF8(String)} for any other text.
 	 *
 	 * @param value
 	 *            the value to be written to buffer
@@ -166,21 +368,259 @@ public class UnsafeMemory {
 			return;
 		}
 
-		char[] chars = value.toCharArray();
-		putInt(chars.length);
-		for(char c : chars) {
-			UNSAFE.putChar(buffer, byteArrayOffset + pos, c);
+		final int length = value.length();
+		ensureCapacity(SIZE_OF_INT + (long) length);
+
+		putInt(length);
+		for(int index = 0; index < length; index++) {
+			UNSAFE.putByte(base, address + pos, (byte) value.charAt(index));
 			pos++;
 		}
 	}
 
 	/**
-	 * A method that checks for the position pointer inside the buffer to be in
-	 * the range before making a read call.
+	 * Write a string to the current location in the buffer encoded as UTF-8.
+	 * The number of encoded bytes is written first as a variable-length
+	 * integer. Strings that only contain ASCII characters are bulk-copied.
 	 *
+	 * @param value
+	 *            the value to be written to buffer, may be <code>null</code>
 	 */
-	private final void positionCheck() {
-		if(this.pos > this.bufferLength) {
+	public void putStringUTF8(final String value) {
+		if(value == null) {
+			putVarInt(0);
+			return;
+		}
+
+		// fast path - compact string with only ASCII characters
+		byte[] latin1 = latin1Bytes(value);
+		if(latin1 != null && isAscii(latin1)) {
+			ensureCapacity(5 + (long) latin1.length);
+
+			putVarInt(latin1.length + 1);
+			UNSAFE.copyMemory(latin1, byteArrayOffset, base, address + pos, latin1.length);
+			pos += latin1.length;
+			return;
+		}
+
+		final int length = value.length();
+		final long encodedLength = utf8Length(value);
+		if(encodedLength + 1 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Encoded string is too long");
+		}
+
+		ensureCapacity(5 + encodedLength);
+		putVarInt((int) encodedLength + 1);
+
+		long offset = address + pos;
+		for(int index = 0; index < length; index++) {
+			char c = value.charAt(index);
+			if(c < 0x80) {
+				UNSAFE.putByte(base, offset++, (byte) c);
+			} else if(c < 0x800) {
+				UNSAFE.putByte(base, offset++, (byte) (0xC0 | (c >> 6)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | (c & 0x3F)));
+			} else if(isSurrogatePair(value, index)) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++index));
+				UNSAFE.putByte(base, offset++, (byte) (0xF0 | (codePoint >> 18)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | (codePoint & 0x3F)));
+			} else if(Character.isSurrogate(c)) {
+				// unpaired surrogate - replace as the JDK encoder does
+				UNSAFE.putByte(base, offset++, (byte) '?');
+			} else {
+				UNSAFE.putByte(base, offset++, (byte) (0xE0 | (c >> 12)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+				UNSAFE.putByte(base, offset++, (byte) (0x80 | (c & 0x3F)));
+			}
+		}
+
+		pos += encodedLength;
+	}
+
+	/**
+	 * Read a string written using {@link #putStringUTF8(String)} from the
+	 * current location in buffer.
+	 *
+	 * @return the string as read from the buffer, may be <code>null</code>
+	 */
+	public String getStringUTF8() {
+		int length = getVarInt();
+		if(length == 0) {
+			return null;
+		}
+
+		length--;
+		positionCheck(length);
+
+		String value;
+		if(this.buffer != null) {
+			value = new String(this.buffer, pos, length, StandardCharsets.UTF_8);
+		} else {
+			byte[] bytes = new byte[length];
+			UNSAFE.copyMemory(base, address + pos, bytes, byteArrayOffset, length);
+			value = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		pos += length;
+		return value;
+	}
+
+	/**
+	 * Write an integer as a variable-length value using 7 bits per byte.
+	 * Small non-negative values take less space, while negative values
+	 * always take five bytes.
+	 *
+	 * @param value
+	 *            the value to write
+	 */
+	public void putVarInt(final int value) {
+		ensureCapacity(5);
+
+		int remaining = value;
+		while((remaining & ~0x7F) != 0) {
+			UNSAFE.putByte(base, address + pos, (byte) ((remaining & 0x7F) | 0x80));
+			pos++;
+			remaining >>>= 7;
+		}
+
+		UNSAFE.putByte(base, address + pos, (byte) remaining);
+		pos++;
+	}
+
+	/**
+	 * Read an integer written using {@link #putVarInt(int)}.
+	 *
+	 * @return the read integer value
+	 */
+	public int getVarInt() {
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			byte bite = getByte();
+			value |= (bite & 0x7F) << shift;
+			if(bite >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalStateException("Malformed variable-length integer in buffer");
+	}
+
+	/**
+	 * Write a long as a variable-length value using 7 bits per byte. Small
+	 * non-negative values take less space, while negative values always take
+	 * ten bytes.
+	 *
+	 * @param value
+	 *            the value to write
+	 */
+	public void putVarLong(final long value) {
+		ensureCapacity(10);
+
+		long remaining = value;
+		while((remaining & ~0x7FL) != 0) {
+			UNSAFE.putByte(base, address + pos, (byte) ((remaining & 0x7F) | 0x80));
+			pos++;
+			remaining >>>= 7;
+		}
+
+		UNSAFE.putByte(base, address + pos, (byte) remaining);
+		pos++;
+	}
+
+	/**
+	 * Read a long written using {@link #putVarLong(long)}.
+	 *
+	 * @return the read long value
+	 */
+	public long getVarLong() {
+		long value = 0;
+		for(int shift = 0; shift < 70; shift += 7) {
+			byte bite = getByte();
+			value |= (long) (bite & 0x7F) << shift;
+			if(bite >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalStateException("Malformed variable-length long in buffer");
+	}
+
+	/**
+	 * Return the internal Latin-1 bytes of a compact string.
+	 *
+	 * @param value
+	 *            the string
+	 *
+	 * @return the internal bytes, or <code>null</code> if the string is not
+	 *         a compact Latin-1 string
+	 */
+	private static byte[] latin1Bytes(final String value) {
+		if(STRING_VALUE_OFFSET < 0) {
+			return null;
+		}
+
+		if(UNSAFE.getByte(value, STRING_CODER_OFFSET) != LATIN1) {
+			return null;
+		}
+
+		return (byte[]) UNSAFE.getObject(value, STRING_VALUE_OFFSET);
+	}
+
+	private static boolean isAscii(final byte[] bytes) {
+		for(byte bite : bytes) {
+			if(bite < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isSurrogatePair(final String value, final int index) {
+		return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1));
+	}
+
+	/**
+	 * Compute the number of bytes needed to encode the string in UTF-8.
+	 *
+	 * @param value
+	 *            the string
+	 *
+	 * @return the number of bytes needed
+	 */
+	private static long utf8Length(final String value) {
+		final int length = value.length();
+		long bytes = 0;
+		for(int index = 0; index < length; index++) {
+			char c = value.charAt(index);
+			if(c < 0x80) {
+				bytes++;
+			} else if(c < 0x800) {
+				bytes += 2;
+			} else if(isSurrogatePair(value, index)) {
+				bytes += 4;
+				index++;
+			} else if(Character.isSurrogate(c)) {
+				bytes++;
+			} else {
+				bytes += 3;
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * A method that checks that the given number of bytes can be read from
+	 * the current position before making a read call.
+	 *
+	 * @param bytes
+	 *            the number of bytes about to be read
+	 */
+	private final void positionCheck(final long bytes) {
+		if(this.pos + bytes > this.capacity) {
 			throw new IndexOutOfBoundsException("Trying to read from memory position out of buffer area");
 		}
 	}
@@ -192,8 +632,6 @@ public class UnsafeMemory {
 	 * @return the string as read from the buffer
 	 */
 	public String getString() {
-		positionCheck();
-
 		int length = getInt();
 		if(length == 0) {
 			return null;
@@ -212,12 +650,12 @@ public class UnsafeMemory {
 	 * @return the string as read from the buffer
 	 */
 	public String getString(int length) {
-		positionCheck();
+		positionCheck(length);
 
 		char[] values = new char[length];
 
 		for(int index = 0; index < length; index++) {
-			values[index] = (char) UNSAFE.getByte(buffer, byteArrayOffset + pos);
+			values[index] = (char) (UNSAFE.getByte(base, address + pos) & 0xFF);
 			pos ++;
 		}
 
@@ -230,9 +668,8 @@ public class UnsafeMemory {
 	 * @param value the value to be written
 	 */
 	public void putBoolean(final boolean value) {
-		positionCheck();
-
-		UNSAFE.putBoolean(buffer, byteArrayOffset + pos, value);
+		ensureCapacity(SIZE_OF_BOOLEAN);
+		UNSAFE.putBoolean(base, address + pos, value);
 		pos += SIZE_OF_BOOLEAN;
 	}
 
@@ -242,9 +679,9 @@ public class UnsafeMemory {
 	 * @return the boolean value read from buffer
 	 */
 	public boolean getBoolean() {
-		positionCheck();
+		positionCheck(SIZE_OF_BOOLEAN);
 
-		boolean value = UNSAFE.getBoolean(buffer, byteArrayOffset + pos);
+		boolean value = UNSAFE.getBoolean(base, address + pos);
 		pos += SIZE_OF_BOOLEAN;
 
 		return value;
@@ -256,7 +693,8 @@ public class UnsafeMemory {
 	 * @param value the integer value to write
 	 */
 	public void putInt(final int value) {
-		UNSAFE.putInt(buffer, byteArrayOffset + pos, value);
+		ensureCapacity(SIZE_OF_INT);
+		UNSAFE.putInt(base, address + pos, value);
 		pos += SIZE_OF_INT;
 	}
 
@@ -266,9 +704,9 @@ public class UnsafeMemory {
 	 * @return the read integer value
 	 */
 	public int getInt() {
-		positionCheck();
+		positionCheck(SIZE_OF_INT);
 
-		int value = UNSAFE.getInt(buffer, byteArrayOffset + pos);
+		int value = UNSAFE.getInt(base, address + pos);
 		pos += SIZE_OF_INT;
 
 		return value;
@@ -280,7 +718,8 @@ public class UnsafeMemory {
 	 * @param bite the <code>byte</code> to write
 	 */
 	public void putByte(final byte bite) {
-		UNSAFE.putByte(buffer, byteArrayOffset + pos, bite);
+		ensureCapacity(SIZE_OF_BYTE);
+		UNSAFE.putByte(base, address + pos, bite);
 		pos += SIZE_OF_BYTE;
 	}
 
@@ -290,9 +729,9 @@ public class UnsafeMemory {
 	 * @return the read <code>byte</code> value
 	 */
 	public byte getByte() {
-		positionCheck();
+		positionCheck(SIZE_OF_BYTE);
 
-		byte bite = UNSAFE.getByte(buffer, byteArrayOffset + pos);
+		byte bite = UNSAFE.getByte(base, address + pos);
 		pos += SIZE_OF_BYTE;
 
 		return bite;
@@ -304,7 +743,8 @@ public class UnsafeMemory {
 	 * @param shrt the <code>short</code> value to write
 	 */
 	public void putShort(final short shrt) {
-		UNSAFE.putShort(buffer, byteArrayOffset + pos, shrt);
+		ensureCapacity(SIZE_OF_SHORT);
+		UNSAFE.putShort(base, address + pos, shrt);
 		pos += SIZE_OF_SHORT;
 	}
 
@@ -314,9 +754,9 @@ public class UnsafeMemory {
 	 * @return the read <code>short</code> value
 	 */
 	public short getShort() {
-		positionCheck();
+		positionCheck(SIZE_OF_SHORT);
 
-		short shrt = UNSAFE.getShort(buffer, byteArrayOffset + pos);
+		short shrt = UNSAFE.getShort(base, address + pos);
 		pos += SIZE_OF_SHORT;
 
 		return shrt;
@@ -328,7 +768,8 @@ public class UnsafeMemory {
 	 * @param value the <code>long</code> value to write
 	 */
 	public void putLong(final long value) {
-		UNSAFE.putLong(buffer, byteArrayOffset + pos, value);
+		ensureCapacity(SIZE_OF_LONG);
+		UNSAFE.putLong(base, address + pos, value);
 		pos += SIZE_OF_LONG;
 	}
 
@@ -338,9 +779,9 @@ public class UnsafeMemory {
 	 * @return the read <code>long</code> value
 	 */
 	public long getLong() {
-		positionCheck();
+		positionCheck(SIZE_OF_LONG);
 
-		long value = UNSAFE.getLong(buffer, byteArrayOffset + pos);
+		long value = UNSAFE.getLong(base, address + pos);
 		pos += SIZE_OF_LONG;
 
 		return value;
@@ -352,10 +793,11 @@ public class UnsafeMemory {
 	 * @param values the <code>long</code> values to write
 	 */
 	public void putLongArray(final long[] values) {
-		putInt(values.length);
+		long bytesToCopy = (long) values.length << 3;
+		ensureCapacity(SIZE_OF_INT + bytesToCopy);
 
-		long bytesToCopy = values.length << 3;
-		UNSAFE.copyMemory(values, longArrayOffset, buffer, byteArrayOffset + pos, bytesToCopy);
+		putInt(values.length);
+		UNSAFE.copyMemory(values, longArrayOffset, base, address + pos, bytesToCopy);
 		pos += bytesToCopy;
 	}
 
@@ -365,13 +807,16 @@ public class UnsafeMemory {
 	 * @return the read <code>long</code> array
 	 */
 	public long[] getLongArray() {
-		positionCheck();
-
 		int arraySize = getInt();
-		long[] values = new long[arraySize];
+		if(arraySize < 0) {
+			throw new IllegalStateException("Negative array size read from buffer: " + arraySize);
+		}
 
-		long bytesToCopy = values.length << 3;
-		UNSAFE.copyMemory(buffer, byteArrayOffset + pos, values, longArrayOffset, bytesToCopy);
+		long bytesToCopy = (long) arraySize << 3;
+		positionCheck(bytesToCopy);
+
+		long[] values = new long[arraySize];
+		UNSAFE.copyMemory(base, address + pos, values, longArrayOffset, bytesToCopy);
 		pos += bytesToCopy;
 
 		return values;
@@ -384,10 +829,11 @@ public class UnsafeMemory {
 	 *            the values to write
 	 */
 	public void putDoubleArray(final double[] values) {
-		putInt(values.length);
+		long bytesToCopy = (long) values.length << 3;
+		ensureCapacity(SIZE_OF_INT + bytesToCopy);
 
-		long bytesToCopy = values.length << 3;
-		UNSAFE.copyMemory(values, doubleArrayOffset, buffer, byteArrayOffset + pos, bytesToCopy);
+		putInt(values.length);
+		UNSAFE.copyMemory(values, doubleArrayOffset, base, address + pos, bytesToCopy);
 		pos += bytesToCopy;
 	}
 
@@ -397,26 +843,70 @@ public class UnsafeMemory {
 	 * @return the read <code>double</code> array
 	 */
 	public double[] getDoubleArray() {
-		positionCheck();
-
 		int arraySize = getInt();
-		double[] values = new double[arraySize];
+		if(arraySize < 0) {
+			throw new IllegalStateException("Negative array size read from buffer: " + arraySize);
+		}
 
-		long bytesToCopy = values.length << 3;
-		UNSAFE.copyMemory(buffer, byteArrayOffset + pos, values, doubleArrayOffset, bytesToCopy);
+		long bytesToCopy = (long) arraySize << 3;
+		positionCheck(bytesToCopy);
+
+		double[] values = new double[arraySize];
+		UNSAFE.copyMemory(base, address + pos, values, doubleArrayOffset, bytesToCopy);
 		pos += bytesToCopy;
 
 		return values;
 	}
 
+	/**
+	 * Check if this memory is backed by a heap <code>byte[]</code> array that
+	 * can be obtained using {@link #getBuffer()}.
+	 *
+	 * @return <code>true</code> if the memory is backed by an array,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean hasBuffer() {
+		return this.buffer != null;
+	}
+
 	/**
 	 * Return the underlying byte buffer.
 	 *
 	 * @return the underlying byte[] array used as buffer.
 	 *
+	 * @throws UnsupportedOperationException
+	 *             if the memory is not backed by a heap array
+	 *
 	 */
 	public byte[] getBuffer() {
+		if(this.buffer == null) {
+			throw new UnsupportedOperationException("Memory is not backed by a byte array");
+		}
+
 		return buffer;
 	}
 
+	/**
+	 * Return a {@link ByteBuffer} view of all bytes written so far, that is,
+	 * from the start of the memory till the current position. No bytes are
+	 * copied, and the view is only valid as long as this memory is.
+	 *
+	 * @return the view of bytes till the current position
+	 */
+	public ByteBuffer asByteBuffer() {
+		return ByteBuffer.wrap(this.getBuffer(), 0, this.pos);
+	}
+
+	/**
+	 * Return a copy of all bytes written so far, that is, from the start of
+	 * the memory till the current position.
+	 *
+	 * @return the bytes till the current position
+	 */
+	public byte[] toByteArray() {
+		byte[] bytes = new byte[this.pos];
+		this.copyTo(0, bytes, 0, this.pos);
+		return bytes;
+	}
+
 }
@@ -25,6 +25,15 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
 
 import com.sangupta.jerry.util.IOUtils;
 
@@ -37,29 +46,56 @@ import com.sangupta.jerry.util.IOUtils;
  */
 public class UnsafeMemoryUtils {
 
+	/**
+	 * Magic number at the start of every snapshot file - <code>JERS</code>
+	 */
+	public static final int SNAPSHOT_MAGIC = 0x4A455253;
+
+	/**
+	 * Version of the snapshot file format
+	 */
+	public static final int SNAPSHOT_VERSION = 1;
+
+	/**
+	 * Size of the snapshot header: magic, version, data length and checksum
+	 */
+	public static final int SNAPSHOT_HEADER_SIZE = 4 + 4 + 8 + 8;
+
+	/**
+	 * Write all bytes written to the given {@link UnsafeMemory} so far, that
+	 * is, till its current position, to the given file.
+	 *
+	 * @param memory
+	 *            the memory to write
+	 *
+	 * @param file
+	 *            the file to write to
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 */
 	public static void writeToFile(UnsafeMemory memory, File file) throws IOException {
 		FileOutputStream stream = null;
 		BufferedOutputStream boss = null;
 		try {
-			final byte[] bytes = memory.getBuffer();
 			final int length = memory.getPosition();
 
 			stream = new FileOutputStream(file);
 			boss = new BufferedOutputStream(stream);
 
-			int CHUNK_SIZE = 1 << 20;
-			int chunks = length / CHUNK_SIZE;
-			int extra = length % CHUNK_SIZE;
-			if(extra > 0) {
-				chunks++;
-			}
+			final int CHUNK_SIZE = 1 << 20;
 
-			for(int ki = 0; ki < chunks; ki++) {
-				int delta = CHUNK_SIZE;
-				if((ki + 1) == chunks) {
-					delta = extra;
+			// memory not backed by an array is copied out one chunk at a time
+			final byte[] bytes = memory.hasBuffer() ? memory.getBuffer() : new byte[Math.min(CHUNK_SIZE, length)];
+			for(int offset = 0; offset < length; offset += CHUNK_SIZE) {
+				int delta = Math.min(CHUNK_SIZE, length - offset);
+				if(memory.hasBuffer()) {
+					boss.write(bytes, offset, delta);
+					continue;
 				}
-				boss.write(bytes, ki * CHUNK_SIZE, delta);
+
+				memory.copyTo(offset, bytes, 0, delta);
+				boss.write(bytes, 0, delta);
 			}
 		} catch(IOException e) {
 			throw new IOException("Unable to write bytes to disk", e);
@@ -67,4 +103,206 @@ public class UnsafeMemoryUtils {
 			IOUtils.closeQuietly(boss, stream);
 		}
 	}
+
+	/**
+	 * Serialize the given {@link UnsafePersistable} into off-heap memory and
+	 * write it as a snapshot to the given file. See
+	 * {@link #writeSnapshot(UnsafeMemory, File)} for details.
+	 *
+	 * @param persistable
+	 *            the object to write
+	 *
+	 * @param file
+	 *            the file to write to
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 *
+	 * @throws java.nio.file.AtomicMoveNotSupportedException
+	 *             if the file system cannot rename the file atomically
+	 */
+	public static void writeSnapshot(UnsafePersistable persistable, File file) throws IOException {
+		if(persistable == null) {
+			throw new IllegalArgumentException("Persistable cannot be null");
+		}
+
+		try(DirectUnsafeMemory memory = new DirectUnsafeMemory()) {
+			persistable.writeUnsafe(memory);
+			writeSnapshot(memory, file);
+		}
+	}
+
+	/**
+	 * Write all bytes written to the given {@link UnsafeMemory} so far as a
+	 * snapshot to the given file. The snapshot starts with a header that
+	 * contains the length and a CRC32C checksum of the data.
+	 *
+	 * The bytes are written to a temporary file in the same folder using a
+	 * {@link FileChannel}, forced to disk and then renamed over the given
+	 * file atomically, after which the folder is forced to disk too. Readers
+	 * thus either see the previous snapshot or the complete new one, never a
+	 * partially written file.
+	 *
+	 * @param memory
+	 *            the memory to write
+	 *
+	 * @param file
+	 *            the file to write to
+	 *
+	 * @throws IOException
+	 *             if something fails writing to disk
+	 *
+	 * @throws java.nio.file.AtomicMoveNotSupportedException
+	 *             if the file system cannot rename the file atomically
+	 */
+	public static void writeSnapshot(UnsafeMemory memory, File file) throws IOException {
+		if(memory == null) {
+			throw new IllegalArgumentException("Memory cannot be null");
+		}
+
+		if(file == null) {
+			throw new IllegalArgumentException("File cannot be null");
+		}
+
+		final ByteBuffer data = memory.asByteBuffer();
+
+		CRC32C checksum = new CRC32C();
+		checksum.update(data.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE);
+		header.putInt(SNAPSHOT_MAGIC);
+		header.putInt(SNAPSHOT_VERSION);
+		header.putLong(data.remaining());
+		header.putLong(checksum.getValue());
+		header.flip();
+
+		final Path target = file.getAbsoluteFile().toPath();
+		final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		try {
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				while(header.hasRemaining()) {
+					channel.write(header);
+				}
+
+				while(data.hasRemaining()) {
+					channel.write(data);
+				}
+
+				channel.force(true);
+			}
+
+			// a non-atomic move could leave a partially written file
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		syncDirectory(target.getParent());
+	}
+
+	/**
+	 * Force the entry of a renamed file in the given folder to disk, so that
+	 * the rename survives a crash. Platforms that cannot open or sync a
+	 * folder, such as Windows, are tolerated.
+	 *
+	 * @param folder
+	 *            the folder to sync
+	 */
+	private static void syncDirectory(Path folder) {
+		try(FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch(IOException | UnsupportedOperationException e) {
+			// the platform does not support syncing a folder
+		}
+	}
+
+	/**
+	 * Read a snapshot written using {@link #writeSnapshot(UnsafeMemory, File)}
+	 * into the given {@link UnsafePersistable}. The checksum of the snapshot
+	 * is verified before reading.
+	 *
+	 * @param persistable
+	 *            the object to read into
+	 *
+	 * @param file
+	 *            the snapshot file
+	 *
+	 * @throws IOException
+	 *             if the file cannot be read, or is not a valid snapshot
+	 */
+	public static void readSnapshot(UnsafePersistable persistable, File file) throws IOException {
+		if(persistable == null) {
+			throw new IllegalArgumentException("Persistable cannot be null");
+		}
+
+		try(MappedUnsafeMemory memory = readSnapshot(file, true)) {
+			persistable.readUnsafe(memory);
+		}
+	}
+
+	/**
+	 * Memory-map a snapshot written using
+	 * {@link #writeSnapshot(UnsafeMemory, File)}. No bytes are copied - the
+	 * data is paged in lazily as it is read from the returned memory, which
+	 * must be closed to release the mapping.
+	 *
+	 * Verifying the checksum reads the entire snapshot once, and thus pages
+	 * it all in.
+	 *
+	 * @param file
+	 *            the snapshot file
+	 *
+	 * @param verifyChecksum
+	 *            whether to verify the checksum of the data
+	 *
+	 * @return the read-only memory over the snapshot data
+	 *
+	 * @throws IOException
+	 *             if the file cannot be read, or is not a valid snapshot
+	 */
+	public static MappedUnsafeMemory readSnapshot(File file, boolean verifyChecksum) throws IOException {
+		if(file == null) {
+			throw new IllegalArgumentException("File cannot be null");
+		}
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE);
+			while(header.hasRemaining()) {
+				if(channel.read(header) < 0) {
+					throw new IOException("Snapshot file is truncated: " + file.getAbsolutePath());
+				}
+			}
+
+			header.flip();
+			if(header.getInt() != SNAPSHOT_MAGIC) {
+				throw new IOException("Not a snapshot file: " + file.getAbsolutePath());
+			}
+
+			int version = header.getInt();
+			if(version != SNAPSHOT_VERSION) {
+				throw new IOException("Unsupported snapshot version " + version + " in file: " + file.getAbsolutePath());
+			}
+
+			long length = header.getLong();
+			long expected = header.getLong();
+			if(length < 0 || length > DirectUnsafeMemory.MAX_CAPACITY || channel.size() != SNAPSHOT_HEADER_SIZE + length) {
+				throw new IOException("Snapshot file is truncated or corrupt: " + file.getAbsolutePath());
+			}
+
+			// the mapping stays valid after the channel is closed
+			MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, SNAPSHOT_HEADER_SIZE, length);
+			MappedUnsafeMemory memory = new MappedUnsafeMemory(mapped);
+			if(verifyChecksum) {
+				CRC32C checksum = new CRC32C();
+				checksum.update(mapped.duplicate());
+				if(checksum.getValue() != expected) {
+					memory.close();
+					throw new IOException("Snapshot checksum mismatch in file: " + file.getAbsolutePath());
+				}
+			}
+
+			return memory;
+		}
+	}
+
 }
@@ -23,7 +23,9 @@ package com.sangupta.jerry.unsafe;
 
 /**
  * Contract for an object that wishes to be serialized/deserialized using
- * {@link UnsafeMemory}.
+ * {@link UnsafeMemory}. Text fields should be written using
+ * {@link UnsafeMemory#putStringUTF8(String)} so that any character round-trips
+ * correctly.
  *
  * @author sangupta
  *
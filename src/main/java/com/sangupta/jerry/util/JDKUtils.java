@@ -22,6 +22,9 @@
 
 package com.sangupta.jerry.util;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
 import com.sangupta.jerry.constants.SystemPropertyNames;
 
 /**
@@ -110,4 +113,44 @@ public abstract class JDKUtils {
 		return false;
 	}
 
+	/**
+	 * Check if the running JVM supports virtual threads.
+	 *
+	 * @return <code>true</code> if virtual threads can be created,
+	 *         <code>false</code> otherwise
+	 */
+	public static boolean isVirtualThreadSupported() {
+		return newVirtualThreadFactory("probe-") != null;
+	}
+
+	/**
+	 * Create a {@link ThreadFactory} that creates virtual threads, named with
+	 * the given prefix followed by a counter. Virtual threads are looked up
+	 * reflectively so that the library still runs on JDKs before 21.
+	 *
+	 * @param prefix
+	 *            the prefix for the name of created threads
+	 *
+	 * @return the factory, or <code>null</code> if the running JVM does not
+	 *         support virtual threads
+	 */
+	public static ThreadFactory newVirtualThreadFactory(String prefix) {
+		if(prefix == null) {
+			throw new IllegalArgumentException("Prefix cannot be null");
+		}
+
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Method name = builderClass.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, prefix, 0l);
+
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch(ReflectiveOperationException | RuntimeException e) {
+			// not supported, or needs preview features enabled
+			return null;
+		}
+	}
+
 }
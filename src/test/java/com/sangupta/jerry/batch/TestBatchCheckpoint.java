@@ -0,0 +1,155 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+
+package com.sangupta.jerry.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sangupta.jerry.bitarray.LargeMMapFileBackedBitArray;
+import com.sangupta.jerry.bitarray.MMapFileBackedBitArray;
+
+/**
+ * Unit tests for {@link WatermarkCheckpoint} and {@link BitArrayCheckpoint}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestBatchCheckpoint {
+
+	@Test
+	public void testWatermark() throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+		file.delete();
+
+		try {
+			WatermarkCheckpoint<Long> checkpoint = new WatermarkCheckpoint<>(file, -1, Long::longValue, 0);
+			Assert.assertEquals(-1, checkpoint.getWatermark());
+			Assert.assertFalse(checkpoint.isCompleted(0L));
+
+			// out of order completions wait for the gap to fill
+			checkpoint.markCompleted(1L);
+			checkpoint.markCompleted(2L);
+			Assert.assertEquals(-1, checkpoint.getWatermark());
+			Assert.assertTrue(checkpoint.isCompleted(2L));
+			Assert.assertFalse(checkpoint.isCompleted(0L));
+
+			checkpoint.markCompleted(0L);
+			Assert.assertEquals(2, checkpoint.getWatermark());
+
+			checkpoint.markCompleted(4L);
+			checkpoint.close();
+			Assert.assertTrue(file.exists());
+
+			// resume
+			checkpoint = new WatermarkCheckpoint<>(file, -1, Long::longValue, 0);
+			Assert.assertEquals(2, checkpoint.getWatermark());
+			Assert.assertTrue(checkpoint.isCompleted(1L));
+			Assert.assertFalse(checkpoint.isCompleted(4L));
+			checkpoint.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testGroupCommit() throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+		file.delete();
+
+		try {
+			WatermarkCheckpoint<Long> checkpoint = new WatermarkCheckpoint<>(file, 99, Long::longValue, 60000);
+			for(long offset = 100; offset < 1000; offset++) {
+				checkpoint.markCompleted(offset);
+			}
+
+			// nothing written within the interval
+			Assert.assertFalse(file.exists());
+
+			checkpoint.sync();
+			Assert.assertTrue(file.exists());
+			Assert.assertEquals(999, new WatermarkCheckpoint<Long>(file, -1, Long::longValue, 0).getWatermark());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBitArray() throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+
+		try {
+			BitArrayCheckpoint<Integer> checkpoint = new BitArrayCheckpoint<>(new MMapFileBackedBitArray(file, 1000), Integer::intValue, 0);
+			checkpoint.markCompleted(7);
+			checkpoint.markCompleted(500);
+			Assert.assertTrue(checkpoint.isCompleted(7));
+			Assert.assertFalse(checkpoint.isCompleted(8));
+			checkpoint.close();
+
+			// resume
+			checkpoint = new BitArrayCheckpoint<>(new MMapFileBackedBitArray(file, 1000), Integer::intValue, 0);
+			Assert.assertTrue(checkpoint.isCompleted(7));
+			Assert.assertTrue(checkpoint.isCompleted(500));
+			Assert.assertFalse(checkpoint.isCompleted(501));
+			checkpoint.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBitArraySync() throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+		final AtomicInteger syncs = new AtomicInteger();
+
+		try {
+			LargeMMapFileBackedBitArray bitArray = new LargeMMapFileBackedBitArray(file, 1000) {
+
+				@Override
+				public void sync() {
+					syncs.incrementAndGet();
+					super.sync();
+				}
+
+			};
+
+			// any durable bit array is forced to disk on sync
+			BitArrayCheckpoint<Integer> checkpoint = new BitArrayCheckpoint<>(bitArray, Integer::intValue, 0);
+			checkpoint.markCompleted(42);
+			checkpoint.sync();
+			Assert.assertTrue(syncs.get() > 0);
+			checkpoint.close();
+
+			checkpoint = new BitArrayCheckpoint<>(new LargeMMapFileBackedBitArray(file, 1000), Integer::intValue, 0);
+			Assert.assertTrue(checkpoint.isCompleted(42));
+			checkpoint.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+}
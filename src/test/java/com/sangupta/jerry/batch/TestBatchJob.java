@@ -0,0 +1,1066 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.sangupta.jerry.util.JDKUtils;
+
+/**
+ * Unit tests for {@link BatchJob}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestBatchJob {
+
+	@Test
+	public void testPlatformThreads() {
+		QueueJob job = new QueueJob("test-platform", 1000);
+		Assert.assertTrue(job.startJobAsync(4));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+	}
+
+	@Test
+	public void testVirtualThreads() {
+		Assume.assumeTrue("Virtual threads are not supported by this JVM", JDKUtils.isVirtualThreadSupported());
+
+		final AtomicInteger platformExecutions = new AtomicInteger();
+		QueueJob job = new QueueJob("test-virtual", 1000) {
+
+			@Override
+			public void executeJobItem(Integer job) {
+				if(!isVirtual(Thread.currentThread())) {
+					platformExecutions.incrementAndGet();
+				}
+
+				super.executeJobItem(job);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(200, true));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertEquals(0, platformExecutions.get());
+	}
+
+	/**
+	 * Check whether the given thread is virtual, reflectively as the tests
+	 * compile against JDKs without virtual threads.
+	 */
+	private static boolean isVirtual(Thread thread) {
+		try {
+			return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+		} catch(ReflectiveOperationException e) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testBatches() {
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+		QueueJob job = new QueueJob("test-batches", 1000) {
+
+			@Override
+			protected int getBatchSize() {
+				return 16;
+			}
+
+			@Override
+			public boolean jobAlreadyProcessed(Integer job) {
+				return job % 10 == 0;
+			}
+
+			@Override
+			public void executeJobItems(List<Integer> jobs) {
+				batchSizes.add(jobs.size());
+				super.executeJobItems(jobs);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(4));
+		job.waitForCompletion();
+		job.shutdown();
+
+		Assert.assertEquals(900, job.processed.size());
+		Assert.assertEquals(900, job.executions.get());
+		for(Integer size : batchSizes) {
+			Assert.assertTrue(size <= 16);
+		}
+
+		// most batches were full
+		Assert.assertTrue(batchSizes.size() < 1000 / 8);
+	}
+
+	@Test
+	public void testBatchLinger() {
+		QueueJob job = new QueueJob("test-linger", 3) {
+
+			@Override
+			protected long getBatchLingerMillis() {
+				return 50;
+			}
+
+		};
+
+		long start = System.currentTimeMillis();
+		List<Integer> items = job.getJobItems(10);
+		Assert.assertEquals(3, items.size());
+		Assert.assertTrue(System.currentTimeMillis() - start >= 50);
+
+		// an empty source does not linger
+		start = System.currentTimeMillis();
+		Assert.assertTrue(job.getJobItems(10).isEmpty());
+		Assert.assertTrue(System.currentTimeMillis() - start < 50);
+
+		job.shutdown();
+	}
+
+	@Test
+	public void testPipeline() throws InterruptedException {
+		final Set<String> readerThreads = ConcurrentHashMap.newKeySet();
+		QueueJob job = new QueueJob("test-pipeline", 5000) {
+
+			@Override
+			protected Integer getJobItem() {
+				readerThreads.add(Thread.currentThread().getName());
+				return super.getJobItem();
+			}
+
+			@Override
+			protected int getNumReaderThreads() {
+				return 2;
+			}
+
+			@Override
+			protected int getQueueCapacity() {
+				return 16;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				try {
+					Thread.sleep(0, 100_000);
+				} catch(InterruptedException e) {
+					// ignore
+				}
+
+				super.executeJobItem(job);
+			}
+
+		};
+
+		Assert.assertEquals(0, job.getQueueDepth());
+		Assert.assertTrue(job.startJobAsync(8));
+
+		int maxDepth = 0;
+		while(job.executions.get() < 2500) {
+			maxDepth = Math.max(maxDepth, job.getQueueDepth());
+			Thread.sleep(1);
+		}
+
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertTrue(maxDepth <= 16);
+		Assert.assertEquals(0, job.getQueueDepth());
+
+		// only the readers read items
+		for(String name : readerThreads) {
+			Assert.assertTrue(name, name.startsWith("Job-Reader-test-pipeline-"));
+		}
+	}
+
+	@Test
+	public void testPipelineWithBatches() {
+		QueueJob job = new QueueJob("test-pipeline-batches", 2000) {
+
+			@Override
+			protected int getNumReaderThreads() {
+				return 1;
+			}
+
+			@Override
+			protected int getBatchSize() {
+				return 32;
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(4, true));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+	}
+
+	@Test
+	public void testResizeWorkers() throws InterruptedException {
+		QueueJob job = new QueueJob("test-resize", 0) {
+
+			@Override
+			public long getWaitTimeOnNullJobInMillis() {
+				return 5;
+			}
+
+			@Override
+			public boolean terminateExecutionOnNullJobItem() {
+				return false;
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(2));
+		Assert.assertEquals(2, job.getNumWorkers());
+
+		job.resizeWorkers(5);
+		Assert.assertEquals(5, job.getNumWorkers());
+
+		job.resizeWorkers(1);
+		for(int wait = 0; wait < 100 && job.getNumWorkers() > 1; wait++) {
+			Thread.sleep(10);
+		}
+
+		Assert.assertEquals(1, job.getNumWorkers());
+
+		job.shutdown();
+		Assert.assertEquals(0, job.getNumWorkers());
+	}
+
+	@Test
+	public void testAdaptiveControllerPolicy() {
+		QueueJob job = new QueueJob("test-adaptive-policy", 0);
+		AdaptiveWorkerController controller = new AdaptiveWorkerController(job, 2, 10, 100, 0.1d);
+
+		// no activity - hold
+		Assert.assertEquals(4, controller.nextSize(4, 0, 0, 0));
+
+		// healthy - additive increase
+		Assert.assertEquals(5, controller.nextSize(4, 100, 0, 100 * 1_000_000l));
+
+		// increase did not improve throughput - hold
+		Assert.assertEquals(5, controller.nextSize(5, 100, 0, 100 * 1_000_000l));
+
+		// probe again
+		Assert.assertEquals(6, controller.nextSize(5, 100, 0, 100 * 1_000_000l));
+
+		// throughput improved - keep increasing
+		Assert.assertEquals(7, controller.nextSize(6, 200, 0, 200 * 1_000_000l));
+
+		// errors - multiplicative decrease
+		Assert.assertEquals(6, controller.nextSize(8, 80, 20, 100 * 1_000_000l));
+
+		// high latency - multiplicative decrease, bounded by minimum
+		Assert.assertEquals(2, controller.nextSize(2, 100, 0, 100 * 200_000_000l));
+
+		// bounded by maximum
+		Assert.assertEquals(10, controller.nextSize(10, 1000, 0, 1000));
+
+		job.shutdown();
+	}
+
+	@Test
+	public void testAdaptiveJob() {
+		final AtomicInteger maxWorkers = new AtomicInteger();
+		QueueJob job = new QueueJob("test-adaptive", 3000) {
+
+			@Override
+			protected long getAdaptiveIntervalMillis() {
+				return 20;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				maxWorkers.accumulateAndGet(this.getNumWorkers(), Math::max);
+
+				try {
+					Thread.sleep(1);
+				} catch(InterruptedException e) {
+					// ignore
+				}
+
+				super.executeJobItem(job);
+			}
+
+		};
+
+		Assert.assertTrue(job.startAdaptiveJobAsync(1, 8, false));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertTrue(maxWorkers.get() > 1);
+		Assert.assertTrue(maxWorkers.get() <= 8);
+	}
+
+	@Test
+	public void testMetrics() {
+		QueueJob job = new QueueJob("test-metrics", 100) {
+
+			@Override
+			public boolean jobAlreadyProcessed(Integer job) {
+				return job % 10 == 0;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				if(job == 5) {
+					throw new IllegalStateException("Failing job: 5");
+				}
+
+				super.executeJobItem(job);
+			}
+
+		};
+
+		Assert.assertSame(job, BatchCentral.getJob("test-metrics"));
+		Assert.assertTrue(BatchCentral.getJobs().contains(job));
+
+		Assert.assertTrue(job.startJobAsync(3));
+		job.waitForCompletion();
+
+		BatchMetrics metrics = job.getMetrics();
+		Assert.assertEquals(89, metrics.getExecutedItems());
+		Assert.assertEquals(1, metrics.getFailedItems());
+		Assert.assertEquals(10, metrics.getAlreadyProcessedItems());
+		Assert.assertEquals(3, metrics.getNullReads());
+		Assert.assertEquals(0, metrics.getReadErrors());
+		Assert.assertEquals(90, metrics.getExecutionLatency().getTotalCount());
+		Assert.assertTrue(metrics.getItemsPerSecond() > 0);
+
+		long executed = 0;
+		for(BatchWorker<Integer> worker : job.getWorkers()) {
+			executed += worker.getMetrics().getExecutedItems();
+			Assert.assertFalse(worker.isWorkerPaused());
+			Assert.assertTrue(worker.getLastActivityTime() > 0);
+		}
+
+		Assert.assertEquals(89, executed);
+
+		job.shutdown();
+		Assert.assertNull(BatchCentral.getJob("test-metrics"));
+	}
+
+	@Test
+	public void testPausedMetrics() throws InterruptedException {
+		final AtomicInteger pauses = new AtomicInteger(3);
+		QueueJob job = new QueueJob("test-paused", 10) {
+
+			@Override
+			public boolean pauseExecution() {
+				return pauses.getAndDecrement() > 0;
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(1));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertTrue(job.getMetrics().getPausedTime(TimeUnit.MILLISECONDS) >= 30);
+		Assert.assertEquals(0, job.getNumPausedWorkers());
+	}
+
+	@Test
+	public void testRateLimit() {
+		QueueJob job = new QueueJob("test-rate-limit", 60) {
+
+			@Override
+			protected double getMaxItemsPerSecond() {
+				return 100;
+			}
+
+			@Override
+			protected int getMaxBurstItems() {
+				return 10;
+			}
+
+		};
+
+		Assert.assertNull(job.getRateLimiter());
+
+		final long start = System.nanoTime();
+		Assert.assertTrue(job.startJobAsync(4));
+		job.waitForCompletion();
+		final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		job.shutdown();
+
+		job.assertAllProcessed();
+
+		// the first 10 items are a burst, the remaining 50 take half a second
+		Assert.assertTrue("Finished too fast: " + elapsed, elapsed >= 450);
+		Assert.assertEquals(100, job.getRateLimiter().getRate(), 0.001d);
+		Assert.assertTrue(job.getMetrics().getThrottledTime(TimeUnit.MILLISECONDS) > 0);
+		Assert.assertEquals(-1, job.getNumInFlightItems());
+	}
+
+	@Test
+	public void testMaxInFlight() {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		QueueJob job = new QueueJob("test-in-flight", 100) {
+
+			@Override
+			protected int getMaxInFlightItems() {
+				return 2;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				int current = running.incrementAndGet();
+				maxRunning.accumulateAndGet(current, Math::max);
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				running.decrementAndGet();
+				super.executeJobItem(job);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(8));
+		job.waitForCompletion();
+
+		Assert.assertNull(job.getRateLimiter());
+		Assert.assertEquals(0, job.getNumInFlightItems());
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertTrue(maxRunning.get() <= 2);
+	}
+
+	@Test
+	public void testRetries() {
+		final ConcurrentHashMap<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Integer, Integer> deadLetters = new ConcurrentHashMap<>();
+		QueueJob job = new QueueJob("test-retries", 50) {
+
+			@Override
+			public int getMaxRetries() {
+				return 3;
+			}
+
+			@Override
+			public long getRetryDelayInMillis() {
+				return 5;
+			}
+
+			@Override
+			public long getMaxRetryDelayInMillis() {
+				return 20;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				int attempt = attempts.computeIfAbsent(job, key -> new AtomicInteger()).incrementAndGet();
+
+				// every tenth job always fails, every fifth fails twice
+				if(job % 10 == 0 || (job % 5 == 0 && attempt <= 2)) {
+					throw new IllegalStateException("Failing job: " + job);
+				}
+
+				super.executeJobItem(job);
+			}
+
+			@Override
+			public void onJobItemFailed(Integer job, int attempts, Throwable error) {
+				deadLetters.put(job, attempts);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(4));
+		job.waitForCompletion();
+		job.shutdown();
+
+		Assert.assertEquals(45, job.processed.size());
+		Assert.assertEquals(5, deadLetters.size());
+		for(Integer item : deadLetters.keySet()) {
+			Assert.assertEquals(0, item % 10);
+			Assert.assertEquals(Integer.valueOf(4), deadLetters.get(item));
+			Assert.assertEquals(4, attempts.get(item).get());
+		}
+
+		Assert.assertEquals(3, attempts.get(5).get());
+		Assert.assertEquals(1, attempts.get(1).get());
+
+		// 5 jobs retried twice, 5 jobs retried thrice
+		BatchMetrics metrics = job.getMetrics();
+		Assert.assertEquals(25, metrics.getRetriedItems());
+		Assert.assertEquals(5, metrics.getDeadLetteredItems());
+		Assert.assertEquals(30, metrics.getFailedItems());
+		Assert.assertEquals(0, job.getNumPendingRetries());
+	}
+
+	@Test
+	public void testRetriesOnRetiredWorker() throws InterruptedException {
+		final CountDownLatch entered = new CountDownLatch(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ConcurrentHashMap<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Integer, Integer> deadLetters = new ConcurrentHashMap<>();
+		QueueJob job = new QueueJob("test-retired-retries", 2) {
+
+			@Override
+			public int getMaxRetries() {
+				return 3;
+			}
+
+			@Override
+			public long getRetryDelayInMillis() {
+				return 5;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				if(attempts.computeIfAbsent(job, key -> new AtomicInteger()).incrementAndGet() == 1) {
+					// hold both items, one in each worker, then fail them
+					entered.countDown();
+					while(true) {
+						try {
+							release.await();
+							break;
+						} catch(InterruptedException e) {
+							// keep waiting
+						}
+					}
+
+					throw new IllegalStateException("Failing job: " + job);
+				}
+
+				super.executeJobItem(job);
+			}
+
+			@Override
+			public void onJobItemFailed(Integer job, int attempts, Throwable error) {
+				deadLetters.put(job, attempts);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(2));
+		Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+		// retire one of the workers while it holds a failing item
+		job.resizeWorkers(1);
+		release.countDown();
+
+		job.waitForCompletion();
+		job.shutdown();
+
+		// the retired worker's failure was retried, not handed over
+		Assert.assertTrue(deadLetters.isEmpty());
+		Assert.assertEquals(2, job.processed.size());
+		Assert.assertEquals(2, job.getMetrics().getRetriedItems());
+	}
+
+	@Test
+	public void testBatchRetries() {
+		final AtomicInteger failures = new AtomicInteger(2);
+		QueueJob job = new QueueJob("test-batch-retries", 100) {
+
+			@Override
+			protected int getBatchSize() {
+				return 10;
+			}
+
+			@Override
+			public int getMaxRetries() {
+				return 2;
+			}
+
+			@Override
+			public long getRetryDelayInMillis() {
+				return 5;
+			}
+
+			@Override
+			public void executeJobItems(List<Integer> jobs) {
+				if(jobs.contains(42) && failures.getAndDecrement() > 0) {
+					throw new IllegalStateException("Failing batch");
+				}
+
+				super.executeJobItems(jobs);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(2));
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertEquals(20, job.getMetrics().getRetriedItems());
+		Assert.assertEquals(0, job.getMetrics().getDeadLetteredItems());
+	}
+
+	@Test
+	public void testCheckpoint() throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+		file.delete();
+
+		try {
+			final WatermarkCheckpoint<Integer> checkpoint = new WatermarkCheckpoint<>(file, -1, Integer::longValue, 1000);
+
+			// first run processes 300 items
+			QueueJob job = new QueueJob("test-checkpoint", 300) {
+
+				@Override
+				protected BatchCheckpoint<Integer> getCheckpoint() {
+					return checkpoint;
+				}
+
+			};
+
+			Assert.assertTrue(job.startJobAsync(4));
+			job.waitForCompletion();
+			job.shutdown();
+			job.assertAllProcessed();
+
+			// second run reads all 500 items again, and only processes new ones
+			final WatermarkCheckpoint<Integer> resumed = new WatermarkCheckpoint<>(file, -1, Integer::longValue, 1000);
+			Assert.assertEquals(299, resumed.getWatermark());
+
+			job = new QueueJob("test-checkpoint", 500) {
+
+				@Override
+				protected BatchCheckpoint<Integer> getCheckpoint() {
+					return resumed;
+				}
+
+			};
+
+			Assert.assertTrue(job.startJobAsync(4));
+			job.waitForCompletion();
+			job.shutdown();
+
+			Assert.assertEquals(200, job.executions.get());
+			Assert.assertEquals(300, job.getMetrics().getAlreadyProcessedItems());
+			Assert.assertEquals(499, new WatermarkCheckpoint<Integer>(file, -1, Integer::longValue, 0).getWatermark());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testCheckpointSkipsAlreadyProcessed() throws IOException {
+		// single items, and batches
+		assertCheckpointSkipsAlreadyProcessed(1);
+		assertCheckpointSkipsAlreadyProcessed(16);
+	}
+
+	private static void assertCheckpointSkipsAlreadyProcessed(final int batchSize) throws IOException {
+		File file = File.createTempFile("test-checkpoint-", ".bin");
+		file.delete();
+
+		try {
+			final WatermarkCheckpoint<Integer> checkpoint = new WatermarkCheckpoint<>(file, -1, Integer::longValue, 1000);
+
+			// every tenth item is skipped by the executor
+			QueueJob job = new QueueJob("test-checkpoint-skip", 500) {
+
+				@Override
+				protected BatchCheckpoint<Integer> getCheckpoint() {
+					return checkpoint;
+				}
+
+				@Override
+				protected int getBatchSize() {
+					return batchSize;
+				}
+
+				@Override
+				public boolean jobAlreadyProcessed(Integer job) {
+					return job % 10 == 0;
+				}
+
+			};
+
+			Assert.assertTrue(job.startJobAsync(4));
+			job.waitForCompletion();
+			job.shutdown();
+
+			Assert.assertEquals(450, job.executions.get());
+			Assert.assertEquals(50, job.getMetrics().getAlreadyProcessedItems());
+			Assert.assertEquals(499, checkpoint.getWatermark());
+			Assert.assertEquals(499, new WatermarkCheckpoint<Integer>(file, -1, Integer::longValue, 0).getWatermark());
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testPartitioned() {
+		final ConcurrentHashMap<Integer, List<Integer>> itemsByKey = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Integer, Set<String>> threadsByKey = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Integer, AtomicInteger> runningByKey = new ConcurrentHashMap<>();
+		final AtomicInteger overlaps = new AtomicInteger();
+		QueueJob job = new QueueJob("test-partitioned", 1000) {
+
+			@Override
+			protected boolean isPartitioned() {
+				return true;
+			}
+
+			@Override
+			protected Object getPartitionKey(Integer job) {
+				return job % 10;
+			}
+
+			@Override
+			public void executeJobItem(Integer job) {
+				final int key = job % 10;
+				AtomicInteger running = runningByKey.computeIfAbsent(key, k -> new AtomicInteger());
+				if(running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+
+				itemsByKey.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(job);
+				threadsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+				super.executeJobItem(job);
+
+				running.decrementAndGet();
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(4));
+		try {
+			job.resizeWorkers(8);
+			Assert.fail("Partitioned job should not be resizable");
+		} catch(IllegalStateException e) {
+			// expected
+		}
+
+		job.waitForCompletion();
+		job.shutdown();
+
+		job.assertAllProcessed();
+		Assert.assertEquals(0, overlaps.get());
+		Assert.assertEquals(10, itemsByKey.size());
+
+		Set<String> threads = new HashSet<>();
+		for(int key = 0; key < 10; key++) {
+			// one worker per key, in the order read
+			Assert.assertEquals(1, threadsByKey.get(key).size());
+			threads.addAll(threadsByKey.get(key));
+
+			List<Integer> items = itemsByKey.get(key);
+			Assert.assertEquals(100, items.size());
+			for(int index = 1; index < items.size(); index++) {
+				Assert.assertTrue(items.get(index - 1) < items.get(index));
+			}
+		}
+
+		// keys are spread over more than one worker
+		Assert.assertTrue(threads.size() > 1);
+	}
+
+	@Test
+	public void testPipelineLanes() {
+		QueueJob job = new QueueJob("test-lanes", 0);
+		BatchPipeline<Integer> pipeline = new BatchPipeline<>(100, 4, item -> item % 10, job, new BatchMetrics());
+		Assert.assertEquals(4, pipeline.getNumLanes());
+		for(int item = 0; item < 100; item++) {
+			int lane = pipeline.laneOf(item);
+			Assert.assertTrue(lane >= 0 && lane < 4);
+			Assert.assertEquals(lane, pipeline.laneOf(item + 10));
+		}
+
+		job.shutdown();
+	}
+
+	@Test
+	public void testPartitionedAsyncExecutor() throws InterruptedException {
+		final ScheduledExecutorService io = Executors.newScheduledThreadPool(4);
+		final ConcurrentHashMap<Integer, List<Integer>> itemsByKey = new ConcurrentHashMap<>();
+		final ConcurrentHashMap<Integer, AtomicInteger> runningByKey = new ConcurrentHashMap<>();
+		final AtomicInteger overlaps = new AtomicInteger();
+		AsyncQueueJob job = new AsyncQueueJob("test-partitioned-async", 200) {
+
+			@Override
+			protected boolean isPartitioned() {
+				return true;
+			}
+
+			@Override
+			protected Object getPartitionKey(Integer job) {
+				return job % 4;
+			}
+
+			@Override
+			public CompletableFuture<Void> executeJobItemAsync(Integer job) {
+				final int key = job % 4;
+				final AtomicInteger running = runningByKey.computeIfAbsent(key, k -> new AtomicInteger());
+				if(running.incrementAndGet() > 1) {
+					overlaps.incrementAndGet();
+				}
+
+				// later items complete sooner, unless they wait for earlier ones
+				final CompletableFuture<Void> future = new CompletableFuture<>();
+				io.schedule(() -> {
+					itemsByKey.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(job);
+					this.executeJobItem(job);
+					running.decrementAndGet();
+					future.complete(null);
+				}, job % 8 < 4 ? 3 : 0, TimeUnit.MILLISECONDS);
+
+				return future;
+			}
+
+		};
+
+		try {
+			Assert.assertTrue(job.startJobAsync(2));
+			job.waitForCompletion();
+			job.shutdown();
+		} finally {
+			io.shutdownNow();
+		}
+
+		job.assertAllProcessed();
+		Assert.assertEquals(0, overlaps.get());
+		for(int key = 0; key < 4; key++) {
+			List<Integer> items = itemsByKey.get(key);
+			Assert.assertEquals(50, items.size());
+			for(int index = 1; index < items.size(); index++) {
+				Assert.assertTrue(items.get(index - 1) < items.get(index));
+			}
+		}
+	}
+
+	@Test
+	public void testAsyncExecutor() throws InterruptedException {
+		final ScheduledExecutorService io = Executors.newScheduledThreadPool(2);
+		final AtomicInteger inFlight = new AtomicInteger();
+		final AtomicInteger maxInFlight = new AtomicInteger();
+		final Set<Integer> failedOnce = ConcurrentHashMap.newKeySet();
+		AsyncQueueJob job = new AsyncQueueJob("test-async", 500) {
+
+			@Override
+			protected int getMaxInFlightItems() {
+				return 50;
+			}
+
+			@Override
+			public int getMaxRetries() {
+				return 1;
+			}
+
+			@Override
+			public long getRetryDelayInMillis() {
+				return 5;
+			}
+
+			@Override
+			public CompletableFuture<Void> executeJobItemAsync(Integer job) {
+				maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+				final CompletableFuture<Void> future = new CompletableFuture<>();
+				io.schedule(() -> {
+					inFlight.decrementAndGet();
+
+					// every 50th job fails the first time
+					if(job % 50 == 0 && failedOnce.add(job)) {
+						future.completeExceptionally(new IllegalStateException("Failing job: " + job));
+						return;
+					}
+
+					this.executeJobItem(job);
+					future.complete(null);
+				}, 2, TimeUnit.MILLISECONDS);
+
+				return future;
+			}
+
+		};
+
+		try {
+			Assert.assertTrue(job.startJobAsync(2));
+			job.waitForCompletion();
+			Assert.assertEquals(0, job.getNumPendingFutures());
+			Assert.assertEquals(0, job.getNumInFlightItems());
+			job.shutdown();
+
+			job.assertAllProcessed();
+			Assert.assertEquals(10, failedOnce.size());
+			Assert.assertEquals(10, job.getMetrics().getRetriedItems());
+			Assert.assertEquals(500, job.getMetrics().getExecutedItems());
+
+			// two workers kept many more calls in flight, within the cap
+			Assert.assertTrue(maxInFlight.get() > 2);
+			Assert.assertTrue(maxInFlight.get() <= 50);
+		} finally {
+			io.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testAsyncDefaultInFlight() {
+		AsyncQueueJob job = new AsyncQueueJob("test-async-default", 10) {
+
+			@Override
+			public CompletableFuture<Void> executeJobItemAsync(Integer job) {
+				throw new IllegalStateException("Failing job: " + job);
+			}
+
+		};
+
+		Assert.assertTrue(job.startJobAsync(1));
+		job.waitForCompletion();
+		job.shutdown();
+
+		Assert.assertEquals(10, job.getMetrics().getFailedItems());
+		Assert.assertEquals(10, job.getMetrics().getDeadLetteredItems());
+		Assert.assertEquals(0, job.getNumInFlightItems());
+		Assert.assertNull(job.getRateLimiter());
+	}
+
+	/**
+	 * A {@link QueueJob} whose executor is asynchronous. The synchronous
+	 * {@link #executeJobItem(Integer)} records the job item as processed.
+	 */
+	abstract static class AsyncQueueJob extends QueueJob implements AsyncBatchJobItemExecutor<Integer> {
+
+		AsyncQueueJob(String jobName, int numItems) {
+			super(jobName, numItems);
+		}
+
+		@Override
+		public void executeJobItem(Integer job) {
+			super.executeJobItem(job);
+		}
+
+	}
+
+	/**
+	 * A job that processes integers from an in-memory queue, and stops when
+	 * the queue is drained.
+	 */
+	static class QueueJob extends BatchJob<Integer> implements BatchJobItemExecutor<Integer> {
+
+		final int numItems;
+
+		final ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+
+		final Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+		final AtomicInteger executions = new AtomicInteger();
+
+		QueueJob(String jobName, int numItems) {
+			super(jobName);
+
+			this.numItems = numItems;
+			for(int index = 0; index < numItems; index++) {
+				this.queue.add(index);
+			}
+		}
+
+		void assertAllProcessed() {
+			Assert.assertEquals(this.numItems, this.processed.size());
+			Assert.assertEquals(this.numItems, this.executions.get());
+		}
+
+		@Override
+		protected Integer getJobItem() {
+			return this.queue.poll();
+		}
+
+		@Override
+		protected long getShutdownWaitTimeMillis() {
+			return 1000;
+		}
+
+		@Override
+		protected BatchJobItemExecutor<Integer> getJobPieceExecutor() {
+			return this;
+		}
+
+		@Override
+		public void executeJobItem(Integer job) {
+			this.executions.incrementAndGet();
+			this.processed.add(job);
+		}
+
+		@Override
+		public long getWaitTimeOnJobReadErrorInMillis() {
+			return 0;
+		}
+
+		@Override
+		public long getWaitTimeOnNullJobInMillis() {
+			return 0;
+		}
+
+		@Override
+		public boolean pauseExecution() {
+			return false;
+		}
+
+		@Override
+		public long pauseCheckInterval() {
+			return 10;
+		}
+
+		@Override
+		public boolean jobAlreadyProcessed(Integer job) {
+			return false;
+		}
+
+		@Override
+		public boolean terminateExecutionOnNullJobItem() {
+			return true;
+		}
+
+	}
+
+}
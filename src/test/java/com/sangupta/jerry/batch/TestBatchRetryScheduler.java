@@ -0,0 +1,85 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BatchRetryScheduler}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestBatchRetryScheduler {
+
+	@Test
+	public void testBackoff() {
+		for(int index = 0; index < 100; index++) {
+			assertBetween(50, 100, BatchRetryScheduler.backoffMillis(1, 100, 1000));
+			assertBetween(100, 200, BatchRetryScheduler.backoffMillis(2, 100, 1000));
+			assertBetween(400, 800, BatchRetryScheduler.backoffMillis(4, 100, 1000));
+			assertBetween(500, 1000, BatchRetryScheduler.backoffMillis(5, 100, 1000));
+			assertBetween(500, 1000, BatchRetryScheduler.backoffMillis(1000, 100, 1000));
+
+			// maximum below base does not grow
+			assertBetween(50, 100, BatchRetryScheduler.backoffMillis(3, 100, 0));
+			assertBetween(Long.MAX_VALUE / 2, Long.MAX_VALUE, BatchRetryScheduler.backoffMillis(70, 3, Long.MAX_VALUE));
+		}
+
+		Assert.assertEquals(0, BatchRetryScheduler.backoffMillis(3, 0, 1000));
+		Assert.assertEquals(1, BatchRetryScheduler.backoffMillis(1, 1, 1));
+	}
+
+	@Test
+	public void testSchedule() throws InterruptedException {
+		BatchRetryScheduler<String> scheduler = new BatchRetryScheduler<>("test-retry");
+		Assert.assertFalse(scheduler.hasPending());
+		Assert.assertNull(scheduler.poll());
+
+		Assert.assertTrue(scheduler.schedule(Arrays.asList("a", "b"), 2, 20));
+		Assert.assertTrue(scheduler.hasPending());
+		Assert.assertEquals(1, scheduler.getPending());
+		Assert.assertNull(scheduler.poll());
+
+		BatchRetryScheduler.Retry<String> retry = scheduler.poll(1, TimeUnit.SECONDS);
+		Assert.assertNotNull(retry);
+		Assert.assertEquals(Arrays.asList("a", "b"), retry.jobs);
+		Assert.assertEquals(2, retry.attempts);
+		Assert.assertFalse(scheduler.hasPending());
+
+		Assert.assertTrue(scheduler.schedule(Arrays.asList("c"), 1, 10000));
+		Assert.assertEquals(1, scheduler.stop());
+		Assert.assertFalse(scheduler.schedule(Arrays.asList("d"), 1, 0));
+		Assert.assertFalse(scheduler.hasPending());
+	}
+
+	private static void assertBetween(long min, long max, long value) {
+		Assert.assertTrue("Value " + value + " not in [" + min + ", " + max + "]", value >= min && value <= max);
+	}
+
+}
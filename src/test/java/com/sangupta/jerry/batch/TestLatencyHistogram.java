@@ -0,0 +1,85 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestLatencyHistogram {
+
+	@Test
+	public void testBuckets() {
+		Assert.assertEquals(0, LatencyHistogram.bucketOf(-5));
+		Assert.assertEquals(0, LatencyHistogram.bucketOf(0));
+		Assert.assertEquals(1, LatencyHistogram.bucketOf(1));
+		Assert.assertEquals(2, LatencyHistogram.bucketOf(2));
+		Assert.assertEquals(2, LatencyHistogram.bucketOf(3));
+		Assert.assertEquals(11, LatencyHistogram.bucketOf(1024));
+		Assert.assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+
+		for(long nanos = 1; nanos < 100_000; nanos += 7) {
+			Assert.assertTrue(nanos < LatencyHistogram.getUpperBoundNanos(LatencyHistogram.bucketOf(nanos)));
+		}
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Assert.assertEquals(0, histogram.getPercentile(99, TimeUnit.NANOSECONDS));
+
+		// 90 fast calls of ~1 ms, and 10 slow ones of ~100 ms
+		for(int index = 0; index < 90; index++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+
+		for(int index = 0; index < 10; index++) {
+			histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+		}
+
+		Assert.assertEquals(100, histogram.getTotalCount());
+
+		long p50 = histogram.getPercentile(50, TimeUnit.NANOSECONDS);
+		Assert.assertTrue(p50 > TimeUnit.MILLISECONDS.toNanos(1));
+		Assert.assertTrue(p50 <= TimeUnit.MILLISECONDS.toNanos(2));
+
+		Assert.assertEquals(p50, histogram.getPercentile(90, TimeUnit.NANOSECONDS));
+
+		long p99 = histogram.getPercentile(99, TimeUnit.NANOSECONDS);
+		Assert.assertTrue(p99 > TimeUnit.MILLISECONDS.toNanos(100));
+		Assert.assertTrue(p99 <= TimeUnit.MILLISECONDS.toNanos(200));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPercentile() {
+		new LatencyHistogram().getPercentile(101, TimeUnit.NANOSECONDS);
+	}
+
+}
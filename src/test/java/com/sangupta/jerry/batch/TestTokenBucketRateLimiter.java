@@ -0,0 +1,114 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+
+package com.sangupta.jerry.batch;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TokenBucketRateLimiter}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestTokenBucketRateLimiter {
+
+	@Test
+	public void testBurst() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 5);
+		for(int index = 0; index < 5; index++) {
+			Assert.assertTrue(limiter.tryAcquire(1));
+		}
+
+		Assert.assertFalse(limiter.tryAcquire(1));
+	}
+
+	@Test
+	public void testReserve() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 2);
+		Assert.assertEquals(0, limiter.reserve(2));
+
+		// bucket is empty - next permit is 100ms away
+		long wait = limiter.reserve(1);
+		Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(90));
+		Assert.assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(100));
+
+		// the one after waits in line
+		wait = limiter.reserve(1);
+		Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(190));
+		Assert.assertTrue(wait <= TimeUnit.MILLISECONDS.toNanos(200));
+
+		// cannot try while in debt
+		Assert.assertFalse(limiter.tryAcquire(1));
+	}
+
+	@Test
+	public void testAcquire() throws InterruptedException {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1);
+
+		final long start = System.nanoTime();
+		for(int index = 0; index < 21; index++) {
+			limiter.acquire(1);
+		}
+
+		// first one is free, rest take 10ms each
+		Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190));
+	}
+
+	@Test
+	public void testSetRate() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10);
+		Assert.assertEquals(10, limiter.getRate(), 0.001d);
+
+		limiter.setRate(2.5d);
+		Assert.assertEquals(2.5d, limiter.getRate(), 0.001d);
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		try {
+			new TokenBucketRateLimiter(0);
+			Assert.fail("Zero rate should not be allowed");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			new TokenBucketRateLimiter(10, 0);
+			Assert.fail("Zero burst should not be allowed");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			new TokenBucketRateLimiter(10).tryAcquire(0);
+			Assert.fail("Zero permits should not be allowed");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
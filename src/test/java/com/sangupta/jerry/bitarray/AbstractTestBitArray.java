@@ -22,6 +22,7 @@
 
 package com.sangupta.jerry.bitarray;
 
+import java.util.BitSet;
 import java.util.Random;
 
 import org.junit.Assert;
@@ -195,4 +196,288 @@ public abstract class AbstractTestBitArray {
 		ba.close();
 	}
 
+	@Test
+	public void testRangeOperations() throws Exception {
+		BitArray ba = this.getNewBitArray();
+		BitSet expected = new BitSet();
+
+		Random random = new Random();
+		for(int iteration = 0; iteration < 50; iteration++) {
+			int from = random.nextInt(MAX_ELEMENTS);
+			int to = from + random.nextInt(MAX_ELEMENTS - from + 1);
+
+			switch(iteration % 3) {
+				case 0:
+					ba.setRange(from, to);
+					expected.set(from, to);
+					break;
+
+				case 1:
+					ba.clearRange(from, to);
+					expected.clear(from, to);
+					break;
+
+				default:
+					ba.flipRange(from, to);
+					expected.flip(from, to);
+					break;
+			}
+
+			Assert.assertEquals(expected, this.setBitsOf(ba));
+			Assert.assertEquals(expected.get(from, to).cardinality(), ba.cardinality(from, to));
+		}
+
+		// word boundaries and empty ranges
+		ba.clear();
+		ba.setRange(63, 129);
+		Assert.assertEquals(66, ba.cardinality(0, MAX_ELEMENTS));
+		Assert.assertEquals(1, ba.cardinality(63, 64));
+		Assert.assertEquals(0, ba.cardinality(64, 64));
+		Assert.assertFalse(ba.getBit(62));
+		Assert.assertTrue(ba.getBit(63));
+		Assert.assertTrue(ba.getBit(128));
+		Assert.assertFalse(ba.getBit(129));
+
+		ba.setRange(10, 10);
+		Assert.assertEquals(66, ba.cardinality(0, MAX_ELEMENTS));
+
+		try {
+			ba.setRange(10, 5);
+			Assert.assertTrue(false);
+		} catch(IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+
+		try {
+			ba.cardinality(-1, 5);
+			Assert.assertTrue(false);
+		} catch(IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+
+		ba.close();
+	}
+
+	@Test
+	public void testAndNotAndXor() throws Exception {
+		BitArray ba1 = this.getNewBitArray();
+		BitArray ba2 = this.getNewBitArray();
+		BitSet expected1 = new BitSet();
+		BitSet expected2 = new BitSet();
+
+		Random random = new Random();
+		for(int index = 0; index < MAX_ELEMENTS / 4; index++) {
+			int bit = random.nextInt(MAX_ELEMENTS);
+			ba1.setBit(bit);
+			expected1.set(bit);
+
+			bit = random.nextInt(MAX_ELEMENTS);
+			ba2.setBit(bit);
+			expected2.set(bit);
+		}
+
+		ba1.xor(ba2);
+		expected1.xor(expected2);
+		Assert.assertEquals(expected1, this.setBitsOf(ba1));
+
+		ba1.andNot(ba2);
+		expected1.andNot(expected2);
+		Assert.assertEquals(expected1, this.setBitsOf(ba1));
+		Assert.assertEquals(expected2, this.setBitsOf(ba2));
+
+		ba1.close();
+		ba2.close();
+	}
+
+	@Test
+	public void testNextClearBit() throws Exception {
+		BitArray ba = this.getNewBitArray();
+
+		Assert.assertEquals(0, ba.nextClearBit(0));
+		Assert.assertEquals(100, ba.nextClearBit(100));
+
+		ba.setRange(0, 200);
+		Assert.assertEquals(200, ba.nextClearBit(0));
+		Assert.assertEquals(200, ba.nextClearBit(64));
+		Assert.assertEquals(200, ba.nextClearBit(200));
+
+		ba.clearBit(70);
+		Assert.assertEquals(70, ba.nextClearBit(3));
+		Assert.assertEquals(200, ba.nextClearBit(71));
+
+		ba.close();
+	}
+
+	@Test
+	public void testReadWord() throws Exception {
+		BitArray ba = this.getNewBitArray();
+		BitSet expected = new BitSet();
+
+		Random random = new Random();
+		for(int index = 0; index < MAX_ELEMENTS / 8; index++) {
+			int bit = random.nextInt(MAX_ELEMENTS);
+			ba.setBit(bit);
+			expected.set(bit);
+		}
+
+		Assert.assertTrue(ba.numWords() >= (MAX_ELEMENTS + 63) / 64);
+		for(int word = 0; word < ba.numWords(); word++) {
+			long[] value = expected.get(word * 64, word * 64 + 64).toLongArray();
+			Assert.assertEquals(value.length == 0 ? 0 : value[0], ba.readWord(word));
+		}
+
+		try {
+			ba.readWord(ba.numWords());
+			Assert.assertTrue(false);
+		} catch(IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+
+		ba.close();
+	}
+
+	@Test
+	public void testCombineWithOtherImplementation() throws Exception {
+		BitArray ba = this.getNewBitArray();
+		FastBitArray other = new FastBitArray(MAX_ELEMENTS);
+		BitSet expected = new BitSet();
+		BitSet expectedOther = new BitSet();
+
+		Random random = new Random();
+		for(int index = 0; index < MAX_ELEMENTS / 4; index++) {
+			int bit = random.nextInt(MAX_ELEMENTS);
+			ba.setBit(bit);
+			expected.set(bit);
+
+			bit = random.nextInt(MAX_ELEMENTS);
+			other.setBit(bit);
+			expectedOther.set(bit);
+		}
+
+		ba.or(other);
+		expected.or(expectedOther);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.xor(other);
+		expected.xor(expectedOther);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.or(other);
+		expected.or(expectedOther);
+		ba.andNot(other);
+		expected.andNot(expectedOther);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.setRange(0, MAX_ELEMENTS);
+		expected.set(0, MAX_ELEMENTS);
+		ba.and(other);
+		expected.and(expectedOther);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		// and the other way round
+		other.or(ba);
+		expectedOther.or(expected);
+		Assert.assertEquals(expectedOther, this.setBitsOf(other));
+		Assert.assertEquals(expectedOther.cardinality(), other.bitCount());
+
+		// bits that do not fit this array cannot be combined
+		FastBitArray larger = new FastBitArray(MAX_ELEMENTS + 128);
+		larger.setBit(MAX_ELEMENTS + 100);
+		try {
+			ba.or(larger);
+			Assert.assertTrue(false);
+		} catch(IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		ba.close();
+	}
+
+	/**
+	 * Check that the given array combines with a shorter and a longer array
+	 * of the same kind over the bits they have in common, and refuses bits of
+	 * the longer array that do not fit.
+	 *
+	 * @param ba
+	 *            the array to combine into, holding <code>size</code> bits
+	 *
+	 * @param size
+	 *            the number of bits in the array
+	 *
+	 * @param shorter
+	 *            an array of <code>shorterSize</code> bits
+	 *
+	 * @param shorterSize
+	 *            the number of bits in the shorter array
+	 *
+	 * @param longer
+	 *            an array of at least <code>size + 64</code> bits
+	 */
+	protected void assertCombinesWithDifferentLength(BitArray ba, int size, BitArray shorter, int shorterSize, BitArray longer) throws Exception {
+		Random random = new Random();
+		for(int index = 0; index < size / 8; index++) {
+			ba.setBit(random.nextInt(size));
+			shorter.setBit(random.nextInt(shorterSize));
+			longer.setBit(random.nextInt(size));
+		}
+
+		BitSet expected = this.setBitsOf(ba);
+
+		ba.or(shorter);
+		expected.or(this.setBitsOf(shorter));
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.xor(longer);
+		expected.xor(this.setBitsOf(longer));
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.andNot(longer);
+		expected.andNot(this.setBitsOf(longer));
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.or(longer);
+		expected.or(this.setBitsOf(longer));
+		ba.and(shorter);
+		expected.and(this.setBitsOf(shorter));
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		// bits of the longer array that do not fit cannot be combined
+		longer.setBit(size + 10);
+		try {
+			ba.or(longer);
+			Assert.assertTrue(false);
+		} catch(IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+
+		// but can be combined in an operation that does not need them
+		ba.and(longer);
+
+		ba.close();
+		shorter.close();
+		longer.close();
+	}
+
+	/**
+	 * Collect all set bits of the given array using
+	 * {@link BitArray#forEachSetBit(java.util.function.IntConsumer)}, checking
+	 * that they are visited in ascending order.
+	 *
+	 * @param ba
+	 *            the array to read
+	 *
+	 * @return the set bits
+	 */
+	protected BitSet setBitsOf(BitArray ba) {
+		BitSet bits = new BitSet();
+		int[] previous = { -1 };
+		ba.forEachSetBit(index -> {
+			Assert.assertTrue(index > previous[0]);
+			previous[0] = index;
+			bits.set(index);
+		});
+
+		return bits;
+	}
+
 }
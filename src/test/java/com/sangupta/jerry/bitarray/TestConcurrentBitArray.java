@@ -0,0 +1,87 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * http://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestConcurrentBitArray extends AbstractTestBitArray {
+
+	@Override
+	protected BitArray getNewBitArray() {
+		return new ConcurrentBitArray(MAX_ELEMENTS);
+	}
+
+	@Test
+	public void testSingleWinnerPerBit() throws Exception {
+		final int numThreads = 8;
+		final int numBits = 64 * 1024;
+		final ConcurrentBitArray ba = new ConcurrentBitArray(numBits);
+		final AtomicInteger winners = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+
+		List<Thread> threads = new ArrayList<>();
+		for(int thread = 0; thread < numThreads; thread++) {
+			Thread worker = new Thread(() -> {
+				try {
+					start.await();
+				} catch(InterruptedException e) {
+					return;
+				}
+
+				for(int index = 0; index < numBits; index++) {
+					if(ba.setBitIfUnset(index)) {
+						winners.incrementAndGet();
+					}
+				}
+			});
+
+			threads.add(worker);
+			worker.start();
+		}
+
+		start.countDown();
+		for(Thread worker : threads) {
+			worker.join();
+		}
+
+		Assert.assertEquals(numBits, winners.get());
+		Assert.assertEquals(numBits, ba.bitCount());
+
+		ba.clearBit(10);
+		Assert.assertEquals(numBits - 1, ba.bitCount());
+		ba.clear();
+		Assert.assertEquals(0, ba.bitCount());
+	}
+
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, new ConcurrentBitArray(MAX_ELEMENTS / 2), MAX_ELEMENTS / 2, new FastBitArray(MAX_ELEMENTS + 128));
+	}
+
+}
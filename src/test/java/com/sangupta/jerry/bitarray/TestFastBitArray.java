@@ -22,6 +22,8 @@
 
 package com.sangupta.jerry.bitarray;
 
+import org.junit.Test;
+
 public class TestFastBitArray extends AbstractTestBitArray {
 
 	@Override
@@ -29,4 +31,9 @@ public class TestFastBitArray extends AbstractTestBitArray {
 		return new FastBitArray(MAX_ELEMENTS);
 	}
 
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, new FastBitArray(MAX_ELEMENTS / 2), MAX_ELEMENTS / 2, new FastBitArray(MAX_ELEMENTS + 128));
+	}
+
 }
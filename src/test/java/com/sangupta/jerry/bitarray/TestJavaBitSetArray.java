@@ -22,6 +22,8 @@
 
 package com.sangupta.jerry.bitarray;
 
+import org.junit.Test;
+
 public class TestJavaBitSetArray extends AbstractTestBitArray {
 
 	@Override
@@ -34,4 +36,9 @@ public class TestJavaBitSetArray extends AbstractTestBitArray {
 		return 1024 * 10; // JavaBitSet is too slow
 	}
 
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, new JavaBitSetArray(MAX_ELEMENTS / 2), MAX_ELEMENTS / 2, new JavaBitSetArray(MAX_ELEMENTS + 128));
+	}
+
 }
@@ -0,0 +1,117 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * http://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLargeMMapFileBackedBitArray extends AbstractTestBitArray {
+
+	@Override
+	protected BitArray getNewBitArray() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		// small regions so that the array spans many of them
+		return new LargeMMapFileBackedBitArray(file, MAX_ELEMENTS, 4096);
+	}
+
+	@Test
+	public void testEnsureCapacity() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		LargeMMapFileBackedBitArray ba = new LargeMMapFileBackedBitArray(file, 1000, 64);
+		ba.setBit(999);
+		ba.setBit(3);
+
+		try {
+			ba.setBit(1000);
+			Assert.assertTrue(false);
+		} catch(IndexOutOfBoundsException e) {
+			Assert.assertTrue(true);
+		}
+
+		ba.ensureCapacity(100000);
+		Assert.assertTrue(ba.getBit(999));
+		Assert.assertTrue(ba.getBit(3));
+		Assert.assertFalse(ba.getBit(1000));
+		Assert.assertTrue(ba.setBit(99999));
+		Assert.assertEquals(99999, ba.getHighestBitSet());
+		Assert.assertEquals(3, ba.getLowestBitSet());
+		Assert.assertEquals(999, ba.getNextSetBit(4));
+
+		// both visitors can be called with a lambda on the concrete type
+		final List<Long> indices = new ArrayList<>();
+		ba.forEachSetBitLong(index -> indices.add(index));
+		Assert.assertEquals(Arrays.asList(3L, 999L, 99999L), indices);
+
+		final int[] count = new int[1];
+		ba.forEachSetBit(index -> count[0]++);
+		Assert.assertEquals(3, count[0]);
+
+		ba.sync();
+		ba.close();
+	}
+
+	@Test
+	public void testBeyondIntegerRange() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		long max = (1L << 31) + 1024;
+		LargeMMapFileBackedBitArray ba = new LargeMMapFileBackedBitArray(file, max);
+		long index = max - 1;
+
+		Assert.assertFalse(ba.getBit(index));
+		Assert.assertTrue(ba.setBit(index));
+		Assert.assertTrue(ba.getBit(index));
+		Assert.assertEquals(index, ba.getHighestBitSetAsLong());
+		Assert.assertEquals(index, ba.getNextSetBit(5L));
+		Assert.assertEquals(max, ba.bitSizeAsLong());
+
+		ba.clearBit(index);
+		Assert.assertEquals(-1, ba.getHighestBitSetAsLong());
+
+		ba.close();
+	}
+
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+		LargeMMapFileBackedBitArray shorter = new LargeMMapFileBackedBitArray(file, MAX_ELEMENTS / 2, 4096);
+
+		file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+		LargeMMapFileBackedBitArray longer = new LargeMMapFileBackedBitArray(file, MAX_ELEMENTS + 128, 4096);
+
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, shorter, MAX_ELEMENTS / 2, longer);
+	}
+
+}
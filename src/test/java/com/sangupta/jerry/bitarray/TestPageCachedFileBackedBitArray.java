@@ -0,0 +1,139 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * http://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPageCachedFileBackedBitArray extends AbstractTestBitArray {
+
+	@Override
+	protected BitArray getNewBitArray() throws IOException {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		// small pages and cache to exercise eviction and write-back
+		return new FileBackedBitArray(file, MAX_ELEMENTS, 1024, 8, 4);
+	}
+
+	@Test
+	public void testFlushAndReopen() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		FileBackedBitArray ba = new FileBackedBitArray(file, MAX_ELEMENTS, 4096, 4, 0);
+		for(int index = 0; index < MAX_ELEMENTS; index += 7) {
+			ba.setBit(index);
+		}
+
+		Assert.assertTrue(ba.getDirtyPages() > 0);
+		ba.sync();
+		Assert.assertEquals(0, ba.getDirtyPages());
+		ba.close();
+
+		// read back in synchronous mode
+		ba = new FileBackedBitArray(file, MAX_ELEMENTS);
+		for(int index = 0; index < MAX_ELEMENTS; index++) {
+			Assert.assertEquals(index % 7 == 0, ba.getBit(index));
+		}
+		ba.close();
+	}
+
+	@Test
+	public void testGetNextSetBit() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		File pagedFile = File.createTempFile("test-ba-", ".bin");
+		pagedFile.deleteOnExit();
+
+		// synchronous and page-cached mode
+		FileBackedBitArray[] arrays = { new FileBackedBitArray(file, MAX_ELEMENTS), new FileBackedBitArray(pagedFile, MAX_ELEMENTS, 1024, 8, 0) };
+		for(FileBackedBitArray ba : arrays) {
+			Assert.assertEquals(-1, ba.getNextSetBit(0));
+
+			ba.setBit(3);
+			ba.setBit(5000);
+			ba.setBit(MAX_ELEMENTS - 1);
+
+			Assert.assertEquals(3, ba.getNextSetBit(0));
+			Assert.assertEquals(3, ba.getNextSetBit(3));
+			Assert.assertEquals(5000, ba.getNextSetBit(4));
+			Assert.assertEquals(MAX_ELEMENTS - 1, ba.getNextSetBit(5001));
+			Assert.assertEquals(-1, ba.getNextSetBit(MAX_ELEMENTS));
+			ba.close();
+		}
+	}
+
+	@Test
+	public void testRangeOperationsKeepCachedPages() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		FileBackedBitArray ba = new FileBackedBitArray(file, MAX_ELEMENTS, 1024, 4, 0);
+		ba.setBit(10);
+		Assert.assertEquals(1, ba.getDirtyPages());
+
+		// the cached page is updated in memory, the others on disk
+		ba.setRange(0, 100000);
+		ba.clearRange(20, 30);
+		Assert.assertEquals(1, ba.getDirtyPages());
+
+		FastBitArray other = new FastBitArray(MAX_ELEMENTS);
+		other.setBit(25);
+		other.setBit(99999);
+		ba.xor(other);
+		Assert.assertEquals(1, ba.getDirtyPages());
+
+		for(int index = 0; index < 100010; index++) {
+			boolean expected = index < 100000 && (index < 20 || index >= 30 || index == 25) && index != 99999;
+			Assert.assertEquals(expected, ba.getBit(index));
+		}
+
+		ba.close();
+
+		// all changes reached the disk
+		ba = new FileBackedBitArray(file, MAX_ELEMENTS);
+		Assert.assertTrue(ba.getBit(25));
+		Assert.assertFalse(ba.getBit(99999));
+		Assert.assertEquals(100000 - 10 + 1 - 1, ba.cardinality(0, MAX_ELEMENTS));
+		ba.close();
+	}
+
+	@Test
+	public void testInvalidPageSize() throws Exception {
+		File file = File.createTempFile("test-ba-", ".bin");
+		file.deleteOnExit();
+
+		try {
+			new FileBackedBitArray(file, MAX_ELEMENTS, 1000, 4, 0);
+			Assert.assertTrue(false);
+		} catch(IllegalArgumentException e) {
+			Assert.assertTrue(true);
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * http://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.bitarray;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestRoaringBitArray extends AbstractTestBitArray {
+
+	@Override
+	protected BitArray getNewBitArray() {
+		return new RoaringBitArray(MAX_ELEMENTS);
+	}
+
+	@Test
+	public void testBooleanOperations() {
+		Random random = new Random();
+
+		for(int round = 0; round < 4; round++) {
+			BitSet first = new BitSet();
+			BitSet second = new BitSet();
+			RoaringBitArray ba1 = populate(random, first, round);
+			RoaringBitArray ba2 = populate(random, second, 3 - round);
+
+			BitSet expected = (BitSet) first.clone();
+			expected.or(second);
+			RoaringBitArray result = copy(ba1, first);
+			result.or(ba2);
+			assertSame(expected, result);
+
+			expected = (BitSet) first.clone();
+			expected.and(second);
+			result = copy(ba1, first);
+			result.and(ba2);
+			assertSame(expected, result);
+
+			expected = (BitSet) first.clone();
+			expected.andNot(second);
+			result = copy(ba1, first);
+			result.andNot(ba2);
+			assertSame(expected, result);
+
+			expected = (BitSet) first.clone();
+			expected.xor(second);
+			result = copy(ba1, first);
+			result.xor(ba2);
+			assertSame(expected, result);
+
+			// inputs must not have been modified
+			assertSame(second, ba2);
+		}
+	}
+
+	@Test
+	public void testRunOptimize() {
+		RoaringBitArray ba = new RoaringBitArray(MAX_ELEMENTS);
+		BitSet expected = new BitSet();
+		for(int index = 1000; index < 300000; index++) {
+			ba.setBit(index);
+			expected.set(index);
+		}
+
+		long before = ba.getSizeInBytes();
+		ba.runOptimize();
+		Assert.assertTrue(ba.getSizeInBytes() < before);
+		assertSame(expected, ba);
+
+		// modify after optimization
+		ba.clearBit(2000);
+		expected.clear(2000);
+		ba.setBit(500000);
+		expected.set(500000);
+		assertSame(expected, ba);
+		Assert.assertEquals(1000, ba.getLowestBitSet());
+		Assert.assertEquals(500000, ba.getHighestBitSet());
+		Assert.assertEquals(2001, ba.getNextSetBit(2000));
+	}
+
+	private RoaringBitArray populate(Random random, BitSet reference, int density) {
+		RoaringBitArray ba = new RoaringBitArray(MAX_ELEMENTS);
+
+		// density 0 is sparse, 3 is dense with runs
+		int count = density == 0 ? 1000 : density * 200000;
+		for(int index = 0; index < count; index++) {
+			int bit = random.nextInt(MAX_ELEMENTS);
+			ba.setBit(bit);
+			reference.set(bit);
+		}
+
+		if(density == 3) {
+			for(int index = 70000; index < 140000; index++) {
+				ba.setBit(index);
+				reference.set(index);
+			}
+			ba.runOptimize();
+		}
+
+		return ba;
+	}
+
+	private RoaringBitArray copy(RoaringBitArray source, BitSet reference) {
+		RoaringBitArray copy = new RoaringBitArray(MAX_ELEMENTS);
+		copy.or(source);
+		assertSame(reference, copy);
+		return copy;
+	}
+
+	private void assertSame(BitSet expected, RoaringBitArray actual) {
+		Assert.assertEquals(expected.cardinality(), actual.cardinality());
+
+		PrimitiveIterator.OfInt iterator = actual.iterator();
+		for(int bit = expected.nextSetBit(0); bit >= 0; bit = expected.nextSetBit(bit + 1)) {
+			Assert.assertTrue(iterator.hasNext());
+			Assert.assertEquals(bit, iterator.nextInt());
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, new RoaringBitArray(MAX_ELEMENTS / 2), MAX_ELEMENTS / 2, new RoaringBitArray(MAX_ELEMENTS + 128));
+	}
+
+}
@@ -21,6 +21,11 @@
 
 package com.sangupta.jerry.bitarray;
 
+import java.util.BitSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
 import com.sangupta.jerry.bitarray.SparseBitArray;
 
 /**
@@ -39,5 +44,40 @@ public class TestSparseBitArray extends AbstractTestBitArray {
 	protected BitArray getNewBitArray() throws Exception {
 		return new SparseBitArray(NUM_BUCKETS, BUCKET_SIZE);
 	}
-	
+
+	@Test
+	public void testCombineWithUnalignedBuckets() throws Exception {
+		// buckets that do not hold a whole number of words
+		SparseBitArray ba = new SparseBitArray(10, 1000);
+		FastBitArray other = new FastBitArray(10000);
+		BitSet expected = new BitSet();
+
+		for(int index = 0; index < 10000; index += 7) {
+			other.setBit(index);
+			expected.set(index);
+		}
+
+		ba.setBit(3);
+		ba.or(other);
+		expected.set(3);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		for(int word = 0; word < other.numWords(); word++) {
+			Assert.assertEquals(other.readWord(word) | (word == 0 ? 8 : 0), ba.readWord(word));
+		}
+
+		ba.and(other);
+		expected.clear(3);
+		Assert.assertEquals(expected, this.setBitsOf(ba));
+
+		ba.close();
+		other.close();
+	}
+
+	@Test
+	public void testCombineWithDifferentLength() throws Exception {
+		// buckets of a different shape cannot be combined bucket by bucket
+		this.assertCombinesWithDifferentLength(this.getNewBitArray(), MAX_ELEMENTS, new SparseBitArray(NUM_BUCKETS, BUCKET_SIZE / 2), MAX_ELEMENTS / 2, new SparseBitArray(NUM_BUCKETS + 1, BUCKET_SIZE));
+	}
+
 }
@@ -27,12 +27,11 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Assert;
 import org.junit.Test;
 
-import com.sangupta.jerry.ds.counter.LongCounter;
-
 /**
  * Test cases for {@link LongCounter} class.
  *
@@ -161,9 +160,180 @@ public class TestLongCounter {
 		}
 	}
 
+	@Test
+	public void testConcurrentUpdates() throws InterruptedException {
+		assertConcurrentUpdates(new LongCounter());
+		assertConcurrentUpdates(new LongCounter(true));
+	}
+
+	@Test
+	public void testStriped() {
+		LongCounter counter = new LongCounter(true);
+		Assert.assertTrue(counter.isStriped());
+		Assert.assertFalse(new LongCounter().isStriped());
+
+		Assert.assertEquals(1, counter.increment("test"));
+		Assert.assertEquals(0, counter.decrement("test"));
+		counter.add("test", 10);
+		counter.add("test", -3);
+		Assert.assertEquals(7, counter.get("test"));
+
+		counter.set("test", 100);
+		Assert.assertEquals(100, counter.get("test"));
+		Assert.assertEquals(5, counter.get("other", 5));
+		Assert.assertEquals(Long.valueOf(100), Long.valueOf(counter.asMap().get("test")));
+		Assert.assertEquals(100, counter.remove("test"));
+		Assert.assertEquals(1, counter.numCounters());
+	}
+
+	@Test
+	public void testHandle() throws InterruptedException {
+		for(boolean striped : new boolean[] { false, true }) {
+			final LongCounter counter = new LongCounter(striped);
+			counter.set("test", 10);
+
+			final LongCounter.Handle handle = counter.handle("test");
+			Assert.assertEquals("test", handle.getName());
+			Assert.assertEquals(10, handle.get());
+			Assert.assertEquals(11, handle.increment());
+			Assert.assertEquals(10, handle.decrement());
+			handle.add(5);
+			Assert.assertEquals(15, counter.get("test"));
+
+			counter.increment("test");
+			Assert.assertEquals(16, handle.get());
+
+			handle.set(3);
+			Assert.assertEquals(3, counter.get("test"));
+
+			// new counters start at zero
+			Assert.assertEquals(0, counter.handle("new").get());
+			Assert.assertEquals(2, counter.numCounters());
+
+			// updates from many threads are not lost
+			Thread[] workers = new Thread[4];
+			for(int index = 0; index < workers.length; index++) {
+				workers[index] = new Thread(() -> {
+					for(int update = 0; update < 10000; update++) {
+						handle.increment();
+					}
+				});
+				workers[index].start();
+			}
+
+			for(Thread worker : workers) {
+				worker.join();
+			}
+
+			Assert.assertEquals(40003, counter.get("test"));
+
+			// a removed counter detaches the handle
+			counter.remove("test");
+			handle.increment();
+			Assert.assertEquals(0, counter.get("test"));
+		}
+
+		try {
+			new LongCounter().handle("");
+			Assert.fail("Empty name should not be allowed");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static void assertConcurrentUpdates(final LongCounter counter) throws InterruptedException {
+		final int threads = 8;
+		final int updates = 20000;
+
+		final CountDownLatch start = new CountDownLatch(1);
+		Thread[] workers = new Thread[threads];
+		for(int index = 0; index < threads; index++) {
+			workers[index] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+
+				for(int update = 0; update < updates; update++) {
+					counter.increment("requests");
+					counter.add("bytes", 2);
+					counter.decrement("inflight");
+				}
+			});
+			workers[index].start();
+		}
+
+		start.countDown();
+		for(Thread worker : workers) {
+			worker.join();
+		}
+
+		Assert.assertEquals(threads * updates, counter.get("requests"));
+		Assert.assertEquals(2 * threads * updates, counter.get("bytes"));
+		Assert.assertEquals(-threads * updates, counter.get("inflight"));
+	}
+
 	private int getRandomValue() {
 		Random random = new Random();
 		return random.nextInt(10000) + 1000 * 1000;
 	}
 
+	@Test
+	public void testForEachAndDrain() throws InterruptedException {
+		for(boolean striped : new boolean[] { false, true }) {
+			final LongCounter counter = new LongCounter(striped);
+			counter.set("a", 1);
+			counter.set("b", 2);
+			counter.get("c");
+
+			final Map<String, Long> visited = new HashMap<>();
+			counter.forEach((name, value) -> visited.put(name, value));
+			Assert.assertEquals(counter.asMap(), visited);
+
+			// zero counters are skipped, and all are reset
+			visited.clear();
+			counter.drain((name, value) -> visited.put(name, value));
+			Assert.assertEquals(2, visited.size());
+			Assert.assertEquals(Long.valueOf(1), visited.get("a"));
+			Assert.assertEquals(Long.valueOf(2), visited.get("b"));
+			Assert.assertEquals(0, counter.get("a"));
+			Assert.assertEquals(3, counter.numCounters());
+
+			counter.add("a", 5);
+			Assert.assertEquals(5, counter.drain("a"));
+			Assert.assertEquals(0, counter.drain("a"));
+			Assert.assertEquals(0, counter.drain("missing"));
+
+			LongCounter.Handle handle = counter.handle("b");
+			handle.add(7);
+			Assert.assertEquals(7, handle.drain());
+			Assert.assertEquals(0, handle.get());
+
+			// each update is drained exactly once
+			Thread[] workers = new Thread[4];
+			for(int index = 0; index < workers.length; index++) {
+				workers[index] = new Thread(() -> {
+					for(int update = 0; update < 10000; update++) {
+						counter.add("test", 1);
+					}
+				});
+				workers[index].start();
+			}
+
+			final long[] drained = new long[1];
+			boolean running = true;
+			while(running) {
+				running = false;
+				for(Thread worker : workers) {
+					running |= worker.isAlive();
+				}
+
+				counter.drain((name, value) -> drained[0] += value);
+			}
+
+			Assert.assertEquals(40000, drained[0]);
+		}
+	}
+
 }
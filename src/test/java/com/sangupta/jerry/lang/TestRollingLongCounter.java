@@ -0,0 +1,198 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * http://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.lang;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link RollingLongCounter} class.
+ *
+ * @author sangupta
+ *
+ */
+public class TestRollingLongCounter {
+
+	private final AtomicLong clock = new AtomicLong(1000);
+
+	private void advance(long seconds) {
+		this.clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+	}
+
+	@Test
+	public void testWindow() {
+		RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.SECONDS, 10, this.clock::get);
+
+		Assert.assertEquals(0, counter.getCount("test"));
+		Assert.assertEquals(0, counter.numCounters());
+
+		for(int second = 0; second < 10; second++) {
+			counter.add("test", 10);
+			Assert.assertEquals((second + 1) * 10, counter.getCount("test"));
+			advance(1);
+		}
+
+		// the first bucket has dropped out, and the current one is empty
+		Assert.assertEquals(90, counter.getCount("test"));
+		Assert.assertEquals(20, counter.getCount("test", 3, TimeUnit.SECONDS));
+		Assert.assertEquals(0, counter.getCount("test", 1, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(90, counter.getCount("test", 1, TimeUnit.HOURS));
+
+		counter.increment("test");
+		Assert.assertEquals(91, counter.getCount("test"));
+
+		advance(5);
+		Assert.assertEquals(41, counter.getCount("test"));
+
+		// a full window later the ring reuses stale buckets
+		advance(10);
+		Assert.assertEquals(0, counter.getCount("test"));
+		counter.add("test", 7);
+		Assert.assertEquals(7, counter.getCount("test"));
+
+		Assert.assertEquals(7, counter.remove("test"));
+		Assert.assertEquals(0, counter.numCounters());
+	}
+
+	@Test
+	public void testRate() {
+		RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.SECONDS, 60, this.clock::get);
+		Assert.assertEquals(0, counter.getRate("test", TimeUnit.SECONDS), 0);
+
+		// 100 per second for two minutes
+		for(int second = 0; second < 120; second++) {
+			counter.add("test", 100);
+			advance(1);
+		}
+
+		// half way into the current bucket
+		this.clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+		counter.add("test", 50);
+
+		Assert.assertEquals(100, counter.getRate("test", TimeUnit.SECONDS), 0.001);
+		Assert.assertEquals(6000, counter.getRate("test", TimeUnit.MINUTES), 0.1);
+		Assert.assertEquals(360000, counter.getRate("test", TimeUnit.HOURS), 1);
+	}
+
+	@Test
+	public void testTopN() {
+		RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.SECONDS, 10, this.clock::get);
+		counter.add("a", 5);
+		counter.add("b", 50);
+		counter.add("c", 20);
+		counter.add("d", 1);
+
+		List<Map.Entry<String, Long>> top = counter.topN(2);
+		Assert.assertEquals(2, top.size());
+		Assert.assertEquals("b", top.get(0).getKey());
+		Assert.assertEquals(50, top.get(0).getValue().longValue());
+		Assert.assertEquals("c", top.get(1).getKey());
+
+		Assert.assertEquals(4, counter.topN(10).size());
+
+		advance(10);
+		counter.increment("d");
+		top = counter.topN(10);
+		Assert.assertEquals(1, top.size());
+		Assert.assertEquals("d", top.get(0).getKey());
+	}
+
+	@Test
+	public void testSaturation() {
+		RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.SECONDS, 10, this.clock::get);
+		counter.add("test", Long.MAX_VALUE);
+		Assert.assertEquals(0xFFFFFFFFL, counter.getCount("test"));
+
+		counter.add("test", 1);
+		Assert.assertEquals(0xFFFFFFFFL, counter.getCount("test"));
+
+		// the bucket keeps its time, and expires as usual
+		advance(10);
+		Assert.assertEquals(0, counter.getCount("test"));
+	}
+
+	@Test
+	public void testConcurrentUpdates() throws InterruptedException {
+		final RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.MINUTES, 10);
+		Thread[] threads = new Thread[8];
+		for(int index = 0; index < threads.length; index++) {
+			threads[index] = new Thread(() -> {
+				for(int count = 0; count < 10000; count++) {
+					counter.increment("test");
+				}
+			});
+			threads[index].start();
+		}
+
+		for(Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(80000, counter.getCount("test"));
+	}
+
+	@Test
+	public void testExceptions() {
+		try {
+			new RollingLongCounter(0, TimeUnit.SECONDS, 10);
+			Assert.fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			new RollingLongCounter(1, TimeUnit.SECONDS, 0);
+			Assert.fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		RollingLongCounter counter = new RollingLongCounter(1, TimeUnit.SECONDS, 10);
+		try {
+			counter.increment(null);
+			Assert.fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			counter.add("test", -1);
+			Assert.fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			counter.topN(0);
+			Assert.fail();
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+}
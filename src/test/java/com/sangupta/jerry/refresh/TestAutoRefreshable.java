@@ -1,5 +1,11 @@
 package com.sangupta.jerry.refresh;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -48,4 +54,137 @@ public class TestAutoRefreshable {
 		}
 
 	}
+
+	/**
+	 * Create a single-flight value that counts its refreshes, and blocks all
+	 * but the first until the given latch is released.
+	 */
+	private static AutoRefreshable<Integer> blockingValue(final AtomicInteger refreshes, final CountDownLatch entered, final CountDownLatch release) {
+		return new AutoRefreshable<Integer>(100, true) {
+
+			@Override
+			public Integer refresh() {
+				int count = refreshes.incrementAndGet();
+				if(count > 1) {
+					entered.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				return count;
+			}
+
+		};
+	}
+
+	@Test
+	public void testSingleFlight() throws InterruptedException {
+		final AtomicInteger refreshes = new AtomicInteger();
+		final CountDownLatch entered = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AutoRefreshable<Integer> ar = blockingValue(refreshes, entered, release);
+
+		Assert.assertEquals(1, ar.get().intValue());
+		Thread.sleep(150);
+
+		final AtomicInteger refreshed = new AtomicInteger();
+		Thread refresher = new Thread(() -> refreshed.set(ar.get()));
+		refresher.start();
+		Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+		Assert.assertTrue(ar.isRefreshing());
+
+		// other callers read the stale value without refreshing
+		for(int index = 0; index < 10; index++) {
+			Assert.assertEquals(1, ar.get().intValue());
+		}
+
+		Assert.assertEquals(2, refreshes.get());
+
+		release.countDown();
+		refresher.join();
+		Assert.assertEquals(2, refreshed.get());
+		Assert.assertEquals(2, ar.get().intValue());
+		Assert.assertFalse(ar.isRefreshing());
+	}
+
+	@Test
+	public void testRefreshAhead() throws InterruptedException {
+		final AtomicInteger refreshes = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			final AutoRefreshable<Integer> ar = new AutoRefreshable<Integer>(5000, 4800, executor) {
+
+				@Override
+				public Integer refresh() {
+					int count = refreshes.incrementAndGet();
+					if(count > 1) {
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+
+					return count;
+				}
+
+			};
+
+			// the first load happens in the caller
+			Assert.assertEquals(1, ar.get().intValue());
+			Assert.assertFalse(ar.isRefreshing());
+
+			// within refresh ahead time, readers get the current value
+			Thread.sleep(250);
+			Assert.assertEquals(1, ar.get().intValue());
+			Assert.assertTrue(ar.isRefreshing());
+			Assert.assertEquals(1, ar.get().intValue());
+
+			// wait on the held value directly, as a get() may start the next
+			// refresh-ahead once the new value is in place
+			release.countDown();
+			long deadline = System.currentTimeMillis() + 5000;
+			while((ar.value.intValue() != 2 || ar.isRefreshing()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+
+			Assert.assertEquals(2, refreshes.get());
+			Assert.assertEquals(2, ar.get().intValue());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		try {
+			new AutoRefreshable<Integer>(100, 100, executor) {
+
+				@Override
+				public Integer refresh() {
+					return 0;
+				}
+
+			};
+			Assert.fail("Refresh ahead time must be less than cache time");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+
+		try {
+			new AutoRefreshable<Integer>(100, 50, null) {
+
+				@Override
+				public Integer refresh() {
+					return 0;
+				}
+
+			};
+			Assert.fail("Executor cannot be null");
+		} catch(IllegalArgumentException e) {
+			// expected
+		}
+	}
+
 }
@@ -0,0 +1,129 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.unsafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DirectUnsafeMemory}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestDirectUnsafeMemory {
+
+	@Test
+	public void testPrimitives() throws IOException {
+		try(DirectUnsafeMemory memory = new DirectUnsafeMemory(16)) {
+			Assert.assertFalse(memory.hasBuffer());
+
+			TestUnsafeMemory.writePrimitives(memory);
+			Assert.assertTrue(memory.getCapacity() >= memory.getPosition());
+
+			memory.reset();
+			TestUnsafeMemory.readPrimitives(memory);
+		}
+	}
+
+	@Test
+	public void testGrowth() throws IOException {
+		try(DirectUnsafeMemory memory = new DirectUnsafeMemory(8)) {
+			final int count = 100_000;
+			for(int index = 0; index < count; index++) {
+				memory.putLong(index);
+			}
+
+			Assert.assertEquals(count * 8, memory.getPosition());
+			Assert.assertTrue(memory.getCapacity() < count * 8 * 2);
+
+			memory.reset();
+			for(int index = 0; index < count; index++) {
+				Assert.assertEquals(index, memory.getLong());
+			}
+
+			// reading beyond the capacity fails
+			memory.reset();
+			memory.putInt(count * 2);
+			memory.reset();
+			try {
+				memory.getLongArray();
+				Assert.fail("Read beyond capacity should fail");
+			} catch(IndexOutOfBoundsException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		DirectUnsafeMemory memory = new DirectUnsafeMemory();
+		memory.putInt(1);
+		memory.close();
+
+		// closing again is a no-op
+		memory.close();
+
+		try {
+			memory.putInt(2);
+			Assert.fail("Write after close should fail");
+		} catch(IllegalStateException e) {
+			// expected
+		}
+
+		memory.reset();
+		try {
+			memory.getInt();
+			Assert.fail("Read after close should fail");
+		} catch(IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new DirectUnsafeMemory(0);
+	}
+
+	@Test
+	public void testWriteToFile() throws IOException {
+		File file = File.createTempFile("jerry-unsafe-", ".bin");
+		try(DirectUnsafeMemory memory = new DirectUnsafeMemory(4)) {
+			for(int index = 0; index < 300_000; index++) {
+				memory.putInt(index);
+			}
+
+			UnsafeMemoryUtils.writeToFile(memory, file);
+
+			byte[] bytes = Files.readAllBytes(file.toPath());
+			Assert.assertArrayEquals(memory.toByteArray(), bytes);
+		} finally {
+			file.delete();
+		}
+	}
+
+}
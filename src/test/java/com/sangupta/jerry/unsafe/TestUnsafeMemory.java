@@ -0,0 +1,212 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.unsafe;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link UnsafeMemory}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestUnsafeMemory {
+
+	@Test
+	public void testPrimitives() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[4096]);
+		writePrimitives(memory);
+
+		memory.reset();
+		readPrimitives(memory);
+	}
+
+	@Test
+	public void testWriteBoundsChecked() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[12]);
+		memory.putLong(1l);
+		memory.putInt(2);
+
+		try {
+			memory.putByte((byte) 3);
+			Assert.fail("Write beyond buffer should fail");
+		} catch(IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		// nothing was written and position did not move
+		Assert.assertEquals(12, memory.getPosition());
+
+		memory.reset();
+		memory.putInt(1);
+		try {
+			memory.putLongArray(new long[] { 1, 2 });
+			Assert.fail("Write beyond buffer should fail");
+		} catch(IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		Assert.assertEquals(4, memory.getPosition());
+	}
+
+	@Test
+	public void testReadBoundsChecked() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[6]);
+		memory.getInt();
+
+		try {
+			memory.getInt();
+			Assert.fail("Read beyond buffer should fail");
+		} catch(IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testToByteArray() {
+		byte[] buffer = new byte[16];
+		UnsafeMemory memory = new UnsafeMemory(buffer);
+		Assert.assertTrue(memory.hasBuffer());
+		Assert.assertSame(buffer, memory.getBuffer());
+
+		memory.putByte((byte) 1);
+		memory.putByte((byte) 2);
+		Assert.assertArrayEquals(new byte[] { 1, 2 }, memory.toByteArray());
+	}
+
+	@Test
+	public void testStringUTF8() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[4096]);
+		for(String value : STRINGS) {
+			memory.putStringUTF8(value);
+		}
+
+		memory.reset();
+		for(String value : STRINGS) {
+			Assert.assertEquals(value, memory.getStringUTF8());
+		}
+	}
+
+	@Test
+	public void testStringUTF8Length() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[16]);
+		memory.putStringUTF8("abc");
+		Assert.assertEquals(4, memory.getPosition());
+
+		memory.reset();
+		memory.putStringUTF8("\u00e9\u20ac\ud83d\ude00");
+		Assert.assertEquals(1 + 2 + 3 + 4, memory.getPosition());
+
+		// does not fit, nothing written
+		memory.reset();
+		try {
+			memory.putStringUTF8("0123456789abcdef");
+			Assert.fail("Write beyond buffer should fail");
+		} catch(IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		Assert.assertEquals(0, memory.getPosition());
+	}
+
+	@Test
+	public void testLatin1String() {
+		UnsafeMemory memory = new UnsafeMemory(new byte[64]);
+		memory.putString("caf\u00e9");
+		memory.putString("next");
+		Assert.assertEquals(4 + 4 + 4 + 4, memory.getPosition());
+
+		memory.reset();
+		Assert.assertEquals("caf\u00e9", memory.getString());
+		Assert.assertEquals("next", memory.getString());
+	}
+
+	@Test
+	public void testVarInt() {
+		int[] ints = { 0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+		long[] longs = { 0, 1, 127, 128, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+
+		UnsafeMemory memory = new UnsafeMemory(new byte[256]);
+		for(int value : ints) {
+			memory.putVarInt(value);
+		}
+		for(long value : longs) {
+			memory.putVarLong(value);
+		}
+
+		memory.reset();
+		for(int value : ints) {
+			Assert.assertEquals(value, memory.getVarInt());
+		}
+		for(long value : longs) {
+			Assert.assertEquals(value, memory.getVarLong());
+		}
+
+		memory.reset();
+		memory.putVarInt(127);
+		Assert.assertEquals(1, memory.getPosition());
+		memory.putVarInt(128);
+		Assert.assertEquals(3, memory.getPosition());
+	}
+
+	static final String[] STRINGS = {
+		null,
+		"",
+		"hello world",
+		"caf\u00e9 cr\u00e8me br\u00fbl\u00e9e",
+		"\u0928\u092e\u0938\u094d\u0924\u0947 \u0926\u0941\u0928\u093f\u092f\u093e",
+		"\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8",
+		"emoji \ud83d\ude00 and \ud83c\udf89",
+		"x".repeat(1000)
+	};
+
+	static void writePrimitives(UnsafeMemory memory) {
+		memory.putBoolean(true);
+		memory.putByte((byte) 7);
+		memory.putShort((short) -300);
+		memory.putInt(123456789);
+		memory.putLong(-1234567890123l);
+		memory.putString("hello");
+		memory.putLongArray(new long[] { 1, Long.MIN_VALUE, Long.MAX_VALUE });
+		memory.putDoubleArray(new double[] { 1.5d, -2.25d });
+		for(String value : STRINGS) {
+			memory.putStringUTF8(value);
+		}
+	}
+
+	static void readPrimitives(UnsafeMemory memory) {
+		Assert.assertTrue(memory.getBoolean());
+		Assert.assertEquals((byte) 7, memory.getByte());
+		Assert.assertEquals((short) -300, memory.getShort());
+		Assert.assertEquals(123456789, memory.getInt());
+		Assert.assertEquals(-1234567890123l, memory.getLong());
+		Assert.assertEquals("hello", memory.getString());
+		Assert.assertArrayEquals(new long[] { 1, Long.MIN_VALUE, Long.MAX_VALUE }, memory.getLongArray());
+		Assert.assertArrayEquals(new double[] { 1.5d, -2.25d }, memory.getDoubleArray(), 0d);
+		for(String value : STRINGS) {
+			Assert.assertEquals(value, memory.getStringUTF8());
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ *
+ * jerry - Common Java Functionality
+ * Copyright (c) 2012-present, Sandeep Gupta
+ *
+ * https://sangupta.com/projects/jerry-core
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.sangupta.jerry.unsafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link UnsafeMemoryUtils}.
+ *
+ * @author sangupta
+ *
+ */
+public class TestUnsafeMemoryUtils {
+
+	@Test
+	public void testSnapshot() throws IOException {
+		File folder = Files.createTempDirectory("jerry-snapshot-").toFile();
+		File file = new File(folder, "cache.snapshot");
+		try {
+			Catalogue catalogue = new Catalogue(10_000);
+			UnsafeMemoryUtils.writeSnapshot(catalogue, file);
+			Assert.assertEquals(1, folder.list().length);
+
+			Catalogue read = new Catalogue(0);
+			UnsafeMemoryUtils.readSnapshot(read, file);
+			Assert.assertArrayEquals(catalogue.ids, read.ids);
+			Assert.assertArrayEquals(catalogue.names, read.names);
+
+			// overwrite the existing snapshot
+			UnsafeMemoryUtils.writeSnapshot(new Catalogue(5), file);
+			Assert.assertEquals(1, folder.list().length);
+
+			UnsafeMemoryUtils.readSnapshot(read, file);
+			Assert.assertEquals(5, read.ids.length);
+		} finally {
+			file.delete();
+			folder.delete();
+		}
+	}
+
+	@Test
+	public void testMappedSnapshot() throws IOException {
+		File file = File.createTempFile("jerry-snapshot-", ".snapshot");
+		try {
+			UnsafeMemory memory = new UnsafeMemory(new byte[64]);
+			memory.putLong(42l);
+			memory.putStringUTF8("mapped");
+			UnsafeMemoryUtils.writeSnapshot(memory, file);
+
+			Assert.assertEquals(UnsafeMemoryUtils.SNAPSHOT_HEADER_SIZE + memory.getPosition(), file.length());
+
+			try(MappedUnsafeMemory mapped = UnsafeMemoryUtils.readSnapshot(file, false)) {
+				Assert.assertTrue(mapped.isReadOnly());
+				Assert.assertEquals(memory.getPosition(), mapped.getCapacity());
+				Assert.assertEquals(42l, mapped.getLong());
+				Assert.assertEquals("mapped", mapped.getStringUTF8());
+
+				try {
+					mapped.putLong(1l);
+					Assert.fail("Write to read-only mapping should fail");
+				} catch(ReadOnlyBufferException e) {
+					// expected
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testCorruptSnapshot() throws IOException {
+		File file = File.createTempFile("jerry-snapshot-", ".snapshot");
+		try {
+			UnsafeMemoryUtils.writeSnapshot(new Catalogue(100), file);
+
+			try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.seek(UnsafeMemoryUtils.SNAPSHOT_HEADER_SIZE + 10);
+				int value = raf.read();
+				raf.seek(UnsafeMemoryUtils.SNAPSHOT_HEADER_SIZE + 10);
+				raf.write(value ^ 0xFF);
+			}
+
+			try {
+				UnsafeMemoryUtils.readSnapshot(new Catalogue(0), file);
+				Assert.fail("Corrupt snapshot should not be read");
+			} catch(IOException e) {
+				// expected
+			}
+
+			// truncated file
+			try(RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				raf.setLength(file.length() - 1);
+			}
+
+			try {
+				UnsafeMemoryUtils.readSnapshot(file, false);
+				Assert.fail("Truncated snapshot should not be read");
+			} catch(IOException e) {
+				// expected
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static class Catalogue implements UnsafePersistable {
+
+		long[] ids;
+
+		String[] names;
+
+		Catalogue(int size) {
+			this.ids = new long[size];
+			this.names = new String[size];
+			for(int index = 0; index < size; index++) {
+				this.ids[index] = index * 31l;
+				this.names[index] = "item-\u00e9\u4e00-" + index;
+			}
+		}
+
+		@Override
+		public UnsafeMemory writeUnsafe() {
+			DirectUnsafeMemory memory = new DirectUnsafeMemory();
+			this.writeUnsafe(memory);
+			return memory;
+		}
+
+		@Override
+		public void writeUnsafe(UnsafeMemory memory) {
+			memory.putLongArray(this.ids);
+			memory.putVarInt(this.names.length);
+			for(String name : this.names) {
+				memory.putStringUTF8(name);
+			}
+		}
+
+		@Override
+		public void readUnsafe(UnsafeMemory memory) {
+			this.ids = memory.getLongArray();
+			this.names = new String[memory.getVarInt()];
+			for(int index = 0; index < this.names.length; index++) {
+				this.names[index] = memory.getStringUTF8();
+			}
+		}
+
+	}
+
+}